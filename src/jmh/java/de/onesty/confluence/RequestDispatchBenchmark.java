@@ -0,0 +1,165 @@
+package de.onesty.confluence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.onesty.confluence.auth.BasicAuth;
+import de.onesty.confluence.content.Content;
+import de.onesty.confluence.content.expand.ExpandedContentProperties;
+import de.onesty.confluence.errors.ConfluenceRequestException;
+import de.onesty.confluence.requests.GetContentRequest;
+import de.onesty.confluence.requests.GetContentResponse;
+import de.onesty.confluence.transport.ConfluenceTransport;
+import de.onesty.confluence.transport.TransportRequest;
+import de.onesty.confluence.transport.TransportResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.core.MediaType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>This benchmark compares the dispatch of a {@link GetContentRequest} built for every call with
+ * the dispatch of a {@link PreparedGetContentRequest} that only binds the start position and title.
+ * </p>
+ * <p>The requests are answered by an in-memory transport with a page of results that was
+ * deserialized once, so neither I/O nor JSON processing is measured: the time and the {@code
+ * gc.alloc.rate.norm} of the {@code gc} profiler, which the {@code benchmark} profile enables by
+ * default, are those of building the request, resolving its headers and reading the response in
+ * the client. The savings of the transports' own {@code prepare} implementations come on top of
+ * this and are not measured here.</p>
+ * <pre>mvn -P benchmark test-compile exec:exec -Djmh.args="RequestDispatchBenchmark -prof gc"</pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestDispatchBenchmark {
+
+  private static final String EMPTY_PAGE = "{\"results\":[],\"start\":0,\"limit\":50,\"size\":0}";
+
+  private InMemoryTransport transport;
+  private ConfluenceClient client;
+  private ExpandedContentProperties expandedProperties;
+  private PreparedGetContentRequest prepared;
+  private int start;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    transport = new InMemoryTransport(
+        new ObjectMapper().readValue(EMPTY_PAGE, GetContentResponse.class));
+    client = new ConfluenceClient(transport, new BasicAuth("user", "token"));
+
+    expandedProperties = new ExpandedContentProperties.Builder()
+        .addVersion()
+        .addSpace()
+        .addAncestors()
+        .build();
+    prepared = client.prepare(new GetContentRequest.Builder()
+        .setSpaceKey("SAMPLE")
+        .setLimit(50)
+        .setExpandedProperties(expandedProperties)
+        .build());
+  }
+
+  @Benchmark
+  public List<Content> buildRequestPerCall() throws ConfluenceRequestException {
+    return client.getContent(new GetContentRequest.Builder()
+        .setSpaceKey("SAMPLE")
+        .setLimit(50)
+        .setExpandedProperties(expandedProperties)
+        .setStartPosition(++start)
+        .setTitle("Sample Page")
+        .build());
+  }
+
+  @Benchmark
+  public List<Content> preparedRequest() throws ConfluenceRequestException {
+    return prepared.getContent(++start, "Sample Page");
+  }
+
+  /**
+   * This class answers every request with the same page of results. It keeps the last request, so
+   * that building it cannot be eliminated.
+   */
+  static final class InMemoryTransport implements ConfluenceTransport {
+
+    private final InMemoryResponse response;
+    TransportRequest lastRequest;
+
+    InMemoryTransport(Object entity) {
+      this.response = new InMemoryResponse(entity);
+    }
+
+    @Override
+    public TransportResponse send(TransportRequest request) {
+      lastRequest = request;
+      return response;
+    }
+
+    @Override
+    public CompletableFuture<TransportResponse> sendAsync(TransportRequest request) {
+      return CompletableFuture.completedFuture(send(request));
+    }
+  }
+
+  /**
+   * This class is a successful response with an entity that was deserialized in advance.
+   */
+  static final class InMemoryResponse implements TransportResponse {
+
+    private final Object entity;
+
+    InMemoryResponse(Object entity) {
+      this.entity = entity;
+    }
+
+    @Override
+    public int getStatus() {
+      return 200;
+    }
+
+    @Override
+    public String getReasonPhrase() {
+      return "OK";
+    }
+
+    @Override
+    public MediaType getMediaType() {
+      return MediaType.APPLICATION_JSON_TYPE;
+    }
+
+    @Override
+    public String getHeader(String name) {
+      return null;
+    }
+
+    @Override
+    public <T> T readEntity(Class<T> type) {
+      return type.cast(entity);
+    }
+
+    @Override
+    public InputStream getEntityStream() {
+      return new ByteArrayInputStream(EMPTY_PAGE.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
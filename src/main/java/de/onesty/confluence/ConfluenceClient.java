@@ -1,41 +1,120 @@
 package de.onesty.confluence;
 
 import de.onesty.confluence.auth.AuthMethod;
+import de.onesty.confluence.cache.ContentCache;
+import de.onesty.confluence.cache.ValidatorCache;
+import de.onesty.confluence.concurrent.SingleFlight;
 import de.onesty.confluence.content.Content;
+import de.onesty.confluence.content.expand.ExpandedContentProperties;
 import de.onesty.confluence.errors.ConfluenceRequestException;
 import de.onesty.confluence.errors.ErrorResponse;
 import de.onesty.confluence.requests.AddAttachmentsRequest;
+import de.onesty.confluence.requests.AddAttachmentsResult;
 import de.onesty.confluence.requests.ConfluenceFileRequest;
 import de.onesty.confluence.requests.ConfluenceRequest;
+import de.onesty.confluence.requests.CqlQueries;
 import de.onesty.confluence.requests.CreateContentRequest;
 import de.onesty.confluence.requests.DeleteAttachmentsRequest;
+import de.onesty.confluence.requests.DownloadAttachmentRequest;
 import de.onesty.confluence.requests.GetAttachmentsRequest;
 import de.onesty.confluence.requests.GetAttachmentsResponse;
+import de.onesty.confluence.requests.GetChildPagesRequest;
+import de.onesty.confluence.requests.GetContentByIdRequest;
 import de.onesty.confluence.requests.GetContentRequest;
 import de.onesty.confluence.requests.GetContentResponse;
+import de.onesty.confluence.requests.SearchContentRequest;
+import de.onesty.confluence.requests.SearchContentResponse;
 import de.onesty.confluence.requests.UpdateContentRequest;
+import de.onesty.confluence.resilience.AdaptiveConcurrencyLimiter;
+import de.onesty.confluence.resilience.CircuitBreakerConfig;
+import de.onesty.confluence.resilience.CircuitBreakerTransport;
+import de.onesty.confluence.resilience.HedgingPolicy;
+import de.onesty.confluence.resilience.HedgingTransport;
+import de.onesty.confluence.resilience.ConcurrencyLimitedTransport;
+import de.onesty.confluence.resilience.RetryAfter;
+import de.onesty.confluence.resilience.RetryPolicy;
+import de.onesty.confluence.resilience.RetryingTransport;
 
+import de.onesty.confluence.paging.ContentPageIterator;
+import de.onesty.confluence.paging.ContentRangeSpliterator;
+import de.onesty.confluence.paging.SearchResultsIterator;
+import de.onesty.confluence.streaming.AttachmentDownload;
+import de.onesty.confluence.streaming.AttachmentDownloader;
+import de.onesty.confluence.streaming.ContentResultsIterator;
+import de.onesty.confluence.streaming.SpaceExporter;
+import de.onesty.confluence.transport.ConfluenceTransport;
+import de.onesty.confluence.transport.ConnectionPool;
+import de.onesty.confluence.transport.ConnectionPoolStats;
+import de.onesty.confluence.transport.JerseyTransport;
+import de.onesty.confluence.transport.TransportRequest;
+import de.onesty.confluence.transport.TransportResponse;
+import de.onesty.confluence.transport.UploadSource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-import javax.ws.rs.client.Entity;
-import javax.ws.rs.client.Invocation;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.MediaType;
-import javax.ws.rs.core.Response;
 
-import org.glassfish.jersey.media.multipart.FormDataMultiPart;
-import org.glassfish.jersey.media.multipart.file.FileDataBodyPart;
+import org.apache.http.config.ConnectionConfig;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
+import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.jackson.JacksonFeature;
+import org.glassfish.jersey.media.multipart.MultiPartFeature;
 
 /**
  * This class sends requests to a Confluence Cloud server.
  */
-public class ConfluenceClient {
+public class ConfluenceClient implements AutoCloseable {
+
+    private static final int DEFAULT_MAX_CONCURRENT_PAGE_REQUESTS = 4;
+    // Bulk lookups pack this many keys into one search, and keep its query below this length
+    private static final int MAX_KEYS_PER_SEARCH = 100;
+    private static final int MAX_SEARCH_QUERY_LENGTH = 4000;
+    private static final long DEFAULT_MAX_ATTACHMENT_BATCH_BYTES = 64L * 1024 * 1024;
+    private static final int RANGE_NOT_SATISFIABLE = 416;
 
     private AuthMethod authMethod;
-    private WebTarget wikiTarget;
+    private ConfluenceTransport transport;
+    private Executor asyncExecutor;
+
+    // Resources owned by clients created through the Builder
+    private Client ownedClient;
+    private ConnectionPool connectionPool;
+    // Identical GET requests that are in flight at the same time, if coalescing is enabled
+    private SingleFlight<ConfluenceRequest, Object> inFlightRequests;
+    private ContentCache contentCache;
+    private ValidatorCache validatorCache;
 
     /**
      * <p>This constructor creates a client that can send requests to the Confluence Cloud server
@@ -47,7 +126,7 @@ public class ConfluenceClient {
      *         The resource target pointing to the location of the Confluence Cloud server.
      */
     public ConfluenceClient(WebTarget wikiTarget) {
-        this.wikiTarget = wikiTarget;
+        this.transport = new JerseyTransport(wikiTarget);
     }
 
     /**
@@ -67,6 +146,80 @@ public class ConfluenceClient {
         this.authMethod = authMethod;
     }
 
+    /**
+     * <p>This constructor creates a client that can send requests to the Confluence Cloud server
+     * located at the given target, and that processes the responses of asynchronous requests on the
+     * given {@link Executor}.</p>
+     * <p>The HTTP exchange of an asynchronous request is performed by the executor service
+     * registered with the JAX-RS client of the given target (see {@code
+     * ClientBuilder#executorService}). The given executor is used to check the status of the
+     * response and to deserialize its entity, so that callers can keep this work off the I/O
+     * threads.</p>
+     *
+     * @param wikiTarget
+     *         The resource target pointing to the location of the Confluence Cloud server.
+     * @param authMethod
+     *         The authorization method to use for all requests generated by this client, or
+     *         {@code null} to send unauthenticated requests.
+     * @param asyncExecutor
+     *         The executor used to complete asynchronous requests.
+     */
+    public ConfluenceClient(WebTarget wikiTarget, AuthMethod authMethod, Executor asyncExecutor) {
+        this(wikiTarget, authMethod);
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    /**
+     * <p>This constructor creates a client that sends its requests through the given {@link
+     * ConfluenceTransport}.</p>
+     * <p>The requests generated by a client created through this constructor will use the
+     * credentials defined by the given {@link AuthMethod}, and are therefore subject to the
+     * permissions given to the user that corresponds to these credentials.</p>
+     *
+     * @param transport
+     *         The transport used to exchange requests with the Confluence Cloud server.
+     * @param authMethod
+     *         The authorization method to use for all requests generated by this client, or
+     *         {@code null} to send unauthenticated requests.
+     */
+    public ConfluenceClient(ConfluenceTransport transport, AuthMethod authMethod) {
+        this(transport, authMethod, null);
+    }
+
+    /**
+     * <p>This constructor creates a client that sends its requests through the given {@link
+     * ConfluenceTransport}, such as {@link de.onesty.confluence.transport.HttpClientTransport}.</p>
+     * <p>The requests generated by a client created through this constructor will use the
+     * credentials defined by the given {@link AuthMethod}, and are therefore subject to the
+     * permissions given to the user that corresponds to these credentials.</p>
+     *
+     * @param transport
+     *         The transport used to exchange requests with the Confluence Cloud server.
+     * @param authMethod
+     *         The authorization method to use for all requests generated by this client, or
+     *         {@code null} to send unauthenticated requests.
+     * @param asyncExecutor
+     *         The executor used to complete asynchronous requests, or {@code null} to complete
+     *         them on the threads of the transport.
+     */
+    public ConfluenceClient(ConfluenceTransport transport, AuthMethod authMethod, Executor asyncExecutor) {
+        this.transport = transport;
+        this.authMethod = authMethod;
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    private ConfluenceClient(Builder builder, ConfluenceTransport transport, Client ownedClient,
+            ConnectionPool connectionPool) {
+        this(builder.wrapTransport(transport), builder.authMethod, builder.asyncExecutor);
+        this.ownedClient = ownedClient;
+        this.connectionPool = connectionPool;
+        if (builder.requestCoalescing) {
+            this.inFlightRequests = new SingleFlight<>();
+        }
+        this.contentCache = builder.contentCache;
+        this.validatorCache = builder.validatorCache;
+    }
+
     /**
      * This method sends a request to the Confluence Cloud server to retrieve content matching the
      * conditions set in the given {@link GetContentRequest}.
@@ -79,7 +232,334 @@ public class ConfluenceClient {
      *         if an error response is returned from the server
      */
     public List<Content> getContent(GetContentRequest request) throws ConfluenceRequestException {
-        return ((GetContentResponse) performRequest(request)).getResults();
+        return ((GetContentResponse) performCoalescedRequest(request)).getResults();
+    }
+
+    /**
+     * This method sends a request to the Confluence Cloud server to retrieve one page of content
+     * matching the conditions set in the given {@link GetContentRequest}. Unlike {@link
+     * #getContent(GetContentRequest)}, it returns the whole response, including the limit the
+     * server applied and the link to the next page.
+     *
+     * @param request
+     *         The request defining the conditions for the Content that should be returned.
+     * @return The page of results.
+     * @throws ConfluenceRequestException
+     *         if an error response is returned from the server
+     */
+    public GetContentResponse getContentPage(GetContentRequest request) throws ConfluenceRequestException {
+        return (GetContentResponse) performCoalescedRequest(request);
+    }
+
+    /**
+     * <p>This method sends a request to the Confluence Cloud server to retrieve content matching the
+     * conditions set in the given {@link GetContentRequest}, and streams the results as they are
+     * received instead of reading the whole page into memory first.</p>
+     * <p>The returned stream holds on to the HTTP response and must be closed, for example with a
+     * try-with-resources statement.</p>
+     *
+     * @param request
+     *         The request defining the conditions for the Content that should be returned.
+     * @return A stream of the content matching the conditions of the request.
+     * @throws ConfluenceRequestException
+     *         if an error response is returned from the server
+     */
+    public Stream<Content> getContentStream(GetContentRequest request) throws ConfluenceRequestException {
+        TransportResponse response = send(() -> transport.send(buildRequest(request)));
+        checkStatus(response);
+        return new ContentResultsIterator(response).stream();
+    }
+
+    /**
+     * This method returns an iterator that walks all pages of results for the given request, and
+     * fetches the page following the one being consumed in the background.
+     *
+     * @param request
+     *         The request defining the conditions for the Content that should be returned. Its
+     *         start position and limit define where the first page starts and the size of each page.
+     * @return An iterator over the content of all pages.
+     */
+    public ContentPageIterator iterateContent(GetContentRequest request) {
+        return iterateContent(request, 1);
+    }
+
+    /**
+     * This method returns an iterator that walks all pages of results for the given request, and
+     * fetches up to the given number of pages ahead of the one being consumed in the background.
+     *
+     * @param request
+     *         The request defining the conditions for the Content that should be returned. Its
+     *         start position and limit define where the first page starts and the size of each page.
+     * @param prefetchDepth
+     *         The number of pages to fetch ahead, or 0 to disable prefetching.
+     * @return An iterator over the content of all pages.
+     */
+    public ContentPageIterator iterateContent(GetContentRequest request, int prefetchDepth) {
+        return new ContentPageIterator(this, request, prefetchDepth);
+    }
+
+    /**
+     * This method returns a stream over all pages of results for the given request that can be
+     * fetched in parallel. The number of results is determined up front with a few small probe
+     * requests, and at most {@value #DEFAULT_MAX_CONCURRENT_PAGE_REQUESTS} pages are fetched at the
+     * same time. The returned stream is sequential; call {@link Stream#parallel()} to split it.
+     *
+     * @param request
+     *         The request defining the conditions for the Content that should be returned. Its
+     *         start position and limit define where the first page starts and the size of each page.
+     * @return A stream over the content of all pages.
+     * @throws ConfluenceRequestException
+     *         If an error response is returned from the server while probing the number of results.
+     */
+    public Stream<Content> streamContent(GetContentRequest request) throws ConfluenceRequestException {
+        int estimatedSize = ContentRangeSpliterator.probeSize(this, request);
+        return streamContent(request, estimatedSize, DEFAULT_MAX_CONCURRENT_PAGE_REQUESTS);
+    }
+
+    /**
+     * This method returns a stream over all pages of results for the given request that can be
+     * fetched in parallel. The pages up to the estimated number of results are divided between the
+     * splits of a parallel stream; if the estimate is too small, the remaining pages are fetched
+     * sequentially. The returned stream is sequential; call {@link Stream#parallel()} to split it.
+     *
+     * @param request
+     *         The request defining the conditions for the Content that should be returned. Its
+     *         start position and limit define where the first page starts and the size of each page.
+     * @param estimatedSize
+     *         The estimated number of results from the start position of the request.
+     * @param maxConcurrentRequests
+     *         The maximum number of pages fetched at the same time.
+     * @return A stream over the content of all pages. Errors returned by the server are thrown as
+     *         {@link de.onesty.confluence.errors.UncheckedConfluenceRequestException}.
+     */
+    public Stream<Content> streamContent(GetContentRequest request, int estimatedSize, int maxConcurrentRequests) {
+        return StreamSupport.stream(
+                new ContentRangeSpliterator(this, request, estimatedSize, maxConcurrentRequests), false);
+    }
+
+    /**
+     * This method sends a request to the Confluence Cloud server to search content with the CQL query
+     * of the given {@link SearchContentRequest}, and returns one page of results.
+     *
+     * @param request
+     *         The request defining the query and the page of results that should be returned.
+     * @return The page of results, with the link to the next page, if any.
+     * @throws ConfluenceRequestException
+     *         if an error response is returned from the server
+     */
+    public SearchContentResponse searchContent(SearchContentRequest request) throws ConfluenceRequestException {
+        return (SearchContentResponse) performCoalescedRequest(request);
+    }
+
+    /**
+     * This method returns an iterator that walks all pages of results of the given search by
+     * following the link to the next page of each response. The next page is requested while the
+     * current one is consumed.
+     *
+     * @param request
+     *         The request defining the query. Its limit defines the size of each page.
+     * @return An iterator over the content of all pages.
+     */
+    public SearchResultsIterator iterateSearchResults(SearchContentRequest request) {
+        return new SearchResultsIterator(this, request, true);
+    }
+
+    /**
+     * This method returns a lazy stream over all pages of results of the given search. Pages are
+     * requested as the stream is consumed; the stream should be closed if it is not consumed
+     * completely.
+     *
+     * @param request
+     *         The request defining the query. Its limit defines the size of each page.
+     * @return A stream over the content of all pages. Errors returned by the server are thrown as
+     *         {@link de.onesty.confluence.errors.UncheckedConfluenceRequestException}.
+     */
+    public Stream<Content> streamSearchResults(SearchContentRequest request) {
+        return iterateSearchResults(request).stream();
+    }
+
+    /**
+     * This method retrieves many pieces of content by their ids. The ids are packed into as few
+     * {@code id in (...)} searches as the URL length allows, which are sent with at most
+     * {@value #DEFAULT_MAX_CONCURRENT_PAGE_REQUESTS} requests in flight.
+     *
+     * @param ids
+     *         The unique identifiers of the content.
+     * @param expandedProperties
+     *         The properties to expand in the returned content, or {@code null}.
+     * @return The content by id, in the order of the given ids. Ids that do not exist, or that the
+     * user may not see, are missing from the map.
+     * @throws ConfluenceRequestException
+     *         if an error response is returned from the server
+     */
+    public Map<String, Content> getContentByIds(Collection<String> ids,
+            ExpandedContentProperties expandedProperties) throws ConfluenceRequestException {
+        return await(getContentByIdsAsync(ids, expandedProperties));
+    }
+
+    /**
+     * This method retrieves many pieces of content by their ids, like {@link
+     * #getContentByIds(Collection, ExpandedContentProperties)}, without blocking the calling thread.
+     *
+     * @param ids
+     *         The unique identifiers of the content.
+     * @param expandedProperties
+     *         The properties to expand in the returned content, or {@code null}.
+     * @return A future that completes with the content by id, in the order of the given ids, or
+     * completes exceptionally with a {@link ConfluenceRequestException} if an error response is
+     * returned from the server.
+     */
+    public CompletableFuture<Map<String, Content>> getContentByIdsAsync(Collection<String> ids,
+            ExpandedContentProperties expandedProperties) {
+        Set<String> keys = new LinkedHashSet<>(ids);
+        List<String> queries = CqlQueries.inChunks(null, "id", keys, MAX_KEYS_PER_SEARCH,
+                MAX_SEARCH_QUERY_LENGTH);
+        return searchByKeys(queries, expandedProperties, keys, Content::getId);
+    }
+
+    /**
+     * This method retrieves many pages of a space by their titles. The titles are packed into as few
+     * {@code title in (...)} searches as the URL length allows, which are sent with at most
+     * {@value #DEFAULT_MAX_CONCURRENT_PAGE_REQUESTS} requests in flight.
+     *
+     * @param spaceKey
+     *         The key of the space the pages are in.
+     * @param titles
+     *         The titles of the pages.
+     * @return The pages by title, in the order of the given titles. Titles without a page are
+     * missing from the map.
+     * @throws ConfluenceRequestException
+     *         if an error response is returned from the server
+     */
+    public Map<String, Content> getContentByTitles(String spaceKey, Collection<String> titles)
+            throws ConfluenceRequestException {
+        return getContentByTitles(spaceKey, titles, null);
+    }
+
+    /**
+     * This method retrieves many pages of a space by their titles, like {@link
+     * #getContentByTitles(String, Collection)}, and expands the given properties.
+     *
+     * @param spaceKey
+     *         The key of the space the pages are in.
+     * @param titles
+     *         The titles of the pages.
+     * @param expandedProperties
+     *         The properties to expand in the returned content, or {@code null}.
+     * @return The pages by title, in the order of the given titles. Titles without a page are
+     * missing from the map.
+     * @throws ConfluenceRequestException
+     *         if an error response is returned from the server
+     */
+    public Map<String, Content> getContentByTitles(String spaceKey, Collection<String> titles,
+            ExpandedContentProperties expandedProperties) throws ConfluenceRequestException {
+        return await(getContentByTitlesAsync(spaceKey, titles, expandedProperties));
+    }
+
+    /**
+     * This method retrieves many pages of a space by their titles, like {@link
+     * #getContentByTitles(String, Collection, ExpandedContentProperties)}, without blocking the
+     * calling thread.
+     *
+     * @param spaceKey
+     *         The key of the space the pages are in.
+     * @param titles
+     *         The titles of the pages.
+     * @param expandedProperties
+     *         The properties to expand in the returned content, or {@code null}.
+     * @return A future that completes with the pages by title, in the order of the given titles, or
+     * completes exceptionally with a {@link ConfluenceRequestException} if an error response is
+     * returned from the server.
+     */
+    public CompletableFuture<Map<String, Content>> getContentByTitlesAsync(String spaceKey,
+            Collection<String> titles, ExpandedContentProperties expandedProperties) {
+        Set<String> keys = new LinkedHashSet<>(titles);
+        // Like GetContentRequest, a lookup by title is a lookup of pages
+        String prefix = "space = " + CqlQueries.quote(spaceKey) + " and type = page";
+        List<String> queries = CqlQueries.inChunks(prefix, "title", keys, MAX_KEYS_PER_SEARCH,
+                MAX_SEARCH_QUERY_LENGTH);
+        return searchByKeys(queries, expandedProperties, keys, Content::getTitle);
+    }
+
+    /**
+     * This method exports the pages and blog posts of a space to the given stream as newline
+     * delimited JSON, one piece of content per line. Content is written while the following pages
+     * of results are fetched; see {@link SpaceExporter} for further options, such as compression and
+     * attachments.
+     *
+     * @param spaceKey
+     *         The key of the space to export.
+     * @param expandedProperties
+     *         The properties to expand in the exported content, or {@code null}.
+     * @param out
+     *         The stream to write to. It is flushed, but not closed.
+     * @return The number of exported pieces of content.
+     * @throws ConfluenceRequestException
+     *         if an error response is returned from the server
+     * @throws IOException
+     *         if the export could not be written
+     */
+    public long exportSpace(String spaceKey, ExpandedContentProperties expandedProperties, OutputStream out)
+            throws ConfluenceRequestException, IOException {
+        return new SpaceExporter.Builder()
+                .setClient(this)
+                .setSpaceKey(spaceKey)
+                .setExpandedProperties(expandedProperties)
+                .build()
+                .export(out);
+    }
+
+    /**
+     * This method exports the pages and blog posts of a space to the given file as newline delimited
+     * JSON, like {@link #exportSpace(String, ExpandedContentProperties, OutputStream)}. The export is
+     * compressed with gzip if the name of the file ends with {@code .gz}.
+     *
+     * @param spaceKey
+     *         The key of the space to export.
+     * @param expandedProperties
+     *         The properties to expand in the exported content, or {@code null}.
+     * @param file
+     *         The file to write to. An existing file is replaced.
+     * @return The number of exported pieces of content.
+     * @throws ConfluenceRequestException
+     *         if an error response is returned from the server
+     * @throws IOException
+     *         if the export could not be written
+     */
+    public long exportSpace(String spaceKey, ExpandedContentProperties expandedProperties, Path file)
+            throws ConfluenceRequestException, IOException {
+        return new SpaceExporter.Builder()
+                .setClient(this)
+                .setSpaceKey(spaceKey)
+                .setExpandedProperties(expandedProperties)
+                .setCompressed(file.getFileName().toString().endsWith(".gz"))
+                .build()
+                .export(file);
+    }
+
+    /**
+     * <p>This method sends a request to the Confluence Cloud server to retrieve a single piece of
+     * content, as defined in the given {@link GetContentByIdRequest}.</p>
+     * <p>If the client has a {@link ContentCache}, requests for a specific version are answered from
+     * the cache where possible, and all content returned by the server is added to it, keyed by its
+     * version and the expanded properties of the request.</p>
+     *
+     * @param request
+     *         The request defining the content that should be returned.
+     * @return The requested content.
+     * @throws ConfluenceRequestException
+     *         if an error response is returned from the server
+     */
+    public Content getContentById(GetContentByIdRequest request) throws ConfluenceRequestException {
+        Content cached = getCachedContent(request);
+        if (cached != null) {
+            return cached;
+        }
+        Content content = (Content) performCoalescedRequest(request);
+        if (contentCache != null) {
+            contentCache.put(content, request.getExpand());
+        }
+        return content;
     }
 
     /**
@@ -94,7 +574,11 @@ public class ConfluenceClient {
      *         if an error response is returned from the server
      */
     public Content updateContent(UpdateContentRequest request) throws ConfluenceRequestException {
-        return (Content) performRequest(request);
+        try {
+            return (Content) performRequest(request);
+        } finally {
+            invalidateCachedContent(request.getId());
+        }
     }
 
     /**
@@ -112,56 +596,384 @@ public class ConfluenceClient {
         return (Content) performRequest(request);
     }
 
+    /**
+     * This method uploads the single file of the given request as an attachment.
+     *
+     * @param request
+     *         The request defining the file to upload and the content to attach it to.
+     * @return The attachment that was created
+     * @throws ConfluenceRequestException
+     *         If the server responses with an error status code
+     * @throws IllegalArgumentException
+     *         If the request holds more than one file; use {@link #addAttachments(AddAttachmentsRequest)}
+     *         to upload several files.
+     */
     public Content addAttachment(AddAttachmentsRequest request) throws ConfluenceRequestException {
+        if (request.getAttachments().size() > 1) {
+            throw new IllegalArgumentException("The request holds " + request.getAttachments().size()
+                    + " files; use addAttachments to upload more than one file");
+        }
         return (Content) performFileRequest(request);
     }
 
+    /**
+     * This method uploads all files of the given request, packing as many of them into each
+     * multipart request as fit into {@value #DEFAULT_MAX_ATTACHMENT_BATCH_BYTES} bytes.
+     *
+     * @param request
+     *         The request defining the files to upload and the content to attach them to.
+     * @return The attachment created for each file, and the error of each request that failed
+     * @see #addAttachments(AddAttachmentsRequest, long)
+     */
+    public AddAttachmentsResult addAttachments(AddAttachmentsRequest request) {
+        return addAttachments(request, DEFAULT_MAX_ATTACHMENT_BATCH_BYTES);
+    }
+
+    /**
+     * This method uploads all files of the given request, split into multipart requests of at most
+     * the given number of bytes as described in {@link AddAttachmentsRequest#splitIntoBatches(long)}.
+     * The requests are sent one after another; a request that fails, whether the server responds
+     * with an error or the request cannot be completed at all, does not stop the others.
+     *
+     * @param request
+     *         The request defining the files to upload and the content to attach them to.
+     * @param maxBatchBytes
+     *         The maximum number of bytes uploaded per request
+     * @return The attachment created for each file, and the error of each request that failed
+     */
+    public AddAttachmentsResult addAttachments(AddAttachmentsRequest request, long maxBatchBytes) {
+        AddAttachmentsResult result = new AddAttachmentsResult();
+        for (final AddAttachmentsRequest batch : request.splitIntoBatches(maxBatchBytes)) {
+            try {
+                GetAttachmentsResponse response = (GetAttachmentsResponse) readResponse(
+                        send(() -> transport.send(buildFileRequest(batch))), GetAttachmentsResponse.class);
+                result.addBatch(batch.getAttachments(), response.getResults());
+            } catch (ConfluenceRequestException | RuntimeException e) {
+                // e.g. a ProcessingException, or an UncheckedIOException if a file cannot be read
+                result.addFailedBatch(batch.getAttachments(), e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * This method downloads the file of the given attachment to the given path, as described in
+     * {@link #downloadAttachment(DownloadAttachmentRequest, Path)}. The length of the file is
+     * verified against the {@code fileSize} of the attachment, if it was returned by the server.
+     *
+     * @param attachment
+     *         The attachment, including its {@code download} link
+     * @param target
+     *         The file to write to
+     * @return The completed download
+     * @throws ConfluenceRequestException
+     *         If the server responses with an error status code
+     * @throws IOException
+     *         If the file could not be received or written, or did not match its expected length
+     */
+    public AttachmentDownload downloadAttachment(Content attachment, Path target)
+            throws ConfluenceRequestException, IOException {
+        return downloadAttachment(new DownloadAttachmentRequest.Builder()
+                .setAttachment(attachment)
+                .build(), target);
+    }
+
+    /**
+     * <p>This method downloads the file of an attachment to the given path. The file is transferred
+     * from the connection to disk in chunks through a file channel and never held on the heap as a
+     * whole.</p>
+     * <p>If an earlier attempt to download to the same path was interrupted, only the missing range
+     * is requested, and the partial file is completed. Once complete, the length and, if requested,
+     * the checksum of the file are verified before it replaces the target.</p>
+     *
+     * @param request
+     *         The request defining the attachment and how the download is verified
+     * @param target
+     *         The file to write to
+     * @return The completed download
+     * @throws ConfluenceRequestException
+     *         If the server responses with an error status code
+     * @throws IOException
+     *         If the file could not be received or written, in which case the download can be
+     *         resumed, or if it did not match its expected length or checksum, in which case it is
+     *         discarded
+     */
+    public AttachmentDownload downloadAttachment(DownloadAttachmentRequest request, Path target)
+            throws ConfluenceRequestException, IOException {
+        AttachmentDownloader downloader = new AttachmentDownloader(request, target);
+        long offset = downloader.getResumeOffset();
+        TransportResponse response = sendDownloadRequest(request, offset);
+        if (offset > 0 && response.getStatus() == RANGE_NOT_SATISFIABLE) {
+            // The range after the partial file is empty: either the file is complete, or it is
+            // longer than the attachment and has to be downloaded again
+            if (downloader.isPartComplete(response)) {
+                return downloader.complete();
+            }
+            downloader.discard();
+            offset = 0;
+            response = sendDownloadRequest(request, offset);
+        }
+        checkStatus(response);
+        return downloader.write(response, offset);
+    }
+
     public Content deleteAttachment(DeleteAttachmentsRequest request) throws ConfluenceRequestException {
-        return (Content) performRequest(request);
+        try {
+            return (Content) performRequest(request);
+        } finally {
+            invalidateCachedContent(request.getId());
+        }
     }
 
     public List<Content> getAttachments(GetAttachmentsRequest request) throws ConfluenceRequestException {
-        return ((GetAttachmentsResponse) performRequest(request)).getResults();
+        return ((GetAttachmentsResponse) performCoalescedRequest(request)).getResults();
     }
 
+    /**
+     * This method sends a request to the Confluence Cloud server to retrieve one page of the direct
+     * child pages of the content defined in the given {@link GetChildPagesRequest}.
+     *
+     * @param request
+     *         The request defining the parent and the page of results that should be returned.
+     * @return The child pages on the requested page of results.
+     * @throws ConfluenceRequestException
+     *         if an error response is returned from the server
+     */
+    public List<Content> getChildPages(GetChildPagesRequest request) throws ConfluenceRequestException {
+        return ((GetContentResponse) performCoalescedRequest(request)).getResults();
+    }
 
-    Object performFileRequest(ConfluenceFileRequest request) throws ConfluenceRequestException {
-        WebTarget endpointTarget = wikiTarget.path(request.getRelativePath());
-        for (Entry<String, String> queryParam : request.getQueryParams().entrySet()) {
-            endpointTarget = endpointTarget.queryParam(queryParam.getKey(), queryParam.getValue());
+    /**
+     * This method sends a request to the Confluence Cloud server to retrieve one page of the direct
+     * child pages of the content defined in the given {@link GetChildPagesRequest}. Unlike {@link
+     * #getChildPages(GetChildPagesRequest)}, it returns the whole response, including the limit the
+     * server applied and the link to the next page.
+     *
+     * @param request
+     *         The request defining the parent and the page of results that should be returned.
+     * @return The page of child pages.
+     * @throws ConfluenceRequestException
+     *         if an error response is returned from the server
+     */
+    public GetContentResponse getChildPagesPage(GetChildPagesRequest request) throws ConfluenceRequestException {
+        return (GetContentResponse) performCoalescedRequest(request);
+    }
+
+    /**
+     * This method sends a request to the Confluence Cloud server to retrieve content matching the
+     * conditions set in the given {@link GetContentRequest}, without blocking the calling thread.
+     *
+     * @param request
+     *         The request defining the conditions for the Content that should be returned.
+     * @return A future that completes with the matching content, or completes exceptionally with a
+     * {@link ConfluenceRequestException} if an error response is returned from the server.
+     */
+    public CompletableFuture<List<Content>> getContentAsync(GetContentRequest request) {
+        return performCoalescedRequestAsync(request).thenApply(response -> ((GetContentResponse) response).getResults());
+    }
+
+    /**
+     * This method sends a request to the Confluence Cloud server to retrieve one page of content
+     * matching the conditions set in the given {@link GetContentRequest}, without blocking the
+     * calling thread. Unlike {@link #getContentAsync(GetContentRequest)}, it returns the whole
+     * response, including the limit the server applied and the link to the next page, which is what
+     * pagination must be based on.
+     *
+     * @param request
+     *         The request defining the conditions for the Content that should be returned.
+     * @return A future that completes with the page of results, or completes exceptionally with a
+     * {@link ConfluenceRequestException} if an error response is returned from the server.
+     */
+    public CompletableFuture<GetContentResponse> getContentPageAsync(GetContentRequest request) {
+        return performCoalescedRequestAsync(request).thenApply(response -> (GetContentResponse) response);
+    }
+
+    /**
+     * This method sends a request to the Confluence Cloud server to retrieve a single piece of
+     * content, as defined in the given {@link GetContentByIdRequest}, without blocking the calling
+     * thread. Like {@link #getContentById(GetContentByIdRequest)}, it uses the {@link ContentCache}
+     * of the client, if any.
+     *
+     * @param request
+     *         The request defining the content that should be returned.
+     * @return A future that completes with the requested content, or completes exceptionally with a
+     * {@link ConfluenceRequestException} if an error response is returned from the server.
+     */
+    public CompletableFuture<Content> getContentByIdAsync(GetContentByIdRequest request) {
+        Content cached = getCachedContent(request);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
         }
+        return performCoalescedRequestAsync(request).thenApply(response -> {
+            Content content = (Content) response;
+            if (contentCache != null) {
+                contentCache.put(content, request.getExpand());
+            }
+            return content;
+        });
+    }
+
+    /**
+     * This method sends a request to the Confluence Cloud server to search content with the CQL query
+     * of the given {@link SearchContentRequest}, without blocking the calling thread.
+     *
+     * @param request
+     *         The request defining the query and the page of results that should be returned.
+     * @return A future that completes with the page of results, or completes exceptionally with a
+     * {@link ConfluenceRequestException} if an error response is returned from the server.
+     */
+    public CompletableFuture<SearchContentResponse> searchContentAsync(SearchContentRequest request) {
+        return performCoalescedRequestAsync(request).thenApply(response -> (SearchContentResponse) response);
+    }
+
+    /**
+     * This method sends a request to the Confluence Cloud server to update the content as defined in
+     * the given {@link UpdateContentRequest}, without blocking the calling thread.
+     *
+     * @param request
+     *         The request defining what updates to apply, and which content to apply them to.
+     * @return A future that completes with the new state of the content, or completes exceptionally
+     * with a {@link ConfluenceRequestException} if an error response is returned from the server.
+     */
+    public CompletableFuture<Content> updateContentAsync(UpdateContentRequest request) {
+        return performRequestAsync(request)
+                .whenComplete((response, e) -> invalidateCachedContent(request.getId()))
+                .thenApply(response -> (Content) response);
+    }
+
+    /**
+     * This method sends a request to the Confluence Cloud server to create the content defined in the
+     * given {@link CreateContentRequest}, without blocking the calling thread.
+     *
+     * @param request
+     *         The request defining the content that should be created, and what fields should
+     *         be returned in the response.
+     * @return A future that completes with the content that was created, or completes exceptionally
+     * with a {@link ConfluenceRequestException} if an error response is returned from the server.
+     */
+    public CompletableFuture<Content> createContentAsync(CreateContentRequest request) {
+        return performRequestAsync(request).thenApply(response -> (Content) response);
+    }
 
-        Invocation.Builder invocationBuilder = endpointTarget.request();
-        Map<String, String> headers = getRequestHeaders(request);
-        for (Entry<String, String> headerEntry : headers.entrySet()) {
-            invocationBuilder.header(headerEntry.getKey(), headerEntry.getValue());
+    /**
+     * This method uploads the single file of the given request as an attachment, without blocking
+     * the calling thread.
+     *
+     * @param request
+     *         The request defining the file to upload and the content to attach it to.
+     * @return A future that completes with the attachment that was created, or completes
+     * exceptionally with a {@link ConfluenceRequestException} if an error response is returned from
+     * the server, or with an {@link IllegalArgumentException} if the request holds more than one
+     * file.
+     */
+    public CompletableFuture<Content> addAttachmentAsync(AddAttachmentsRequest request) {
+        if (request.getAttachments().size() > 1) {
+            return failedFuture(new IllegalArgumentException("The request holds "
+                    + request.getAttachments().size() + " files; use addAttachments to upload more than one file"));
         }
-        invocationBuilder.header("X-Atlassian-Token", "nocheck");
+        return performFileRequestAsync(request).thenApply(response -> (Content) response);
+    }
 
-        String methodName = request.getMethod();
+    public CompletableFuture<Content> deleteAttachmentAsync(DeleteAttachmentsRequest request) {
+        return performRequestAsync(request)
+                .whenComplete((response, e) -> invalidateCachedContent(request.getId()))
+                .thenApply(response -> (Content) response);
+    }
 
+    public CompletableFuture<List<Content>> getAttachmentsAsync(GetAttachmentsRequest request) {
+        return performCoalescedRequestAsync(request).thenApply(response -> ((GetAttachmentsResponse) response).getResults());
+    }
 
-        final FileDataBodyPart filePart = new FileDataBodyPart("file", request.getFile());
-        FormDataMultiPart formDataMultiPart = new FormDataMultiPart();
-        final FormDataMultiPart multipart = (FormDataMultiPart) formDataMultiPart.bodyPart(filePart);
+    /**
+     * This method sends a request to the Confluence Cloud server to retrieve one page of the direct
+     * child pages of the content defined in the given {@link GetChildPagesRequest}, without blocking
+     * the calling thread.
+     *
+     * @param request
+     *         The request defining the parent and the page of results that should be returned.
+     * @return A future that completes with the child pages, or completes exceptionally with a
+     * {@link ConfluenceRequestException} if an error response is returned from the server.
+     */
+    public CompletableFuture<List<Content>> getChildPagesAsync(GetChildPagesRequest request) {
+        return performCoalescedRequestAsync(request).thenApply(response -> ((GetContentResponse) response).getResults());
+    }
 
 
-        Response response = invocationBuilder.method(methodName, Entity.entity(multipart, multipart.getMediaType()));
+    /**
+     * <p>This method prepares the given request for repeated execution. Its path, query parameters,
+     * expand string and headers are resolved once; only the pagination start position and the
+     * title are bound on each call of the returned {@link PreparedGetContentRequest}.</p>
+     * <p>The start position and title set on the given request are ignored.</p>
+     *
+     * @param template
+     *         The request defining the fixed conditions for the content that should be returned.
+     * @return The prepared request.
+     */
+    public PreparedGetContentRequest prepare(GetContentRequest template) {
+        Map<String, String> fixedParams = new LinkedHashMap<>(template.getQueryParams());
+        for (String boundParam : PreparedGetContentRequest.BOUND_PARAMS) {
+            fixedParams.remove(boundParam);
+        }
 
+        TransportRequest.Builder builder = new TransportRequest.Builder()
+                .setMethod(template.getMethod())
+                .setRelativePath(template.getRelativePath())
+                .setPathTemplate(template.getPathTemplate())
+                .addQueryParams(fixedParams);
+        for (Map.Entry<String, String> header : getRequestHeaders(template).entrySet()) {
+            builder.setHeader(header.getKey(), header.getValue());
+        }
+        return new PreparedGetContentRequest(this,
+                transport.prepare(builder.build(), PreparedGetContentRequest.BOUND_PARAMS));
+    }
 
-        int statusCode = response.getStatus();
-        if (response.getStatus() >= 300) {
-            String errorMsg;
-            if (MediaType.APPLICATION_JSON_TYPE.equals(response.getMediaType())) {
-                ErrorResponse errResponse = response.readEntity(ErrorResponse.class);
-                errorMsg = errResponse.getMessage();
-            } else {
-                errorMsg = response.getStatusInfo().getReasonPhrase();
-            }
-            throw new ConfluenceRequestException(statusCode, errorMsg);
+    /**
+     * This method returns the current state of the connection pool of this client.
+     *
+     * @return A snapshot of the connection pool, or {@code null} if this client was not created
+     * through a {@link Builder} and therefore does not own its connections.
+     */
+    public ConnectionPoolStats getConnectionPoolStats() {
+        return connectionPool != null ? connectionPool.getStats() : null;
+    }
+
+    /**
+     * This method releases the HTTP client and connection pool owned by this client, if it was
+     * created through a {@link Builder}. Clients created from a {@link WebTarget} or a {@link
+     * ConfluenceTransport} leave these resources to the caller.
+     */
+    @Override
+    public void close() {
+        if (ownedClient != null) {
+            ownedClient.close();
+        }
+        if (connectionPool != null) {
+            connectionPool.close();
         }
+    }
+
+    Object performFileRequest(ConfluenceFileRequest request) throws ConfluenceRequestException {
+        return readResponse(send(() -> transport.send(buildFileRequest(request))), request.getReturnType());
+    }
 
-        return response.readEntity(request.getReturnType());
+    /**
+     * This method performs the given file request without blocking and returns a future for the
+     * servers response.
+     *
+     * @param request
+     *         The request to perform
+     * @return A future that completes with the deserialized response entity, or completes
+     * exceptionally with a {@link ConfluenceRequestException} if the server responds with an error
+     * status code
+     */
+    CompletableFuture<Object> performFileRequestAsync(ConfluenceFileRequest request) {
+        TransportRequest transportRequest;
+        try {
+            transportRequest = buildFileRequest(request);
+        } catch (RuntimeException e) {
+            return failedFuture(e);
+        }
+        return completeAsync(transport.sendAsync(transportRequest), request.getReturnType());
     }
 
     /**
@@ -173,39 +985,425 @@ public class ConfluenceClient {
      *         If the server responses with an error status code
      */
     Object performRequest(ConfluenceRequest request) throws ConfluenceRequestException {
-        WebTarget endpointTarget = wikiTarget.path(request.getRelativePath());
-        for (Entry<String, String> queryParam : request.getQueryParams().entrySet()) {
-            endpointTarget = endpointTarget.queryParam(queryParam.getKey(), queryParam.getValue());
+        return readResponse(send(() -> transport.send(buildRequest(request))), request.getReturnType());
+    }
+
+    /**
+     * This method performs the given request, or waits for an identical request that is already in
+     * flight if request coalescing is enabled.
+     *
+     * @param request
+     *         The request to perform
+     * @throws ConfluenceRequestException
+     *         If the server responses with an error status code
+     */
+    Object performCoalescedRequest(ConfluenceRequest request) throws ConfluenceRequestException {
+        if (inFlightRequests == null) {
+            return performConditionalRequest(request);
+        }
+        return inFlightRequests.execute(request, () -> performConditionalRequest(request));
+    }
+
+    /**
+     * This method performs the given request without blocking, or returns the future of an
+     * identical request that is already in flight if request coalescing is enabled.
+     *
+     * @param request
+     *         The request to perform
+     * @return A future that completes with the deserialized response entity
+     */
+    CompletableFuture<Object> performCoalescedRequestAsync(ConfluenceRequest request) {
+        if (inFlightRequests == null) {
+            return performConditionalRequestAsync(request);
+        }
+        return inFlightRequests.executeAsync(request, () -> performConditionalRequestAsync(request));
+    }
+
+    /**
+     * This method performs the given request. If validators of an earlier response to an equal
+     * request are remembered, they are sent along, and the earlier entity is returned if the server
+     * responds that it was not modified.
+     *
+     * @param request
+     *         The request to perform
+     * @throws ConfluenceRequestException
+     *         If the server responses with an error status code
+     */
+    Object performConditionalRequest(ConfluenceRequest request) throws ConfluenceRequestException {
+        if (validatorCache == null) {
+            return performRequest(request);
+        }
+        ValidatorCache.Entry remembered = validatorCache.get(request);
+        Object value = resolve(remembered);
+        ValidatorCache.Entry entry = value != null ? remembered : null;
+        TransportResponse response = send(() -> transport.send(buildConditionalRequest(request, entry)));
+        return readConditionalResponse(request, entry, value, response);
+    }
+
+    /**
+     * This method performs the given request without blocking, like {@link
+     * #performConditionalRequest(ConfluenceRequest)}.
+     *
+     * @param request
+     *         The request to perform
+     * @return A future that completes with the deserialized response entity
+     */
+    CompletableFuture<Object> performConditionalRequestAsync(ConfluenceRequest request) {
+        if (validatorCache == null) {
+            return performRequestAsync(request);
+        }
+        ValidatorCache.Entry remembered = validatorCache.get(request);
+        Object value = resolve(remembered);
+        ValidatorCache.Entry entry = value != null ? remembered : null;
+        CompletableFuture<TransportResponse> response;
+        try {
+            response = transport.sendAsync(buildConditionalRequest(request, entry));
+        } catch (RuntimeException e) {
+            return failedFuture(e);
+        }
+        BiFunction<TransportResponse, Throwable, Object> handler = (r, e) -> {
+            if (e != null) {
+                return readResponseUnchecked(null, e, request.getReturnType());
+            }
+            try {
+                return readConditionalResponse(request, entry, value, r);
+            } catch (ConfluenceRequestException ex) {
+                throw new CompletionException(ex);
+            }
+        };
+        if (asyncExecutor == null) {
+            return response.handle(handler);
+        }
+        return response.handleAsync(handler, asyncExecutor);
+    }
+
+    private TransportRequest buildConditionalRequest(ConfluenceRequest request, ValidatorCache.Entry entry) {
+        TransportRequest.Builder builder = requestBuilder(request);
+        if (entry != null && entry.getETag() != null) {
+            builder.setHeader("If-None-Match", entry.getETag());
+        }
+        if (entry != null && entry.getLastModified() != null) {
+            builder.setHeader("If-Modified-Since", entry.getLastModified());
+        }
+        return builder.build();
+    }
+
+    /**
+     * This method returns the entity remembered by the given entry. Content that is remembered by
+     * reference is looked up in the content cache, and held until the response arrives, so that it
+     * cannot be evicted in between.
+     *
+     * @return The entity, or {@code null} if nothing is remembered or the content was evicted, in
+     * which case the request is sent without validators.
+     */
+    private Object resolve(ValidatorCache.Entry entry) {
+        if (entry == null) {
+            return null;
+        }
+        Object value = entry.getValue();
+        if (value instanceof ValidatorCache.ContentReference) {
+            return contentCache != null ? ((ValidatorCache.ContentReference) value).resolve(contentCache) : null;
+        }
+        return value;
+    }
+
+    private Object readConditionalResponse(ConfluenceRequest request, ValidatorCache.Entry entry,
+            Object remembered, TransportResponse response) throws ConfluenceRequestException {
+        // A 304 has no body; without a remembered entity it is reported as an error by checkStatus
+        if (entry != null && response.getStatus() == 304) {
+            response.close();
+            validatorCache.notModified(entry);
+            return remembered;
+        }
+        String eTag = response.getHeader("ETag");
+        String lastModified = response.getHeader("Last-Modified");
+        Object value = readResponse(response, request.getReturnType());
+        validatorCache.put(request, eTag, lastModified, toRememberedValue(request, value));
+        return value;
+    }
+
+    /**
+     * This method returns what the validator cache remembers for the given entity. Content requested
+     * by id is added to the content cache, if any, and only referenced, so that a {@code 304 Not
+     * Modified} is turned into the cached content without holding it twice.
+     */
+    private Object toRememberedValue(ConfluenceRequest request, Object value) {
+        if (contentCache == null || !(request instanceof GetContentByIdRequest) || !(value instanceof Content)) {
+            return value;
+        }
+        Content content = (Content) value;
+        if (content.getId() == null || content.getVersion() == null || content.getVersion().getNumber() == null) {
+            return value;
+        }
+        String expand = ((GetContentByIdRequest) request).getExpand();
+        contentCache.put(content, expand);
+        return new ValidatorCache.ContentReference(content.getId(), content.getVersion().getNumber(), expand);
+    }
+
+    /**
+     * This method runs the given searches, each to its last page, with at most {@value
+     * #DEFAULT_MAX_CONCURRENT_PAGE_REQUESTS} requests in flight, and collects the results that match
+     * the given keys in the order of the keys.
+     */
+    private CompletableFuture<Map<String, Content>> searchByKeys(List<String> queries,
+            ExpandedContentProperties expandedProperties, Set<String> keys, Function<Content, String> keyOf) {
+        Queue<String> pending = new ConcurrentLinkedQueue<>(queries);
+        Map<String, Content> found = new ConcurrentHashMap<>();
+        Consumer<Content> collector = content -> {
+            String key = keyOf.apply(content);
+            if (key != null && keys.contains(key)) {
+                found.putIfAbsent(key, content);
+            }
+        };
+
+        CompletableFuture<?>[] lanes = new CompletableFuture<?>[Math.min(queries.size(),
+                DEFAULT_MAX_CONCURRENT_PAGE_REQUESTS)];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = searchLane(pending, expandedProperties, collector);
+        }
+        return CompletableFuture.allOf(lanes).thenApply(done -> {
+            Map<String, Content> ordered = new LinkedHashMap<>();
+            for (String key : keys) {
+                Content content = found.get(key);
+                if (content != null) {
+                    ordered.put(key, content);
+                }
+            }
+            return ordered;
+        });
+    }
+
+    /**
+     * This method runs the pending searches one after the other until none are left. After a
+     * failure, the searches that were not started yet are dropped.
+     */
+    private CompletableFuture<Void> searchLane(Queue<String> pending,
+            ExpandedContentProperties expandedProperties, Consumer<Content> collector) {
+        String cql = pending.poll();
+        if (cql == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        SearchContentRequest request = new SearchContentRequest.Builder()
+                .setCql(cql)
+                .setLimit(MAX_KEYS_PER_SEARCH)
+                .setExpandedProperties(expandedProperties)
+                .build();
+        return searchAllPages(request, collector)
+                .whenComplete((done, e) -> {
+                    if (e != null) {
+                        pending.clear();
+                    }
+                })
+                .thenCompose(done -> searchLane(pending, expandedProperties, collector));
+    }
+
+    private CompletableFuture<Void> searchAllPages(SearchContentRequest request, Consumer<Content> collector) {
+        return searchContentAsync(request).thenCompose(page -> {
+            page.getResults().forEach(collector);
+            String nextLink = page.getNextLink();
+            return nextLink != null
+                    ? searchAllPages(request.withNextLink(nextLink), collector)
+                    : CompletableFuture.<Void>completedFuture(null);
+        });
+    }
+
+    /**
+     * This method waits for the given future, and throws the {@link ConfluenceRequestException} it
+     * failed with, if any.
+     */
+    private static <T> T await(CompletableFuture<T> future) throws ConfluenceRequestException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ConfluenceRequestException) {
+                throw (ConfluenceRequestException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private Content getCachedContent(GetContentByIdRequest request) {
+        if (contentCache == null || request.getVersion() == null) {
+            return null;
+        }
+        return contentCache.get(request.getId(), request.getVersion(), request.getExpand());
+    }
+
+    private void invalidateCachedContent(String id) {
+        if (contentCache != null && id != null) {
+            contentCache.invalidate(id);
+        }
+    }
+
+    /**
+     * This method performs an exchange with the transport. A request that was rejected before it
+     * was sent, e.g. by an open circuit breaker, is reported through a {@link
+     * ProcessingException} caused by a {@link ConfluenceRequestException}; this exception is
+     * thrown instead.
+     *
+     * @param exchange
+     *         The exchange to perform
+     * @return The response returned by the server
+     * @throws ConfluenceRequestException
+     *         If the request was rejected before it was sent
+     */
+    TransportResponse send(Supplier<TransportResponse> exchange) throws ConfluenceRequestException {
+        try {
+            return exchange.get();
+        } catch (ProcessingException e) {
+            if (e.getCause() instanceof ConfluenceRequestException) {
+                throw (ConfluenceRequestException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * This method performs the given request without blocking and returns a future for the servers
+     * response.
+     *
+     * @param request
+     *         The request to perform
+     * @return A future that completes with the deserialized response entity, or completes
+     * exceptionally with a {@link ConfluenceRequestException} if the server responds with an error
+     * status code
+     */
+    CompletableFuture<Object> performRequestAsync(ConfluenceRequest request) {
+        TransportRequest transportRequest;
+        try {
+            transportRequest = buildRequest(request);
+        } catch (RuntimeException e) {
+            return failedFuture(e);
+        }
+        return completeAsync(transport.sendAsync(transportRequest), request.getReturnType());
+    }
+
+    private TransportRequest buildRequest(ConfluenceRequest request) {
+        return requestBuilder(request).build();
+    }
+
+    private TransportRequest.Builder requestBuilder(ConfluenceRequest request) {
+        TransportRequest.Builder builder = new TransportRequest.Builder()
+                .setMethod(request.getMethod())
+                .setRelativePath(request.getRelativePath())
+                .setPathTemplate(request.getPathTemplate())
+                .addQueryParams(request.getQueryParams())
+                .setEntity(request.getBodyEntity())
+                .setRetryable(request.isRetryable());
+        for (Map.Entry<String, String> header : getRequestHeaders(request).entrySet()) {
+            builder.setHeader(header.getKey(), header.getValue());
+        }
+        return builder;
+    }
+
+    private TransportResponse sendDownloadRequest(DownloadAttachmentRequest request, long offset)
+            throws ConfluenceRequestException {
+        TransportRequest.Builder builder = requestBuilder(request);
+        if (offset > 0) {
+            builder.setHeader("Range", "bytes=" + offset + "-");
+        }
+        final TransportRequest transportRequest = builder.build();
+        return send(() -> transport.send(transportRequest));
+    }
+
+    private TransportRequest buildFileRequest(ConfluenceFileRequest request) {
+        TransportRequest.Builder builder = new TransportRequest.Builder()
+                .setMethod(request.getMethod())
+                .setRelativePath(request.getRelativePath())
+                .setPathTemplate(request.getPathTemplate())
+                .addQueryParams(request.getQueryParams())
+                .setRetryable(request.isRetryable());
+        for (Map.Entry<String, String> header : getRequestHeaders(request).entrySet()) {
+            builder.setHeader(header.getKey(), header.getValue());
+        }
+        for (UploadSource upload : request.getUploadSources()) {
+            builder.addUpload(upload);
         }
+        for (Map.Entry<String, String> formField : request.getFormFields()) {
+            builder.addFormField(formField.getKey(), formField.getValue());
+        }
+        builder.setHeader("X-Atlassian-Token", "nocheck");
+        return builder.build();
+    }
 
-        Invocation.Builder invocationBuilder = endpointTarget.request();
-        Map<String, String> headers = getRequestHeaders(request);
-        for (Entry<String, String> headerEntry : headers.entrySet()) {
-            invocationBuilder.header(headerEntry.getKey(), headerEntry.getValue());
+    /**
+     * This method attaches the status check and deserialization of a pending response to the given
+     * future. If an executor was supplied, this work is performed on that executor.
+     */
+    CompletableFuture<Object> completeAsync(CompletableFuture<TransportResponse> response,
+            final Class<?> returnType) {
+        if (asyncExecutor == null) {
+            return response.handle((r, e) -> readResponseUnchecked(r, e, returnType));
         }
+        return response.handleAsync((r, e) -> readResponseUnchecked(r, e, returnType), asyncExecutor);
+    }
 
-        String methodName = request.getMethod();
-        Response response;
-        if (request.getBodyEntity() != null) {
-            Object bodyEntity = request.getBodyEntity();
-            response = invocationBuilder.method(methodName, Entity.json(bodyEntity));
-        } else {
-            response = invocationBuilder.method(methodName);
+    private Object readResponseUnchecked(TransportResponse response, Throwable failure,
+            Class<?> returnType) {
+        if (failure != null) {
+            Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+            if (cause instanceof ProcessingException && cause.getCause() instanceof ConfluenceRequestException) {
+                cause = cause.getCause();
+            }
+            throw cause instanceof CompletionException ? (CompletionException) cause : new CompletionException(cause);
         }
+        try {
+            return readResponse(response, returnType);
+        } catch (ConfluenceRequestException e) {
+            throw new CompletionException(e);
+        }
+    }
 
+    /**
+     * This method checks the status of the given response and reads its entity.
+     *
+     * @param response
+     *         The response returned by the server
+     * @param returnType
+     *         The class of the entity in the body of a successful response
+     * @return The deserialized response entity
+     * @throws ConfluenceRequestException
+     *         If the server responses with an error status code
+     */
+    Object readResponse(TransportResponse response, Class<?> returnType) throws ConfluenceRequestException {
+        checkStatus(response);
+        return response.readEntity(returnType);
+    }
+
+    /**
+     * This method checks the status of the given response. Error responses are closed.
+     *
+     * @param response
+     *         The response returned by the server
+     * @throws ConfluenceRequestException
+     *         If the server responses with an error status code
+     */
+    void checkStatus(TransportResponse response) throws ConfluenceRequestException {
         int statusCode = response.getStatus();
         if (response.getStatus() >= 300) {
             String errorMsg;
-            if (MediaType.APPLICATION_JSON_TYPE.equals(response.getMediaType())) {
-                ErrorResponse errResponse = response.readEntity(ErrorResponse.class);
-                errorMsg = errResponse.getMessage();
-            } else {
-                errorMsg = response.getStatusInfo().getReasonPhrase();
+            try {
+                if (MediaType.APPLICATION_JSON_TYPE.equals(response.getMediaType())) {
+                    ErrorResponse errResponse = response.readEntity(ErrorResponse.class);
+                    errorMsg = errResponse.getMessage();
+                } else {
+                    errorMsg = response.getReasonPhrase();
+                }
+            } finally {
+                response.close();
             }
-            throw new ConfluenceRequestException(statusCode, errorMsg);
+            Duration retryAfter = RetryAfter.parse(response.getHeader("Retry-After"), Instant.now());
+            throw new ConfluenceRequestException(statusCode, errorMsg, retryAfter);
         }
+    }
 
-        return response.readEntity(request.getReturnType());
+    private static <T> CompletableFuture<T> failedFuture(Throwable cause) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(cause);
+        return future;
     }
 
     /**
@@ -234,4 +1432,372 @@ public class ConfluenceClient {
         }
         return requestHeaders;
     }
+
+    /**
+     * <p>This class can be used to construct an instance of {@link ConfluenceClient} that owns a
+     * tuned HTTP connector.</p>
+     * <p>The client uses the Apache HTTP client connector with a pool of keep-alive connections, so
+     * that TCP connections and TLS sessions are reused across requests instead of being
+     * re-established for each of them. The connector is released when the client is closed.</p>
+     * <p>Alternatively, the builder decorates a given {@link ConfluenceTransport} with its
+     * resilience settings.</p>
+     */
+    public static class Builder {
+
+        private String wikiUrl;
+        private ConfluenceTransport transport;
+        private AuthMethod authMethod;
+        private Executor asyncExecutor;
+        private int maxConnections = 50;
+        private int maxConnectionsPerRoute = 50;
+        private int connectTimeout = 10000;
+        private int readTimeout = 60000;
+        private long idleConnectionTimeout = 30000;
+        private boolean tcpNoDelay = true;
+        private int socketBufferSize;
+        private AdaptiveConcurrencyLimiter concurrencyLimiter;
+        private RetryPolicy retryPolicy;
+        private CircuitBreakerConfig circuitBreakerConfig;
+        private HedgingPolicy hedgingPolicy;
+        private boolean requestCoalescing;
+        private ContentCache contentCache;
+        private ValidatorCache validatorCache;
+
+        /**
+         * This method sets the location of the Confluence Cloud server.
+         *
+         * @param wikiUrl
+         *         The URL of the wiki root, e.g. "https://sample.atlassian.net/wiki".
+         * @return This instance, for the purposes of method chaining.
+         */
+        public Builder setWikiUrl(String wikiUrl) {
+            this.wikiUrl = wikiUrl;
+            return this;
+        }
+
+        /**
+         * <p>This method sets the transport that exchanges the requests of the client with the
+         * Confluence Cloud server, such as {@link de.onesty.confluence.transport.HttpClientTransport},
+         * instead of the JAX-RS client the builder creates otherwise.</p>
+         * <p>The resilience settings of this builder, such as the retry policy and the circuit
+         * breakers, decorate the given transport. The location of the wiki and the connection
+         * settings are taken from the transport, and the settings of this builder for them are
+         * ignored. The transport is not closed when the client is closed.</p>
+         *
+         * @param transport
+         *         The transport to decorate, or {@code null} to create a JAX-RS client.
+         * @return This instance, for the purposes of method chaining.
+         */
+        public Builder setTransport(ConfluenceTransport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * This method sets the authorization method to use for all requests generated by the client.
+         *
+         * @param authMethod
+         *         The authorization method.
+         * @return This instance, for the purposes of method chaining.
+         */
+        public Builder setAuthMethod(AuthMethod authMethod) {
+            this.authMethod = authMethod;
+            return this;
+        }
+
+        /**
+         * This method sets the executor used to complete asynchronous requests. If the executor is an
+         * {@link ExecutorService}, it also performs the HTTP exchange of asynchronous requests.
+         *
+         * @param asyncExecutor
+         *         The executor used for asynchronous requests.
+         * @return This instance, for the purposes of method chaining.
+         */
+        public Builder setAsyncExecutor(Executor asyncExecutor) {
+            this.asyncExecutor = asyncExecutor;
+            return this;
+        }
+
+        /**
+         * This method sets the maximum number of connections the client may open in total.
+         *
+         * @param maxConnections
+         *         The maximum number of connections. Defaults to 50.
+         * @return This instance, for the purposes of method chaining.
+         */
+        public Builder setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        /**
+         * This method sets the maximum number of connections the client may open to a single host.
+         *
+         * @param maxConnectionsPerRoute
+         *         The maximum number of connections per route. Defaults to 50.
+         * @return This instance, for the purposes of method chaining.
+         */
+        public Builder setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+            return this;
+        }
+
+        /**
+         * This method sets the timeout for establishing a connection.
+         *
+         * @param connectTimeout
+         *         The connect timeout in milliseconds, or 0 to wait indefinitely. Defaults to 10
+         *         seconds.
+         * @return This instance, for the purposes of method chaining.
+         */
+        public Builder setConnectTimeout(int connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /**
+         * This method sets the timeout for waiting on data from an established connection.
+         *
+         * @param readTimeout
+         *         The read timeout in milliseconds, or 0 to wait indefinitely. Defaults to 60
+         *         seconds.
+         * @return This instance, for the purposes of method chaining.
+         */
+        public Builder setReadTimeout(int readTimeout) {
+            this.readTimeout = readTimeout;
+            return this;
+        }
+
+        /**
+         * This method sets the time after which a pooled connection that has not been used is
+         * closed.
+         *
+         * @param idleConnectionTimeout
+         *         The idle timeout in milliseconds. Defaults to 30 seconds.
+         * @return This instance, for the purposes of method chaining.
+         */
+        public Builder setIdleConnectionTimeout(long idleConnectionTimeout) {
+            this.idleConnectionTimeout = idleConnectionTimeout;
+            return this;
+        }
+
+        /**
+         * This method sets whether Nagle's algorithm is disabled on the client sockets.
+         *
+         * @param tcpNoDelay
+         *         {@code true} to send small packets immediately. Defaults to {@code true}.
+         * @return This instance, for the purposes of method chaining.
+         */
+        public Builder setTcpNoDelay(boolean tcpNoDelay) {
+            this.tcpNoDelay = tcpNoDelay;
+            return this;
+        }
+
+        /**
+         * This method sets the size of the socket send and receive buffers, and of the connection
+         * buffer used by the connector.
+         *
+         * @param socketBufferSize
+         *         The buffer size in bytes, or 0 to use the system defaults.
+         * @return This instance, for the purposes of method chaining.
+         */
+        public Builder setSocketBufferSize(int socketBufferSize) {
+            this.socketBufferSize = socketBufferSize;
+            return this;
+        }
+
+        /**
+         * This method sets the limiter that adapts the number of requests in flight to the capacity
+         * of the server. Requests beyond the limit wait for a permit, and no requests are sent while
+         * the server has asked the client to back off through a {@code Retry-After} header.
+         *
+         * @param concurrencyLimiter
+         *         The limiter, or {@code null} to send requests without limiting them. Its maximum
+         *         limit should not exceed the maximum number of connections.
+         * @return This instance, for the purposes of method chaining.
+         */
+        public Builder setConcurrencyLimiter(AdaptiveConcurrencyLimiter concurrencyLimiter) {
+            this.concurrencyLimiter = concurrencyLimiter;
+            return this;
+        }
+
+        /**
+         * This method sets the policy for retrying requests that failed transiently. GET and DELETE
+         * requests are retried automatically; requests that create or modify content are only
+         * retried if they were marked as retryable. Each retry is subject to the concurrency
+         * limiter, if one is set.
+         *
+         * @param retryPolicy
+         *         The retry policy, or {@code null} to send each request only once.
+         * @return This instance, for the purposes of method chaining.
+         */
+        public Builder setRetryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * This method sets up a circuit breaker for each endpoint of the Confluence REST API. While
+         * the circuit breaker of an endpoint is open, requests to it fail immediately with a {@link
+         * de.onesty.confluence.errors.CircuitBreakerOpenException} instead of being sent. Rejected
+         * requests are not retried.
+         *
+         * @param circuitBreakerConfig
+         *         The settings of the circuit breakers, or {@code null} to not use circuit breakers.
+         * @return This instance, for the purposes of method chaining.
+         */
+        public Builder setCircuitBreakerConfig(CircuitBreakerConfig circuitBreakerConfig) {
+            this.circuitBreakerConfig = circuitBreakerConfig;
+            return this;
+        }
+
+        /**
+         * This method enables hedging of GET requests, such as {@link GetContentRequest} and {@link
+         * GetAttachmentsRequest}: if a request is slower than the recently observed latency
+         * percentile of its endpoint, an identical request is sent and the first response is used.
+         * Only the endpoints allowed by {@link HedgingPolicy#isHedged(String)} are hedged, so that
+         * e.g. attachment downloads are never sent twice.
+         *
+         * @param hedgingPolicy
+         *         The hedging policy, or {@code null} to not hedge requests.
+         * @return This instance, for the purposes of method chaining.
+         */
+        public Builder setHedgingPolicy(HedgingPolicy hedgingPolicy) {
+            this.hedgingPolicy = hedgingPolicy;
+            return this;
+        }
+
+        /**
+         * <p>This method enables coalescing of identical GET requests: while a {@link
+         * GetContentRequest} or {@link GetAttachmentsRequest} is in flight, equal requests made
+         * through the client wait for its response instead of sending their own. Requests are
+         * equal if they have the same path and query parameters; since all requests of a client
+         * carry the same credentials, they are only coalesced within one client.</p>
+         * <p>All callers of a coalesced request receive the same deserialized content, which
+         * therefore must not be modified.</p>
+         *
+         * @param requestCoalescing
+         *         Whether identical concurrent requests are coalesced. Defaults to {@code false}.
+         * @return This instance, for the purposes of method chaining.
+         */
+        public Builder setRequestCoalescing(boolean requestCoalescing) {
+            this.requestCoalescing = requestCoalescing;
+            return this;
+        }
+
+        /**
+         * <p>This method sets the cache used by {@link ConfluenceClient#getContentById(
+         * GetContentByIdRequest)}. Content is cached by its version, which never changes, so
+         * requests for a specific version are answered from the cache; requests for the current
+         * version are always sent to the server, and refresh the cache.</p>
+         * <p>Updating or deleting content through the client removes all cached versions of it.</p>
+         *
+         * @param contentCache
+         *         The cache, or {@code null} to not cache content. Can be shared by clients.
+         * @return This instance, for the purposes of method chaining.
+         */
+        public Builder setContentCache(ContentCache contentCache) {
+            this.contentCache = contentCache;
+            return this;
+        }
+
+        /**
+         * <p>This method enables conditional requests for {@link GetContentRequest}, {@link
+         * GetContentByIdRequest} and {@link GetAttachmentsRequest}: the validators of their
+         * responses are remembered in the given cache and sent along when an equal request is
+         * made again. If the server responds with {@code 304 Not Modified}, the remembered result
+         * is returned without downloading or parsing the body again.</p>
+         * <p>All callers that revalidate a response receive the same deserialized content, which
+         * therefore must not be modified. If the client also has a {@link ContentCache}, content
+         * requested by id is kept only in the content cache, and a {@code 304 Not Modified} is
+         * answered from it.</p>
+         *
+         * @param validatorCache
+         *         The cache of validators, or {@code null} to not send conditional requests.
+         * @return This instance, for the purposes of method chaining.
+         */
+        public Builder setValidatorCache(ValidatorCache validatorCache) {
+            this.validatorCache = validatorCache;
+            return this;
+        }
+
+        /**
+         * This method creates an instance of {@link ConfluenceClient} using the values that were set
+         * on this instance.
+         *
+         * @return A new instance of {@link ConfluenceClient} with the values set on this instance.
+         * @throws IllegalStateException
+         *         If the client that would be created would be invalid.
+         */
+        public ConfluenceClient build() throws IllegalStateException {
+            if (this.transport != null) {
+                return new ConfluenceClient(this, this.transport, null, null);
+            }
+
+            if (this.wikiUrl == null || this.wikiUrl.equals("")) {
+                throw new IllegalStateException("You must specify the URL of the wiki");
+            }
+
+            if (this.maxConnections <= 0 || this.maxConnectionsPerRoute <= 0) {
+                throw new IllegalStateException("The maximum number of connections must be a positive number");
+            }
+
+            if (this.idleConnectionTimeout <= 0) {
+                throw new IllegalStateException("The idle connection timeout must be a positive number");
+            }
+
+            PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+            connectionManager.setMaxTotal(maxConnections);
+            connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+            connectionManager.setValidateAfterInactivity(1000);
+
+            SocketConfig.Builder socketConfig = SocketConfig.custom()
+                    .setTcpNoDelay(tcpNoDelay)
+                    .setSoKeepAlive(true)
+                    .setSoTimeout(readTimeout);
+            if (socketBufferSize > 0) {
+                socketConfig.setSndBufSize(socketBufferSize).setRcvBufSize(socketBufferSize);
+                connectionManager.setDefaultConnectionConfig(
+                        ConnectionConfig.custom().setBufferSize(socketBufferSize).build());
+            }
+            connectionManager.setDefaultSocketConfig(socketConfig.build());
+
+            ClientConfig clientConfig = new ClientConfig()
+                    .connectorProvider(new ApacheConnectorProvider())
+                    .property(ApacheClientProperties.CONNECTION_MANAGER, connectionManager)
+                    .property(ApacheClientProperties.CONNECTION_MANAGER_SHARED, true)
+                    .property(ClientProperties.CONNECT_TIMEOUT, connectTimeout)
+                    .property(ClientProperties.READ_TIMEOUT, readTimeout)
+                    .register(JacksonFeature.class)
+                    .register(MultiPartFeature.class);
+
+            ClientBuilder clientBuilder = ClientBuilder.newBuilder().withConfig(clientConfig);
+            if (asyncExecutor instanceof ExecutorService) {
+                clientBuilder.executorService((ExecutorService) asyncExecutor);
+            }
+
+            ConnectionPool connectionPool = new ConnectionPool(connectionManager, idleConnectionTimeout);
+            Client client = clientBuilder.build();
+            return new ConfluenceClient(this, new JerseyTransport(client.target(wikiUrl)), client,
+                    connectionPool);
+        }
+
+        private ConfluenceTransport wrapTransport(ConfluenceTransport transport) {
+            // The circuit breakers measure the exchange itself, without the time spent waiting for
+            // a permit of the concurrency limiter
+            if (circuitBreakerConfig != null) {
+                transport = new CircuitBreakerTransport(transport, circuitBreakerConfig);
+            }
+            if (concurrencyLimiter != null) {
+                transport = new ConcurrencyLimitedTransport(transport, concurrencyLimiter);
+            }
+            if (hedgingPolicy != null) {
+                transport = new HedgingTransport(transport, hedgingPolicy);
+            }
+            if (retryPolicy != null) {
+                transport = new RetryingTransport(transport, retryPolicy);
+            }
+            return transport;
+        }
+    }
 }
@@ -0,0 +1,77 @@
+package de.onesty.confluence;
+
+import de.onesty.confluence.content.Content;
+import de.onesty.confluence.errors.ConfluenceRequestException;
+import de.onesty.confluence.requests.GetContentRequest;
+import de.onesty.confluence.requests.GetContentResponse;
+import de.onesty.confluence.transport.PreparedTransportRequest;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * <p>This class represents a {@link GetContentRequest} whose path, fixed query parameters, expand
+ * string and headers have been resolved once, so that it can be sent repeatedly with only the
+ * pagination start position and the title changing.</p>
+ * <p>Instances are created through {@link ConfluenceClient#prepare(GetContentRequest)} and are safe
+ * to share between threads.</p>
+ */
+public final class PreparedGetContentRequest {
+
+    static final String[] BOUND_PARAMS = {"start", "title"};
+
+    private final ConfluenceClient client;
+    private final PreparedTransportRequest preparedRequest;
+
+    PreparedGetContentRequest(ConfluenceClient client, PreparedTransportRequest preparedRequest) {
+        this.client = client;
+        this.preparedRequest = preparedRequest;
+    }
+
+    /**
+     * This method sends the prepared request to the Confluence Cloud server.
+     *
+     * @param start
+     *         The pagination start position, or {@code null} to start at the first result.
+     * @param title
+     *         The required title of the results, or {@code null} to not filter by title.
+     * @return The content that matches the conditions of the prepared request.
+     * @throws ConfluenceRequestException
+     *         if an error response is returned from the server
+     */
+    public List<Content> getContent(Integer start, String title) throws ConfluenceRequestException {
+        Object response = client.readResponse(
+                client.send(() -> preparedRequest.send(toString(start), title)), GetContentResponse.class);
+        return ((GetContentResponse) response).getResults();
+    }
+
+    /**
+     * This method sends the prepared request to the Confluence Cloud server without blocking the
+     * calling thread.
+     *
+     * @param start
+     *         The pagination start position, or {@code null} to start at the first result.
+     * @param title
+     *         The required title of the results, or {@code null} to not filter by title.
+     * @return A future that completes with the matching content, or completes exceptionally with a
+     * {@link ConfluenceRequestException} if an error response is returned from the server.
+     */
+    public CompletableFuture<List<Content>> getContentAsync(Integer start, String title) {
+        CompletableFuture<Object> response;
+        try {
+            response = client.completeAsync(preparedRequest.sendAsync(toString(start), title),
+                    GetContentResponse.class);
+        } catch (RuntimeException e) {
+            response = new CompletableFuture<>();
+            response.completeExceptionally(e);
+        }
+        return response.thenApply(r -> ((GetContentResponse) r).getResults());
+    }
+
+    private static String toString(Integer start) {
+        if (start != null && start <= 0) {
+            throw new IllegalArgumentException("The start position must be a positive number");
+        }
+        return start != null ? Integer.toString(start) : null;
+    }
+}
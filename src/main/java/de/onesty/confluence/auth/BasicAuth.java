@@ -8,8 +8,7 @@ import org.apache.commons.codec.binary.Base64;
  */
 public class BasicAuth implements AuthMethod {
 
-  private String username;
-  private String password;
+  private final String authHeaderValue;
 
   /**
    * This constructor creates a new instance of {@link BasicAuth} using the given username and
@@ -19,8 +18,8 @@ public class BasicAuth implements AuthMethod {
    * @param password The corresponding password for the given username
    */
   public BasicAuth(String username, String password) {
-    this.username = username;
-    this.password = password;
+    // The credentials never change, so the header value is encoded only once
+    this.authHeaderValue = "Basic " + Base64.encodeBase64String((username + ":" + password).getBytes());
   }
 
   /**
@@ -32,6 +31,6 @@ public class BasicAuth implements AuthMethod {
    */
   @Override
   public String getAuthHeaderValue() {
-    return "Basic " + Base64.encodeBase64String((username + ":" + password).getBytes());
+    return authHeaderValue;
   }
 }
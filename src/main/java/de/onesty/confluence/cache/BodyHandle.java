@@ -0,0 +1,91 @@
+package de.onesty.confluence.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * <p>This class refers to a body stored in a {@link BodyStore}. It only holds the position of the
+ * encoded body, and decodes it each time it is read.</p>
+ * <p>A handle stays readable after its segment was dropped from the store, since it keeps the
+ * memory of the segment alive; {@link #isRetired()} tells whether that is the case, so that caches
+ * can let go of it.</p>
+ */
+public final class BodyHandle implements Supplier<String> {
+
+  private final BodyStore.Segment segment;
+  private final int offset;
+  private final int storedLength;
+  private final int length;
+  private final boolean compressed;
+
+  BodyHandle(BodyStore.Segment segment, int offset, int storedLength, int length,
+      boolean compressed) {
+    this.segment = segment;
+    this.offset = offset;
+    this.storedLength = storedLength;
+    this.length = length;
+    this.compressed = compressed;
+  }
+
+  /**
+   * This method decodes the body.
+   *
+   * @return The body.
+   */
+  @Override
+  public String get() {
+    ByteBuffer buffer = segment.buffer.duplicate();
+    buffer.limit(offset + storedLength).position(offset);
+    byte[] stored = new byte[storedLength];
+    buffer.get(stored);
+    if (!compressed) {
+      return new String(stored, StandardCharsets.UTF_8);
+    }
+
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(stored);
+      byte[] bytes = new byte[length];
+      int inflated = 0;
+      while (inflated < length && !inflater.finished()) {
+        inflated += inflater.inflate(bytes, inflated, length - inflated);
+      }
+      return new String(bytes, 0, inflated, StandardCharsets.UTF_8);
+    } catch (DataFormatException e) {
+      throw new IllegalStateException("The stored body is corrupt", e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  /**
+   * This method returns the size of the body once encoded as UTF-8.
+   *
+   * @return The size in bytes.
+   */
+  public int getLength() {
+    return length;
+  }
+
+  /**
+   * This method returns the size the body occupies in the store.
+   *
+   * @return The size in bytes, which is smaller than {@link #getLength()} if it was compressed.
+   */
+  public int getStoredLength() {
+    return storedLength;
+  }
+
+  /**
+   * This method returns whether the segment of this body was dropped from the store, either to
+   * make room for new bodies or because the store was closed.
+   *
+   * @return {@code true} if the body is no longer part of the store.
+   */
+  public boolean isRetired() {
+    return segment.retired;
+  }
+}
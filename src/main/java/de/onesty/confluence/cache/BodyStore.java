@@ -0,0 +1,365 @@
+package de.onesty.confluence.cache;
+
+import de.onesty.confluence.content.ContentBodyType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.zip.Deflater;
+
+/**
+ * <p>This class keeps content bodies outside of the Java heap, so that a large number of bodies
+ * can be kept at hand without growing the heap and the pauses of the garbage collector with
+ * them.</p>
+ * <p>Bodies are encoded as UTF-8, optionally deflated, and appended to segments of a fixed size.
+ * Segments are direct buffers, or, if a directory is given, memory-mapped files in that directory,
+ * which the operating system can page out as needed. Once the segments exceed the maximum size of
+ * the store, the oldest segment is dropped with all of its bodies.</p>
+ * <p>Bodies are identified by the id and version of their content and their body type, and read
+ * through a {@link BodyHandle}. A {@link ContentCache} created with a body store moves the bodies
+ * of the content it caches into the store.</p>
+ */
+public class BodyStore implements AutoCloseable {
+
+  private final Path directory;
+  private final int segmentSize;
+  private final long maximumSize;
+  private final boolean compression;
+  private final int compressionThreshold;
+
+  private final Map<Key, BodyHandle> index = new ConcurrentHashMap<>();
+  private final Deque<Segment> segments = new ArrayDeque<>();
+  // Deflaters are pooled, so that bodies are compressed concurrently, outside of the lock
+  private final Queue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+  private final List<BiConsumer<String, Integer>> retirementListeners = new CopyOnWriteArrayList<>();
+  private long size;
+  private int segmentCount;
+  private boolean closed;
+
+  /**
+   * This class holds the memory of a segment. Handles refer to the segment rather than the store,
+   * so that the memory stays valid for as long as a handle is reachable.
+   */
+  static final class Segment {
+
+    final ByteBuffer buffer;
+    final Path file;
+    final List<Key> keys = new ArrayList<>();
+    volatile boolean retired;
+
+    Segment(ByteBuffer buffer, Path file) {
+      this.buffer = buffer;
+      this.file = file;
+    }
+  }
+
+  private BodyStore(Builder builder) {
+    this.directory = builder.directory;
+    this.segmentSize = builder.segmentSize;
+    this.maximumSize = builder.maximumSize;
+    this.compression = builder.compression;
+    this.compressionThreshold = builder.compressionThreshold;
+  }
+
+  /**
+   * This method stores a body. A body is identified by the id and version of its content, so if the
+   * body is already stored, its existing handle is returned and the body is not appended again.
+   *
+   * @param id The unique identifier of the content.
+   * @param version The version number of the content.
+   * @param type The type of the body.
+   * @param value The body.
+   * @return The handle to read the body.
+   * @throws UncheckedIOException If a segment file could not be created.
+   * @throws IllegalStateException If the store was closed.
+   */
+  public BodyHandle put(String id, int version, ContentBodyType type, String value) {
+    Key key = new Key(id, version, type);
+    BodyHandle handle = index.get(key);
+    if (handle != null && !handle.isRetired()) {
+      return handle;
+    }
+
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    byte[] stored = compression && bytes.length >= compressionThreshold ? deflate(bytes) : null;
+    boolean compressed = stored != null;
+    if (!compressed) {
+      stored = bytes;
+    }
+
+    synchronized (this) {
+      if (closed) {
+        throw new IllegalStateException("The body store is closed");
+      }
+      // Another thread may have stored the same body while this one was compressing it
+      handle = index.get(key);
+      if (handle != null && !handle.isRetired()) {
+        return handle;
+      }
+
+      Segment segment = segments.peekLast();
+      if (segment == null || segment.buffer.remaining() < stored.length) {
+        segment = allocate(Math.max(segmentSize, stored.length));
+      }
+      int offset = segment.buffer.position();
+      segment.buffer.put(stored);
+      segment.keys.add(key);
+      handle = new BodyHandle(segment, offset, stored.length, bytes.length, compressed);
+      index.put(key, handle);
+    }
+    return handle;
+  }
+
+  /**
+   * This method looks up a stored body.
+   *
+   * @param id The unique identifier of the content.
+   * @param version The version number of the content.
+   * @param type The type of the body.
+   * @return The handle to read the body, or {@code null} if it is not stored.
+   */
+  public BodyHandle get(String id, int version, ContentBodyType type) {
+    return index.get(new Key(id, version, type));
+  }
+
+  /**
+   * This method returns the memory occupied by the segments of the store.
+   *
+   * @return The size in bytes.
+   */
+  public synchronized long getSize() {
+    return size;
+  }
+
+  /**
+   * This method returns the number of stored bodies.
+   *
+   * @return The number of bodies.
+   */
+  public int getBodyCount() {
+    return index.size();
+  }
+
+  /**
+   * This method drops all segments and deletes their files. Handles that are still reachable
+   * remain readable until they are no longer used.
+   */
+  @Override
+  public synchronized void close() {
+    closed = true;
+    while (!segments.isEmpty()) {
+      retire(segments.pollFirst());
+    }
+    Deflater deflater;
+    while ((deflater = deflaters.poll()) != null) {
+      deflater.end();
+    }
+  }
+
+  /**
+   * This method registers a listener that is called with the id and version of each body whose
+   * segment is dropped, while the lock of the store is held.
+   */
+  void addRetirementListener(BiConsumer<String, Integer> listener) {
+    retirementListeners.add(listener);
+  }
+
+  private Segment allocate(int capacity) {
+    while (!segments.isEmpty() && size + capacity > maximumSize) {
+      retire(segments.pollFirst());
+    }
+
+    Segment segment;
+    if (directory == null) {
+      segment = new Segment(ByteBuffer.allocateDirect(capacity), null);
+    } else {
+      Path file = directory.resolve("bodies-" + segmentCount + ".seg");
+      // The mapping remains valid after the channel is closed
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+          StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+          StandardOpenOption.WRITE)) {
+        segment = new Segment(channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity), file);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Could not create the segment file " + file, e);
+      }
+    }
+    segmentCount++;
+    size += capacity;
+    segments.addLast(segment);
+    return segment;
+  }
+
+  private void retire(Segment segment) {
+    segment.retired = true;
+    size -= segment.buffer.capacity();
+    for (Key key : segment.keys) {
+      BodyHandle handle = index.get(key);
+      if (handle != null && handle.isRetired()) {
+        index.remove(key, handle);
+      }
+      for (BiConsumer<String, Integer> listener : retirementListeners) {
+        listener.accept(key.id, key.version);
+      }
+    }
+    if (segment.file != null) {
+      try {
+        Files.deleteIfExists(segment.file);
+      } catch (IOException e) {
+        // The file may still be mapped on platforms that do not allow deleting it
+        segment.file.toFile().deleteOnExit();
+      }
+    }
+  }
+
+  // Returns null if deflating does not make the body smaller
+  private byte[] deflate(byte[] bytes) {
+    Deflater deflater = deflaters.poll();
+    if (deflater == null) {
+      deflater = new Deflater(Deflater.BEST_SPEED);
+    }
+    try {
+      deflater.setInput(bytes);
+      deflater.finish();
+      byte[] buffer = new byte[bytes.length];
+      int length = 0;
+      while (!deflater.finished()) {
+        if (length == buffer.length) {
+          return null;
+        }
+        length += deflater.deflate(buffer, length, buffer.length - length);
+      }
+      return Arrays.copyOf(buffer, length);
+    } finally {
+      deflater.reset();
+      deflaters.offer(deflater);
+    }
+  }
+
+  static final class Key {
+
+    private final String id;
+    private final int version;
+    private final ContentBodyType type;
+
+    Key(String id, int version, ContentBodyType type) {
+      this.id = id;
+      this.version = version;
+      this.type = type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) o;
+      return version == that.version && type == that.type && id.equals(that.id);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(id, version, type);
+    }
+  }
+
+  /**
+   * This class can be used to construct an instance of {@link BodyStore}.
+   */
+  public static class Builder {
+
+    private Path directory;
+    private int segmentSize = 64 * 1024 * 1024;
+    private long maximumSize = 1024L * 1024 * 1024;
+    private boolean compression = true;
+    private int compressionThreshold = 4096;
+
+    /**
+     * This method sets the directory in which segment files are created. Without a directory,
+     * segments are kept in direct buffers.
+     *
+     * @param directory An existing directory, or {@code null} to not use files.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setDirectory(Path directory) {
+      this.directory = directory;
+      return this;
+    }
+
+    /**
+     * This method sets the size of each segment. Bodies that are larger get a segment of their
+     * own.
+     *
+     * @param segmentSize The size in bytes. Defaults to 64 MiB.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setSegmentSize(int segmentSize) {
+      this.segmentSize = segmentSize;
+      return this;
+    }
+
+    /**
+     * This method sets the size the segments of the store may occupy in total, after which the
+     * oldest segments are dropped.
+     *
+     * @param maximumSize The size in bytes. Defaults to 1 GiB.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setMaximumSize(long maximumSize) {
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    /**
+     * This method sets whether bodies are deflated. Bodies are only stored compressed if they are
+     * at least as large as the threshold and compression makes them smaller.
+     *
+     * @param compression Whether bodies are deflated. Defaults to {@code true}.
+     * @param threshold The smallest size in bytes of a body to compress. Defaults to 4096.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setCompression(boolean compression, int threshold) {
+      this.compression = compression;
+      this.compressionThreshold = threshold;
+      return this;
+    }
+
+    /**
+     * This method creates an instance of {@link BodyStore} using the values that were set on this
+     * instance.
+     *
+     * @return A new instance of {@link BodyStore} with the values set on this instance.
+     * @throws IllegalStateException If the store that would be created would be invalid.
+     */
+    public BodyStore build() throws IllegalStateException {
+      if (this.segmentSize <= 0 || this.maximumSize < this.segmentSize) {
+        throw new IllegalStateException("The segment size must be positive and not exceed the maximum size");
+      }
+
+      if (this.directory != null && !Files.isDirectory(this.directory)) {
+        throw new IllegalStateException("The directory does not exist: " + this.directory);
+      }
+
+      return new BodyStore(this);
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package de.onesty.confluence.cache;
+
+/**
+ * This class is a snapshot of the counters of a {@link ContentCache}.
+ */
+public class CacheStats {
+
+  private final long hitCount;
+  private final long missCount;
+  private final long evictionCount;
+  private final long evictionWeight;
+  private final int size;
+  private final long weight;
+
+  CacheStats(long hitCount, long missCount, long evictionCount, long evictionWeight, int size,
+      long weight) {
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.evictionCount = evictionCount;
+    this.evictionWeight = evictionWeight;
+    this.size = size;
+    this.weight = weight;
+  }
+
+  /**
+   * This method returns the number of lookups that were answered from the cache.
+   *
+   * @return The number of hits.
+   */
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * This method returns the number of lookups that were not answered from the cache.
+   *
+   * @return The number of misses.
+   */
+  public long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * This method returns the ratio of lookups that were answered from the cache.
+   *
+   * @return The hit rate, or 1 if there were no lookups.
+   */
+  public double getHitRate() {
+    long lookups = hitCount + missCount;
+    return lookups == 0 ? 1.0 : (double) hitCount / lookups;
+  }
+
+  /**
+   * This method returns the number of entries that were evicted to keep the cache within its
+   * bounds. Entries that were invalidated are not counted.
+   *
+   * @return The number of evictions.
+   */
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * This method returns the total weight of the entries that were evicted.
+   *
+   * @return The evicted weight, in bytes.
+   */
+  public long getEvictionWeight() {
+    return evictionWeight;
+  }
+
+  /**
+   * This method returns the number of entries in the cache.
+   *
+   * @return The number of entries.
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * This method returns the total weight of the entries in the cache.
+   *
+   * @return The weight, in bytes.
+   */
+  public long getWeight() {
+    return weight;
+  }
+
+  @Override
+  public String toString() {
+    return "[hits: " + hitCount + "; misses: " + missCount + "; evictions: " + evictionCount
+        + "; size: " + size + "; weight: " + weight + "]";
+  }
+}
@@ -0,0 +1,486 @@
+package de.onesty.confluence.cache;
+
+import de.onesty.confluence.content.Content;
+import de.onesty.confluence.content.ContentBody;
+import de.onesty.confluence.content.ContentBodyFormat;
+import de.onesty.confluence.content.ContentBodyType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * <p>This class caches {@link Content} by its id, version number and expanded properties. Since
+ * content at a given version never changes, entries do not expire; they are only evicted to keep
+ * the cache within its maximum number of entries and its maximum weight, which approximates the
+ * memory used by the titles and bodies of the cached content.</p>
+ * <p>Eviction follows the W-TinyLFU policy: new entries are kept in a small LRU window. When they
+ * leave the window, they are only admitted into the main area, a segmented LRU, if they were
+ * accessed more often than the entry that would be evicted in their place. Access frequencies are
+ * estimated by a {@link FrequencySketch}, which also remembers keys that are not cached, so that a
+ * burst of content that is read once does not flush the content that is read repeatedly.</p>
+ * <p>If the cache is created with a {@link BodyStore}, the bodies of cached content are moved into
+ * the store, and the content only keeps handles that decode them when they are read. The weight
+ * of an entry then only accounts for its heap memory. Content whose bodies are dropped from the
+ * store is evicted from the cache.</p>
+ * <p>An instance can be shared by several clients and threads.</p>
+ */
+public class ContentCache {
+
+  // Rough size of the objects of an entry besides its strings
+  private static final long ENTRY_OVERHEAD = 256;
+  private static final long HANDLE_OVERHEAD = 48;
+
+  private final long maximumSize;
+  private final long maximumWeight;
+  private final long windowMaxSize;
+  private final long windowMaxWeight;
+  private final long protectedMaxSize;
+  private final long protectedMaxWeight;
+  private final FrequencySketch sketch;
+  private final BodyStore bodyStore;
+
+  private final Map<Key, Node> data = new HashMap<>();
+  private final Map<String, Set<Key>> keysById = new HashMap<>();
+  // Access ordered queues, least recently used first
+  private final LinkedHashMap<Key, Node> window = new LinkedHashMap<>();
+  private final LinkedHashMap<Key, Node> probation = new LinkedHashMap<>();
+  private final LinkedHashMap<Key, Node> protectedQueue = new LinkedHashMap<>();
+  private long windowWeight;
+  private long protectedWeight;
+  private long totalWeight;
+
+  private long hitCount;
+  private long missCount;
+  private long evictionCount;
+  private long evictionWeight;
+
+  private enum Queue {
+    WINDOW, PROBATION, PROTECTED
+  }
+
+  private ContentCache(Builder builder) {
+    this.maximumSize = builder.maximumSize;
+    this.maximumWeight = builder.maximumWeight;
+    this.windowMaxSize = Math.max(1, maximumSize / 100);
+    this.windowMaxWeight = Math.max(1, maximumWeight / 100);
+    this.protectedMaxSize = Math.max(1, (maximumSize - windowMaxSize) * 4 / 5);
+    this.protectedMaxWeight = Math.max(1, (maximumWeight - windowMaxWeight) * 4 / 5);
+    this.sketch = new FrequencySketch(maximumSize);
+    this.bodyStore = builder.bodyStore;
+    if (bodyStore != null) {
+      bodyStore.addRetirementListener(this::onBodyRetired);
+    }
+  }
+
+  /**
+   * This method looks up content in the cache.
+   *
+   * @param id The unique identifier of the content.
+   * @param version The version number of the content.
+   * @param expand The expanded properties the content was requested with, or {@code null}.
+   * @return The cached content, or {@code null} if it is not cached.
+   */
+  public synchronized Content get(String id, int version, String expand) {
+    Key key = new Key(id, version, expand);
+    sketch.increment(key);
+    Node node = data.get(key);
+    if (node != null && isRetired(node)) {
+      remove(node);
+      node = null;
+    }
+    if (node == null) {
+      missCount++;
+      return null;
+    }
+    hitCount++;
+    onAccess(node);
+    return node.content;
+  }
+
+  /**
+   * This method looks up content in the cache without counting it as an access: neither the
+   * statistics nor the frequency of the content nor its position in the eviction order change.
+   *
+   * @param id The unique identifier of the content.
+   * @param version The version number of the content.
+   * @param expand The expanded properties the content was requested with, or {@code null}.
+   * @return The cached content, or {@code null} if it is not cached.
+   */
+  synchronized Content peek(String id, int version, String expand) {
+    Node node = data.get(new Key(id, version, expand));
+    if (node != null && isRetired(node)) {
+      remove(node);
+      node = null;
+    }
+    return node != null ? node.content : null;
+  }
+
+  /**
+   * This method adds content to the cache. Content without a version number is not cached, nor is
+   * content that is heavier than the maximum weight of the cache.
+   *
+   * @param content The content, as returned by the server.
+   * @param expand The expanded properties the content was requested with, or {@code null}.
+   */
+  public void put(Content content, String expand) {
+    if (content == null || content.getId() == null || content.getVersion() == null
+        || content.getVersion().getNumber() == null) {
+      return;
+    }
+    Key key = new Key(content.getId(), content.getVersion().getNumber(), expand);
+    List<BodyHandle> handles = bodyStore != null ? offload(content) : Collections.emptyList();
+    long weight = bodyStore != null
+        ? weigh(content.getTitle()) + handles.size() * HANDLE_OVERHEAD
+        : weigh(content);
+    if (weight > maximumWeight) {
+      return;
+    }
+    put(key, content, handles, weight);
+  }
+
+  private synchronized void put(Key key, Content content, List<BodyHandle> handles, long weight) {
+    Node node = data.get(key);
+    if (node != null) {
+      addWeight(node, weight - node.weight);
+      node.weight = weight;
+      node.content = content;
+      node.handles = handles;
+      onAccess(node);
+    } else {
+      sketch.increment(key);
+      node = new Node(key, content, handles, weight);
+      data.put(key, node);
+      keysById.computeIfAbsent(key.id, id -> new HashSet<>()).add(key);
+      window.put(key, node);
+      addWeight(node, weight);
+    }
+    evict();
+  }
+
+  /**
+   * This method removes all versions of the given content from the cache, e.g. because the
+   * content was modified or deleted.
+   *
+   * @param id The unique identifier of the content.
+   */
+  public synchronized void invalidate(String id) {
+    Set<Key> keys = keysById.get(id);
+    if (keys == null) {
+      return;
+    }
+    for (Key key : keys.toArray(new Key[0])) {
+      remove(data.get(key));
+    }
+  }
+
+  /**
+   * This method removes all entries from the cache.
+   */
+  public synchronized void invalidateAll() {
+    data.clear();
+    keysById.clear();
+    window.clear();
+    probation.clear();
+    protectedQueue.clear();
+    windowWeight = 0;
+    protectedWeight = 0;
+    totalWeight = 0;
+  }
+
+  /**
+   * This method returns the current counters of the cache.
+   *
+   * @return A snapshot of the counters.
+   */
+  public synchronized CacheStats getStats() {
+    return new CacheStats(hitCount, missCount, evictionCount, evictionWeight, data.size(),
+        totalWeight);
+  }
+
+  /**
+   * This method moves the bodies of the given content into the body store.
+   */
+  private List<BodyHandle> offload(Content content) {
+    ContentBody body = content.getBody();
+    if (body == null) {
+      return Collections.emptyList();
+    }
+    List<BodyHandle> handles = new ArrayList<>();
+    for (ContentBodyType type : ContentBodyType.values()) {
+      ContentBodyFormat format = body.getFormat(type);
+      String value = format != null ? format.getValue() : null;
+      if (value != null) {
+        BodyHandle handle = bodyStore.put(content.getId(), content.getVersion().getNumber(), type,
+            value);
+        format.setValueSource(handle);
+        handles.add(handle);
+      }
+    }
+    return handles;
+  }
+
+  /**
+   * This method evicts the entries of the given content whose bodies were dropped from the store,
+   * so that they do not keep the memory of the dropped segment alive.
+   */
+  private synchronized void onBodyRetired(String id, int version) {
+    Set<Key> keys = keysById.get(id);
+    if (keys == null) {
+      return;
+    }
+    for (Key key : keys.toArray(new Key[0])) {
+      Node node = data.get(key);
+      if (key.version == version && isRetired(node)) {
+        evictionCount++;
+        evictionWeight += node.weight;
+        remove(node);
+      }
+    }
+  }
+
+  private static boolean isRetired(Node node) {
+    for (BodyHandle handle : node.handles) {
+      if (handle.isRetired()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void onAccess(Node node) {
+    switch (node.queue) {
+      case WINDOW:
+        window.remove(node.key);
+        window.put(node.key, node);
+        break;
+      case PROTECTED:
+        protectedQueue.remove(node.key);
+        protectedQueue.put(node.key, node);
+        break;
+      case PROBATION:
+        probation.remove(node.key);
+        node.queue = Queue.PROTECTED;
+        protectedQueue.put(node.key, node);
+        protectedWeight += node.weight;
+        while (protectedQueue.size() > 1 && (protectedQueue.size() > protectedMaxSize
+            || protectedWeight > protectedMaxWeight)) {
+          Node demoted = removeFirst(protectedQueue);
+          protectedWeight -= demoted.weight;
+          demoted.queue = Queue.PROBATION;
+          probation.put(demoted.key, demoted);
+        }
+        break;
+    }
+  }
+
+  private void evict() {
+    // Entries leaving the window compete with the least recently used entry of the probation queue
+    Deque<Node> candidates = new ArrayDeque<>();
+    while (!window.isEmpty() && (window.size() > windowMaxSize || windowWeight > windowMaxWeight)) {
+      Node candidate = removeFirst(window);
+      windowWeight -= candidate.weight;
+      candidate.queue = Queue.PROBATION;
+      probation.put(candidate.key, candidate);
+      candidates.add(candidate);
+    }
+
+    while (data.size() > maximumSize || totalWeight > maximumWeight) {
+      Node victim = first(probation);
+      if (victim == null) {
+        victim = first(protectedQueue) != null ? first(protectedQueue) : first(window);
+      }
+      Node candidate = candidates.peekFirst();
+      if (candidate != null && candidate != victim && victim.queue == Queue.PROBATION) {
+        candidates.removeFirst();
+        if (sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+          victim = candidate;
+        }
+      } else {
+        candidates.remove(victim);
+      }
+      evictionCount++;
+      evictionWeight += victim.weight;
+      remove(victim);
+    }
+  }
+
+  private void remove(Node node) {
+    data.remove(node.key);
+    Set<Key> keys = keysById.get(node.key.id);
+    keys.remove(node.key);
+    if (keys.isEmpty()) {
+      keysById.remove(node.key.id);
+    }
+    switch (node.queue) {
+      case WINDOW:
+        window.remove(node.key);
+        break;
+      case PROBATION:
+        probation.remove(node.key);
+        break;
+      case PROTECTED:
+        protectedQueue.remove(node.key);
+        break;
+    }
+    addWeight(node, -node.weight);
+  }
+
+  private void addWeight(Node node, long delta) {
+    totalWeight += delta;
+    if (node.queue == Queue.WINDOW) {
+      windowWeight += delta;
+    } else if (node.queue == Queue.PROTECTED) {
+      protectedWeight += delta;
+    }
+  }
+
+  private static Node first(LinkedHashMap<Key, Node> queue) {
+    Iterator<Node> nodes = queue.values().iterator();
+    return nodes.hasNext() ? nodes.next() : null;
+  }
+
+  private static Node removeFirst(LinkedHashMap<Key, Node> queue) {
+    Iterator<Node> nodes = queue.values().iterator();
+    Node node = nodes.next();
+    nodes.remove();
+    return node;
+  }
+
+  /**
+   * This method estimates the memory used by the strings of the given content, counting two bytes
+   * per character.
+   */
+  static long weigh(Content content) {
+    long weight = weigh(content.getTitle());
+    ContentBody body = content.getBody();
+    if (body != null) {
+      for (ContentBodyType type : ContentBodyType.values()) {
+        ContentBodyFormat format = body.getFormat(type);
+        if (format != null && format.getValue() != null) {
+          weight += 2L * format.getValue().length();
+        }
+      }
+    }
+    return weight;
+  }
+
+  private static long weigh(String title) {
+    return ENTRY_OVERHEAD + (title != null ? 2L * title.length() : 0);
+  }
+
+  private static final class Key {
+
+    private final String id;
+    private final int version;
+    private final String expand;
+
+    Key(String id, int version, String expand) {
+      this.id = id;
+      this.version = version;
+      this.expand = expand;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) o;
+      return version == that.version && id.equals(that.id) && Objects.equals(expand, that.expand);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(id, version, expand);
+    }
+  }
+
+  private static final class Node {
+
+    private final Key key;
+    private Content content;
+    private List<BodyHandle> handles;
+    private long weight;
+    private Queue queue = Queue.WINDOW;
+
+    Node(Key key, Content content, List<BodyHandle> handles, long weight) {
+      this.key = key;
+      this.content = content;
+      this.handles = handles;
+      this.weight = weight;
+    }
+  }
+
+  /**
+   * This class can be used to construct an instance of {@link ContentCache}.
+   */
+  public static class Builder {
+
+    private long maximumSize = 10000;
+    private long maximumWeight = 64L * 1024 * 1024;
+    private BodyStore bodyStore;
+
+    /**
+     * This method sets the maximum number of entries in the cache.
+     *
+     * @param maximumSize The maximum number of entries. Defaults to 10000.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setMaximumSize(long maximumSize) {
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    /**
+     * This method sets the maximum total weight of the entries in the cache.
+     *
+     * @param maximumWeight The maximum weight, in bytes. Defaults to 64 MiB.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setMaximumWeight(long maximumWeight) {
+      this.maximumWeight = maximumWeight;
+      return this;
+    }
+
+    /**
+     * This method sets the store that the bodies of cached content are moved into. The maximum
+     * weight of the cache then only limits the heap memory of its entries, while the memory of the
+     * bodies is limited by the store.
+     *
+     * @param bodyStore The body store, or {@code null} to keep bodies on the heap.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setBodyStore(BodyStore bodyStore) {
+      this.bodyStore = bodyStore;
+      return this;
+    }
+
+    /**
+     * This method creates an instance of {@link ContentCache} using the values that were set on
+     * this instance.
+     *
+     * @return A new instance of {@link ContentCache} with the values set on this instance.
+     * @throws IllegalStateException If the cache that would be created would be invalid.
+     */
+    public ContentCache build() throws IllegalStateException {
+      if (this.maximumSize <= 0 || this.maximumWeight <= 0) {
+        throw new IllegalStateException("The maximum size and weight must be positive numbers");
+      }
+
+      return new ContentCache(this);
+    }
+  }
+}
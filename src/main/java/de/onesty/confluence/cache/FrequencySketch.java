@@ -0,0 +1,67 @@
+package de.onesty.confluence.cache;
+
+/**
+ * This class estimates how often keys were accessed recently, using a count-min sketch of four
+ * rows of counters that saturate at 15. Once the number of recorded accesses reaches ten times
+ * the capacity of the cache, all counters are halved, so that the estimates age and keys that were
+ * popular a long time ago are not admitted forever.
+ */
+final class FrequencySketch {
+
+  private static final int ROWS = 4;
+  private static final int MAX_COUNT = 15;
+  private static final int[] SEEDS = {0x97cb3127, 0xb6a0c3d1, 0x8a4ef9b5, 0xc2b2ae35};
+
+  private final byte[] table;
+  private final int rowMask;
+  private final int sampleSize;
+  private int additions;
+
+  FrequencySketch(long capacity) {
+    int width = Integer.highestOneBit((int) Math.max(16, Math.min(capacity, 1 << 24)) - 1) << 1;
+    this.table = new byte[ROWS * width];
+    this.rowMask = width - 1;
+    this.sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * Math.max(capacity, 16));
+  }
+
+  void increment(Object key) {
+    int hash = spread(key.hashCode());
+    boolean added = false;
+    for (int row = 0; row < ROWS; row++) {
+      int index = indexOf(hash, row);
+      if (table[index] < MAX_COUNT) {
+        table[index]++;
+        added = true;
+      }
+    }
+    if (added && ++additions >= sampleSize) {
+      reset();
+    }
+  }
+
+  int frequency(Object key) {
+    int hash = spread(key.hashCode());
+    int frequency = MAX_COUNT;
+    for (int row = 0; row < ROWS; row++) {
+      frequency = Math.min(frequency, table[indexOf(hash, row)]);
+    }
+    return frequency;
+  }
+
+  private int indexOf(int hash, int row) {
+    int h = (hash ^ SEEDS[row]) * SEEDS[(row + 1) % ROWS];
+    return row * (rowMask + 1) + ((h ^ (h >>> 16)) & rowMask);
+  }
+
+  private void reset() {
+    for (int i = 0; i < table.length; i++) {
+      table[i] >>>= 1;
+    }
+    additions /= 2;
+  }
+
+  private static int spread(int hash) {
+    int h = hash * 0x9e3779b9;
+    return h ^ (h >>> 16);
+  }
+}
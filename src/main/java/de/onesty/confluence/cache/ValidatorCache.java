@@ -0,0 +1,269 @@
+package de.onesty.confluence.cache;
+
+import de.onesty.confluence.content.Content;
+import de.onesty.confluence.requests.GetAttachmentsResponse;
+import de.onesty.confluence.requests.GetContentResponse;
+import de.onesty.confluence.requests.SearchContentResponse;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <p>This class remembers the validators ({@code ETag} and {@code Last-Modified}) of responses,
+ * together with their deserialized entities, keyed by the request they were returned for. When
+ * the same request is sent again, the client sends the validators along as {@code If-None-Match}
+ * and {@code If-Modified-Since}; if the server answers with {@code 304 Not Modified}, the
+ * remembered entity is returned instead of downloading and parsing the body again.</p>
+ * <p>Both the number of remembered responses and their weight, which approximates the memory used
+ * by the titles and bodies of the remembered content, are bounded; the least recently used are
+ * discarded first, and responses heavier than the maximum weight are not remembered. A single
+ * piece of content can instead be remembered by a {@link ContentReference}, which leaves the
+ * content itself to a {@link ContentCache}. Remembered entities are returned to every caller that
+ * revalidates them, and therefore must not be modified.</p>
+ */
+public class ValidatorCache {
+
+  // Rough size of the objects of an entry besides the strings of its content
+  private static final long ENTRY_OVERHEAD = 256;
+
+  private final int maximumSize;
+  private final long maximumWeight;
+  // Access ordered, least recently used first
+  private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long totalWeight;
+
+  private long hitCount;
+  private long missCount;
+  private long evictionCount;
+  private long evictionWeight;
+
+  private ValidatorCache(Builder builder) {
+    this.maximumSize = builder.maximumSize;
+    this.maximumWeight = builder.maximumWeight;
+  }
+
+  /**
+   * This class holds the validators and entity of a response.
+   */
+  public static final class Entry {
+
+    private final String eTag;
+    private final String lastModified;
+    private final Object value;
+    private final long weight;
+
+    Entry(String eTag, String lastModified, Object value, long weight) {
+      this.eTag = eTag;
+      this.lastModified = lastModified;
+      this.value = value;
+      this.weight = weight;
+    }
+
+    /**
+     * This method returns the entity tag of the response.
+     *
+     * @return The value of the {@code ETag} header, or {@code null} if there was none.
+     */
+    public String getETag() {
+      return eTag;
+    }
+
+    /**
+     * This method returns the modification date of the response.
+     *
+     * @return The value of the {@code Last-Modified} header, or {@code null} if there was none.
+     */
+    public String getLastModified() {
+      return lastModified;
+    }
+
+    /**
+     * This method returns the deserialized entity of the response.
+     *
+     * @return The entity, or a {@link ContentReference} to the content in a {@link ContentCache}.
+     */
+    public Object getValue() {
+      return value;
+    }
+  }
+
+  /**
+   * This class identifies a piece of content that is kept in a {@link ContentCache} instead of the
+   * validator cache, so that the same content is not held in memory by both caches.
+   */
+  public static final class ContentReference {
+
+    private final String id;
+    private final int version;
+    private final String expand;
+
+    /**
+     * This constructor creates a reference to the given version of a piece of content.
+     *
+     * @param id The unique identifier of the content.
+     * @param version The version number of the content.
+     * @param expand The expanded properties the content was requested with, or {@code null}.
+     */
+    public ContentReference(String id, int version, String expand) {
+      this.id = Objects.requireNonNull(id);
+      this.version = version;
+      this.expand = expand;
+    }
+
+    /**
+     * This method looks up the referenced content in the given cache. The lookup serves the
+     * revalidation of the content, so it is not counted as a hit or miss of the content cache, nor
+     * does it make the content more likely to stay in the cache.
+     *
+     * @param cache The cache the content was added to.
+     * @return The content, or {@code null} if it was evicted from the cache.
+     */
+    public Content resolve(ContentCache cache) {
+      return cache.peek(id, version, expand);
+    }
+  }
+
+  /**
+   * This method returns the validators remembered for the given request.
+   *
+   * @param key The request, which must implement {@link Object#equals(Object)} and {@link
+   * Object#hashCode()}.
+   * @return The remembered response, or {@code null} if there is none.
+   */
+  public synchronized Entry get(Object key) {
+    return entries.get(key);
+  }
+
+  /**
+   * This method remembers the validators and entity of a response that was downloaded in full.
+   * Responses without validators cannot be revalidated and are not remembered.
+   *
+   * @param key The request the response was returned for.
+   * @param eTag The value of the {@code ETag} header, or {@code null}.
+   * @param lastModified The value of the {@code Last-Modified} header, or {@code null}.
+   * @param value The deserialized entity.
+   */
+  public synchronized void put(Object key, String eTag, String lastModified, Object value) {
+    missCount++;
+    Entry previous = entries.remove(key);
+    if (previous != null) {
+      totalWeight -= previous.weight;
+    }
+    long weight = weigh(value);
+    if ((eTag == null && lastModified == null) || weight > maximumWeight) {
+      return;
+    }
+    entries.put(key, new Entry(eTag, lastModified, value, weight));
+    totalWeight += weight;
+
+    Iterator<Entry> eldest = entries.values().iterator();
+    while (entries.size() > maximumSize || totalWeight > maximumWeight) {
+      Entry evicted = eldest.next();
+      eldest.remove();
+      totalWeight -= evicted.weight;
+      evictionCount++;
+      evictionWeight += evicted.weight;
+    }
+  }
+
+  /**
+   * This method records that the server confirmed a remembered response to be up to date.
+   *
+   * @param entry The remembered response.
+   * @return The entity of the remembered response, or a {@link ContentReference} to it.
+   */
+  public synchronized Object notModified(Entry entry) {
+    hitCount++;
+    return entry.value;
+  }
+
+  /**
+   * This method returns the current counters of the cache. Hits are responses that were not
+   * modified, misses are responses that were downloaded in full.
+   *
+   * @return A snapshot of the counters.
+   */
+  public synchronized CacheStats getStats() {
+    return new CacheStats(hitCount, missCount, evictionCount, evictionWeight, entries.size(),
+        totalWeight);
+  }
+
+  /**
+   * This method estimates the memory used by the given entity, counting two bytes per character of
+   * the titles and bodies of its content.
+   */
+  static long weigh(Object value) {
+    if (value instanceof Content) {
+      return ContentCache.weigh((Content) value);
+    } else if (value instanceof GetContentResponse) {
+      return ENTRY_OVERHEAD + weigh(((GetContentResponse) value).getResults());
+    } else if (value instanceof SearchContentResponse) {
+      return ENTRY_OVERHEAD + weigh(((SearchContentResponse) value).getResults());
+    } else if (value instanceof GetAttachmentsResponse) {
+      return ENTRY_OVERHEAD + weigh(((GetAttachmentsResponse) value).getResults());
+    }
+    return ENTRY_OVERHEAD;
+  }
+
+  private static long weigh(List<Content> results) {
+    long weight = 0;
+    if (results != null) {
+      for (Content content : results) {
+        weight += ContentCache.weigh(content);
+      }
+    }
+    return weight;
+  }
+
+  /**
+   * This class can be used to construct an instance of {@link ValidatorCache}.
+   */
+  public static class Builder {
+
+    private int maximumSize = 1000;
+    private long maximumWeight = 16L * 1024 * 1024;
+
+    /**
+     * This method sets the maximum number of responses that are remembered.
+     *
+     * @param maximumSize The maximum number of responses. Defaults to 1000.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setMaximumSize(int maximumSize) {
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    /**
+     * This method sets the maximum weight of the remembered responses, which approximates the
+     * memory used by the strings of their content in bytes.
+     *
+     * @param maximumWeight The maximum weight. Defaults to 16 MiB.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setMaximumWeight(long maximumWeight) {
+      this.maximumWeight = maximumWeight;
+      return this;
+    }
+
+    /**
+     * This method creates an instance of {@link ValidatorCache} using the values that were set on
+     * this instance.
+     *
+     * @return A new instance of {@link ValidatorCache} with the values set on this instance.
+     * @throws IllegalStateException If the cache that would be created would be invalid.
+     */
+    public ValidatorCache build() throws IllegalStateException {
+      if (this.maximumSize <= 0) {
+        throw new IllegalStateException("The maximum size must be a positive number");
+      }
+
+      if (this.maximumWeight <= 0) {
+        throw new IllegalStateException("The maximum weight must be a positive number");
+      }
+
+      return new ValidatorCache(this);
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package de.onesty.confluence.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class summarises the outcomes of all writes performed by one call of {@link
+ * BulkWriter#write(java.util.stream.Stream)}.
+ */
+public class BulkWriteResult {
+
+  private final List<WriteOutcome> outcomes;
+  private final int failed;
+  private final int conflictRetries;
+
+  BulkWriteResult(List<WriteOutcome> outcomes) {
+    this.outcomes = Collections.unmodifiableList(outcomes);
+    int failed = 0;
+    int conflictRetries = 0;
+    for (WriteOutcome outcome : outcomes) {
+      failed += outcome.isSuccessful() ? 0 : 1;
+      conflictRetries += outcome.getConflictRetries();
+    }
+    this.failed = failed;
+    this.conflictRetries = conflictRetries;
+  }
+
+  /**
+   * This method returns the outcome of each write.
+   *
+   * @return The outcomes, in the order in which the requests were submitted.
+   */
+  public List<WriteOutcome> getOutcomes() {
+    return outcomes;
+  }
+
+  /**
+   * This method returns the outcomes of the writes that failed.
+   *
+   * @return The failed outcomes, in the order in which the requests were submitted.
+   */
+  public List<WriteOutcome> getFailures() {
+    List<WriteOutcome> failures = new ArrayList<>(failed);
+    for (WriteOutcome outcome : outcomes) {
+      if (!outcome.isSuccessful()) {
+        failures.add(outcome);
+      }
+    }
+    return failures;
+  }
+
+  /**
+   * This method returns the number of writes that were applied.
+   *
+   * @return The number of successful writes.
+   */
+  public int getSucceededCount() {
+    return outcomes.size() - failed;
+  }
+
+  /**
+   * This method returns the number of writes that failed.
+   *
+   * @return The number of failed writes.
+   */
+  public int getFailedCount() {
+    return failed;
+  }
+
+  /**
+   * This method returns the total number of times updates were applied again after a version
+   * conflict.
+   *
+   * @return The number of conflict retries.
+   */
+  public int getConflictRetries() {
+    return conflictRetries;
+  }
+
+  @Override
+  public String toString() {
+    return "[succeeded: " + getSucceededCount() + "; failed: " + failed
+        + "; conflict retries: " + conflictRetries + "]";
+  }
+}
@@ -0,0 +1,260 @@
+package de.onesty.confluence.concurrent;
+
+import de.onesty.confluence.ConfluenceClient;
+import de.onesty.confluence.content.Content;
+import de.onesty.confluence.content.expand.ExpandedContentProperties;
+import de.onesty.confluence.errors.ConfluenceRequestException;
+import de.onesty.confluence.requests.ConfluenceRequest;
+import de.onesty.confluence.requests.CreateContentRequest;
+import de.onesty.confluence.requests.GetContentByIdRequest;
+import de.onesty.confluence.requests.UpdateContentRequest;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * <p>This class applies a large number of {@link CreateContentRequest}s and {@link
+ * UpdateContentRequest}s with a bounded number of writes in flight.</p>
+ * <p>Writes to the same page are applied one after the other, in the order in which they were
+ * submitted; writes to different pages run concurrently. Updates are keyed by the id of the
+ * content, creations by their space and title.</p>
+ * <p>If an update is rejected with {@code 409 Conflict} because the page has been changed since
+ * the version the update was based on, the current version is fetched and the update is applied
+ * again on top of it, up to a configurable number of times. A failed write does not stop the
+ * batch: each write is reported with its own {@link WriteOutcome}.</p>
+ */
+public class BulkWriter {
+
+  private static final int CONFLICT = 409;
+  private static final ExpandedContentProperties VERSION_ONLY = new ExpandedContentProperties.Builder()
+      .addVersion()
+      .build();
+
+  private final ConfluenceClient client;
+  private final int maxConcurrentWrites;
+  private final int maxConflictRetries;
+  private final Consumer<WriteOutcome> listener;
+
+  private BulkWriter(Builder builder) {
+    this.client = builder.client;
+    this.maxConcurrentWrites = builder.maxConcurrentWrites;
+    this.maxConflictRetries = builder.maxConflictRetries;
+    this.listener = builder.listener;
+  }
+
+  /**
+   * This method applies all writes of the given stream and waits until they have completed. The
+   * stream is consumed on the calling thread, no faster than the writes complete, so that at most
+   * the configured number of writes are pending at any time.
+   *
+   * @param requests The writes to apply. Each element must be a {@link CreateContentRequest} or an
+   * {@link UpdateContentRequest}; other requests are reported as failed.
+   * @return The outcome of each write.
+   * @throws InterruptedException If the calling thread is interrupted while waiting. Writes that
+   * were already sent are not cancelled.
+   */
+  public BulkWriteResult write(Stream<? extends ConfluenceRequest> requests) throws InterruptedException {
+    Semaphore permits = new Semaphore(maxConcurrentWrites);
+    Map<String, CompletableFuture<WriteOutcome>> lastWriteByPage = new ConcurrentHashMap<>();
+    List<CompletableFuture<WriteOutcome>> outcomes = new ArrayList<>();
+
+    Iterator<? extends ConfluenceRequest> iterator = requests.iterator();
+    int index = 0;
+    while (iterator.hasNext()) {
+      ConfluenceRequest request = iterator.next();
+      permits.acquire();
+
+      String page = pageKey(request);
+      int position = index++;
+      CompletableFuture<WriteOutcome> previous = page != null ? lastWriteByPage.get(page) : null;
+      CompletableFuture<WriteOutcome> outcome = previous == null
+          ? perform(position, request)
+          : previous.thenCompose(done -> perform(position, request));
+      if (page != null) {
+        lastWriteByPage.put(page, outcome);
+      }
+      outcome.whenComplete((result, e) -> {
+        if (page != null) {
+          lastWriteByPage.remove(page, outcome);
+        }
+        permits.release();
+        if (listener != null) {
+          listener.accept(result);
+        }
+      });
+      outcomes.add(outcome);
+    }
+
+    permits.acquire(maxConcurrentWrites);
+    List<WriteOutcome> results = new ArrayList<>(outcomes.size());
+    for (CompletableFuture<WriteOutcome> outcome : outcomes) {
+      results.add(outcome.join());
+    }
+    return new BulkWriteResult(results);
+  }
+
+  /**
+   * This method returns the key of the page the given write applies to.
+   */
+  private static String pageKey(ConfluenceRequest request) {
+    if (request instanceof UpdateContentRequest) {
+      return "id:" + ((UpdateContentRequest) request).getId();
+    }
+    if (request instanceof CreateContentRequest) {
+      CreateContentRequest create = (CreateContentRequest) request;
+      return create.getTitle() != null ? "title:" + create.getSpaceKey() + ":" + create.getTitle() : null;
+    }
+    return null;
+  }
+
+  /**
+   * This method performs the given write. The returned future always completes normally, with the
+   * outcome of the write.
+   */
+  private CompletableFuture<WriteOutcome> perform(int index, ConfluenceRequest request) {
+    try {
+      if (request instanceof UpdateContentRequest) {
+        UpdateContentRequest update = (UpdateContentRequest) request;
+        return update(index, update, update, 0);
+      }
+      if (request instanceof CreateContentRequest) {
+        return client.createContentAsync((CreateContentRequest) request)
+            .handle((content, e) -> new WriteOutcome(index, request, content, unwrap(e), 0));
+      }
+      throw new IllegalArgumentException("Unsupported write request " + request.getClass().getName());
+    } catch (RuntimeException e) {
+      return CompletableFuture.completedFuture(new WriteOutcome(index, request, null, e, 0));
+    }
+  }
+
+  private CompletableFuture<WriteOutcome> update(int index, UpdateContentRequest request,
+      UpdateContentRequest attempt, int conflictRetries) {
+    return client.updateContentAsync(attempt).handle((content, e) -> {
+      Throwable failure = unwrap(e);
+      if (failure == null) {
+        return CompletableFuture.completedFuture(
+            new WriteOutcome(index, request, content, null, conflictRetries));
+      }
+      if (!isConflict(failure) || conflictRetries >= maxConflictRetries) {
+        return CompletableFuture.completedFuture(
+            new WriteOutcome(index, request, null, failure, conflictRetries));
+      }
+      return reapply(index, request, attempt, conflictRetries + 1);
+    }).thenCompose(outcome -> outcome);
+  }
+
+  /**
+   * This method fetches the current version of the content and applies the update on top of it.
+   */
+  private CompletableFuture<WriteOutcome> reapply(int index, UpdateContentRequest request,
+      UpdateContentRequest attempt, int conflictRetries) {
+    GetContentByIdRequest current = new GetContentByIdRequest.Builder()
+        .setId(request.getId())
+        .setExpandedProperties(VERSION_ONLY)
+        .build();
+    return client.getContentByIdAsync(current)
+        .thenCompose(content -> update(index, request,
+            attempt.withVersion(content.getVersion().getNumber() + 1), conflictRetries))
+        .exceptionally(e -> new WriteOutcome(index, request, null, unwrap(e), conflictRetries));
+  }
+
+  private static boolean isConflict(Throwable failure) {
+    return failure instanceof ConfluenceRequestException
+        && Integer.valueOf(CONFLICT).equals(((ConfluenceRequestException) failure).getStatusCode());
+  }
+
+  private static Throwable unwrap(Throwable failure) {
+    return failure instanceof CompletionException && failure.getCause() != null
+        ? failure.getCause()
+        : failure;
+  }
+
+  /**
+   * This class can be used to construct an instance of {@link BulkWriter}.
+   */
+  public static class Builder {
+
+    private ConfluenceClient client;
+    private int maxConcurrentWrites = 4;
+    private int maxConflictRetries = 3;
+    private Consumer<WriteOutcome> listener;
+
+    /**
+     * This method sets the client used to perform the writes.
+     *
+     * @param client The client.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setClient(ConfluenceClient client) {
+      this.client = client;
+      return this;
+    }
+
+    /**
+     * This method sets the maximum number of writes that are pending at the same time, including
+     * writes that wait for an earlier write to the same page.
+     *
+     * @param maxConcurrentWrites The maximum number of writes. Defaults to 4.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setMaxConcurrentWrites(int maxConcurrentWrites) {
+      this.maxConcurrentWrites = maxConcurrentWrites;
+      return this;
+    }
+
+    /**
+     * This method sets how often an update is applied again after a version conflict before it is
+     * reported as failed.
+     *
+     * @param maxConflictRetries The maximum number of retries, or 0 to report conflicts right
+     * away. Defaults to 3.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setMaxConflictRetries(int maxConflictRetries) {
+      this.maxConflictRetries = maxConflictRetries;
+      return this;
+    }
+
+    /**
+     * This method sets a listener that is notified of each outcome as soon as the write completes,
+     * e.g. to report progress. The listener may be called from several threads at once.
+     *
+     * @param listener The listener.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setListener(Consumer<WriteOutcome> listener) {
+      this.listener = listener;
+      return this;
+    }
+
+    /**
+     * This method creates an instance of {@link BulkWriter} using the values that were set on this
+     * instance.
+     *
+     * @return A new instance of {@link BulkWriter} with the values set on this instance.
+     * @throws IllegalStateException If the writer that would be created would be invalid.
+     */
+    public BulkWriter build() throws IllegalStateException {
+      if (this.client == null) {
+        throw new IllegalStateException("You must specify the client");
+      }
+
+      if (this.maxConcurrentWrites <= 0) {
+        throw new IllegalStateException("The number of concurrent writes must be a positive number");
+      }
+
+      if (this.maxConflictRetries < 0) {
+        throw new IllegalStateException("The number of conflict retries must not be negative");
+      }
+
+      return new BulkWriter(this);
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package de.onesty.confluence.concurrent;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class creates executors suitable for running blocking {@link
+ * de.onesty.confluence.ConfluenceClient} calls.
+ */
+public final class ConfluenceExecutors {
+
+  private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutorFactory();
+
+  private ConfluenceExecutors() {
+  }
+
+  /**
+   * This method returns whether the running JVM supports virtual threads (Java 21 or later).
+   *
+   * @return {@code true} if virtual threads are available, {@code false} otherwise.
+   */
+  public static boolean isVirtualThreadSupported() {
+    return NEW_VIRTUAL_THREAD_EXECUTOR != null;
+  }
+
+  /**
+   * This method creates an executor that starts a new virtual thread for each task. Blocking client
+   * calls on such an executor do not tie up a platform thread while they wait for the server.
+   *
+   * @return A new executor that runs each task on its own virtual thread.
+   * @throws UnsupportedOperationException If the running JVM does not support virtual threads.
+   */
+  public static ExecutorService newVirtualThreadPerTaskExecutor() {
+    if (NEW_VIRTUAL_THREAD_EXECUTOR == null) {
+      throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+    }
+    try {
+      return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Could not create a virtual thread executor", e);
+    }
+  }
+
+  /**
+   * This method creates an executor that runs each task on its own thread. On Java 21 or later the
+   * threads are virtual threads, otherwise the executor falls back to an unbounded pool of daemon
+   * platform threads.
+   *
+   * @return A new executor that runs each task on its own thread.
+   */
+  public static ExecutorService newPerTaskExecutor() {
+    if (isVirtualThreadSupported()) {
+      return newVirtualThreadPerTaskExecutor();
+    }
+    return Executors.newCachedThreadPool(new DaemonThreadFactory("confluence-client-"));
+  }
+
+  private static Method findVirtualThreadExecutorFactory() {
+    try {
+      return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+
+  /**
+   * This class creates named daemon threads, so that client worker threads never keep the JVM
+   * alive on their own.
+   */
+  static final class DaemonThreadFactory implements ThreadFactory {
+
+    private final String prefix;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    DaemonThreadFactory(String prefix) {
+      this.prefix = prefix;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
@@ -0,0 +1,163 @@
+package de.onesty.confluence.concurrent;
+
+import de.onesty.confluence.ConfluenceClient;
+import de.onesty.confluence.content.Content;
+import de.onesty.confluence.errors.ConfluenceRequestException;
+import de.onesty.confluence.requests.GetAttachmentsRequest;
+import de.onesty.confluence.requests.GetContentRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * <p>This class runs many {@link ConfluenceClient} calls concurrently within a single structured
+ * scope. Each call of a fan-out method either returns the results of all sub-requests, in the
+ * order of the given requests, or fails with the first error that occurred, in which case all
+ * sub-requests that are still running are cancelled.</p>
+ * <p>By default each sub-request runs on its own virtual thread where the JVM supports it (see
+ * {@link ConfluenceExecutors#newPerTaskExecutor()}), so thousands of lookups can be in flight
+ * without sizing a thread pool.</p>
+ */
+public class ConfluenceFanOut implements AutoCloseable {
+
+  private final ConfluenceClient client;
+  private final ExecutorService executor;
+
+  /**
+   * This constructor creates a fan-out helper that runs each sub-request on its own thread, using
+   * virtual threads where available.
+   *
+   * @param client The client used to perform the sub-requests.
+   */
+  public ConfluenceFanOut(ConfluenceClient client) {
+    this(client, ConfluenceExecutors.newPerTaskExecutor());
+  }
+
+  /**
+   * This constructor creates a fan-out helper that runs the sub-requests on the given executor. The
+   * executor is shut down when this instance is closed.
+   *
+   * @param client The client used to perform the sub-requests.
+   * @param executor The executor used to run the sub-requests.
+   */
+  public ConfluenceFanOut(ConfluenceClient client, ExecutorService executor) {
+    this.client = client;
+    this.executor = executor;
+  }
+
+  /**
+   * This method performs all of the given requests concurrently.
+   *
+   * @param requests The requests to perform.
+   * @return The results of each request, in the order of the given requests.
+   * @throws ConfluenceRequestException If any of the requests fails. The remaining requests are
+   * cancelled.
+   * @throws InterruptedException If the calling thread is interrupted while waiting.
+   */
+  public List<List<Content>> getContent(List<GetContentRequest> requests)
+      throws ConfluenceRequestException, InterruptedException {
+    List<Callable<List<Content>>> tasks = new ArrayList<>(requests.size());
+    for (final GetContentRequest request : requests) {
+      tasks.add(() -> client.getContent(request));
+    }
+    return invokeAll(tasks);
+  }
+
+  /**
+   * This method performs all of the given requests concurrently.
+   *
+   * @param requests The requests to perform.
+   * @return The attachments returned for each request, in the order of the given requests.
+   * @throws ConfluenceRequestException If any of the requests fails. The remaining requests are
+   * cancelled.
+   * @throws InterruptedException If the calling thread is interrupted while waiting.
+   */
+  public List<List<Content>> getAttachments(List<GetAttachmentsRequest> requests)
+      throws ConfluenceRequestException, InterruptedException {
+    List<Callable<List<Content>>> tasks = new ArrayList<>(requests.size());
+    for (final GetAttachmentsRequest request : requests) {
+      tasks.add(() -> client.getAttachments(request));
+    }
+    return invokeAll(tasks);
+  }
+
+  /**
+   * This method runs all of the given tasks concurrently and waits for them to complete. As soon as
+   * one task fails, all other tasks are cancelled and the failure is rethrown.
+   *
+   * @param tasks The tasks to run.
+   * @param <T> The result type of the tasks.
+   * @return The results of each task, in the order of the given tasks.
+   * @throws ConfluenceRequestException If any of the tasks fails with a {@link
+   * ConfluenceRequestException}.
+   * @throws InterruptedException If the calling thread is interrupted while waiting. All tasks are
+   * cancelled in this case.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> List<T> invokeAll(List<? extends Callable<T>> tasks)
+      throws ConfluenceRequestException, InterruptedException {
+    CompletionService<T> completionService = new ExecutorCompletionService<>(executor);
+    List<Future<T>> futures = new ArrayList<>(tasks.size());
+    try {
+      for (Callable<T> task : tasks) {
+        futures.add(completionService.submit(task));
+      }
+
+      for (int i = 0; i < futures.size(); i++) {
+        Future<T> completed = completionService.take();
+        try {
+          completed.get();
+        } catch (ExecutionException e) {
+          throw rethrow(e.getCause());
+        }
+      }
+
+      Object[] results = new Object[futures.size()];
+      for (int i = 0; i < results.length; i++) {
+        results[i] = getDone(futures.get(i));
+      }
+      return (List<T>) Arrays.asList(results);
+    } finally {
+      for (Future<T> future : futures) {
+        future.cancel(true);
+      }
+    }
+  }
+
+  /**
+   * This method shuts down the executor used by this instance.
+   */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  private static <T> T getDone(Future<T> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException | ExecutionException e) {
+      // all futures are known to be complete at this point
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static ConfluenceRequestException rethrow(Throwable cause) throws ConfluenceRequestException {
+    if (cause instanceof ConfluenceRequestException) {
+      throw (ConfluenceRequestException) cause;
+    }
+    if (cause instanceof RuntimeException) {
+      throw (RuntimeException) cause;
+    }
+    if (cause instanceof java.lang.Error) {
+      throw (java.lang.Error) cause;
+    }
+    throw new IllegalStateException(cause);
+  }
+}
@@ -0,0 +1,52 @@
+package de.onesty.confluence.concurrent;
+
+import de.onesty.confluence.content.Content;
+
+/**
+ * This class represents a page visited by a {@link PageTreeWalker}, together with its position in
+ * the tree.
+ */
+public class PageTreeNode {
+
+  private final Content content;
+  private final String parentId;
+  private final int depth;
+
+  PageTreeNode(Content content, String parentId, int depth) {
+    this.content = content;
+    this.parentId = parentId;
+    this.depth = depth;
+  }
+
+  /**
+   * This method returns the visited page.
+   *
+   * @return The page, with the properties expanded that were requested from the walker.
+   */
+  public Content getContent() {
+    return content;
+  }
+
+  /**
+   * This method returns the unique identifier of the parent of the page.
+   *
+   * @return The unique identifier of the parent.
+   */
+  public String getParentId() {
+    return parentId;
+  }
+
+  /**
+   * This method returns the depth of the page below the root of the walk.
+   *
+   * @return The depth, starting with 1 for the children of the root.
+   */
+  public int getDepth() {
+    return depth;
+  }
+
+  @Override
+  public String toString() {
+    return "[id: " + content.getId() + "; parent: " + parentId + "; depth: " + depth + "]";
+  }
+}
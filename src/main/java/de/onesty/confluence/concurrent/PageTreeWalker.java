@@ -0,0 +1,293 @@
+package de.onesty.confluence.concurrent;
+
+import de.onesty.confluence.ConfluenceClient;
+import de.onesty.confluence.content.Content;
+import de.onesty.confluence.content.expand.ExpandedContentProperties;
+import de.onesty.confluence.errors.ConfluenceRequestException;
+import de.onesty.confluence.requests.GetChildPagesRequest;
+import de.onesty.confluence.requests.GetContentResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * <p>This class walks the page tree below a piece of content by following the {@code
+ * rest/api/content/{id}/child/page} endpoint of each page.</p>
+ * <p>Each page whose children are listed is a task in a dedicated {@link ForkJoinPool}. The tasks
+ * of the children are forked as soon as a page of results arrives, so idle workers steal the
+ * oldest, shallowest tasks and the tree is expanded broadly, with as many listings in flight as the
+ * pool has workers. Pages are therefore visited roughly, but not strictly, in level order.</p>
+ * <p>Listings block in a {@link ForkJoinPool.ManagedBlocker}, so that the pool can compensate for
+ * blocked workers, while a semaphore keeps the number of listings in flight at the parallelism of
+ * the walk. The children of a page are listed until the server returns no link to a next page, so
+ * a page size above the maximum of the server does not miss children.</p>
+ * <p>Every page is visited at most once, even if the server lists it under several parents. The
+ * walk stops at the first error; pages that were already visited have been passed to the
+ * visitor.</p>
+ */
+public class PageTreeWalker {
+
+  private final ConfluenceClient client;
+  private final int maxDepth;
+  private final int pageSize;
+  private final int parallelism;
+  private final ExpandedContentProperties expandedProperties;
+
+  private PageTreeWalker(Builder builder) {
+    this.client = builder.client;
+    this.maxDepth = builder.maxDepth;
+    this.pageSize = builder.pageSize;
+    this.parallelism = builder.parallelism;
+    this.expandedProperties = builder.expandedProperties;
+  }
+
+  /**
+   * This method walks the tree below the given content and passes each page to the visitor.
+   *
+   * @param rootId The unique identifier of the content whose descendants are visited. The root
+   * itself is not visited.
+   * @param visitor The visitor. It is called from several threads at once.
+   * @return The number of visited pages.
+   * @throws ConfluenceRequestException If the server responded with an error.
+   */
+  public int walk(String rootId, Consumer<PageTreeNode> visitor) throws ConfluenceRequestException {
+    Walk walk = new Walk(visitor);
+    walk.visited.add(rootId);
+
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      pool.invoke(walk.new ListChildren(rootId, 1));
+    } finally {
+      pool.shutdown();
+    }
+
+    Throwable failure = walk.failure.get();
+    if (failure instanceof ConfluenceRequestException) {
+      throw (ConfluenceRequestException) failure;
+    }
+    if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    }
+    if (failure instanceof Error) {
+      throw (Error) failure;
+    }
+    return walk.visitedCount.get();
+  }
+
+  /**
+   * This class holds the state of a single walk.
+   */
+  private final class Walk {
+
+    private final Consumer<PageTreeNode> visitor;
+    private final Set<String> visited = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger visitedCount = new AtomicInteger();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final Semaphore permits = new Semaphore(parallelism);
+
+    private Walk(Consumer<PageTreeNode> visitor) {
+      this.visitor = visitor;
+    }
+
+    private GetContentResponse listChildren(GetChildPagesRequest request)
+        throws ConfluenceRequestException, InterruptedException {
+      ChildPagesFetch fetch = new ChildPagesFetch(request);
+      ForkJoinPool.managedBlock(fetch);
+      if (fetch.failure != null) {
+        throw fetch.failure;
+      }
+      return fetch.page;
+    }
+
+    /**
+     * This class performs the blocking listing of a page of children, letting the pool compensate
+     * for the blocked worker thread.
+     */
+    private final class ChildPagesFetch implements ForkJoinPool.ManagedBlocker {
+
+      private final GetChildPagesRequest request;
+      private GetContentResponse page;
+      private ConfluenceRequestException failure;
+      private boolean done;
+
+      private ChildPagesFetch(GetChildPagesRequest request) {
+        this.request = request;
+      }
+
+      @Override
+      public boolean block() throws InterruptedException {
+        permits.acquire();
+        try {
+          page = client.getChildPagesPage(request);
+        } catch (ConfluenceRequestException e) {
+          failure = e;
+        } finally {
+          permits.release();
+          done = true;
+        }
+        return true;
+      }
+
+      @Override
+      public boolean isReleasable() {
+        return done;
+      }
+    }
+
+    /**
+     * This task lists all children of a page, page by page, visits them and forks a task for each
+     * child.
+     */
+    private final class ListChildren extends RecursiveAction {
+
+      private static final long serialVersionUID = 1L;
+
+      private final String parentId;
+      private final int depth;
+
+      private ListChildren(String parentId, int depth) {
+        this.parentId = parentId;
+        this.depth = depth;
+      }
+
+      @Override
+      protected void compute() {
+        List<ListChildren> subtasks = new ArrayList<>();
+        try {
+          GetChildPagesRequest request = new GetChildPagesRequest.Builder()
+              .setId(parentId)
+              .setLimit(pageSize)
+              .setExpandedProperties(expandedProperties)
+              .build();
+          int start = 0;
+          while (failure.get() == null) {
+            GetContentResponse page = listChildren(request.withStartPosition(start));
+            List<Content> children = page.getResults() != null ? page.getResults()
+                : Collections.<Content>emptyList();
+            for (Content child : children) {
+              if (!visited.add(child.getId())) {
+                continue;
+              }
+              visitor.accept(new PageTreeNode(child, parentId, depth));
+              visitedCount.incrementAndGet();
+              if (depth < maxDepth) {
+                ListChildren subtask = new ListChildren(child.getId(), depth + 1);
+                subtask.fork();
+                subtasks.add(subtask);
+              }
+            }
+            if (children.isEmpty() || page.isLastPage(pageSize)) {
+              break;
+            }
+            start += children.size();
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          failure.compareAndSet(null, new IllegalStateException("Interrupted while listing children", e));
+        } catch (ConfluenceRequestException | RuntimeException | Error e) {
+          failure.compareAndSet(null, e);
+        }
+        for (ListChildren subtask : subtasks) {
+          subtask.join();
+        }
+      }
+    }
+  }
+
+  /**
+   * This class can be used to construct an instance of {@link PageTreeWalker}.
+   */
+  public static class Builder {
+
+    private ConfluenceClient client;
+    private int maxDepth = Integer.MAX_VALUE;
+    private int pageSize = 100;
+    private int parallelism = 8;
+    private ExpandedContentProperties expandedProperties;
+
+    /**
+     * This method sets the client used to list the pages.
+     *
+     * @param client The client.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setClient(ConfluenceClient client) {
+      this.client = client;
+      return this;
+    }
+
+    /**
+     * This method limits how deep below the root the tree is walked.
+     *
+     * @param maxDepth The maximum depth, e.g. 1 to visit only the children of the root. Defaults
+     * to no limit.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setMaxDepth(int maxDepth) {
+      this.maxDepth = maxDepth;
+      return this;
+    }
+
+    /**
+     * This method sets the number of children requested per listing. The server may cap it at its
+     * own maximum.
+     *
+     * @param pageSize The page size. Defaults to 100.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setPageSize(int pageSize) {
+      this.pageSize = pageSize;
+      return this;
+    }
+
+    /**
+     * This method sets the number of workers of the walk, which is also the maximum number of
+     * listings in flight at the same time.
+     *
+     * @param parallelism The number of workers. Defaults to 8.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setParallelism(int parallelism) {
+      this.parallelism = parallelism;
+      return this;
+    }
+
+    /**
+     * This method sets the properties that are expanded in the visited pages.
+     *
+     * @param expandedProperties The properties to expand.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setExpandedProperties(ExpandedContentProperties expandedProperties) {
+      this.expandedProperties = expandedProperties;
+      return this;
+    }
+
+    /**
+     * This method creates an instance of {@link PageTreeWalker} using the values that were set on
+     * this instance.
+     *
+     * @return A new instance of {@link PageTreeWalker} with the values set on this instance.
+     * @throws IllegalStateException If the walker that would be created would be invalid.
+     */
+    public PageTreeWalker build() throws IllegalStateException {
+      if (this.client == null) {
+        throw new IllegalStateException("You must specify the client");
+      }
+
+      if (this.maxDepth <= 0 || this.pageSize <= 0 || this.parallelism <= 0) {
+        throw new IllegalStateException("The depth, page size and parallelism must be positive numbers");
+      }
+
+      return new PageTreeWalker(this);
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package de.onesty.confluence.concurrent;
+
+import de.onesty.confluence.errors.ConfluenceRequestException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * <p>This class coalesces concurrent calls with equal keys: while a call for a key is in flight,
+ * further calls for the same key do not perform any work of their own, but wait for the call in
+ * flight and receive its result, or its exception.</p>
+ * <p>A key is only in flight until its call completes; results are not cached. Since all callers
+ * of a coalesced call receive the same result instance, results must not be modified.</p>
+ *
+ * @param <K> The type of the keys, which must implement {@link Object#equals(Object)} and {@link
+ * Object#hashCode()}.
+ * @param <V> The type of the results.
+ */
+public class SingleFlight<K, V> {
+
+  private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+  /**
+   * This interface represents a blocking call that may fail with a {@link
+   * ConfluenceRequestException}.
+   *
+   * @param <V> The type of the result.
+   */
+  @FunctionalInterface
+  public interface Call<V> {
+
+    /**
+     * This method performs the call.
+     *
+     * @return The result of the call.
+     * @throws ConfluenceRequestException If the call fails.
+     */
+    V call() throws ConfluenceRequestException;
+  }
+
+  /**
+   * This method performs the given call on the calling thread, unless a call for an equal key is
+   * already in flight, in which case it waits for the result of that call instead.
+   *
+   * @param key The key identifying the call.
+   * @param call The call to perform.
+   * @return The result of the call.
+   * @throws ConfluenceRequestException If the call fails.
+   */
+  public V execute(K key, Call<V> call) throws ConfluenceRequestException {
+    CompletableFuture<V> flight = new CompletableFuture<>();
+    CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+    if (existing != null) {
+      return join(existing);
+    }
+
+    V result;
+    try {
+      result = call.call();
+    } catch (ConfluenceRequestException | RuntimeException | Error e) {
+      inFlight.remove(key, flight);
+      flight.completeExceptionally(e);
+      throw e;
+    }
+    inFlight.remove(key, flight);
+    flight.complete(result);
+    return result;
+  }
+
+  /**
+   * This method starts the given call, unless a call for an equal key is already in flight, in
+   * which case the result of that call is returned instead. Cancelling the returned future does not
+   * affect the call or its other callers.
+   *
+   * @param key The key identifying the call.
+   * @param call The call to start.
+   * @return A future for the result of the call.
+   */
+  public CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> call) {
+    CompletableFuture<V> flight = new CompletableFuture<>();
+    CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+    if (existing != null) {
+      return existing.copy();
+    }
+
+    CompletableFuture<V> result;
+    try {
+      result = call.get();
+    } catch (RuntimeException e) {
+      result = new CompletableFuture<>();
+      result.completeExceptionally(e);
+    }
+    result.whenComplete((value, failure) -> {
+      // Removed before completion, so that callers arriving afterwards start a new call instead of
+      // receiving a result that may already be outdated
+      inFlight.remove(key, flight);
+      if (failure != null) {
+        flight.completeExceptionally(
+            failure instanceof CompletionException ? failure.getCause() : failure);
+      } else {
+        flight.complete(value);
+      }
+    });
+    return flight.copy();
+  }
+
+  /**
+   * This method returns the number of calls currently in flight.
+   *
+   * @return The number of keys with a call in flight.
+   */
+  public int getInFlightCount() {
+    return inFlight.size();
+  }
+
+  private static <V> V join(CompletableFuture<V> flight) throws ConfluenceRequestException {
+    try {
+      return flight.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof ConfluenceRequestException) {
+        throw (ConfluenceRequestException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package de.onesty.confluence.concurrent;
+
+import de.onesty.confluence.content.Content;
+import de.onesty.confluence.errors.ConfluenceRequestException;
+import de.onesty.confluence.requests.ConfluenceRequest;
+
+/**
+ * This class describes the outcome of a single write performed by a {@link BulkWriter}.
+ */
+public class WriteOutcome {
+
+  private final int index;
+  private final ConfluenceRequest request;
+  private final Content content;
+  private final Throwable failure;
+  private final int conflictRetries;
+
+  WriteOutcome(int index, ConfluenceRequest request, Content content, Throwable failure,
+      int conflictRetries) {
+    this.index = index;
+    this.request = request;
+    this.content = content;
+    this.failure = failure;
+    this.conflictRetries = conflictRetries;
+  }
+
+  /**
+   * This method returns the position of the request in the stream of requests.
+   *
+   * @return The zero-based position of the request.
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  /**
+   * This method returns the request as it was submitted.
+   *
+   * @return The submitted request.
+   */
+  public ConfluenceRequest getRequest() {
+    return request;
+  }
+
+  /**
+   * This method returns whether the write was applied.
+   *
+   * @return {@code true} if the write succeeded.
+   */
+  public boolean isSuccessful() {
+    return failure == null;
+  }
+
+  /**
+   * This method returns the content returned by the server for a successful write.
+   *
+   * @return The created or updated content, or {@code null} if the write failed.
+   */
+  public Content getContent() {
+    return content;
+  }
+
+  /**
+   * This method returns the reason a write failed. Errors returned by the server are reported as
+   * {@link ConfluenceRequestException}.
+   *
+   * @return The failure, or {@code null} if the write succeeded.
+   */
+  public Throwable getFailure() {
+    return failure;
+  }
+
+  /**
+   * This method returns how often an update was applied again on top of a newer version after a
+   * version conflict.
+   *
+   * @return The number of conflict retries.
+   */
+  public int getConflictRetries() {
+    return conflictRetries;
+  }
+
+  @Override
+  public String toString() {
+    return "[index: " + index + "; successful: " + isSuccessful()
+        + (failure != null ? "; failure: " + failure : "")
+        + "; conflict retries: " + conflictRetries + "]";
+  }
+}
@@ -6,6 +6,7 @@ import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import de.onesty.confluence.spaces.Space;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class represents content within the Confluence Cloud server.
@@ -31,6 +32,10 @@ public class Content {
 
   @JsonProperty
   private Version version;
+  @JsonProperty
+  private Map<String, Object> extensions;
+  @JsonProperty("_links")
+  private Map<String, String> links;
   @SuppressWarnings("unused")
   private Content() {
     // Required for Jackson deserialization
@@ -120,6 +125,26 @@ public class Content {
   public Version getVersion() {
     return version;
   }
+
+  /**
+   * This method returns the type specific properties of this content, e.g. the {@code fileSize}
+   * and {@code mediaType} of an attachment.
+   *
+   * @return The extensions of this content, or {@code null} if the server did not return any.
+   */
+  public Map<String, Object> getExtensions() {
+    return extensions;
+  }
+
+  /**
+   * This method returns the links of this content, e.g. the {@code download} link of an
+   * attachment, relative to the Confluence wiki root.
+   *
+   * @return The links of this content by name, or {@code null} if the server did not return any.
+   */
+  public Map<String, String> getLinks() {
+    return links;
+  }
   /**
    * This class can be used to construct an instance of {@link Content} for the purposes of creating
    * or modifying some content on the Confluence Cloud server.
@@ -1,5 +1,6 @@
 package de.onesty.confluence.content;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
@@ -60,7 +61,55 @@ public class ContentBody {
     }
   }
 
+  /**
+   * This method returns the format of the given body type.
+   *
+   * @param type The body type.
+   * @return The format, or {@code null} if the body type is not present.
+   */
+  public ContentBodyFormat getFormat(ContentBodyType type) {
+    switch (type) {
+      case ANONYMOUS_EXPORT_VIEW:
+        return anonymous_export_view;
+      case EDITOR2:
+        return editor2;
+      case EXPORT_VIEW:
+        return export_view;
+      case STORAGE:
+        return storage;
+      case STYLED_VIEW:
+        return styled_view;
+      case VIEW:
+        return view;
+      default:
+        return null;
+    }
+  }
+
+  @JsonIgnore
+  public ContentBodyFormat getAnonymousExportView() {
+    return anonymous_export_view;
+  }
+
+  public ContentBodyFormat getEditor2() {
+    return editor2;
+  }
+
+  @JsonIgnore
+  public ContentBodyFormat getExportView() {
+    return export_view;
+  }
+
   public ContentBodyFormat getStorage() {
     return storage;
   }
+
+  @JsonIgnore
+  public ContentBodyFormat getStyledView() {
+    return styled_view;
+  }
+
+  public ContentBodyFormat getView() {
+    return view;
+  }
 }
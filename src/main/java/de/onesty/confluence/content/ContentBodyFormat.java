@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.function.Supplier;
 
 /**
  * This class represents the format of each body type contained within an instance of {@link
@@ -14,9 +15,11 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 public class ContentBodyFormat {
 
   @JsonProperty
-  private String value;
+  private volatile String value;
   @JsonProperty
   private String representation;
+  // Reads the value on demand once it has been moved out of this instance
+  private volatile Supplier<String> valueSource;
 
   @SuppressWarnings("unused")
   private ContentBodyFormat() {
@@ -35,6 +38,28 @@ public class ContentBodyFormat {
   }
 
   public String getValue() {
-    return value;
+    String value = this.value;
+    if (value != null) {
+      return value;
+    }
+    Supplier<String> valueSource = this.valueSource;
+    return valueSource != null ? valueSource.get() : null;
+  }
+
+  public String getRepresentation() {
+    return representation;
+  }
+
+  /**
+   * This method replaces the value held by this format with a source that provides it on demand,
+   * e.g. a handle to a {@link de.onesty.confluence.cache.BodyStore}, so that large values do not
+   * have to be kept on the heap. Subsequent calls of {@link #getValue()} read the value from the
+   * source each time.
+   *
+   * @param valueSource The source of the value, which must provide the current value.
+   */
+  public void setValueSource(Supplier<String> valueSource) {
+    this.valueSource = valueSource;
+    this.value = null;
   }
 }
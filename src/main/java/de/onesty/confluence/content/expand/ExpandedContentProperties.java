@@ -40,6 +40,16 @@ public class ExpandedContentProperties {
             this.properties = new HashSet<>();
         }
 
+        /**
+         * This constructor creates a builder that is initialised with the given properties.
+         *
+         * @param properties
+         *         the properties to copy
+         */
+        public Builder(ExpandedContentProperties properties) {
+            this.properties = new HashSet<>(properties.getProperties());
+        }
+
         /**
          * This method adds the given child types to the list of expanded properties.
          *
@@ -177,7 +187,7 @@ public class ExpandedContentProperties {
          */
         public Builder addDescendants(ExpandedDescendantsProperties properties) {
             for (String property : properties.getProperties()) {
-                this.properties.add("descendants."  + "." + property);
+                this.properties.add("descendants." + property);
             }
             return this;
         }
@@ -0,0 +1,31 @@
+package de.onesty.confluence.errors;
+
+/**
+ * This class represents the rejection of a request by the client because the circuit breaker of
+ * its endpoint is open. The request was not sent to the Confluence server.
+ */
+public class CircuitBreakerOpenException extends ConfluenceRequestException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String endpoint;
+
+  /**
+   * This constructor creates a new instance for the given endpoint.
+   *
+   * @param endpoint The path template of the endpoint whose circuit breaker is open.
+   */
+  public CircuitBreakerOpenException(String endpoint) {
+    super(null, "The circuit breaker for " + endpoint + " is open");
+    this.endpoint = endpoint;
+  }
+
+  /**
+   * This method returns the endpoint whose circuit breaker rejected the request.
+   *
+   * @return The path template of the endpoint.
+   */
+  public String getEndpoint() {
+    return this.endpoint;
+  }
+}
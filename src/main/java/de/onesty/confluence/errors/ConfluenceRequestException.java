@@ -1,5 +1,7 @@
 package de.onesty.confluence.errors;
 
+import java.time.Duration;
+
 /**
  * This class represents an error response returned from the Confluence server.
  */
@@ -7,6 +9,7 @@ public class ConfluenceRequestException extends Exception {
 
   private Integer statusCode;
   private ErrorData data;
+  private Duration retryAfter;
 
   /**
    * This constructor creates a new instance using the given status code and message.
@@ -31,6 +34,19 @@ public class ConfluenceRequestException extends Exception {
     this.data = data;
   }
 
+  /**
+   * This constructor creates a new instance for a response that asked the client to wait before
+   * sending further requests, such as {@code 429 Too Many Requests}.
+   *
+   * @param statusCode The HTTP status code of the error response.
+   * @param message The message contained within the error response.
+   * @param retryAfter The delay given in the {@code Retry-After} header of the response.
+   */
+  public ConfluenceRequestException(Integer statusCode, String message, Duration retryAfter) {
+    this(statusCode, message);
+    this.retryAfter = retryAfter;
+  }
+
   /**
    * This method returns the HTTP status code returned with the error.
    *
@@ -48,4 +64,24 @@ public class ConfluenceRequestException extends Exception {
   public ErrorData getData() {
     return this.data;
   }
+
+  /**
+   * This method returns the delay the server asked for before further requests are sent.
+   *
+   * @return The delay given in the {@code Retry-After} header of the response, or {@code null} if
+   * the response did not contain the header.
+   */
+  public Duration getRetryAfter() {
+    return this.retryAfter;
+  }
+
+  /**
+   * This method returns whether the server rejected the request because too many requests were
+   * sent, or because it is temporarily unable to handle them.
+   *
+   * @return {@code true} if the status code is 429 or 503.
+   */
+  public boolean isThrottled() {
+    return this.statusCode != null && (this.statusCode == 429 || this.statusCode == 503);
+  }
 }
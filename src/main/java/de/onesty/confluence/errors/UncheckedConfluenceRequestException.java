@@ -0,0 +1,30 @@
+package de.onesty.confluence.errors;
+
+/**
+ * This class wraps a {@link ConfluenceRequestException} that occurred in a context that cannot
+ * throw checked exceptions, such as an {@link java.util.Iterator} or a {@link
+ * java.util.stream.Stream}.
+ */
+public class UncheckedConfluenceRequestException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * This constructor creates a new instance wrapping the given exception.
+   *
+   * @param cause The exception returned for the failed request.
+   */
+  public UncheckedConfluenceRequestException(ConfluenceRequestException cause) {
+    super(cause.getMessage(), cause);
+  }
+
+  /**
+   * This method returns the wrapped exception.
+   *
+   * @return The exception returned for the failed request.
+   */
+  @Override
+  public synchronized ConfluenceRequestException getCause() {
+    return (ConfluenceRequestException) super.getCause();
+  }
+}
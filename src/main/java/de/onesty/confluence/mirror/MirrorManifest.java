@@ -0,0 +1,34 @@
+package de.onesty.confluence.mirror;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class is the index of a {@link SpaceMirror}, which is stored next to the mirrored content.
+ * It records the version of each mirrored piece of content, the time of the last completed
+ * synchronisation, and the time of the last check for deleted content.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+final class MirrorManifest {
+
+  @JsonProperty
+  String spaceKey;
+  // ISO-8601 instant at which the last completed synchronisation started
+  @JsonProperty
+  String watermark;
+  // ISO-8601 instant at which the last complete listing of the space started
+  @JsonProperty
+  String deletionCheck;
+  @JsonProperty
+  Map<String, Integer> versions = new ConcurrentHashMap<>();
+
+  MirrorManifest() {
+    // Required for Jackson deserialization
+  }
+
+  MirrorManifest(String spaceKey) {
+    this.spaceKey = spaceKey;
+  }
+}
@@ -0,0 +1,565 @@
+package de.onesty.confluence.mirror;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.onesty.confluence.ConfluenceClient;
+import de.onesty.confluence.content.Content;
+import de.onesty.confluence.content.ContentBodyType;
+import de.onesty.confluence.content.StandardContentType;
+import de.onesty.confluence.content.expand.ExpandedBodyFormatProperties;
+import de.onesty.confluence.content.expand.ExpandedContentProperties;
+import de.onesty.confluence.errors.ConfluenceRequestException;
+import de.onesty.confluence.errors.UncheckedConfluenceRequestException;
+import de.onesty.confluence.paging.ContentPageIterator;
+import de.onesty.confluence.paging.SearchResultsIterator;
+import de.onesty.confluence.requests.CqlQueries;
+import de.onesty.confluence.requests.GetContentByIdRequest;
+import de.onesty.confluence.requests.GetContentRequest;
+import de.onesty.confluence.requests.SearchContentRequest;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>This class keeps a copy of the content of a space on disk, and brings it up to date
+ * incrementally.</p>
+ * <p>The first synchronisation lists the content of the space with only its version expanded. Each
+ * following synchronisation only searches for content modified since the watermark of the
+ * previous one, less an overlap that absorbs clock and time zone differences, and compares the
+ * versions found with those recorded in the manifest of the mirror. Only content that was added or
+ * whose version changed is downloaded, by a bounded number of concurrent requests. The cost of a
+ * synchronisation is therefore dominated by the number of changes rather than by the size of the
+ * space.</p>
+ * <p>Deletions leave no trace in a search for modified content, so they are found by listing the
+ * ids of all content of the space. Since this listing pages through the whole space, it is only
+ * performed once per deletion check interval, and by the first synchronisation, whose listing of
+ * versions serves as well; in between, deleted content remains in the mirror. Mirrored content that
+ * is missing from the listing is only deleted once a request for it by id confirms that it no
+ * longer exists in the space, so an incomplete listing never deletes anything.</p>
+ * <p>Each piece of content is stored as a JSON file named after its id in the {@code content}
+ * directory of the mirror, next to a {@code manifest.json}. Files are replaced atomically, and the
+ * manifest is written after the downloads, so an interrupted synchronisation is resumed by the
+ * next one. A mirror must not be synchronised by several threads or processes at once.</p>
+ */
+public class SpaceMirror {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final String MANIFEST_FILE = "manifest.json";
+  private static final String CONTENT_DIRECTORY = "content";
+  private static final int NOT_FOUND = 404;
+  // CQL compares dates at minute precision, in the time zone of the user
+  private static final DateTimeFormatter CQL_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
+      .withZone(ZoneOffset.UTC);
+
+  private final ConfluenceClient client;
+  private final String spaceKey;
+  private final Path directory;
+  private final Path contentDirectory;
+  private final List<String> types;
+  private final ExpandedContentProperties expandedProperties;
+  private final int pageSize;
+  private final int maxConcurrentRequests;
+  private final Duration changeOverlap;
+  private final Duration deletionCheckInterval;
+  private final MirrorManifest manifest;
+
+  private SpaceMirror(Builder builder) {
+    this.client = builder.client;
+    this.spaceKey = builder.spaceKey;
+    this.directory = builder.directory;
+    this.contentDirectory = builder.directory.resolve(CONTENT_DIRECTORY);
+    this.types = new ArrayList<>(builder.types);
+    this.expandedProperties = builder.expandedProperties;
+    this.pageSize = builder.pageSize;
+    this.maxConcurrentRequests = builder.maxConcurrentRequests;
+    this.changeOverlap = builder.changeOverlap;
+    this.deletionCheckInterval = builder.deletionCheckInterval;
+    try {
+      Files.createDirectories(contentDirectory);
+      this.manifest = readManifest();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not open the mirror in " + directory, e);
+    }
+  }
+
+  /**
+   * This method returns the key of the mirrored space.
+   *
+   * @return The key of the space.
+   */
+  public String getSpaceKey() {
+    return spaceKey;
+  }
+
+  /**
+   * This method returns the time at which the last completed synchronisation started. All changes
+   * made in the space before that time are reflected in the mirror.
+   *
+   * @return The time of the last synchronisation, or {@code null} if the mirror was never
+   * synchronised.
+   */
+  public Instant getWatermark() {
+    return manifest.watermark != null ? Instant.parse(manifest.watermark) : null;
+  }
+
+  /**
+   * This method returns the versions of the mirrored content.
+   *
+   * @return An unmodifiable map from the id of each piece of content to its mirrored version.
+   */
+  public Map<String, Integer> getVersions() {
+    return Collections.unmodifiableMap(manifest.versions);
+  }
+
+  /**
+   * This method reads a piece of content from the mirror.
+   *
+   * @param id The unique identifier of the content.
+   * @return The mirrored content, or {@code null} if it is not part of the mirror.
+   * @throws IOException If the content could not be read.
+   */
+  public Content get(String id) throws IOException {
+    if (!manifest.versions.containsKey(id)) {
+      return null;
+    }
+    return OBJECT_MAPPER.readValue(contentFile(id).toFile(), Content.class);
+  }
+
+  /**
+   * This method brings the mirror up to date with the space.
+   *
+   * @return A summary of the changes that were applied.
+   * @throws ConfluenceRequestException If the server responded with an error. Content that was
+   * downloaded before the error is kept, and not downloaded again by the next synchronisation.
+   * @throws IOException If the mirror could not be written.
+   */
+  public SyncResult sync() throws ConfluenceRequestException, IOException {
+    Instant start = Instant.now();
+    Instant watermark = getWatermark();
+    Map<String, Integer> listed = watermark == null
+        ? listVersions()
+        : listChangedVersions(watermark.minus(changeOverlap));
+
+    Set<String> changed = new LinkedHashSet<>();
+    int added = 0;
+    for (Map.Entry<String, Integer> entry : listed.entrySet()) {
+      Integer mirrored = manifest.versions.get(entry.getKey());
+      if (mirrored == null) {
+        added++;
+        changed.add(entry.getKey());
+      } else if (!mirrored.equals(entry.getValue())) {
+        changed.add(entry.getKey());
+      }
+    }
+
+    try {
+      fetch(changed);
+    } finally {
+      writeManifest();
+    }
+
+    Set<String> deleted = new HashSet<>();
+    if (watermark == null || isDeletionCheckDue(start)) {
+      Set<String> missing = new HashSet<>(manifest.versions.keySet());
+      missing.removeAll(watermark == null ? listed.keySet() : listIds());
+      for (String id : missing) {
+        if (isDeleted(id)) {
+          deleted.add(id);
+        }
+      }
+      for (String id : deleted) {
+        Files.deleteIfExists(contentFile(id));
+        manifest.versions.remove(id);
+      }
+      manifest.deletionCheck = start.toString();
+    }
+    manifest.watermark = start.toString();
+    writeManifest();
+
+    return new SyncResult(added, changed.size() - added, deleted.size(),
+        manifest.versions.size() - changed.size(), Duration.between(start, Instant.now()));
+  }
+
+  /**
+   * This method returns whether the deletion check interval has passed since the last complete
+   * listing of the space.
+   */
+  private boolean isDeletionCheckDue(Instant now) {
+    if (deletionCheckInterval == null) {
+      return false;
+    }
+    return manifest.deletionCheck == null
+        || !now.isBefore(Instant.parse(manifest.deletionCheck).plus(deletionCheckInterval));
+  }
+
+  /**
+   * This method lists the versions of all content of the mirrored types in the space.
+   */
+  private Map<String, Integer> listVersions() throws ConfluenceRequestException {
+    Map<String, Integer> versions = new HashMap<>();
+    for (String type : types) {
+      GetContentRequest request = new GetContentRequest.Builder()
+          .setSpaceKey(spaceKey)
+          .setType(type)
+          .setLimit(pageSize)
+          .setExpandedProperties(new ExpandedContentProperties.Builder().addVersion().build())
+          .build();
+      try (ContentPageIterator iterator = client.iterateContent(request)) {
+        while (iterator.hasNext()) {
+          Content content = iterator.next();
+          versions.put(content.getId(), content.getVersion().getNumber());
+        }
+      } catch (UncheckedConfluenceRequestException e) {
+        throw e.getCause();
+      }
+    }
+    return versions;
+  }
+
+  /**
+   * This method searches the versions of the content of the mirrored types in the space that was
+   * modified at or after the given time.
+   */
+  private Map<String, Integer> listChangedVersions(Instant since) throws ConfluenceRequestException {
+    StringJoiner typeList = new StringJoiner(",", "(", ")");
+    for (String type : types) {
+      typeList.add(CqlQueries.quote(type));
+    }
+    SearchContentRequest request = new SearchContentRequest.Builder()
+        .setCql("space = " + CqlQueries.quote(spaceKey) + " and type in " + typeList
+            + " and lastmodified >= " + CqlQueries.quote(CQL_DATE.format(since)))
+        .setLimit(pageSize)
+        .setExpandedProperties(new ExpandedContentProperties.Builder().addVersion().build())
+        .build();
+
+    Map<String, Integer> versions = new HashMap<>();
+    try (SearchResultsIterator iterator = client.iterateSearchResults(request)) {
+      while (iterator.hasNext()) {
+        Content content = iterator.next();
+        versions.put(content.getId(), content.getVersion().getNumber());
+      }
+    } catch (UncheckedConfluenceRequestException e) {
+      throw e.getCause();
+    }
+    return versions;
+  }
+
+  /**
+   * This method lists the ids of all content of the mirrored types in the space, without expanding
+   * any properties.
+   */
+  private Set<String> listIds() throws ConfluenceRequestException {
+    Set<String> ids = new HashSet<>();
+    for (String type : types) {
+      GetContentRequest request = new GetContentRequest.Builder()
+          .setSpaceKey(spaceKey)
+          .setType(type)
+          .setLimit(pageSize)
+          .build();
+      try (ContentPageIterator iterator = client.iterateContent(request)) {
+        while (iterator.hasNext()) {
+          ids.add(iterator.next().getId());
+        }
+      } catch (UncheckedConfluenceRequestException e) {
+        throw e.getCause();
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * This method confirms that mirrored content which is missing from the listing of the space was
+   * deleted or moved to another space.
+   */
+  private boolean isDeleted(String id) throws ConfluenceRequestException {
+    GetContentByIdRequest request = new GetContentByIdRequest.Builder()
+        .setId(id)
+        .setExpandedProperties(new ExpandedContentProperties.Builder().addSpace().build())
+        .build();
+    try {
+      Content content = client.getContentById(request);
+      return content.getSpace() != null && !spaceKey.equals(content.getSpace().getKey());
+    } catch (ConfluenceRequestException e) {
+      if (e.getStatusCode() != null && e.getStatusCode() == NOT_FOUND) {
+        return true;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * This method downloads the given content, with at most the configured number of requests in
+   * flight, and stores each piece of content as soon as it arrives.
+   */
+  private void fetch(Set<String> ids) throws ConfluenceRequestException, IOException {
+    Semaphore permits = new Semaphore(maxConcurrentRequests);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    try {
+      for (String id : ids) {
+        permits.acquire();
+        if (failure.get() != null) {
+          permits.release();
+          break;
+        }
+        GetContentByIdRequest request = new GetContentByIdRequest.Builder()
+            .setId(id)
+            .setExpandedProperties(expandedProperties)
+            .build();
+        client.getContentByIdAsync(request)
+            .thenAccept(this::store)
+            .whenComplete((result, e) -> {
+              if (e != null) {
+                failure.compareAndSet(null, e instanceof CompletionException ? e.getCause() : e);
+              }
+              permits.release();
+            });
+      }
+      permits.acquire(maxConcurrentRequests);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("The synchronisation was interrupted", e);
+    }
+
+    Throwable cause = failure.get();
+    if (cause instanceof ConfluenceRequestException) {
+      throw (ConfluenceRequestException) cause;
+    }
+    if (cause instanceof UncheckedIOException) {
+      throw ((UncheckedIOException) cause).getCause();
+    }
+    if (cause instanceof RuntimeException) {
+      throw (RuntimeException) cause;
+    }
+    if (cause != null) {
+      throw new IOException(cause);
+    }
+  }
+
+  private void store(Content content) {
+    try {
+      writeAtomically(contentFile(content.getId()), OBJECT_MAPPER.writeValueAsBytes(content));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    manifest.versions.put(content.getId(), content.getVersion().getNumber());
+  }
+
+  private MirrorManifest readManifest() throws IOException {
+    Path file = directory.resolve(MANIFEST_FILE);
+    if (!Files.exists(file)) {
+      return new MirrorManifest(spaceKey);
+    }
+    MirrorManifest read = OBJECT_MAPPER.readValue(file.toFile(), MirrorManifest.class);
+    if (!spaceKey.equals(read.spaceKey)) {
+      throw new IOException("The directory holds a mirror of the space " + read.spaceKey);
+    }
+    read.versions = new ConcurrentHashMap<>(read.versions);
+    return read;
+  }
+
+  private void writeManifest() throws IOException {
+    writeAtomically(directory.resolve(MANIFEST_FILE), OBJECT_MAPPER.writeValueAsBytes(manifest));
+  }
+
+  private Path contentFile(String id) {
+    return contentDirectory.resolve(URLEncoder.encode(id, StandardCharsets.UTF_8) + ".json");
+  }
+
+  private static void writeAtomically(Path file, byte[] bytes) throws IOException {
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    Files.write(temp, bytes);
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * This class can be used to construct an instance of {@link SpaceMirror}.
+   */
+  public static class Builder {
+
+    private ConfluenceClient client;
+    private String spaceKey;
+    private Path directory;
+    private final Set<String> types = new LinkedHashSet<>();
+    private ExpandedContentProperties expandedProperties = new ExpandedContentProperties.Builder()
+        .addVersion()
+        .addAncestors()
+        .addBody(ContentBodyType.STORAGE, new ExpandedBodyFormatProperties.Builder().build())
+        .build();
+    private int pageSize = 100;
+    private int maxConcurrentRequests = 4;
+    private Duration changeOverlap = Duration.ofDays(1);
+    private Duration deletionCheckInterval = Duration.ofDays(1);
+
+    /**
+     * This method sets the client used to read the space.
+     *
+     * @param client The client.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setClient(ConfluenceClient client) {
+      this.client = client;
+      return this;
+    }
+
+    /**
+     * This method sets the space to mirror.
+     *
+     * @param spaceKey The key of the space.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setSpaceKey(String spaceKey) {
+      this.spaceKey = spaceKey;
+      return this;
+    }
+
+    /**
+     * This method sets the directory the mirror is kept in. An existing mirror in the directory is
+     * continued.
+     *
+     * @param directory The directory, which is created if it does not exist.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setDirectory(Path directory) {
+      this.directory = directory;
+      return this;
+    }
+
+    /**
+     * This method adds a type of content to mirror. If no type is added, pages and blog posts are
+     * mirrored.
+     *
+     * @param type The type of content.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder addType(StandardContentType type) {
+      this.types.add(type.getIdentifier());
+      return this;
+    }
+
+    /**
+     * This method sets the properties that are expanded in the mirrored content. The version is
+     * always expanded, since the mirror records it, and is added if it is missing.
+     *
+     * @param expandedProperties The properties to expand. Defaults to the version, the ancestors
+     * and the body in storage format.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setExpandedProperties(ExpandedContentProperties expandedProperties) {
+      this.expandedProperties = expandedProperties;
+      return this;
+    }
+
+    /**
+     * This method sets the number of results per page when listing the space.
+     *
+     * @param pageSize The page size. Defaults to 100.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setPageSize(int pageSize) {
+      this.pageSize = pageSize;
+      return this;
+    }
+
+    /**
+     * This method sets the maximum number of content downloads in flight at the same time.
+     *
+     * @param maxConcurrentRequests The maximum number of requests. Defaults to 4.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setMaxConcurrentRequests(int maxConcurrentRequests) {
+      this.maxConcurrentRequests = maxConcurrentRequests;
+      return this;
+    }
+
+    /**
+     * This method sets how far before the watermark of the previous synchronisation the search for
+     * modified content starts. The server compares modification dates at minute precision in the
+     * time zone of the user, and indexes changes with a delay, so the overlap must cover both.
+     * Content found again because of the overlap is not downloaded again if its version is
+     * unchanged.
+     *
+     * @param changeOverlap The overlap. Defaults to one day.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setChangeOverlap(Duration changeOverlap) {
+      this.changeOverlap = changeOverlap;
+      return this;
+    }
+
+    /**
+     * This method sets how often a synchronisation checks the mirror for deleted content. The check
+     * lists the ids of all content of the space, so its cost grows with the size of the space
+     * rather than with the number of changes. Synchronisations in between only apply additions and
+     * modifications.
+     *
+     * @param deletionCheckInterval The minimum time between two checks, {@link Duration#ZERO} to
+     * check on every synchronisation, or {@code null} to only check on the first synchronisation.
+     * Defaults to one day.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setDeletionCheckInterval(Duration deletionCheckInterval) {
+      this.deletionCheckInterval = deletionCheckInterval;
+      return this;
+    }
+
+    /**
+     * This method creates an instance of {@link SpaceMirror} using the values that were set on this
+     * instance, and reads the manifest of an existing mirror in its directory.
+     *
+     * @return A new instance of {@link SpaceMirror} with the values set on this instance.
+     * @throws IllegalStateException If the mirror that would be created would be invalid.
+     * @throws UncheckedIOException If the directory of the mirror could not be read.
+     */
+    public SpaceMirror build() throws IllegalStateException {
+      if (this.client == null || this.spaceKey == null || this.directory == null) {
+        throw new IllegalStateException("You must specify the client, the space key and the directory");
+      }
+
+      if (this.pageSize <= 0 || this.maxConcurrentRequests <= 0) {
+        throw new IllegalStateException("The page size and the number of requests must be positive numbers");
+      }
+
+      if (this.changeOverlap == null || this.changeOverlap.isNegative()) {
+        throw new IllegalStateException("The change overlap must not be negative");
+      }
+
+      if (this.deletionCheckInterval != null && this.deletionCheckInterval.isNegative()) {
+        throw new IllegalStateException("The deletion check interval must not be negative");
+      }
+
+      if (this.expandedProperties == null) {
+        throw new IllegalStateException("You must specify the expanded properties");
+      }
+      this.expandedProperties = new ExpandedContentProperties.Builder(this.expandedProperties)
+          .addVersion()
+          .build();
+
+      if (this.types.isEmpty()) {
+        this.types.add(StandardContentType.PAGE.getIdentifier());
+        this.types.add(StandardContentType.BLOGPOST.getIdentifier());
+      }
+
+      return new SpaceMirror(this);
+    }
+  }
+}
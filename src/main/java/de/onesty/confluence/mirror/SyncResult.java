@@ -0,0 +1,77 @@
+package de.onesty.confluence.mirror;
+
+import java.time.Duration;
+
+/**
+ * This class summarises the changes applied to a {@link SpaceMirror} by one synchronisation.
+ */
+public class SyncResult {
+
+  private final int added;
+  private final int updated;
+  private final int deleted;
+  private final int unchanged;
+  private final Duration duration;
+
+  SyncResult(int added, int updated, int deleted, int unchanged, Duration duration) {
+    this.added = added;
+    this.updated = updated;
+    this.deleted = deleted;
+    this.unchanged = unchanged;
+    this.duration = duration;
+  }
+
+  /**
+   * This method returns the number of pieces of content that were not mirrored before.
+   *
+   * @return The number of added pieces of content.
+   */
+  public int getAdded() {
+    return added;
+  }
+
+  /**
+   * This method returns the number of pieces of content whose version changed.
+   *
+   * @return The number of updated pieces of content.
+   */
+  public int getUpdated() {
+    return updated;
+  }
+
+  /**
+   * This method returns the number of pieces of content that no longer exist in the space. Deleted
+   * content is only detected by synchronisations that check for deletions, see {@link
+   * SpaceMirror.Builder#setDeletionCheckInterval(java.time.Duration)}.
+   *
+   * @return The number of deleted pieces of content.
+   */
+  public int getDeleted() {
+    return deleted;
+  }
+
+  /**
+   * This method returns the number of pieces of content that were already up to date, and were
+   * therefore not downloaded.
+   *
+   * @return The number of unchanged pieces of content.
+   */
+  public int getUnchanged() {
+    return unchanged;
+  }
+
+  /**
+   * This method returns the time the synchronisation took.
+   *
+   * @return The duration of the synchronisation.
+   */
+  public Duration getDuration() {
+    return duration;
+  }
+
+  @Override
+  public String toString() {
+    return "[added: " + added + "; updated: " + updated + "; deleted: " + deleted
+        + "; unchanged: " + unchanged + "; duration: " + duration + "]";
+  }
+}
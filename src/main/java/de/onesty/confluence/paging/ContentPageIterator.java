@@ -0,0 +1,168 @@
+package de.onesty.confluence.paging;
+
+import de.onesty.confluence.ConfluenceClient;
+import de.onesty.confluence.content.Content;
+import de.onesty.confluence.errors.ConfluenceRequestException;
+import de.onesty.confluence.errors.UncheckedConfluenceRequestException;
+import de.onesty.confluence.requests.GetContentRequest;
+import de.onesty.confluence.requests.GetContentResponse;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>This class iterates lazily over all pages of results for a {@link GetContentRequest}. While
+ * the caller consumes one page, up to a configurable number of following pages are already being
+ * fetched in the background, which hides the round-trip latency between pages.</p>
+ * <p>The server may cap the requested limit at its own maximum. The offsets of the following pages
+ * are therefore based on the limit the server reports with the first page, and iteration ends with
+ * the first page that has no link to a next page. Prefetching starts once the first page has
+ * arrived. Errors returned by the server are thrown as {@link UncheckedConfluenceRequestException}.
+ * The iterator should be closed if it is not consumed completely, so that pending prefetches are
+ * cancelled.</p>
+ */
+public class ContentPageIterator implements Iterator<Content>, AutoCloseable {
+
+  /**
+   * The page size used when the request does not define a limit, matching the server default.
+   */
+  public static final int DEFAULT_LIMIT = 25;
+
+  private final ConfluenceClient client;
+  private final GetContentRequest request;
+  private final int prefetchDepth;
+  private final int limit;
+  private final Deque<CompletableFuture<GetContentResponse>> inFlight = new ArrayDeque<>();
+
+  private int nextStart;
+  private int pageLimit;
+  private boolean lastPageSeen;
+  private Iterator<Content> currentPage = Collections.emptyIterator();
+
+  /**
+   * This constructor creates an iterator over all pages of the given request. No request is sent
+   * until the first element is requested.
+   *
+   * @param client The client used to fetch the pages.
+   * @param request The request for the first page. Its start position defines the offset of the
+   * first page, and its limit the requested page size.
+   * @param prefetchDepth The number of pages to fetch ahead of the page being consumed, or 0 to
+   * fetch each page only once the previous one has been consumed.
+   */
+  public ContentPageIterator(ConfluenceClient client, GetContentRequest request, int prefetchDepth) {
+    if (prefetchDepth < 0) {
+      throw new IllegalArgumentException("The prefetch depth must not be negative");
+    }
+    this.client = client;
+    this.request = request;
+    this.prefetchDepth = prefetchDepth;
+    this.nextStart = request.getStartPosition() != null ? request.getStartPosition() : 0;
+    this.limit = request.getLimit() != null ? request.getLimit() : DEFAULT_LIMIT;
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (!currentPage.hasNext()) {
+      List<Content> page = nextPage();
+      if (page == null) {
+        return false;
+      }
+      currentPage = page.iterator();
+    }
+    return true;
+  }
+
+  @Override
+  public Content next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return currentPage.next();
+  }
+
+  /**
+   * This method returns a sequential stream over the remaining results. Closing the stream closes
+   * this iterator.
+   *
+   * @return A stream over the remaining results.
+   */
+  public Stream<Content> stream() {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+        Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(this::close);
+  }
+
+  /**
+   * This method stops the iteration and cancels all pages that are still being fetched.
+   */
+  @Override
+  public void close() {
+    lastPageSeen = true;
+    currentPage = Collections.emptyIterator();
+    cancelInFlight();
+  }
+
+  private List<Content> nextPage() {
+    if (inFlight.isEmpty()) {
+      if (lastPageSeen) {
+        return null;
+      }
+      fetchNextPage();
+    }
+
+    GetContentResponse page = await(inFlight.poll());
+    if (pageLimit == 0) {
+      // Until the first page has arrived, the offset of the second page is not known
+      pageLimit = page.getEffectiveLimit(limit);
+      nextStart += pageLimit;
+    }
+    if (page.isLastPage(limit)) {
+      lastPageSeen = true;
+      cancelInFlight();
+    } else {
+      while (inFlight.size() < prefetchDepth) {
+        fetchNextPage();
+      }
+    }
+    return page.getResults() != null ? page.getResults() : Collections.emptyList();
+  }
+
+  private void fetchNextPage() {
+    int start = nextStart;
+    if (pageLimit > 0) {
+      nextStart += pageLimit;
+    }
+    GetContentRequest pageRequest = new GetContentRequest.Builder(request)
+        .setLimit(limit)
+        .setStartPosition(start > 0 ? start : null)
+        .build();
+    inFlight.add(client.getContentPageAsync(pageRequest));
+  }
+
+  private void cancelInFlight() {
+    for (CompletableFuture<GetContentResponse> page : inFlight) {
+      page.cancel(true);
+    }
+    inFlight.clear();
+  }
+
+  private GetContentResponse await(CompletableFuture<GetContentResponse> page) {
+    try {
+      return page.join();
+    } catch (CompletionException e) {
+      close();
+      if (e.getCause() instanceof ConfluenceRequestException) {
+        throw new UncheckedConfluenceRequestException((ConfluenceRequestException) e.getCause());
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,292 @@
+package de.onesty.confluence.paging;
+
+import de.onesty.confluence.ConfluenceClient;
+import de.onesty.confluence.content.Content;
+import de.onesty.confluence.errors.ConfluenceRequestException;
+import de.onesty.confluence.errors.UncheckedConfluenceRequestException;
+import de.onesty.confluence.requests.GetContentRequest;
+import de.onesty.confluence.requests.GetContentResponse;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * <p>This class is a {@link Spliterator} over the results of a {@link GetContentRequest} that
+ * splits by offset range. Each split covers a whole number of pages, so the pages of a parallel
+ * stream are fetched concurrently by the threads working on the different splits.</p>
+ * <p>The range covers the estimated number of results. The last split is open-ended: if the
+ * estimate was too small it continues to fetch pages sequentially until it receives the last page.
+ * As soon as any split receives the last page, splits past the end of the results stop without
+ * fetching. The number of requests in flight across all splits is bounded.</p>
+ * <p>The server may cap the requested limit at its own maximum. Each split therefore advances by
+ * the number of results the server actually returned, never requests results past the end of its
+ * range, and detects the last page by the missing link to a next page.</p>
+ * <p>Errors returned by the server are thrown as {@link UncheckedConfluenceRequestException}.</p>
+ */
+public class ContentRangeSpliterator implements Spliterator<Content> {
+
+  private static final int UNBOUNDED = Integer.MAX_VALUE;
+
+  private final Shared shared;
+  private int from;
+  private int to;
+  private final boolean openEnded;
+  private Iterator<Content> currentPage = Collections.emptyIterator();
+
+  /**
+   * This constructor creates a spliterator over all results of the given request.
+   *
+   * @param client The client used to fetch the pages.
+   * @param request The request for the first page. Its start position and limit define the
+   * offsets of the following pages.
+   * @param estimatedSize The estimated number of results from the start position of the request.
+   * See {@link #probeSize(ConfluenceClient, GetContentRequest)}.
+   * @param maxConcurrentRequests The maximum number of pages fetched at the same time.
+   */
+  public ContentRangeSpliterator(ConfluenceClient client, GetContentRequest request,
+      int estimatedSize, int maxConcurrentRequests) {
+    if (maxConcurrentRequests <= 0) {
+      throw new IllegalArgumentException("The number of concurrent requests must be a positive number");
+    }
+    int limit = request.getLimit() != null ? request.getLimit() : ContentPageIterator.DEFAULT_LIMIT;
+    this.shared = new Shared(client, request, limit, new Semaphore(maxConcurrentRequests));
+    this.from = request.getStartPosition() != null ? request.getStartPosition() : 0;
+    this.to = from + roundUpToPage(Math.max(estimatedSize, 1), limit);
+    this.openEnded = true;
+  }
+
+  private ContentRangeSpliterator(Shared shared, int from, int to, boolean openEnded,
+      Iterator<Content> currentPage) {
+    this.shared = shared;
+    this.from = from;
+    this.to = to;
+    this.openEnded = openEnded;
+    this.currentPage = currentPage;
+  }
+
+  /**
+   * <p>This method determines the exact number of results of the given request, starting at its
+   * start position.</p>
+   * <p>The probe requests a single result without expanded properties at exponentially growing
+   * offsets until one comes back empty, and then narrows down the end by binary search. It
+   * therefore needs about 2 * log2(n) small requests for n results.</p>
+   *
+   * @param client The client used to send the probe requests.
+   * @param request The request whose results are counted.
+   * @return The number of results.
+   * @throws ConfluenceRequestException If an error response is returned from the server.
+   */
+  public static int probeSize(ConfluenceClient client, GetContentRequest request)
+      throws ConfluenceRequestException {
+    GetContentRequest probe = new GetContentRequest.Builder(request)
+        .setLimit(1)
+        .setExpandedProperties(null)
+        .build();
+    int start = request.getStartPosition() != null ? request.getStartPosition() : 0;
+
+    if (!exists(client, probe, start)) {
+      return 0;
+    }
+
+    // exists(start + low) holds and exists(start + high) does not
+    int low = 0;
+    int high = 1;
+    while (exists(client, probe, start + high)) {
+      low = high;
+      if (high > (UNBOUNDED - start) / 2) {
+        return UNBOUNDED - start;
+      }
+      high *= 2;
+    }
+    while (high - low > 1) {
+      int mid = low + (high - low) / 2;
+      if (exists(client, probe, start + mid)) {
+        low = mid;
+      } else {
+        high = mid;
+      }
+    }
+    return high;
+  }
+
+  private static boolean exists(ConfluenceClient client, GetContentRequest probe, int offset)
+      throws ConfluenceRequestException {
+    return !client.getContent(probe.withStartPosition(offset)).isEmpty();
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super Content> action) {
+    while (!currentPage.hasNext()) {
+      if (!fetchNextPage()) {
+        return false;
+      }
+    }
+    action.accept(currentPage.next());
+    return true;
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super Content> action) {
+    do {
+      while (currentPage.hasNext()) {
+        action.accept(currentPage.next());
+      }
+    } while (fetchNextPage());
+  }
+
+  @Override
+  public Spliterator<Content> trySplit() {
+    int end = Math.min(to, shared.knownEnd.get());
+    int pageLimit = shared.pageLimit;
+    int remainingPages = (end - from) / pageLimit;
+    if (remainingPages < 2) {
+      return null;
+    }
+
+    // The prefix takes over the elements already fetched by this split, which precede its range
+    int mid = from + (remainingPages / 2) * pageLimit;
+    ContentRangeSpliterator prefix = new ContentRangeSpliterator(shared, from, mid, false, currentPage);
+    currentPage = Collections.emptyIterator();
+    from = mid;
+    return prefix;
+  }
+
+  @Override
+  public long estimateSize() {
+    int end = Math.min(to, shared.knownEnd.get());
+    return Math.max(0, end - from);
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL;
+  }
+
+  /**
+   * This method fetches the next page of this split.
+   *
+   * @return {@code true} if a page was fetched, {@code false} if the split is exhausted.
+   */
+  private boolean fetchNextPage() {
+    int end = shared.knownEnd.get();
+    if (from >= end || (from >= to && !openEnded)) {
+      return false;
+    }
+
+    int start = from;
+    // A bounded split must not fetch the results of the split that follows it
+    int limit = openEnded ? shared.limit : Math.min(shared.limit, to - start);
+    GetContentResponse response = shared.fetch(start, limit);
+    List<Content> page = response.getResults() != null ? response.getResults()
+        : Collections.<Content>emptyList();
+    from += page.size();
+    if (from > to) {
+      to = from;
+    }
+
+    if (page.isEmpty() || response.isLastPage(limit)) {
+      shared.markEnd(start + page.size());
+      from = UNBOUNDED;
+    }
+    currentPage = page.iterator();
+    return true;
+  }
+
+  private static int roundUpToPage(int size, int limit) {
+    return ((size + limit - 1) / limit) * limit;
+  }
+
+  /**
+   * This class holds the state shared by all splits of one stream.
+   */
+  private static final class Shared {
+
+    private final ConfluenceClient client;
+    private final GetContentRequest request;
+    private final int limit;
+    private final Semaphore permits;
+    private final AtomicInteger knownEnd = new AtomicInteger(UNBOUNDED);
+    // The page size the server applies, which splits are aligned to once it is known
+    private volatile int pageLimit;
+
+    Shared(ConfluenceClient client, GetContentRequest request, int limit, Semaphore permits) {
+      this.client = client;
+      this.request = request;
+      this.limit = limit;
+      this.pageLimit = limit;
+      this.permits = permits;
+    }
+
+    void markEnd(int end) {
+      knownEnd.accumulateAndGet(end, Math::min);
+    }
+
+    GetContentResponse fetch(int start, int requestLimit) {
+      GetContentRequest pageRequest = new GetContentRequest.Builder(request)
+          .setLimit(requestLimit)
+          .setStartPosition(start > 0 ? start : null)
+          .build();
+      PageFetch fetch = new PageFetch(client, pageRequest, permits);
+      try {
+        ForkJoinPool.managedBlock(fetch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while fetching a page", e);
+      }
+      if (fetch.failure != null) {
+        throw new UncheckedConfluenceRequestException(fetch.failure);
+      }
+      if (requestLimit == limit) {
+        int effectiveLimit = fetch.page.getEffectiveLimit(limit);
+        if (effectiveLimit < pageLimit) {
+          pageLimit = effectiveLimit;
+        }
+      }
+      return fetch.page;
+    }
+  }
+
+  /**
+   * This class performs the blocking fetch of a page, letting a fork/join pool compensate for the
+   * blocked worker thread.
+   */
+  private static final class PageFetch implements ForkJoinPool.ManagedBlocker {
+
+    private final ConfluenceClient client;
+    private final GetContentRequest request;
+    private final Semaphore permits;
+    private GetContentResponse page;
+    private ConfluenceRequestException failure;
+    private boolean done;
+
+    PageFetch(ConfluenceClient client, GetContentRequest request, Semaphore permits) {
+      this.client = client;
+      this.request = request;
+      this.permits = permits;
+    }
+
+    @Override
+    public boolean block() throws InterruptedException {
+      permits.acquire();
+      try {
+        page = client.getContentPage(request);
+      } catch (ConfluenceRequestException e) {
+        failure = e;
+      } finally {
+        permits.release();
+        done = true;
+      }
+      return true;
+    }
+
+    @Override
+    public boolean isReleasable() {
+      return done;
+    }
+  }
+}
@@ -0,0 +1,129 @@
+package de.onesty.confluence.paging;
+
+import de.onesty.confluence.ConfluenceClient;
+import de.onesty.confluence.content.Content;
+import de.onesty.confluence.errors.ConfluenceRequestException;
+import de.onesty.confluence.errors.UncheckedConfluenceRequestException;
+import de.onesty.confluence.requests.SearchContentRequest;
+import de.onesty.confluence.requests.SearchContentResponse;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <p>This class iterates lazily over all pages of results for a {@link SearchContentRequest} by
+ * following the link to the next page that each response carries. As the link is only known once
+ * a page has arrived, the next page is requested as soon as the current one is received, while the
+ * caller consumes the current one.</p>
+ * <p>Iteration ends with the first page without a link to a next page. Errors returned by the
+ * server are thrown as {@link UncheckedConfluenceRequestException}. The iterator should be closed
+ * if it is not consumed completely, so that a pending prefetch is cancelled.</p>
+ */
+public class SearchResultsIterator implements Iterator<Content>, AutoCloseable {
+
+  private final ConfluenceClient client;
+  private final boolean prefetch;
+
+  private SearchContentRequest nextRequest;
+  private CompletableFuture<SearchContentResponse> inFlight;
+  private Iterator<Content> currentPage = Collections.emptyIterator();
+
+  /**
+   * This constructor creates an iterator over all pages of the given request. No request is sent
+   * until the first element is requested.
+   *
+   * @param client The client used to fetch the pages.
+   * @param request The request for the first page.
+   * @param prefetch {@code true} to request the next page while the current one is consumed,
+   * {@code false} to request it only once the current one has been consumed.
+   */
+  public SearchResultsIterator(ConfluenceClient client, SearchContentRequest request, boolean prefetch) {
+    this.client = client;
+    this.nextRequest = request;
+    this.prefetch = prefetch;
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (!currentPage.hasNext()) {
+      SearchContentResponse page = nextPage();
+      if (page == null) {
+        return false;
+      }
+      currentPage = page.getResults().iterator();
+    }
+    return true;
+  }
+
+  @Override
+  public Content next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return currentPage.next();
+  }
+
+  /**
+   * This method returns a sequential stream over the remaining results. Closing the stream closes
+   * this iterator.
+   *
+   * @return A stream over the remaining results.
+   */
+  public Stream<Content> stream() {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+        Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(this::close);
+  }
+
+  /**
+   * This method stops the iteration and cancels the page that is still being fetched, if any.
+   */
+  @Override
+  public void close() {
+    nextRequest = null;
+    currentPage = Collections.emptyIterator();
+    if (inFlight != null) {
+      inFlight.cancel(true);
+      inFlight = null;
+    }
+  }
+
+  private SearchContentResponse nextPage() {
+    if (inFlight == null) {
+      if (nextRequest == null) {
+        return null;
+      }
+      fetchNextPage();
+    }
+
+    SearchContentResponse page = await(inFlight);
+    inFlight = null;
+    String nextLink = page.getNextLink();
+    nextRequest = nextLink != null ? nextRequest.withNextLink(nextLink) : null;
+    if (prefetch && nextRequest != null) {
+      fetchNextPage();
+    }
+    return page;
+  }
+
+  private void fetchNextPage() {
+    inFlight = client.searchContentAsync(nextRequest);
+  }
+
+  private SearchContentResponse await(CompletableFuture<SearchContentResponse> page) {
+    try {
+      return page.join();
+    } catch (CompletionException e) {
+      close();
+      if (e.getCause() instanceof ConfluenceRequestException) {
+        throw new UncheckedConfluenceRequestException((ConfluenceRequestException) e.getCause());
+      }
+      throw e;
+    }
+  }
+}
@@ -1,13 +1,26 @@
 package de.onesty.confluence.requests;
 
 import java.io.File;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.ws.rs.HttpMethod;
 
 import de.onesty.confluence.content.Content;
+import de.onesty.confluence.transport.UploadSource;
 
+/**
+ * <p>This class represents a request to upload one or more files as attachments of a piece of
+ * content. All files are sent as "file" parts of one multipart request; if several files have a
+ * comment, the comments are matched to the files in order.</p>
+ * <p>Large sets of files can be split into several requests with {@link #splitIntoBatches(long)},
+ * which is what {@link de.onesty.confluence.ConfluenceClient#addAttachments(AddAttachmentsRequest)}
+ * does.</p>
+ */
 public class AddAttachmentsRequest extends ConfluenceFileRequest {
 
 
@@ -15,12 +28,80 @@ public class AddAttachmentsRequest extends ConfluenceFileRequest {
 
     private String id;
     private File file;
+    private List<AttachmentFile> attachments;
     private String name;
+    private boolean retryable;
 
     public AddAttachmentsRequest(Builder builder) {
         super();
         this.id = builder.id;
-        this.file = builder.file;
+        List<AttachmentFile> attachments = new ArrayList<>();
+        if (builder.source != null) {
+            attachments.add(new AttachmentFile(builder.source, null, false));
+        } else if (builder.file != null) {
+            this.file = builder.file;
+            attachments.add(new AttachmentFile(builder.file, null, false));
+        }
+        attachments.addAll(builder.attachments);
+        this.attachments = Collections.unmodifiableList(attachments);
+        this.name = attachments.get(0).getFileName();
+        this.retryable = builder.retryable;
+    }
+
+    /**
+     * This method returns the unique identifier of the content the files are attached to.
+     *
+     * @return The unique identifier of the content.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * This method returns the files that are uploaded by this request.
+     *
+     * @return The files, in the order in which they were added.
+     */
+    public List<AttachmentFile> getAttachments() {
+        return attachments;
+    }
+
+    /**
+     * <p>This method splits this request into requests whose files add up to at most the given
+     * number of bytes. Files are kept in order, and a file that is larger than the limit, or whose
+     * length is unknown, is sent in a request of its own.</p>
+     * <p>The API accepts only one minor edit flag per request, so a request ends where a file that
+     * is a minor edit follows one that is not, or vice versa. Adding files grouped by their flag
+     * therefore results in fewer requests.</p>
+     *
+     * @param maxBatchBytes
+     *         The maximum number of bytes uploaded per request.
+     * @return The requests, which together upload all files of this request in order.
+     */
+    public List<AddAttachmentsRequest> splitIntoBatches(long maxBatchBytes) {
+        List<AddAttachmentsRequest> batches = new ArrayList<>();
+        Builder batch = null;
+        long batchBytes = 0;
+        boolean batchMinorEdit = false;
+        for (AttachmentFile attachment : attachments) {
+            long length = attachment.getSource().getLength();
+            if (batch != null && (attachment.isMinorEdit() != batchMinorEdit || length < 0
+                    || batchBytes < 0 || batchBytes + length > maxBatchBytes)) {
+                batches.add(batch.build());
+                batch = null;
+            }
+            if (batch == null) {
+                batch = new Builder().setId(id).setRetryable(retryable);
+                batchBytes = 0;
+                batchMinorEdit = attachment.isMinorEdit();
+            }
+            batch.addAttachment(attachment);
+            batchBytes = length < 0 ? -1 : batchBytes + length;
+        }
+        if (batch != null) {
+            batches.add(batch.build());
+        }
+        return batches;
     }
 
     @Override
@@ -28,6 +109,11 @@ public class AddAttachmentsRequest extends ConfluenceFileRequest {
         return url.replace("{id}", this.id);
     }
 
+    @Override
+    public String getPathTemplate() {
+        return url;
+    }
+
     /**
      * This method returns the HTTP method used by this request.
      */
@@ -51,6 +137,56 @@ public class AddAttachmentsRequest extends ConfluenceFileRequest {
         return file;
     }
 
+    /**
+     * This method returns the content that is uploaded as the attachment.
+     *
+     * @return The content to upload.
+     */
+    @Override
+    public UploadSource getUploadSource() {
+        return attachments.get(0).getSource();
+    }
+
+    /**
+     * This method returns the contents of all files that are uploaded by this request.
+     *
+     * @return The contents to upload, in order.
+     */
+    @Override
+    public List<UploadSource> getUploadSources() {
+        List<UploadSource> sources = new ArrayList<>(attachments.size());
+        for (AttachmentFile attachment : attachments) {
+            sources.add(attachment.getSource());
+        }
+        return sources;
+    }
+
+    /**
+     * This method returns the comments of the files, if any file has one, and whether the upload is
+     * a minor edit, which it is only if all files are.
+     *
+     * @return The form fields sent along with the files.
+     */
+    @Override
+    public List<Map.Entry<String, String>> getFormFields() {
+        List<Map.Entry<String, String>> formFields = new ArrayList<>();
+        boolean hasComments = false;
+        boolean minorEdit = true;
+        for (AttachmentFile attachment : attachments) {
+            hasComments |= attachment.getComment() != null;
+            minorEdit &= attachment.isMinorEdit();
+        }
+        if (hasComments) {
+            // The comments are matched to the files by position, so every file needs one
+            for (AttachmentFile attachment : attachments) {
+                String comment = attachment.getComment();
+                formFields.add(new SimpleImmutableEntry<>("comment", comment != null ? comment : ""));
+            }
+        }
+        formFields.add(new SimpleImmutableEntry<>("minorEdit", String.valueOf(minorEdit)));
+        return formFields;
+    }
+
     @Override
     public String getName() {
         return name;
@@ -67,10 +203,25 @@ public class AddAttachmentsRequest extends ConfluenceFileRequest {
         return Content.class;
     }
 
+    /**
+     * This method returns whether the request was marked as safe to send again after a transient
+     * failure. The file is read again for every attempt; uploads from a source that can be read
+     * only once are never retried.
+     *
+     * @return {@code true} if the request may be retried.
+     */
+    @Override
+    public boolean isRetryable() {
+        return this.retryable;
+    }
+
     public static class Builder {
 
         private String id;
         private File file;
+        private UploadSource source;
+        private final List<AttachmentFile> attachments = new ArrayList<>();
+        private boolean retryable;
 
         /**
          * This method sets the unique identifier for the content.
@@ -89,6 +240,76 @@ public class AddAttachmentsRequest extends ConfluenceFileRequest {
             return this;
         }
 
+        /**
+         * This method sets the content to upload as the attachment, e.g. a stream, channel or buffer.
+         * The content is streamed to the server while the request is sent. It replaces a file set
+         * with {@link #setFile(File)}.
+         *
+         * @param source
+         *         The content to upload.
+         * @return This instance, for the purposes of method chaining.
+         */
+        public AddAttachmentsRequest.Builder setSource(UploadSource source) {
+            this.source = source;
+            return this;
+        }
+
+        /**
+         * This method adds a further file to upload.
+         *
+         * @param file
+         *         The file to upload.
+         * @param comment
+         *         The comment of the attachment version, or {@code null} for none.
+         * @param minorEdit
+         *         Whether the upload is a minor edit, which does not notify watchers.
+         * @return This instance, for the purposes of method chaining.
+         */
+        public AddAttachmentsRequest.Builder addFile(File file, String comment, boolean minorEdit) {
+            return addAttachment(new AttachmentFile(file, comment, minorEdit));
+        }
+
+        /**
+         * This method adds further content to upload, e.g. a stream, channel or buffer.
+         *
+         * @param source
+         *         The content to upload.
+         * @param comment
+         *         The comment of the attachment version, or {@code null} for none.
+         * @param minorEdit
+         *         Whether the upload is a minor edit, which does not notify watchers.
+         * @return This instance, for the purposes of method chaining.
+         */
+        public AddAttachmentsRequest.Builder addSource(UploadSource source, String comment,
+                boolean minorEdit) {
+            return addAttachment(new AttachmentFile(source, comment, minorEdit));
+        }
+
+        /**
+         * This method adds a further file to upload.
+         *
+         * @param attachment
+         *         The file to upload.
+         * @return This instance, for the purposes of method chaining.
+         */
+        public AddAttachmentsRequest.Builder addAttachment(AttachmentFile attachment) {
+            this.attachments.add(attachment);
+            return this;
+        }
+
+        /**
+         * This method marks the request as safe to send again after a transient failure. Retrying
+         * an upload that reached the server adds the file as a new version of the attachment.
+         *
+         * @param retryable
+         *         Whether the request may be retried.
+         * @return This instance, for the purposes of method chaining.
+         */
+        public AddAttachmentsRequest.Builder setRetryable(boolean retryable) {
+            this.retryable = retryable;
+            return this;
+        }
+
 
         /**
          * This method creates an instance of {@link AddAttachmentsRequest} using the values that were
@@ -103,8 +324,8 @@ public class AddAttachmentsRequest extends ConfluenceFileRequest {
                 throw new IllegalStateException("You must specify the id of the page you want to add attachemnts");
             }
 
-            if (this.file == null ) {
-                throw new IllegalStateException("You must specify the file");
+            if (this.file == null && this.source == null && this.attachments.isEmpty()) {
+                throw new IllegalStateException("You must specify at least one file or source");
             }
 
 
@@ -0,0 +1,119 @@
+package de.onesty.confluence.requests;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.onesty.confluence.content.Content;
+
+/**
+ * <p>This class summarises an upload of many files that was split into several requests. It maps
+ * each file to the attachment it created, or to the error of the request that carried it: a
+ * {@link de.onesty.confluence.errors.ConfluenceRequestException} if the server responded with an
+ * error, or the exception that prevented the request from completing, e.g. a {@link
+ * javax.ws.rs.ProcessingException} or an {@link java.io.UncheckedIOException} if a file could not
+ * be read.</p>
+ * <p>A failed request does not stop the upload: the files of the other requests are still
+ * uploaded.</p>
+ */
+public class AddAttachmentsResult {
+
+  private final Map<AttachmentFile, Content> attachments = new LinkedHashMap<>();
+  private final Map<AttachmentFile, Exception> failures = new LinkedHashMap<>();
+  private int batchCount;
+
+  /**
+   * This constructor creates an empty result, to which the outcome of each request is added.
+   */
+  public AddAttachmentsResult() {
+  }
+
+  /**
+   * This method records the attachments created by a request. The files are matched to the
+   * created attachments by title, which is the file name, and otherwise by position.
+   *
+   * @param files The files uploaded by the request.
+   * @param created The attachments returned by the server, in the order of the files.
+   */
+  public void addBatch(List<AttachmentFile> files, List<Content> created) {
+    batchCount++;
+    Map<String, Content> byTitle = new LinkedHashMap<>();
+    for (Content content : created) {
+      byTitle.putIfAbsent(content.getTitle(), content);
+    }
+    for (int i = 0; i < files.size(); i++) {
+      Content content = byTitle.get(files.get(i).getFileName());
+      if (content == null && i < created.size()) {
+        content = created.get(i);
+      }
+      attachments.put(files.get(i), content);
+    }
+  }
+
+  /**
+   * This method records a request that failed.
+   *
+   * @param files The files of the request.
+   * @param failure The error the server responded with, or the exception that prevented the
+   * request from completing.
+   */
+  public void addFailedBatch(List<AttachmentFile> files, Exception failure) {
+    batchCount++;
+    for (AttachmentFile file : files) {
+      failures.put(file, failure);
+    }
+  }
+
+  /**
+   * This method returns the attachments that were created.
+   *
+   * @return The created attachment of each uploaded file, in the order of the files.
+   */
+  public Map<AttachmentFile, Content> getAttachments() {
+    return Collections.unmodifiableMap(attachments);
+  }
+
+  /**
+   * This method returns the attachment that was created for the given file.
+   *
+   * @param file The file.
+   * @return The created attachment, or {@code null} if the file was not uploaded.
+   */
+  public Content getAttachment(AttachmentFile file) {
+    return attachments.get(file);
+  }
+
+  /**
+   * This method returns the files that could not be uploaded.
+   *
+   * @return The error of the request of each file that was not uploaded, in the order of the files.
+   */
+  public Map<AttachmentFile, Exception> getFailures() {
+    return Collections.unmodifiableMap(failures);
+  }
+
+  /**
+   * This method returns whether all files were uploaded.
+   *
+   * @return {@code true} if no request failed.
+   */
+  public boolean isSuccessful() {
+    return failures.isEmpty();
+  }
+
+  /**
+   * This method returns the number of requests the upload was split into.
+   *
+   * @return The number of requests.
+   */
+  public int getBatchCount() {
+    return batchCount;
+  }
+
+  @Override
+  public String toString() {
+    return "[uploaded: " + attachments.size() + "; failed: " + failures.size()
+        + "; batches: " + batchCount + "]";
+  }
+}
@@ -0,0 +1,84 @@
+package de.onesty.confluence.requests;
+
+import java.io.File;
+
+import de.onesty.confluence.transport.UploadSource;
+
+/**
+ * This class represents one file uploaded by an {@link AddAttachmentsRequest}, together with the
+ * comment and minor edit flag of the attachment version it creates.
+ */
+public final class AttachmentFile {
+
+  private final UploadSource source;
+  private final String comment;
+  private final boolean minorEdit;
+
+  /**
+   * This constructor creates a file that uploads the given content.
+   *
+   * @param source The content to upload.
+   * @param comment The comment of the attachment version, or {@code null} for none.
+   * @param minorEdit Whether the upload is a minor edit, which does not notify watchers.
+   */
+  public AttachmentFile(UploadSource source, String comment, boolean minorEdit) {
+    if (source == null) {
+      throw new IllegalArgumentException("The source must not be null");
+    }
+    this.source = source;
+    this.comment = comment;
+    this.minorEdit = minorEdit;
+  }
+
+  /**
+   * This constructor creates a file that uploads the given file.
+   *
+   * @param file The file to upload.
+   * @param comment The comment of the attachment version, or {@code null} for none.
+   * @param minorEdit Whether the upload is a minor edit, which does not notify watchers.
+   */
+  public AttachmentFile(File file, String comment, boolean minorEdit) {
+    this(UploadSource.of(file), comment, minorEdit);
+  }
+
+  /**
+   * This method returns the content that is uploaded.
+   *
+   * @return The content to upload.
+   */
+  public UploadSource getSource() {
+    return source;
+  }
+
+  /**
+   * This method returns the name of the uploaded file, which becomes the title of the attachment.
+   *
+   * @return The file name.
+   */
+  public String getFileName() {
+    return source.getFileName();
+  }
+
+  /**
+   * This method returns the comment of the attachment version.
+   *
+   * @return The comment, or {@code null} if there is none.
+   */
+  public String getComment() {
+    return comment;
+  }
+
+  /**
+   * This method returns whether the upload is a minor edit.
+   *
+   * @return {@code true} if watchers are not notified of the upload.
+   */
+  public boolean isMinorEdit() {
+    return minorEdit;
+  }
+
+  @Override
+  public String toString() {
+    return getFileName();
+  }
+}
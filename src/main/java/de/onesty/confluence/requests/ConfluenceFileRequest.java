@@ -1,6 +1,9 @@
 package de.onesty.confluence.requests;
 
+import de.onesty.confluence.transport.UploadSource;
 import java.io.File;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import javax.ws.rs.core.MediaType;
@@ -16,5 +19,35 @@ public abstract class ConfluenceFileRequest extends ConfluenceRequest{
 
   public abstract File getFile();
 
+  /**
+   * This method returns the content that is uploaded by this request. By default, this is the
+   * content of {@link #getFile()}.
+   *
+   * @return The content to upload, or {@code null} if there is none.
+   */
+  public UploadSource getUploadSource() {
+    File file = getFile();
+    return file != null ? UploadSource.of(file) : null;
+  }
+
+  /**
+   * This method returns the contents that are uploaded as the "file" parts of this request. By
+   * default, this is the content returned by {@link #getUploadSource()}.
+   *
+   * @return The contents to upload, in order.
+   */
+  public List<UploadSource> getUploadSources() {
+    UploadSource source = getUploadSource();
+    return source != null ? Collections.singletonList(source) : Collections.emptyList();
+  }
+
+  /**
+   * This method returns the form fields that are sent along with the uploaded files.
+   *
+   * @return The names and values of the form fields, in order. By default, there are none.
+   */
+  public List<Map.Entry<String, String>> getFormFields() {
+    return Collections.emptyList();
+  }
 
 }
@@ -1,6 +1,7 @@
 package de.onesty.confluence.requests;
 
 import java.util.Map;
+import javax.ws.rs.HttpMethod;
 import javax.ws.rs.core.MediaType;
 
 /**
@@ -15,6 +16,17 @@ public abstract class ConfluenceRequest {
    */
   public abstract String getRelativePath();
 
+  /**
+   * This method returns the path of the endpoint this request is sent to, with placeholders in
+   * place of identifiers, e.g. {@code rest/api/content/{id}}. Requests to the same endpoint share
+   * the same template.
+   *
+   * @return The path template of the request relative to the Confluence wiki root.
+   */
+  public String getPathTemplate() {
+    return getRelativePath();
+  }
+
   /**
    * This method returns the HTTP method used by this request.
    *
@@ -54,6 +66,17 @@ public abstract class ConfluenceRequest {
     return MediaType.APPLICATION_JSON_TYPE;
   }
 
+  /**
+   * This method returns whether the request may be sent again after a transient failure, without
+   * risking that its effect is applied twice. By default only GET and DELETE requests are
+   * retryable; requests that create or modify content must be marked as retryable explicitly.
+   *
+   * @return {@code true} if the request may be retried.
+   */
+  public boolean isRetryable() {
+    return HttpMethod.GET.equals(getMethod()) || HttpMethod.DELETE.equals(getMethod());
+  }
+
   /**
    * This method returns the class of the object in the body of the response for this request.
    *
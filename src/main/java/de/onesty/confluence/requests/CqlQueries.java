@@ -0,0 +1,80 @@
+package de.onesty.confluence.requests;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This class builds CQL queries for {@link SearchContentRequest}s.
+ */
+public final class CqlQueries {
+
+  private CqlQueries() {
+  }
+
+  /**
+   * This method quotes the given value as a CQL string literal.
+   *
+   * @param value the value to quote
+   * @return The value in double quotes, with quotes and backslashes escaped.
+   */
+  public static String quote(String value) {
+    return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+  }
+
+  /**
+   * <p>This method matches the given field against many values by splitting them into as few
+   * queries of the form {@code <prefix> and <field> in ("a", "b", ...)} as possible.</p>
+   * <p>Each query holds at most the given number of values, and its URL encoded form is at most
+   * the given length, so that the request line stays below the URL length limits of servers and
+   * proxies. A single value that exceeds the length on its own gets a query of its own.</p>
+   *
+   * @param prefix a condition all results must match, e.g. {@code space = "SAMPLE"}, or
+   * {@code null}
+   * @param field the field to match, e.g. {@code id} or {@code title}
+   * @param values the values to match
+   * @param maxValues the maximum number of values per query
+   * @param maxEncodedLength the maximum length of each query after URL encoding
+   * @return The queries, which together match all given values.
+   */
+  public static List<String> inChunks(String prefix, String field, Collection<String> values,
+      int maxValues, int maxEncodedLength) {
+    String head = (prefix != null ? prefix + " and " : "") + field + " in (";
+    int headLength = encodedLength(head) + encodedLength(")");
+    int separatorLength = encodedLength(",");
+
+    List<String> queries = new ArrayList<>();
+    StringBuilder query = new StringBuilder(head);
+    int length = headLength;
+    int count = 0;
+    for (String value : values) {
+      String literal = quote(value);
+      int literalLength = encodedLength(literal);
+      if (count > 0 && (count == maxValues
+          || length + separatorLength + literalLength > maxEncodedLength)) {
+        queries.add(query.append(')').toString());
+        query = new StringBuilder(head);
+        length = headLength;
+        count = 0;
+      }
+      if (count > 0) {
+        query.append(',');
+        length += separatorLength;
+      }
+      query.append(literal);
+      length += literalLength;
+      count++;
+    }
+    if (count > 0) {
+      queries.add(query.append(')').toString());
+    }
+    return queries;
+  }
+
+  private static int encodedLength(String value) {
+    // Spaces count as %20, the longer of their two encodings
+    return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20").length();
+  }
+}
@@ -1,9 +1,7 @@
 package de.onesty.confluence.requests;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import javax.ws.rs.HttpMethod;
@@ -26,13 +24,19 @@ public class CreateContentRequest extends ConfluenceRequest {
     // Query params
     private final ContentStatus responseStatusFilter;
     private final ExpandedContentProperties expandedResponseProperties;
+    private final String expand;
 
     // Body
     private Content content;
+    private final boolean retryable;
 
     private CreateContentRequest(Builder builder) {
+        this.retryable = builder.retryable;
         this.responseStatusFilter = builder.responseStatusFilter;
         this.expandedResponseProperties = builder.expandedResponseProperties;
+        this.expand = expandedResponseProperties != null
+                ? StringUtils.join(expandedResponseProperties.getProperties(), ",")
+                : null;
 
         Content.Builder contentBuilder = new Content.Builder();
         if (builder.ancestorId != null) {
@@ -53,6 +57,24 @@ public class CreateContentRequest extends ConfluenceRequest {
                 .build();
     }
 
+    /**
+     * This method returns the key of the space the content is created in.
+     *
+     * @return The key of the space.
+     */
+    public String getSpaceKey() {
+        return content.getSpace().getKey();
+    }
+
+    /**
+     * This method returns the title of the content to create.
+     *
+     * @return The title of the content.
+     */
+    public String getTitle() {
+        return content.getTitle();
+    }
+
     /**
      * This method returns the path of the request relative to the Confluence wiki root.
      *
@@ -84,14 +106,8 @@ public class CreateContentRequest extends ConfluenceRequest {
             queryParams.put("status", responseStatusFilter.getIdentifier());
         }
 
-        if (this.expandedResponseProperties != null) {
-
-            List<String> properties = new ArrayList<>();
-            for (String property : this.expandedResponseProperties.getProperties()) {
-                properties.add(property);
-            }
-
-            queryParams.put("expand", StringUtils.join(properties.toArray(new String[0]), ","));
+        if (this.expand != null) {
+            queryParams.put("expand", this.expand);
         }
 
         return queryParams;
@@ -117,6 +133,17 @@ public class CreateContentRequest extends ConfluenceRequest {
         return Content.class;
     }
 
+    /**
+     * This method returns whether the request was marked as safe to send again after a transient
+     * failure.
+     *
+     * @return {@code true} if the request may be retried.
+     */
+    @Override
+    public boolean isRetryable() {
+        return this.retryable;
+    }
+
     /**
      * This class can be used to construct an instance of {@link CreateContentRequest}.
      */
@@ -132,6 +159,7 @@ public class CreateContentRequest extends ConfluenceRequest {
         private String title;
         private String type;
         private ExpandedContentProperties expandedResponseProperties;
+        private boolean retryable;
 
         /**
          * This method sets the ancestor for the content by ID.
@@ -266,6 +294,20 @@ public class CreateContentRequest extends ConfluenceRequest {
             return this;
         }
 
+        /**
+         * This method marks the request as safe to send again after a transient failure. Only mark
+         * requests as retryable if creating the content twice is prevented, e.g. because it has a
+         * title that must be unique within its space.
+         *
+         * @param retryable
+         *         Whether the request may be retried.
+         * @return This instance, for the purposes of method chaining.
+         */
+        public Builder setRetryable(boolean retryable) {
+            this.retryable = retryable;
+            return this;
+        }
+
         /**
          * This method creates an instance of {@link CreateContentRequest} using the values that were
          * set on this instance.
@@ -18,11 +18,25 @@ public class DeleteAttachmentsRequest extends ConfluenceRequest {
         this.id = builder.id;
     }
 
+    /**
+     * This method returns the unique identifier of the content to delete.
+     *
+     * @return The unique identifier of the content.
+     */
+    public String getId() {
+        return id;
+    }
+
     @Override
     public String getRelativePath() {
         return url.replace("{id}", this.id);
     }
 
+    @Override
+    public String getPathTemplate() {
+        return url;
+    }
+
     /**
      * This method returns the HTTP method used by this request.
      */
@@ -0,0 +1,269 @@
+package de.onesty.confluence.requests;
+
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.MediaType;
+
+import de.onesty.confluence.content.Content;
+
+/**
+ * <p>This class represents a request to download the file of an attachment by following its
+ * {@code download} link.</p>
+ * <p>The request also defines how the download is written and verified: whether an interrupted
+ * download is resumed, the length the file must have, and optionally the checksum it must
+ * match.</p>
+ */
+public class DownloadAttachmentRequest extends ConfluenceRequest {
+
+  private static final String PATH_TEMPLATE = "download/attachments/{id}/{name}";
+
+  private final String relativePath;
+  private final Map<String, String> queryParams;
+  private final long expectedLength;
+  private final String checksumAlgorithm;
+  private final String expectedChecksum;
+  private final boolean resume;
+
+  private DownloadAttachmentRequest(Builder builder, String relativePath,
+      Map<String, String> queryParams, long expectedLength) {
+    this.relativePath = relativePath;
+    this.queryParams = Collections.unmodifiableMap(queryParams);
+    this.expectedLength = expectedLength;
+    this.checksumAlgorithm = builder.checksumAlgorithm;
+    this.expectedChecksum = builder.expectedChecksum;
+    this.resume = builder.resume;
+  }
+
+  @Override
+  public String getRelativePath() {
+    return relativePath;
+  }
+
+  @Override
+  public String getPathTemplate() {
+    return PATH_TEMPLATE;
+  }
+
+  /**
+   * This method returns the HTTP method used by this request.
+   */
+  @Override
+  public String getMethod() {
+    return HttpMethod.GET;
+  }
+
+  @Override
+  public Map<String, String> getQueryParams() {
+    return queryParams;
+  }
+
+  @Override
+  public Object getBodyEntity() {
+    return null;
+  }
+
+  /**
+   * This method returns the media type that is expected for the response, which is any type.
+   *
+   * @return The wildcard media type.
+   */
+  @Override
+  public MediaType getAcceptedResponseType() {
+    return MediaType.WILDCARD_TYPE;
+  }
+
+  /**
+   * This method returns the class of the object in the body of the response for this request.
+   *
+   * @return The class of the object in the body of response for this request.
+   */
+  @Override
+  public Class<?> getReturnType() {
+    return InputStream.class;
+  }
+
+  /**
+   * This method returns the number of bytes the downloaded file must have.
+   *
+   * @return The expected length, or -1 if it is taken from the response.
+   */
+  public long getExpectedLength() {
+    return expectedLength;
+  }
+
+  /**
+   * This method returns the algorithm of the checksum computed over the downloaded file.
+   *
+   * @return The name of a {@link java.security.MessageDigest} algorithm, or {@code null} if no
+   * checksum is computed.
+   */
+  public String getChecksumAlgorithm() {
+    return checksumAlgorithm;
+  }
+
+  /**
+   * This method returns the checksum the downloaded file must match.
+   *
+   * @return The checksum as hexadecimal string, or {@code null} if it is not verified.
+   */
+  public String getExpectedChecksum() {
+    return expectedChecksum;
+  }
+
+  /**
+   * This method returns whether a partially downloaded file left by an earlier attempt is
+   * completed instead of downloaded again.
+   *
+   * @return {@code true} if interrupted downloads are resumed.
+   */
+  public boolean isResume() {
+    return resume;
+  }
+
+  /**
+   * This class can be used to construct an instance of {@link DownloadAttachmentRequest}.
+   */
+  public static class Builder {
+
+    private String downloadLink;
+    private long expectedLength = -1;
+    private String checksumAlgorithm;
+    private String expectedChecksum;
+    private boolean resume = true;
+
+    /**
+     * This method sets the attachment to download. Its {@code download} link is followed, and its
+     * {@code fileSize} extension, if present, becomes the expected length.
+     *
+     * @param attachment The attachment, as returned by the server.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setAttachment(Content attachment) {
+      Map<String, String> links = attachment.getLinks();
+      this.downloadLink = links != null ? links.get("download") : null;
+      Map<String, Object> extensions = attachment.getExtensions();
+      Object fileSize = extensions != null ? extensions.get("fileSize") : null;
+      if (fileSize instanceof Number) {
+        this.expectedLength = ((Number) fileSize).longValue();
+      }
+      return this;
+    }
+
+    /**
+     * This method sets the download link to follow, e.g.
+     * {@code /download/attachments/123/report.pdf?version=2&api=v2}.
+     *
+     * @param downloadLink The download link, relative to the Confluence wiki root.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setDownloadLink(String downloadLink) {
+      this.downloadLink = downloadLink;
+      return this;
+    }
+
+    /**
+     * This method sets the number of bytes the downloaded file must have.
+     *
+     * @param expectedLength The expected length, or -1 to take it from the response.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setExpectedLength(long expectedLength) {
+      this.expectedLength = expectedLength;
+      return this;
+    }
+
+    /**
+     * This method sets the algorithm of the checksum that is computed over the downloaded file,
+     * without verifying it against an expected value.
+     *
+     * @param checksumAlgorithm The name of a {@link java.security.MessageDigest} algorithm, e.g.
+     * {@code SHA-256}.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setChecksumAlgorithm(String checksumAlgorithm) {
+      this.checksumAlgorithm = checksumAlgorithm;
+      return this;
+    }
+
+    /**
+     * This method sets the checksum the downloaded file must match.
+     *
+     * @param checksumAlgorithm The name of a {@link java.security.MessageDigest} algorithm, e.g.
+     * {@code SHA-256}.
+     * @param expectedChecksum The checksum as hexadecimal string.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setExpectedChecksum(String checksumAlgorithm, String expectedChecksum) {
+      this.checksumAlgorithm = checksumAlgorithm;
+      this.expectedChecksum = expectedChecksum;
+      return this;
+    }
+
+    /**
+     * This method sets whether a partially downloaded file left by an earlier attempt is completed
+     * with a range request instead of downloaded again.
+     *
+     * @param resume Whether to resume interrupted downloads. Defaults to {@code true}.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setResume(boolean resume) {
+      this.resume = resume;
+      return this;
+    }
+
+    /**
+     * This method creates an instance of {@link DownloadAttachmentRequest} using the values that
+     * were set on this instance.
+     *
+     * @return A new instance of {@link DownloadAttachmentRequest} with the values set on this
+     * instance.
+     * @throws IllegalStateException If the request that would be created would be invalid.
+     */
+    public DownloadAttachmentRequest build() throws IllegalStateException {
+      if (this.downloadLink == null || this.downloadLink.isEmpty()) {
+        throw new IllegalStateException("You must specify an attachment with a download link");
+      }
+
+      if (this.downloadLink.contains("://")) {
+        throw new IllegalStateException("The download link must be relative to the wiki root");
+      }
+
+      if (this.checksumAlgorithm != null) {
+        try {
+          MessageDigest.getInstance(this.checksumAlgorithm);
+        } catch (NoSuchAlgorithmException e) {
+          throw new IllegalStateException("The checksum algorithm " + this.checksumAlgorithm
+              + " is not available", e);
+        }
+      }
+
+      // The path stays encoded as given; the query parameters are decoded, since the transport
+      // encodes them again
+      int queryStart = this.downloadLink.indexOf('?');
+      String path = queryStart < 0 ? this.downloadLink : this.downloadLink.substring(0, queryStart);
+      Map<String, String> queryParams = new LinkedHashMap<>();
+      if (queryStart >= 0) {
+        for (String pair : this.downloadLink.substring(queryStart + 1).split("&")) {
+          if (pair.isEmpty()) {
+            continue;
+          }
+          int separator = pair.indexOf('=');
+          String name = separator < 0 ? pair : pair.substring(0, separator);
+          String value = separator < 0 ? "" : pair.substring(separator + 1);
+          queryParams.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+              URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+      }
+      return new DownloadAttachmentRequest(this, path.startsWith("/") ? path.substring(1) : path,
+          queryParams, this.expectedLength);
+    }
+  }
+}
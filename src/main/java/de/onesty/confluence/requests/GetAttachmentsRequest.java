@@ -2,6 +2,7 @@ package de.onesty.confluence.requests;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 
 import javax.ws.rs.HttpMethod;
 
@@ -21,6 +22,11 @@ public class GetAttachmentsRequest extends ConfluenceRequest {
         return url.replace("{id}", this.id);
     }
 
+    @Override
+    public String getPathTemplate() {
+        return url;
+    }
+
     /**
      * This method returns the HTTP method used by this request.
      */
@@ -49,6 +55,30 @@ public class GetAttachmentsRequest extends ConfluenceRequest {
         return GetAttachmentsResponse.class;
     }
 
+    /**
+     * This method compares this request to the given object. Two requests are equal if they get
+     * the attachments of the same content.
+     *
+     * @param o
+     *         The object to compare to.
+     * @return {@code true} if the object is an equal request.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Objects.equals(id, ((GetAttachmentsRequest) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
     public static class Builder {
 
               private String id;
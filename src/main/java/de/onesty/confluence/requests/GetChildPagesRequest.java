@@ -0,0 +1,271 @@
+package de.onesty.confluence.requests;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+import javax.ws.rs.HttpMethod;
+
+import org.apache.commons.lang3.StringUtils;
+
+import de.onesty.confluence.content.expand.ExpandedContentProperties;
+
+/**
+ * This class represents a request to get the direct child pages of a piece of content from the
+ * Confluence Cloud server.
+ */
+public class GetChildPagesRequest extends ConfluenceRequest {
+
+  static final String URL = "rest/api/content/{id}/child/page";
+
+  private final String id;
+  private final Integer limit;
+  private final Integer start;
+  private final ExpandedContentProperties expandedProperties;
+  private final String expand;
+
+  private GetChildPagesRequest(Builder builder) {
+    id = builder.id;
+    limit = builder.limit;
+    start = builder.start;
+    expandedProperties = builder.expandedProperties;
+    // Sorted, so that requests expanding the same properties send the same query
+    expand = expandedProperties != null
+        ? StringUtils.join(new TreeSet<>(expandedProperties.getProperties()), ",")
+        : null;
+  }
+
+  /**
+   * This method returns the unique identifier of the parent content.
+   *
+   * @return The unique identifier of the parent.
+   */
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * This method returns the maximum number of results for the request.
+   *
+   * @return The maximum number of results, or {@code null} if the server default applies.
+   */
+  public Integer getLimit() {
+    return limit;
+  }
+
+  /**
+   * This method returns the pagination start position for the request.
+   *
+   * @return The pagination start position, or {@code null} if the request starts at the first
+   * result.
+   */
+  public Integer getStartPosition() {
+    return start;
+  }
+
+  /**
+   * This method returns a copy of this request that starts at the given pagination position.
+   *
+   * @param start the pagination start position, or 0 to start at the first result
+   * @return A copy of this request with the given start position.
+   */
+  public GetChildPagesRequest withStartPosition(int start) {
+    return new Builder(this).setStartPosition(start > 0 ? start : null).build();
+  }
+
+  /**
+   * This method returns the path of the request relative to the Confluence wiki root.
+   *
+   * @return The path of the request relative to the Confluence wiki root.
+   */
+  @Override
+  public String getRelativePath() {
+    return URL.replace("{id}", id);
+  }
+
+  /**
+   * This method returns the path template of the endpoint this request is sent to.
+   *
+   * @return The path template of the request relative to the Confluence wiki root.
+   */
+  @Override
+  public String getPathTemplate() {
+    return URL;
+  }
+
+  /**
+   * This method returns the HTTP method used by this request.
+   */
+  @Override
+  public String getMethod() {
+    return HttpMethod.GET;
+  }
+
+  /**
+   * This method returns the query parameters for this request.
+   *
+   * @return The query parameters for this request.
+   */
+  @Override
+  public Map<String, String> getQueryParams() {
+    Map<String, String> queryParams = new HashMap<>();
+
+    if (this.limit != null) {
+      queryParams.put("limit", Integer.toString(this.limit));
+    }
+
+    if (this.start != null) {
+      queryParams.put("start", Integer.toString(this.start));
+    }
+
+    if (this.expand != null) {
+      queryParams.put("expand", this.expand);
+    }
+
+    return queryParams;
+  }
+
+  /**
+   * This method returns the entity that is sent in the body of the request.
+   *
+   * @return The entity that is sent in the body of the request.
+   */
+  @Override
+  public Object getBodyEntity() {
+    return null;
+  }
+
+  /**
+   * This method returns the class of the object in the body of the response for this request.
+   *
+   * @return The class of the object in the body of response for this request.
+   */
+  @Override
+  public Class<?> getReturnType() {
+    return GetContentResponse.class;
+  }
+
+  /**
+   * This method compares this request to the given object. Two requests are equal if they send the
+   * same query to the server.
+   *
+   * @param o The object to compare to.
+   * @return {@code true} if the object is an equal request.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    GetChildPagesRequest that = (GetChildPagesRequest) o;
+    return id.equals(that.id)
+        && Objects.equals(limit, that.limit)
+        && Objects.equals(start, that.start)
+        && Objects.equals(expand, that.expand);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(id, limit, start, expand);
+  }
+
+  /**
+   * This class can be used to construct an instance of {@link GetChildPagesRequest}.
+   */
+  public static final class Builder {
+
+    private String id;
+    private Integer limit;
+    private Integer start;
+    private ExpandedContentProperties expandedProperties;
+
+    /**
+     * This constructor creates an empty builder.
+     */
+    public Builder() {
+    }
+
+    /**
+     * This constructor creates a builder that is initialised with the values of the given request.
+     *
+     * @param request the request to copy
+     */
+    public Builder(GetChildPagesRequest request) {
+      this.id = request.id;
+      this.limit = request.limit;
+      this.start = request.start;
+      this.expandedProperties = request.expandedProperties;
+    }
+
+    /**
+     * This method sets the unique identifier of the content whose child pages are returned.
+     *
+     * @param id the unique identifier of the parent
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setId(String id) {
+      this.id = id;
+      return this;
+    }
+
+    /**
+     * This method sets the maximum number of results for the request.
+     *
+     * @param limit the maximum number of results
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setLimit(Integer limit) {
+      this.limit = limit;
+      return this;
+    }
+
+    /**
+     * This method sets the pagination start position for the request.
+     *
+     * @param start the pagination start position
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setStartPosition(Integer start) {
+      this.start = start;
+      return this;
+    }
+
+    /**
+     * This method sets the properties to be expanded in the results of this request.
+     *
+     * @param expandedProperties the properties to expand in the results of this request.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setExpandedProperties(ExpandedContentProperties expandedProperties) {
+      this.expandedProperties = expandedProperties;
+      return this;
+    }
+
+    /**
+     * This method creates an instance of {@link GetChildPagesRequest} using the values that were
+     * set on this instance.
+     *
+     * @return A new instance of {@link GetChildPagesRequest} with the values set on this instance.
+     * @throws IllegalStateException If the request that would be created would be invalid.
+     */
+    public GetChildPagesRequest build() throws IllegalStateException {
+      if (this.id == null || this.id.isEmpty()) {
+        throw new IllegalStateException("You must specify the id of the parent content");
+      }
+
+      if (this.limit != null && this.limit <= 0) {
+        throw new IllegalStateException("The limit must be a positive number");
+      }
+
+      if (this.start != null && this.start <= 0) {
+        throw new IllegalStateException("The start position must be a positive number");
+      }
+
+      return new GetChildPagesRequest(this);
+    }
+  }
+}
@@ -0,0 +1,241 @@
+package de.onesty.confluence.requests;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+import javax.ws.rs.HttpMethod;
+
+import org.apache.commons.lang3.StringUtils;
+
+import de.onesty.confluence.content.Content;
+import de.onesty.confluence.content.ContentStatus;
+import de.onesty.confluence.content.expand.ExpandedContentProperties;
+
+/**
+ * This class represents a request to get a single piece of content, optionally at a specific
+ * version, from the Confluence Cloud server.
+ */
+public class GetContentByIdRequest extends ConfluenceRequest {
+
+  static final String URL = "rest/api/content/{id}";
+
+  private final String id;
+  private final Integer version;
+  private final ContentStatus status;
+  private final String expand;
+
+  private GetContentByIdRequest(Builder builder) {
+    id = builder.id;
+    version = builder.version;
+    status = builder.status;
+    // Sorted, so that requests expanding the same properties send the same query
+    expand = builder.expandedProperties != null
+        ? StringUtils.join(new TreeSet<>(builder.expandedProperties.getProperties()), ",")
+        : null;
+  }
+
+  /**
+   * This method returns the unique identifier of the requested content.
+   *
+   * @return The unique identifier of the content.
+   */
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * This method returns the version of the requested content.
+   *
+   * @return The version number, or {@code null} if the current version is requested.
+   */
+  public Integer getVersion() {
+    return version;
+  }
+
+  /**
+   * This method returns the properties that are expanded in the response, as they are sent to the
+   * server.
+   *
+   * @return The comma separated, sorted properties, or {@code null} if the server default applies.
+   */
+  public String getExpand() {
+    return expand;
+  }
+
+  /**
+   * This method returns the path of the request relative to the Confluence wiki root.
+   *
+   * @return The path of the request relative to the Confluence wiki root.
+   */
+  @Override
+  public String getRelativePath() {
+    return URL.replace("{id}", id);
+  }
+
+  /**
+   * This method returns the path template of the endpoint this request is sent to.
+   *
+   * @return The path template of the request relative to the Confluence wiki root.
+   */
+  @Override
+  public String getPathTemplate() {
+    return URL;
+  }
+
+  /**
+   * This method returns the HTTP method used by this request.
+   */
+  @Override
+  public String getMethod() {
+    return HttpMethod.GET;
+  }
+
+  /**
+   * This method returns the query parameters for this request.
+   *
+   * @return The query parameters for this request.
+   */
+  @Override
+  public Map<String, String> getQueryParams() {
+    Map<String, String> queryParams = new HashMap<>();
+
+    if (this.version != null) {
+      queryParams.put("version", Integer.toString(this.version));
+    }
+
+    if (this.status != null) {
+      queryParams.put("status", this.status.getIdentifier());
+    }
+
+    if (this.expand != null) {
+      queryParams.put("expand", this.expand);
+    }
+
+    return queryParams;
+  }
+
+  /**
+   * This method returns the entity that is sent in the body of the request.
+   *
+   * @return The entity that is sent in the body of the request.
+   */
+  @Override
+  public Object getBodyEntity() {
+    return null;
+  }
+
+  /**
+   * This method returns the class of the object in the body of the response for this request.
+   *
+   * @return The class of the object in the body of response for this request.
+   */
+  @Override
+  public Class<?> getReturnType() {
+    return Content.class;
+  }
+
+  /**
+   * This method compares this request to the given object. Two requests are equal if they send the
+   * same query to the server.
+   *
+   * @param o The object to compare to.
+   * @return {@code true} if the object is an equal request.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    GetContentByIdRequest that = (GetContentByIdRequest) o;
+    return id.equals(that.id)
+        && Objects.equals(version, that.version)
+        && status == that.status
+        && Objects.equals(expand, that.expand);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(id, version, status, expand);
+  }
+
+  /**
+   * This class can be used to construct an instance of {@link GetContentByIdRequest}.
+   */
+  public static final class Builder {
+
+    private String id;
+    private Integer version;
+    private ContentStatus status;
+    private ExpandedContentProperties expandedProperties;
+
+    /**
+     * This method sets the unique identifier of the content to get.
+     *
+     * @param id the unique identifier of the content
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setId(String id) {
+      this.id = id;
+      return this;
+    }
+
+    /**
+     * This method sets the version of the content to get. If no version is set, the current
+     * version is returned.
+     *
+     * @param version the version number
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setVersion(Integer version) {
+      this.version = version;
+      return this;
+    }
+
+    /**
+     * This method sets the required status of the content, e.g. {@link ContentStatus#HISTORICAL}
+     * to get a version that is no longer current.
+     *
+     * @param status the status of the content
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setStatus(ContentStatus status) {
+      this.status = status;
+      return this;
+    }
+
+    /**
+     * This method sets the properties to be expanded in the result of this request.
+     *
+     * @param expandedProperties the properties to expand in the result of this request.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setExpandedProperties(ExpandedContentProperties expandedProperties) {
+      this.expandedProperties = expandedProperties;
+      return this;
+    }
+
+    /**
+     * This method creates an instance of {@link GetContentByIdRequest} using the values that were
+     * set on this instance.
+     *
+     * @return A new instance of {@link GetContentByIdRequest} with the values set on this instance.
+     * @throws IllegalStateException If the request that would be created would be invalid.
+     */
+    public GetContentByIdRequest build() throws IllegalStateException {
+      if (this.id == null || this.id.isEmpty()) {
+        throw new IllegalStateException("You must specify the id of the content");
+      }
+
+      if (this.version != null && this.version <= 0) {
+        throw new IllegalStateException("The version must be a positive number");
+      }
+
+      return new GetContentByIdRequest(this);
+    }
+  }
+}
@@ -1,9 +1,9 @@
 package de.onesty.confluence.requests;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
 
 import javax.ws.rs.HttpMethod;
 
@@ -31,6 +31,7 @@ public class GetContentRequest extends ConfluenceRequest {
   private final String trigger;
   private final String type;
   private final ExpandedContentProperties expandedProperties;
+  private final String expand;
 
   private GetContentRequest(Builder builder) {
     limit = builder.limit;
@@ -43,6 +44,39 @@ public class GetContentRequest extends ConfluenceRequest {
     trigger = builder.trigger;
     type = builder.type;
     expandedProperties = builder.expandedProperties;
+    // Sorted, so that requests expanding the same properties send the same query
+    expand = expandedProperties != null
+        ? StringUtils.join(new TreeSet<>(expandedProperties.getProperties()), ",")
+        : null;
+  }
+
+  /**
+   * This method returns the maximum number of results for the request.
+   *
+   * @return The maximum number of results, or {@code null} if the server default applies.
+   */
+  public Integer getLimit() {
+    return limit;
+  }
+
+  /**
+   * This method returns the pagination start position for the request.
+   *
+   * @return The pagination start position, or {@code null} if the request starts at the first
+   * result.
+   */
+  public Integer getStartPosition() {
+    return start;
+  }
+
+  /**
+   * This method returns a copy of this request that starts at the given pagination position.
+   *
+   * @param start the pagination start position, or 0 to start at the first result
+   * @return A copy of this request with the given start position.
+   */
+  public GetContentRequest withStartPosition(int start) {
+    return new Builder(this).setStartPosition(start > 0 ? start : null).build();
   }
 
   /**
@@ -106,13 +140,8 @@ public class GetContentRequest extends ConfluenceRequest {
       queryParams.put("type", this.type);
     }
 
-    if (this.expandedProperties != null) {
-      List<String> properties = new ArrayList<>();
-      for (String property : this.expandedProperties.getProperties()) {
-        properties.add(property);
-      }
-
-      queryParams.put("expand", StringUtils.join(properties.toArray(new String[0]),","));
+    if (this.expand != null) {
+      queryParams.put("expand", this.expand);
     }
 
     return queryParams;
@@ -138,6 +167,41 @@ public class GetContentRequest extends ConfluenceRequest {
     return GetContentResponse.class;
   }
 
+  /**
+   * This method compares this request to the given object. Two requests are equal if they send the
+   * same query to the server, regardless of the order in which their expanded properties were
+   * added.
+   *
+   * @param o The object to compare to.
+   * @return {@code true} if the object is an equal request.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    GetContentRequest that = (GetContentRequest) o;
+    return Objects.equals(limit, that.limit)
+        && Objects.equals(orderByField, that.orderByField)
+        && orderByDirection == that.orderByDirection
+        && Objects.equals(spaceKey, that.spaceKey)
+        && Objects.equals(start, that.start)
+        && status == that.status
+        && Objects.equals(title, that.title)
+        && Objects.equals(trigger, that.trigger)
+        && Objects.equals(type, that.type)
+        && Objects.equals(expand, that.expand);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(limit, orderByField, orderByDirection, spaceKey, start, status, title,
+        trigger, type, expand);
+  }
+
   /**
    * This class can be used to construct an instance of {@link GetContentRequest}.
    */
@@ -154,6 +218,30 @@ public class GetContentRequest extends ConfluenceRequest {
     private String type;
     private ExpandedContentProperties expandedProperties;
 
+    /**
+     * This constructor creates an empty builder.
+     */
+    public Builder() {
+    }
+
+    /**
+     * This constructor creates a builder that is initialised with the values of the given request.
+     *
+     * @param request the request to copy
+     */
+    public Builder(GetContentRequest request) {
+      this.limit = request.limit;
+      this.orderByField = request.orderByField;
+      this.orderByDirection = request.orderByDirection;
+      this.spaceKey = request.spaceKey;
+      this.start = request.start;
+      this.status = request.status;
+      this.title = request.title;
+      this.trigger = request.trigger;
+      this.type = request.type;
+      this.expandedProperties = request.expandedProperties;
+    }
+
     /**
      * This method sets the maximum number of results for the request.
      *
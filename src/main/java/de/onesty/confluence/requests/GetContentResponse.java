@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import de.onesty.confluence.content.Content;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This class represents the response that is returned for a {@link GetContentRequest}.
@@ -11,6 +12,8 @@ import java.util.List;
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class GetContentResponse {
 
+  private static final String NEXT_LINK = "next";
+
   @JsonProperty
   private List<Content> results;
   @JsonProperty
@@ -19,6 +22,8 @@ public class GetContentResponse {
   private Integer limit;
   @JsonProperty
   private Integer size;
+  @JsonProperty("_links")
+  private Map<String, String> links;
 
   @SuppressWarnings("unused")
   private GetContentResponse() {
@@ -43,4 +48,67 @@ public class GetContentResponse {
   public List<Content> getResults() {
     return this.results;
   }
+
+  /**
+   * This method returns the pagination start position of the results.
+   *
+   * @return The pagination start position of the results.
+   */
+  public Integer getStart() {
+    return this.start;
+  }
+
+  /**
+   * This method returns the maximum number of results the server returns for the request.
+   *
+   * @return The maximum number of results per page.
+   */
+  public Integer getLimit() {
+    return this.limit;
+  }
+
+  /**
+   * This method returns the number of results contained in the response.
+   *
+   * @return The number of results contained in the response.
+   */
+  public Integer getSize() {
+    return this.size;
+  }
+
+  /**
+   * This method returns the link to the next page of results.
+   *
+   * @return The link relative to the wiki root, or {@code null} if the server returned no such
+   * link.
+   */
+  public String getNextLink() {
+    return links != null ? links.get(NEXT_LINK) : null;
+  }
+
+  /**
+   * This method returns the number of results the server actually returns per page. The server
+   * caps the limit of a request at its own maximum, so this may be less than the requested limit.
+   *
+   * @param requestedLimit The limit that was requested.
+   * @return The limit reported by the server, or the requested limit if none was reported.
+   */
+  public int getEffectiveLimit(int requestedLimit) {
+    return limit != null && limit > 0 ? limit : requestedLimit;
+  }
+
+  /**
+   * This method returns whether this is the last page of results. If the server returned links,
+   * this is the case if there is no link to a next page; otherwise, it is the case if the page
+   * holds fewer results than the {@link #getEffectiveLimit(int) effective limit}.
+   *
+   * @param requestedLimit The limit that was requested.
+   * @return {@code true} if no further page follows.
+   */
+  public boolean isLastPage(int requestedLimit) {
+    if (links != null) {
+      return getNextLink() == null;
+    }
+    return results == null || results.size() < getEffectiveLimit(requestedLimit);
+  }
 }
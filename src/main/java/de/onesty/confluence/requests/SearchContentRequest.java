@@ -0,0 +1,330 @@
+package de.onesty.confluence.requests;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+import javax.ws.rs.HttpMethod;
+
+import org.apache.commons.lang3.StringUtils;
+
+import de.onesty.confluence.content.expand.ExpandedContentProperties;
+
+/**
+ * <p>This class represents a request to search content with a CQL query, e.g.
+ * {@code space = "SAMPLE" and lastmodified > now("-1h")}, on the Confluence Cloud server.</p>
+ * <p>Search results are paged with an opaque cursor: each response links to the next page, and
+ * {@link #withNextLink(String)} turns that link into the request for the next page.</p>
+ */
+public class SearchContentRequest extends ConfluenceRequest {
+
+  private final String cql;
+  private final String cqlContext;
+  private final Integer limit;
+  private final String cursor;
+  private final Integer start;
+  private final ExpandedContentProperties expandedProperties;
+  private final String expand;
+
+  private SearchContentRequest(Builder builder) {
+    cql = builder.cql;
+    cqlContext = builder.cqlContext;
+    limit = builder.limit;
+    cursor = builder.cursor;
+    start = builder.start;
+    expandedProperties = builder.expandedProperties;
+    // Sorted, so that requests expanding the same properties send the same query
+    expand = expandedProperties != null
+        ? StringUtils.join(new TreeSet<>(expandedProperties.getProperties()), ",")
+        : null;
+  }
+
+  /**
+   * This method returns the CQL query of the request.
+   *
+   * @return The CQL query.
+   */
+  public String getCql() {
+    return cql;
+  }
+
+  /**
+   * This method returns the maximum number of results per page.
+   *
+   * @return The maximum number of results, or {@code null} if the server default applies.
+   */
+  public Integer getLimit() {
+    return limit;
+  }
+
+  /**
+   * This method returns the cursor of the page requested by this request.
+   *
+   * @return The cursor, or {@code null} if the request is for the first page.
+   */
+  public String getCursor() {
+    return cursor;
+  }
+
+  /**
+   * <p>This method returns a copy of this request for the page the given link points to, as found
+   * in {@link SearchContentResponse#getNextLink()}.</p>
+   * <p>The cursor and start position are taken from the link; the query, limit and expanded
+   * properties are those of this request.</p>
+   *
+   * @param nextLink the link to the next page of results
+   * @return A copy of this request for the linked page.
+   */
+  public SearchContentRequest withNextLink(String nextLink) {
+    Map<String, String> params = parseQuery(nextLink);
+    String start = params.get("start");
+    return new Builder(this)
+        .setCursor(params.get("cursor"))
+        .setStartPosition(start != null ? Integer.valueOf(start) : null)
+        .build();
+  }
+
+  /**
+   * This method returns the path of the request relative to the Confluence wiki root.
+   *
+   * @return The path of the request relative to the Confluence wiki root.
+   */
+  @Override
+  public String getRelativePath() {
+    return "rest/api/content/search";
+  }
+
+  /**
+   * This method returns the HTTP method used by this request.
+   */
+  @Override
+  public String getMethod() {
+    return HttpMethod.GET;
+  }
+
+  /**
+   * This method returns the query parameters for this request.
+   *
+   * @return The query parameters for this request.
+   */
+  @Override
+  public Map<String, String> getQueryParams() {
+    Map<String, String> queryParams = new HashMap<>();
+    queryParams.put("cql", this.cql);
+
+    if (this.cqlContext != null) {
+      queryParams.put("cqlcontext", this.cqlContext);
+    }
+
+    if (this.limit != null) {
+      queryParams.put("limit", Integer.toString(this.limit));
+    }
+
+    if (this.cursor != null) {
+      queryParams.put("cursor", this.cursor);
+    }
+
+    if (this.start != null) {
+      queryParams.put("start", Integer.toString(this.start));
+    }
+
+    if (this.expand != null) {
+      queryParams.put("expand", this.expand);
+    }
+
+    return queryParams;
+  }
+
+  /**
+   * This method returns the entity that is sent in the body of the request.
+   *
+   * @return The entity that is sent in the body of the request.
+   */
+  @Override
+  public Object getBodyEntity() {
+    return null;
+  }
+
+  /**
+   * This method returns the class of the object in the body of the response for this request.
+   *
+   * @return The class of the object in the body of response for this request.
+   */
+  @Override
+  public Class<?> getReturnType() {
+    return SearchContentResponse.class;
+  }
+
+  /**
+   * This method compares this request to the given object. Two requests are equal if they send the
+   * same query to the server.
+   *
+   * @param o The object to compare to.
+   * @return {@code true} if the object is an equal request.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    SearchContentRequest that = (SearchContentRequest) o;
+    return cql.equals(that.cql)
+        && Objects.equals(cqlContext, that.cqlContext)
+        && Objects.equals(limit, that.limit)
+        && Objects.equals(cursor, that.cursor)
+        && Objects.equals(start, that.start)
+        && Objects.equals(expand, that.expand);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(cql, cqlContext, limit, cursor, start, expand);
+  }
+
+  private static Map<String, String> parseQuery(String link) {
+    Map<String, String> params = new HashMap<>();
+    int queryStart = link.indexOf('?');
+    if (queryStart < 0) {
+      return params;
+    }
+    for (String param : link.substring(queryStart + 1).split("&")) {
+      int separator = param.indexOf('=');
+      if (separator > 0) {
+        params.put(URLDecoder.decode(param.substring(0, separator), StandardCharsets.UTF_8),
+            URLDecoder.decode(param.substring(separator + 1), StandardCharsets.UTF_8));
+      }
+    }
+    return params;
+  }
+
+  /**
+   * This class can be used to construct an instance of {@link SearchContentRequest}.
+   */
+  public static final class Builder {
+
+    private String cql;
+    private String cqlContext;
+    private Integer limit;
+    private String cursor;
+    private Integer start;
+    private ExpandedContentProperties expandedProperties;
+
+    /**
+     * This constructor creates an empty builder.
+     */
+    public Builder() {
+    }
+
+    /**
+     * This constructor creates a builder that is initialised with the values of the given request.
+     *
+     * @param request the request to copy
+     */
+    public Builder(SearchContentRequest request) {
+      this.cql = request.cql;
+      this.cqlContext = request.cqlContext;
+      this.limit = request.limit;
+      this.cursor = request.cursor;
+      this.start = request.start;
+      this.expandedProperties = request.expandedProperties;
+    }
+
+    /**
+     * This method sets the CQL query that results must match.
+     *
+     * @param cql the CQL query, e.g. {@code type = page and lastmodified > now("-1h")}
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setCql(String cql) {
+      this.cql = cql;
+      return this;
+    }
+
+    /**
+     * This method sets the context the CQL query is executed in, e.g.
+     * {@code {"spaceKey":"SAMPLE"}}.
+     *
+     * @param cqlContext the JSON encoded context of the query
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setCqlContext(String cqlContext) {
+      this.cqlContext = cqlContext;
+      return this;
+    }
+
+    /**
+     * This method sets the maximum number of results per page.
+     *
+     * @param limit the maximum number of results
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setLimit(Integer limit) {
+      this.limit = limit;
+      return this;
+    }
+
+    /**
+     * This method sets the cursor of the page to request. Cursors are returned by the server in
+     * the link to the next page, see {@link SearchContentRequest#withNextLink(String)}.
+     *
+     * @param cursor the cursor of the page
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setCursor(String cursor) {
+      this.cursor = cursor;
+      return this;
+    }
+
+    /**
+     * This method sets the pagination start position for the request. Servers that page search
+     * results with a cursor ignore it.
+     *
+     * @param start the pagination start position
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setStartPosition(Integer start) {
+      this.start = start;
+      return this;
+    }
+
+    /**
+     * This method sets the properties to be expanded in the results of this request.
+     *
+     * @param expandedProperties the properties to expand in the results of this request.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setExpandedProperties(ExpandedContentProperties expandedProperties) {
+      this.expandedProperties = expandedProperties;
+      return this;
+    }
+
+    /**
+     * This method creates an instance of {@link SearchContentRequest} using the values that were
+     * set on this instance.
+     *
+     * @return A new instance of {@link SearchContentRequest} with the values set on this instance.
+     * @throws IllegalStateException If the request that would be created would be invalid.
+     */
+    public SearchContentRequest build() throws IllegalStateException {
+      if (this.cql == null || this.cql.trim().isEmpty()) {
+        throw new IllegalStateException("You must specify the CQL query");
+      }
+
+      if (this.limit != null && this.limit <= 0) {
+        throw new IllegalStateException("The limit must be a positive number");
+      }
+
+      if (this.start != null && this.start < 0) {
+        throw new IllegalStateException("The start position must not be negative");
+      }
+
+      return new SearchContentRequest(this);
+    }
+  }
+}
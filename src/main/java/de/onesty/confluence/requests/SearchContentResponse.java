@@ -0,0 +1,112 @@
+package de.onesty.confluence.requests;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import de.onesty.confluence.content.Content;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class represents one page of the response that is returned for a {@link
+ * SearchContentRequest}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SearchContentResponse {
+
+  private static final String NEXT_LINK = "next";
+
+  @JsonProperty
+  private List<Content> results;
+  @JsonProperty
+  private Integer start;
+  @JsonProperty
+  private Integer limit;
+  @JsonProperty
+  private Integer size;
+  @JsonProperty
+  private Integer totalSize;
+  @JsonProperty("_links")
+  private Map<String, String> links;
+
+  @SuppressWarnings("unused")
+  private SearchContentResponse() {
+    // Required for Jackson deserialization
+  }
+
+  /**
+   * This constructor initialises the response with the given results and links.
+   *
+   * @param results The results contained in the response
+   * @param links The links of the response, such as the link to the next page
+   */
+  public SearchContentResponse(List<Content> results, Map<String, String> links) {
+    this.results = results;
+    this.links = links;
+  }
+
+  /**
+   * This method returns the content on this page of results.
+   *
+   * @return The content on this page of results.
+   */
+  public List<Content> getResults() {
+    return results != null ? results : Collections.emptyList();
+  }
+
+  /**
+   * This method returns the pagination start position of the results.
+   *
+   * @return The pagination start position of the results.
+   */
+  public Integer getStart() {
+    return start;
+  }
+
+  /**
+   * This method returns the maximum number of results per page.
+   *
+   * @return The maximum number of results per page.
+   */
+  public Integer getLimit() {
+    return limit;
+  }
+
+  /**
+   * This method returns the number of results contained in the response.
+   *
+   * @return The number of results contained in the response.
+   */
+  public Integer getSize() {
+    return size;
+  }
+
+  /**
+   * This method returns the total number of results of the query, if the server reports it.
+   *
+   * @return The total number of results, or {@code null} if it is unknown.
+   */
+  public Integer getTotalSize() {
+    return totalSize;
+  }
+
+  /**
+   * This method returns the link to the next page of results, which can be followed with {@link
+   * SearchContentRequest#withNextLink(String)}.
+   *
+   * @return The link relative to the wiki root, or {@code null} if this is the last page.
+   */
+  public String getNextLink() {
+    return links != null ? links.get(NEXT_LINK) : null;
+  }
+
+  /**
+   * This method returns all links of the response, such as {@code base}, {@code self} and {@code
+   * next}.
+   *
+   * @return The links of the response.
+   */
+  public Map<String, String> getLinks() {
+    return links != null ? Collections.unmodifiableMap(links) : Collections.emptyMap();
+  }
+}
@@ -23,9 +23,14 @@ public class UpdateContentRequest extends ConfluenceRequest {
 
   private String id;
   private Content content;
+  private boolean retryable;
+  // The values the request was built from, for copies with another version
+  private final Builder source;
 
   private UpdateContentRequest(Builder builder) {
     this.id = builder.id;
+    this.retryable = builder.retryable;
+    this.source = new Builder(builder);
 
     Content.Builder contentBuilder = new Content.Builder();
     if (builder.ancestorId != null) {
@@ -47,6 +52,35 @@ public class UpdateContentRequest extends ConfluenceRequest {
   }
 
 
+  /**
+   * This method returns the unique identifier of the content to update.
+   *
+   * @return The unique identifier of the content.
+   */
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * This method returns the version number the content is updated to.
+   *
+   * @return The new version number of the content.
+   */
+  public int getVersion() {
+    return source.versionNumber;
+  }
+
+  /**
+   * This method returns a copy of this request that updates the content to the given version, for
+   * example to apply the update again on top of a version that was created concurrently.
+   *
+   * @param versionNumber The new version number of the content.
+   * @return A copy of this request with the given version number.
+   */
+  public UpdateContentRequest withVersion(int versionNumber) {
+    return new Builder(source).setVersion(versionNumber).build();
+  }
+
   /**
    * This method returns the path of the request relative to the Confluence wiki root.
    *
@@ -57,6 +91,16 @@ public class UpdateContentRequest extends ConfluenceRequest {
     return "rest/api/content/" + id;
   }
 
+  /**
+   * This method returns the path template of the endpoint this request is sent to.
+   *
+   * @return The path template of the request relative to the Confluence wiki root.
+   */
+  @Override
+  public String getPathTemplate() {
+    return "rest/api/content/{id}";
+  }
+
   /**
    * This method returns the HTTP method used by this request.
    */
@@ -95,6 +139,17 @@ public class UpdateContentRequest extends ConfluenceRequest {
     return Content.class;
   }
 
+  /**
+   * This method returns whether the request was marked as safe to send again after a transient
+   * failure.
+   *
+   * @return {@code true} if the request may be retried.
+   */
+  @Override
+  public boolean isRetryable() {
+    return this.retryable;
+  }
+
   /**
    * This class can be used to construct an instance of {@link UpdateContentRequest}.
    */
@@ -108,6 +163,34 @@ public class UpdateContentRequest extends ConfluenceRequest {
     private ContentBodyType bodyType;
     private String bodyContent;
     private String title;
+    private boolean retryable;
+
+    /**
+     * This constructor creates an empty builder.
+     */
+    public Builder() {
+    }
+
+    /**
+     * This constructor creates a builder that is initialised with the values of the given request.
+     *
+     * @param request the request to copy
+     */
+    public Builder(UpdateContentRequest request) {
+      this(request.source);
+    }
+
+    private Builder(Builder other) {
+      this.id = other.id;
+      this.ancestorId = other.ancestorId;
+      this.versionNumber = other.versionNumber;
+      this.type = other.type;
+      this.status = other.status;
+      this.bodyType = other.bodyType;
+      this.bodyContent = other.bodyContent;
+      this.title = other.title;
+      this.retryable = other.retryable;
+    }
 
     /**
      * This method sets the unique identifier of the content to be updated.
@@ -204,6 +287,19 @@ public class UpdateContentRequest extends ConfluenceRequest {
       return this;
     }
 
+    /**
+     * This method marks the request as safe to send again after a transient failure. Since the
+     * server rejects a second update to the same version number, retrying an update that was
+     * already applied results in a version conflict rather than a duplicate version.
+     *
+     * @param retryable Whether the request may be retried.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setRetryable(boolean retryable) {
+      this.retryable = retryable;
+      return this;
+    }
+
     /**
      * This method creates an instance of {@link UpdateContentRequest} using the values that were
      * set on this instance.
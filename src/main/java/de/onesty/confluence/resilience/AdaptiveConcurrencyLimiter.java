@@ -0,0 +1,344 @@
+package de.onesty.confluence.resilience;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>This class limits the number of requests in flight to the Confluence Cloud server and adapts
+ * the limit to the capacity the server is currently offering.</p>
+ * <p>The limit follows an additive-increase/multiplicative-decrease scheme. Each healthy response
+ * received while the limit is in use raises it by {@code 1 / limit}, i.e. by about one request per
+ * round trip. A response is healthy if it is not throttled and its latency is within the
+ * configured tolerance of the lowest latency observed recently. A {@code 429 Too Many Requests}
+ * or {@code 503 Service Unavailable} response reduces the limit by the backoff ratio, at most once
+ * for the requests that were dispatched under the same limit.</p>
+ * <p>If a response carries a {@code Retry-After} header, or reports through {@code
+ * X-RateLimit-Remaining} that no requests are left in the current window, no further request is
+ * dispatched until the indicated time has passed. Requests waiting for a permit are dispatched in
+ * the order they arrived.</p>
+ * <p>An instance is meant to be shared by all requests sent to the same server.</p>
+ */
+public class AdaptiveConcurrencyLimiter {
+
+  private static final int LATENCY_WINDOW = 250;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final double backoffRatio;
+  private final double latencyTolerance;
+
+  private final ArrayDeque<CompletableFuture<Permit>> waiters = new ArrayDeque<>();
+  private double limit;
+  private int inFlight;
+  private long generation;
+  private long pausedUntilNanos;
+  private boolean resumeScheduled;
+  private long baselineLatencyNanos = Long.MAX_VALUE;
+  private long windowMinLatencyNanos = Long.MAX_VALUE;
+  private int windowSamples;
+
+  private AdaptiveConcurrencyLimiter(Builder builder) {
+    this.minLimit = builder.minLimit;
+    this.maxLimit = builder.maxLimit;
+    this.backoffRatio = builder.backoffRatio;
+    this.latencyTolerance = builder.latencyTolerance;
+    this.limit = builder.initialLimit;
+  }
+
+  /**
+   * This method waits for a permit to send a request.
+   *
+   * @return The permit, which must be released once the exchange is over.
+   * @throws InterruptedException If the thread is interrupted while waiting.
+   */
+  public Permit acquire() throws InterruptedException {
+    CompletableFuture<Permit> permit = acquireAsync();
+    try {
+      return permit.get();
+    } catch (InterruptedException e) {
+      if (!permit.cancel(false)) {
+        permit.join().release();
+      }
+      throw e;
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  /**
+   * This method requests a permit to send a request without blocking the calling thread.
+   *
+   * @return A future that completes with the permit once the request may be sent. The permit must
+   * be released once the exchange is over. Cancelling the future gives up the place in the queue.
+   */
+  public CompletableFuture<Permit> acquireAsync() {
+    CompletableFuture<Permit> permit = new CompletableFuture<>();
+    synchronized (this) {
+      waiters.add(permit);
+    }
+    dispatch();
+    return permit;
+  }
+
+  /**
+   * This method returns the current concurrency limit.
+   *
+   * @return The number of requests that may currently be in flight.
+   */
+  public synchronized int getLimit() {
+    return (int) limit;
+  }
+
+  /**
+   * This method returns the number of requests currently in flight.
+   *
+   * @return The number of permits that have been handed out and not released.
+   */
+  public synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  /**
+   * This method returns the number of requests waiting for a permit.
+   *
+   * @return The number of queued requests.
+   */
+  public synchronized int getQueued() {
+    return waiters.size();
+  }
+
+  /**
+   * This method hands out permits to waiting requests while the limit allows it and dispatch is
+   * not paused. The futures are completed outside the lock, since completing them may send the
+   * request on the calling thread.
+   */
+  private void dispatch() {
+    List<CompletableFuture<Permit>> granted = new ArrayList<>();
+    List<Permit> permits = new ArrayList<>();
+    synchronized (this) {
+      long now = System.nanoTime();
+      if (pausedUntilNanos - now > 0) {
+        scheduleResume(pausedUntilNanos - now);
+        return;
+      }
+      while (!waiters.isEmpty() && inFlight < (int) limit) {
+        CompletableFuture<Permit> waiter = waiters.poll();
+        if (waiter.isDone()) {
+          continue;
+        }
+        inFlight++;
+        granted.add(waiter);
+        permits.add(new Permit(generation, now));
+      }
+    }
+    for (int i = 0; i < granted.size(); i++) {
+      if (!granted.get(i).complete(permits.get(i))) {
+        permits.get(i).release();
+      }
+    }
+  }
+
+  private void scheduleResume(long delayNanos) {
+    if (resumeScheduled || waiters.isEmpty()) {
+      return;
+    }
+    resumeScheduled = true;
+    CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS).execute(() -> {
+      synchronized (this) {
+        resumeScheduled = false;
+      }
+      dispatch();
+    });
+  }
+
+  private synchronized void onResponse(Permit permit, int status, Duration retryAfter,
+      boolean nearLimit) {
+    long now = System.nanoTime();
+
+    if (retryAfter != null) {
+      pausedUntilNanos = Math.max(pausedUntilNanos, now + retryAfter.toNanos());
+    }
+
+    if (status == 429 || status == 503) {
+      // Only the first throttled response of a generation cuts the limit, so that a burst of
+      // rejections for requests sent under the same limit is counted as a single signal
+      if (permit.generation == generation) {
+        limit = Math.max(minLimit, limit * backoffRatio);
+        generation++;
+      }
+      return;
+    }
+
+    long latency = now - permit.startNanos;
+    recordLatency(latency);
+    boolean healthy = status < 500 && !nearLimit
+        && latency <= baselineLatencyNanos * latencyTolerance;
+    // Only grow the limit while it is actually being used
+    if (healthy && inFlight >= limit / 2) {
+      limit = Math.min(maxLimit, limit + 1 / limit);
+    }
+  }
+
+  private void recordLatency(long latency) {
+    windowMinLatencyNanos = Math.min(windowMinLatencyNanos, latency);
+    baselineLatencyNanos = Math.min(baselineLatencyNanos, latency);
+    if (++windowSamples >= LATENCY_WINDOW) {
+      // Let the baseline follow the server if its latency rises permanently
+      baselineLatencyNanos = windowMinLatencyNanos;
+      windowMinLatencyNanos = Long.MAX_VALUE;
+      windowSamples = 0;
+    }
+  }
+
+  private synchronized void onRelease() {
+    inFlight--;
+  }
+
+  /**
+   * This class represents the permission to send one request. The limiter should be informed of
+   * the response through {@link #onResponse(int, Duration, boolean)} as soon as its headers are
+   * received, and the permit must be released once the exchange is over.
+   */
+  public final class Permit {
+
+    private final long generation;
+    private final long startNanos;
+    private final AtomicBoolean responded = new AtomicBoolean();
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Permit(long generation, long startNanos) {
+      this.generation = generation;
+      this.startNanos = startNanos;
+    }
+
+    /**
+     * This method adapts the limit according to the status, latency and rate limit headers of the
+     * response received for this permit. Only the first call has an effect.
+     *
+     * @param status The HTTP status code of the response.
+     * @param retryAfter The delay requested by the server through the {@code Retry-After} or
+     * {@code X-RateLimit-Reset} header, or {@code null}.
+     * @param nearLimit Whether the server reported that the rate limit is almost exhausted.
+     */
+    public void onResponse(int status, Duration retryAfter, boolean nearLimit) {
+      if (responded.compareAndSet(false, true)) {
+        AdaptiveConcurrencyLimiter.this.onResponse(this, status, retryAfter, nearLimit);
+      }
+    }
+
+    /**
+     * This method returns the permit, so that a waiting request can be sent. Only the first call
+     * has an effect.
+     */
+    public void release() {
+      if (released.compareAndSet(false, true)) {
+        onRelease();
+        dispatch();
+      }
+    }
+  }
+
+  /**
+   * This class can be used to construct an instance of {@link AdaptiveConcurrencyLimiter}.
+   */
+  public static class Builder {
+
+    private int initialLimit = 10;
+    private int minLimit = 1;
+    private int maxLimit = 100;
+    private double backoffRatio = 0.5;
+    private double latencyTolerance = 2.0;
+
+    /**
+     * This method sets the number of requests that may be in flight before any response has been
+     * received.
+     *
+     * @param initialLimit The initial limit. Defaults to 10.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setInitialLimit(int initialLimit) {
+      this.initialLimit = initialLimit;
+      return this;
+    }
+
+    /**
+     * This method sets the lowest value the limit is reduced to.
+     *
+     * @param minLimit The minimum limit. Defaults to 1.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setMinLimit(int minLimit) {
+      this.minLimit = minLimit;
+      return this;
+    }
+
+    /**
+     * This method sets the highest value the limit is raised to. It should not exceed the number
+     * of connections available to the transport.
+     *
+     * @param maxLimit The maximum limit. Defaults to 100.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setMaxLimit(int maxLimit) {
+      this.maxLimit = maxLimit;
+      return this;
+    }
+
+    /**
+     * This method sets the factor the limit is multiplied with when the server throttles requests.
+     *
+     * @param backoffRatio A value between 0 and 1, exclusive. Defaults to 0.5.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setBackoffRatio(double backoffRatio) {
+      this.backoffRatio = backoffRatio;
+      return this;
+    }
+
+    /**
+     * This method sets how much slower than the lowest recent latency a response may be for the
+     * limit to still be raised.
+     *
+     * @param latencyTolerance The tolerated ratio, at least 1. Defaults to 2.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setLatencyTolerance(double latencyTolerance) {
+      this.latencyTolerance = latencyTolerance;
+      return this;
+    }
+
+    /**
+     * This method creates an instance of {@link AdaptiveConcurrencyLimiter} using the values that
+     * were set on this instance.
+     *
+     * @return A new instance of {@link AdaptiveConcurrencyLimiter} with the values set on this
+     * instance.
+     * @throws IllegalStateException If the limiter that would be created would be invalid.
+     */
+    public AdaptiveConcurrencyLimiter build() throws IllegalStateException {
+      if (this.minLimit <= 0 || this.minLimit > this.maxLimit) {
+        throw new IllegalStateException("The minimum limit must be positive and not exceed the maximum limit");
+      }
+
+      if (this.initialLimit < this.minLimit || this.initialLimit > this.maxLimit) {
+        throw new IllegalStateException("The initial limit must be between the minimum and maximum limit");
+      }
+
+      if (this.backoffRatio <= 0 || this.backoffRatio >= 1) {
+        throw new IllegalStateException("The backoff ratio must be between 0 and 1");
+      }
+
+      if (this.latencyTolerance < 1) {
+        throw new IllegalStateException("The latency tolerance must be at least 1");
+      }
+
+      return new AdaptiveConcurrencyLimiter(this);
+    }
+  }
+}
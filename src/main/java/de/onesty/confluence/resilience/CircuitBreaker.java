@@ -0,0 +1,200 @@
+package de.onesty.confluence.resilience;
+
+/**
+ * <p>This class is the circuit breaker of a single endpoint.</p>
+ * <p>While it is {@link State#CLOSED}, the outcome of the most recent calls is recorded in a
+ * sliding window. Once the window holds the minimum number of calls and the rate of failed or of
+ * slow calls reaches its threshold, the circuit breaker opens and rejects all calls. After the
+ * configured wait duration it lets a number of trial calls through; depending on their outcome it
+ * closes again or reopens.</p>
+ */
+public class CircuitBreaker {
+
+  private static final byte FAILED = 1;
+  private static final byte SLOW = 2;
+
+  private final String endpoint;
+  private final CircuitBreakerConfig config;
+  private final long slowCallNanos;
+
+  private State state = State.CLOSED;
+  // Identifies the period a state was entered in, so that late outcomes of calls permitted in an
+  // earlier period are not counted
+  private long epoch;
+  private long openedAtNanos;
+
+  private final byte[] window;
+  private int windowIndex;
+  private int windowCalls;
+  private int windowFailures;
+  private int windowSlowCalls;
+
+  private int halfOpenPermitted;
+  private int halfOpenCalls;
+  private int halfOpenFailures;
+  private int halfOpenSlowCalls;
+
+  /**
+   * This enum represents the states of a circuit breaker.
+   */
+  public enum State {
+    /**
+     * Calls are let through and their outcome is recorded.
+     */
+    CLOSED,
+    /**
+     * Calls are rejected.
+     */
+    OPEN,
+    /**
+     * A limited number of trial calls is let through.
+     */
+    HALF_OPEN
+  }
+
+  CircuitBreaker(String endpoint, CircuitBreakerConfig config) {
+    this.endpoint = endpoint;
+    this.config = config;
+    this.slowCallNanos = config.getSlowCallDuration().toNanos();
+    this.window = new byte[config.getSlidingWindowSize()];
+  }
+
+  /**
+   * This method returns the endpoint of this circuit breaker.
+   *
+   * @return The path template of the endpoint.
+   */
+  public String getEndpoint() {
+    return endpoint;
+  }
+
+  /**
+   * This method returns the current state of this circuit breaker.
+   *
+   * @return The state.
+   */
+  public synchronized State getState() {
+    return state;
+  }
+
+  /**
+   * This method decides whether a call may be sent.
+   *
+   * @return The epoch to pass to {@link #onResult(long, long, boolean)} when the call completes,
+   * or -1 if the call is rejected.
+   */
+  long tryAcquirePermission() {
+    CircuitBreakerEvent event = null;
+    long permission;
+    synchronized (this) {
+      if (state == State.OPEN
+          && System.nanoTime() - openedAtNanos >= config.getWaitDurationInOpenState().toNanos()) {
+        event = transitionTo(State.HALF_OPEN, -1, -1);
+      }
+      if (state == State.CLOSED) {
+        permission = epoch;
+      } else if (state == State.HALF_OPEN && halfOpenPermitted < config.getPermittedCallsInHalfOpenState()) {
+        halfOpenPermitted++;
+        permission = epoch;
+      } else {
+        permission = -1;
+      }
+    }
+    publish(event);
+    return permission;
+  }
+
+  /**
+   * This method records the outcome of a call.
+   *
+   * @param permission The epoch returned when the call was permitted.
+   * @param durationNanos The time it took to receive the response.
+   * @param failed Whether the call failed.
+   */
+  void onResult(long permission, long durationNanos, boolean failed) {
+    byte outcome = (byte) ((failed ? FAILED : 0) | (durationNanos >= slowCallNanos ? SLOW : 0));
+    CircuitBreakerEvent event = null;
+    synchronized (this) {
+      if (permission != epoch) {
+        return;
+      }
+      if (state == State.CLOSED) {
+        event = recordClosed(outcome);
+      } else if (state == State.HALF_OPEN) {
+        event = recordHalfOpen(outcome);
+      }
+    }
+    publish(event);
+  }
+
+  private CircuitBreakerEvent recordClosed(byte outcome) {
+    if (windowCalls == window.length) {
+      byte evicted = window[windowIndex];
+      windowFailures -= evicted & FAILED;
+      windowSlowCalls -= (evicted & SLOW) >> 1;
+    } else {
+      windowCalls++;
+    }
+    window[windowIndex] = outcome;
+    windowIndex = (windowIndex + 1) % window.length;
+    windowFailures += outcome & FAILED;
+    windowSlowCalls += (outcome & SLOW) >> 1;
+
+    if (windowCalls < Math.min(config.getMinimumNumberOfCalls(), window.length)) {
+      return null;
+    }
+    float failureRate = windowFailures * 100f / windowCalls;
+    float slowCallRate = windowSlowCalls * 100f / windowCalls;
+    if (exceedsThresholds(failureRate, slowCallRate)) {
+      return transitionTo(State.OPEN, failureRate, slowCallRate);
+    }
+    return null;
+  }
+
+  private CircuitBreakerEvent recordHalfOpen(byte outcome) {
+    halfOpenCalls++;
+    halfOpenFailures += outcome & FAILED;
+    halfOpenSlowCalls += (outcome & SLOW) >> 1;
+    if (halfOpenCalls < config.getPermittedCallsInHalfOpenState()) {
+      return null;
+    }
+    float failureRate = halfOpenFailures * 100f / halfOpenCalls;
+    float slowCallRate = halfOpenSlowCalls * 100f / halfOpenCalls;
+    State next = exceedsThresholds(failureRate, slowCallRate) ? State.OPEN : State.CLOSED;
+    return transitionTo(next, failureRate, slowCallRate);
+  }
+
+  private boolean exceedsThresholds(float failureRate, float slowCallRate) {
+    return failureRate >= config.getFailureRateThreshold()
+        || slowCallRate >= config.getSlowCallRateThreshold();
+  }
+
+  private CircuitBreakerEvent transitionTo(State next, float failureRate, float slowCallRate) {
+    State previous = state;
+    state = next;
+    epoch++;
+    if (next == State.OPEN) {
+      openedAtNanos = System.nanoTime();
+    } else if (next == State.HALF_OPEN) {
+      halfOpenPermitted = 0;
+      halfOpenCalls = 0;
+      halfOpenFailures = 0;
+      halfOpenSlowCalls = 0;
+    } else {
+      windowIndex = 0;
+      windowCalls = 0;
+      windowFailures = 0;
+      windowSlowCalls = 0;
+    }
+    return new CircuitBreakerEvent(endpoint, previous, next, failureRate, slowCallRate);
+  }
+
+  private void publish(CircuitBreakerEvent event) {
+    if (event == null) {
+      return;
+    }
+    for (CircuitBreakerListener listener : config.getListeners()) {
+      listener.onStateTransition(event);
+    }
+  }
+}
@@ -0,0 +1,239 @@
+package de.onesty.confluence.resilience;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class holds the settings of the {@link CircuitBreaker}s created by a {@link
+ * CircuitBreakerTransport}, one for each endpoint.
+ */
+public final class CircuitBreakerConfig {
+
+  private final float failureRateThreshold;
+  private final float slowCallRateThreshold;
+  private final Duration slowCallDuration;
+  private final int slidingWindowSize;
+  private final int minimumNumberOfCalls;
+  private final Duration waitDurationInOpenState;
+  private final int permittedCallsInHalfOpenState;
+  private final List<CircuitBreakerListener> listeners;
+
+  private CircuitBreakerConfig(Builder builder) {
+    this.failureRateThreshold = builder.failureRateThreshold;
+    this.slowCallRateThreshold = builder.slowCallRateThreshold;
+    this.slowCallDuration = builder.slowCallDuration;
+    this.slidingWindowSize = builder.slidingWindowSize;
+    this.minimumNumberOfCalls = builder.minimumNumberOfCalls;
+    this.waitDurationInOpenState = builder.waitDurationInOpenState;
+    this.permittedCallsInHalfOpenState = builder.permittedCallsInHalfOpenState;
+    this.listeners = Collections.unmodifiableList(new ArrayList<>(builder.listeners));
+  }
+
+  /**
+   * This method returns the percentage of failed calls at which a circuit breaker opens.
+   *
+   * @return The failure rate threshold.
+   */
+  public float getFailureRateThreshold() {
+    return failureRateThreshold;
+  }
+
+  /**
+   * This method returns the percentage of slow calls at which a circuit breaker opens.
+   *
+   * @return The slow call rate threshold.
+   */
+  public float getSlowCallRateThreshold() {
+    return slowCallRateThreshold;
+  }
+
+  /**
+   * This method returns the time after which a call is considered slow.
+   *
+   * @return The slow call duration.
+   */
+  public Duration getSlowCallDuration() {
+    return slowCallDuration;
+  }
+
+  /**
+   * This method returns the number of most recent calls the rates are computed from.
+   *
+   * @return The size of the sliding window.
+   */
+  public int getSlidingWindowSize() {
+    return slidingWindowSize;
+  }
+
+  /**
+   * This method returns the number of calls that must be recorded before the rates are evaluated.
+   *
+   * @return The minimum number of calls.
+   */
+  public int getMinimumNumberOfCalls() {
+    return minimumNumberOfCalls;
+  }
+
+  /**
+   * This method returns the time an open circuit breaker rejects calls before it lets trial calls
+   * through.
+   *
+   * @return The wait duration in the open state.
+   */
+  public Duration getWaitDurationInOpenState() {
+    return waitDurationInOpenState;
+  }
+
+  /**
+   * This method returns the number of trial calls let through in the half-open state.
+   *
+   * @return The number of permitted calls in the half-open state.
+   */
+  public int getPermittedCallsInHalfOpenState() {
+    return permittedCallsInHalfOpenState;
+  }
+
+  /**
+   * This method returns the listeners notified of state transitions.
+   *
+   * @return The listeners.
+   */
+  public List<CircuitBreakerListener> getListeners() {
+    return listeners;
+  }
+
+  /**
+   * This class can be used to construct an instance of {@link CircuitBreakerConfig}.
+   */
+  public static class Builder {
+
+    private float failureRateThreshold = 50;
+    private float slowCallRateThreshold = 80;
+    private Duration slowCallDuration = Duration.ofSeconds(10);
+    private int slidingWindowSize = 50;
+    private int minimumNumberOfCalls = 20;
+    private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+    private int permittedCallsInHalfOpenState = 5;
+    private List<CircuitBreakerListener> listeners = new ArrayList<>();
+
+    /**
+     * This method sets the percentage of failed calls at which a circuit breaker opens. A call
+     * fails if it could not be completed or the server responded with a 5xx status code.
+     *
+     * @param failureRateThreshold A percentage above 0, up to 100. Defaults to 50.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setFailureRateThreshold(float failureRateThreshold) {
+      this.failureRateThreshold = failureRateThreshold;
+      return this;
+    }
+
+    /**
+     * This method sets the percentage of slow calls at which a circuit breaker opens.
+     *
+     * @param slowCallRateThreshold A percentage above 0, up to 100. Defaults to 80.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setSlowCallRateThreshold(float slowCallRateThreshold) {
+      this.slowCallRateThreshold = slowCallRateThreshold;
+      return this;
+    }
+
+    /**
+     * This method sets the time after which a call is considered slow. It should be below the
+     * read timeout of the transport.
+     *
+     * @param slowCallDuration The slow call duration. Defaults to 10 seconds.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setSlowCallDuration(Duration slowCallDuration) {
+      this.slowCallDuration = slowCallDuration;
+      return this;
+    }
+
+    /**
+     * This method sets the number of most recent calls the rates are computed from.
+     *
+     * @param slidingWindowSize The size of the sliding window. Defaults to 50.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setSlidingWindowSize(int slidingWindowSize) {
+      this.slidingWindowSize = slidingWindowSize;
+      return this;
+    }
+
+    /**
+     * This method sets the number of calls that must be recorded before the rates are evaluated.
+     *
+     * @param minimumNumberOfCalls The minimum number of calls. Defaults to 20.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+      this.minimumNumberOfCalls = minimumNumberOfCalls;
+      return this;
+    }
+
+    /**
+     * This method sets the time an open circuit breaker rejects calls before it lets trial calls
+     * through.
+     *
+     * @param waitDurationInOpenState The wait duration. Defaults to 30 seconds.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setWaitDurationInOpenState(Duration waitDurationInOpenState) {
+      this.waitDurationInOpenState = waitDurationInOpenState;
+      return this;
+    }
+
+    /**
+     * This method sets the number of trial calls let through in the half-open state. The circuit
+     * breaker closes if their rates stay below the thresholds, and opens again otherwise.
+     *
+     * @param permittedCallsInHalfOpenState The number of trial calls. Defaults to 5.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setPermittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+      this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+      return this;
+    }
+
+    /**
+     * This method adds a listener that is notified of the state transitions of all circuit
+     * breakers.
+     *
+     * @param listener The listener.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder addListener(CircuitBreakerListener listener) {
+      this.listeners.add(listener);
+      return this;
+    }
+
+    /**
+     * This method creates an instance of {@link CircuitBreakerConfig} using the values that were
+     * set on this instance.
+     *
+     * @return A new instance of {@link CircuitBreakerConfig} with the values set on this instance.
+     * @throws IllegalStateException If the configuration that would be created would be invalid.
+     */
+    public CircuitBreakerConfig build() throws IllegalStateException {
+      if (this.failureRateThreshold <= 0 || this.failureRateThreshold > 100
+          || this.slowCallRateThreshold <= 0 || this.slowCallRateThreshold > 100) {
+        throw new IllegalStateException("The rate thresholds must be percentages above 0");
+      }
+
+      if (this.slidingWindowSize <= 0 || this.minimumNumberOfCalls <= 0
+          || this.permittedCallsInHalfOpenState <= 0) {
+        throw new IllegalStateException("The numbers of calls must be positive numbers");
+      }
+
+      if (this.slowCallDuration == null || this.waitDurationInOpenState == null) {
+        throw new IllegalStateException("You must specify the slow call and wait durations");
+      }
+
+      return new CircuitBreakerConfig(this);
+    }
+  }
+}
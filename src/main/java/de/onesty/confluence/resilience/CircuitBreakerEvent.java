@@ -0,0 +1,87 @@
+package de.onesty.confluence.resilience;
+
+import de.onesty.confluence.resilience.CircuitBreaker.State;
+import java.time.Instant;
+
+/**
+ * This class represents a state transition of the {@link CircuitBreaker} of an endpoint.
+ */
+public final class CircuitBreakerEvent {
+
+  private final String endpoint;
+  private final State fromState;
+  private final State toState;
+  private final float failureRate;
+  private final float slowCallRate;
+  private final Instant timestamp;
+
+  CircuitBreakerEvent(String endpoint, State fromState, State toState, float failureRate,
+      float slowCallRate) {
+    this.endpoint = endpoint;
+    this.fromState = fromState;
+    this.toState = toState;
+    this.failureRate = failureRate;
+    this.slowCallRate = slowCallRate;
+    this.timestamp = Instant.now();
+  }
+
+  /**
+   * This method returns the endpoint of the circuit breaker.
+   *
+   * @return The path template of the endpoint.
+   */
+  public String getEndpoint() {
+    return endpoint;
+  }
+
+  /**
+   * This method returns the state the circuit breaker was in before the transition.
+   *
+   * @return The previous state.
+   */
+  public State getFromState() {
+    return fromState;
+  }
+
+  /**
+   * This method returns the state the circuit breaker is in after the transition.
+   *
+   * @return The new state.
+   */
+  public State getToState() {
+    return toState;
+  }
+
+  /**
+   * This method returns the rate of failed calls that led to the transition.
+   *
+   * @return The percentage of failed calls in the window, or -1 if not enough calls were recorded.
+   */
+  public float getFailureRate() {
+    return failureRate;
+  }
+
+  /**
+   * This method returns the rate of slow calls that led to the transition.
+   *
+   * @return The percentage of slow calls in the window, or -1 if not enough calls were recorded.
+   */
+  public float getSlowCallRate() {
+    return slowCallRate;
+  }
+
+  /**
+   * This method returns the time of the transition.
+   *
+   * @return The time of the transition.
+   */
+  public Instant getTimestamp() {
+    return timestamp;
+  }
+
+  @Override
+  public String toString() {
+    return "[endpoint: " + endpoint + "; " + fromState + " -> " + toState + "; failure rate: "
+        + failureRate + "; slow call rate: " + slowCallRate + "]";
+  }
+}
@@ -0,0 +1,17 @@
+package de.onesty.confluence.resilience;
+
+/**
+ * This interface can be implemented to be notified when a {@link CircuitBreaker} changes its
+ * state.
+ */
+@FunctionalInterface
+public interface CircuitBreakerListener {
+
+  /**
+   * This method is called after a circuit breaker changed its state. It is called on the thread
+   * whose request caused the transition and should therefore return quickly.
+   *
+   * @param event The state transition.
+   */
+  void onStateTransition(CircuitBreakerEvent event);
+}
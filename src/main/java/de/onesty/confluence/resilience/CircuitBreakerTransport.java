@@ -0,0 +1,138 @@
+package de.onesty.confluence.resilience;
+
+import de.onesty.confluence.errors.CircuitBreakerOpenException;
+import de.onesty.confluence.transport.ConfluenceTransport;
+import de.onesty.confluence.transport.PreparedTransportRequest;
+import de.onesty.confluence.transport.TransportRequest;
+import de.onesty.confluence.transport.TransportResponse;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import javax.ws.rs.ProcessingException;
+
+/**
+ * <p>This class is a {@link ConfluenceTransport} that guards each endpoint with its own {@link
+ * CircuitBreaker}. Endpoints are identified by the path template of the requests, e.g. {@code
+ * rest/api/content/{id}/child/attachment}.</p>
+ * <p>A call fails if it could not be completed or the server responded with a 5xx status code.
+ * While the circuit breaker of an endpoint is open, requests to it are not sent; they fail with a
+ * {@link ProcessingException} caused by a {@link CircuitBreakerOpenException}, which {@link
+ * de.onesty.confluence.ConfluenceClient} throws in its place.</p>
+ */
+public class CircuitBreakerTransport implements ConfluenceTransport {
+
+  private final ConfluenceTransport delegate;
+  private final CircuitBreakerConfig config;
+  private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+  /**
+   * This constructor creates a transport that guards the requests sent through the given
+   * transport.
+   *
+   * @param delegate The transport that sends the requests.
+   * @param config The settings of the circuit breakers.
+   */
+  public CircuitBreakerTransport(ConfluenceTransport delegate, CircuitBreakerConfig config) {
+    this.delegate = delegate;
+    this.config = config;
+  }
+
+  /**
+   * This method returns the circuit breaker of the given endpoint.
+   *
+   * @param endpoint The path template of the endpoint.
+   * @return The circuit breaker of the endpoint.
+   */
+  public CircuitBreaker getCircuitBreaker(String endpoint) {
+    return circuitBreakers.computeIfAbsent(endpoint, e -> new CircuitBreaker(e, config));
+  }
+
+  /**
+   * This method returns the circuit breakers of all endpoints that were called so far.
+   *
+   * @return The circuit breakers.
+   */
+  public Collection<CircuitBreaker> getCircuitBreakers() {
+    return Collections.unmodifiableCollection(circuitBreakers.values());
+  }
+
+  @Override
+  public TransportResponse send(TransportRequest request) {
+    return send(getCircuitBreaker(request.getPathTemplate()), () -> delegate.send(request));
+  }
+
+  @Override
+  public CompletableFuture<TransportResponse> sendAsync(TransportRequest request) {
+    return sendAsync(getCircuitBreaker(request.getPathTemplate()), () -> delegate.sendAsync(request));
+  }
+
+  @Override
+  public PreparedTransportRequest prepare(TransportRequest template, String... boundParamNames) {
+    PreparedTransportRequest prepared = delegate.prepare(template, boundParamNames);
+    CircuitBreaker circuitBreaker = getCircuitBreaker(template.getPathTemplate());
+    return new PreparedTransportRequest() {
+      @Override
+      public TransportResponse send(String... boundValues) {
+        return CircuitBreakerTransport.send(circuitBreaker, () -> prepared.send(boundValues));
+      }
+
+      @Override
+      public CompletableFuture<TransportResponse> sendAsync(String... boundValues) {
+        return CircuitBreakerTransport.sendAsync(circuitBreaker,
+            () -> prepared.sendAsync(boundValues));
+      }
+    };
+  }
+
+  private static TransportResponse send(CircuitBreaker circuitBreaker,
+      Supplier<TransportResponse> exchange) {
+    long permission = acquire(circuitBreaker);
+    long start = System.nanoTime();
+    TransportResponse response;
+    try {
+      response = exchange.get();
+    } catch (RuntimeException e) {
+      circuitBreaker.onResult(permission, System.nanoTime() - start, true);
+      throw e;
+    }
+    circuitBreaker.onResult(permission, System.nanoTime() - start, response.getStatus() >= 500);
+    return response;
+  }
+
+  private static CompletableFuture<TransportResponse> sendAsync(CircuitBreaker circuitBreaker,
+      Supplier<CompletableFuture<TransportResponse>> exchange) {
+    long permission;
+    CompletableFuture<TransportResponse> response;
+    long start = System.nanoTime();
+    try {
+      permission = acquire(circuitBreaker);
+    } catch (ProcessingException e) {
+      return failed(e);
+    }
+    try {
+      response = exchange.get();
+    } catch (RuntimeException e) {
+      circuitBreaker.onResult(permission, System.nanoTime() - start, true);
+      return failed(e);
+    }
+    return response.whenComplete((r, e) -> circuitBreaker.onResult(permission,
+        System.nanoTime() - start, e != null || r.getStatus() >= 500));
+  }
+
+  private static <T> CompletableFuture<T> failed(Throwable cause) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    future.completeExceptionally(cause);
+    return future;
+  }
+
+  private static long acquire(CircuitBreaker circuitBreaker) {
+    long permission = circuitBreaker.tryAcquirePermission();
+    if (permission < 0) {
+      throw new ProcessingException(new CircuitBreakerOpenException(circuitBreaker.getEndpoint()));
+    }
+    return permission;
+  }
+}
@@ -0,0 +1,179 @@
+package de.onesty.confluence.resilience;
+
+import de.onesty.confluence.resilience.AdaptiveConcurrencyLimiter.Permit;
+import de.onesty.confluence.transport.ConfluenceTransport;
+import de.onesty.confluence.transport.PreparedTransportRequest;
+import de.onesty.confluence.transport.TransportRequest;
+import de.onesty.confluence.transport.TransportResponse;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * <p>This class is a {@link ConfluenceTransport} that passes every request through an {@link
+ * AdaptiveConcurrencyLimiter} before handing it to another transport.</p>
+ * <p>A request holds its permit until its response is closed, so that requests whose entity is
+ * still being streamed count towards the limit. The limiter is informed of the status of each
+ * response and of the {@code Retry-After}, {@code X-RateLimit-Remaining}, {@code
+ * X-RateLimit-Reset} and {@code X-RateLimit-NearLimit} headers returned with it.</p>
+ */
+public class ConcurrencyLimitedTransport implements ConfluenceTransport {
+
+  private final ConfluenceTransport delegate;
+  private final AdaptiveConcurrencyLimiter limiter;
+
+  /**
+   * This constructor creates a transport that limits the requests sent through the given
+   * transport.
+   *
+   * @param delegate The transport that sends the requests.
+   * @param limiter The limiter shared by all requests to the server.
+   */
+  public ConcurrencyLimitedTransport(ConfluenceTransport delegate, AdaptiveConcurrencyLimiter limiter) {
+    this.delegate = delegate;
+    this.limiter = limiter;
+  }
+
+  /**
+   * This method returns the limiter used by this transport.
+   *
+   * @return The limiter.
+   */
+  public AdaptiveConcurrencyLimiter getLimiter() {
+    return limiter;
+  }
+
+  @Override
+  public TransportResponse send(TransportRequest request) {
+    return send(() -> delegate.send(request));
+  }
+
+  @Override
+  public CompletableFuture<TransportResponse> sendAsync(TransportRequest request) {
+    return sendAsync(() -> delegate.sendAsync(request));
+  }
+
+  @Override
+  public PreparedTransportRequest prepare(TransportRequest template, String... boundParamNames) {
+    PreparedTransportRequest prepared = delegate.prepare(template, boundParamNames);
+    return new PreparedTransportRequest() {
+      @Override
+      public TransportResponse send(String... boundValues) {
+        return ConcurrencyLimitedTransport.this.send(() -> prepared.send(boundValues));
+      }
+
+      @Override
+      public CompletableFuture<TransportResponse> sendAsync(String... boundValues) {
+        return ConcurrencyLimitedTransport.this.sendAsync(() -> prepared.sendAsync(boundValues));
+      }
+    };
+  }
+
+  private TransportResponse send(Supplier<TransportResponse> exchange) {
+    Permit permit;
+    try {
+      permit = limiter.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ProcessingException("Interrupted while waiting to send the request", e);
+    }
+    try {
+      return new LimitedResponse(exchange.get(), permit);
+    } catch (RuntimeException e) {
+      permit.release();
+      throw e;
+    }
+  }
+
+  private CompletableFuture<TransportResponse> sendAsync(
+      Supplier<CompletableFuture<TransportResponse>> exchange) {
+    return limiter.acquireAsync().thenCompose(permit -> {
+      CompletableFuture<TransportResponse> response;
+      try {
+        response = exchange.get();
+      } catch (RuntimeException e) {
+        permit.release();
+        throw e;
+      }
+      return response.handle((r, e) -> {
+        if (e != null) {
+          permit.release();
+          throw e instanceof RuntimeException ? (RuntimeException) e : new ProcessingException(e);
+        }
+        return new LimitedResponse(r, permit);
+      });
+    });
+  }
+
+  /**
+   * This class holds the permit of a request until its response is closed.
+   */
+  private static final class LimitedResponse implements TransportResponse {
+
+    private final TransportResponse response;
+    private final Permit permit;
+
+    LimitedResponse(TransportResponse response, Permit permit) {
+      this.response = response;
+      this.permit = permit;
+      permit.onResponse(response.getStatus(), readRetryAfter(response),
+          Boolean.parseBoolean(response.getHeader("X-RateLimit-NearLimit")));
+    }
+
+    private static Duration readRetryAfter(TransportResponse response) {
+      Instant now = Instant.now();
+      Duration retryAfter = RetryAfter.parse(response.getHeader("Retry-After"), now);
+      if (retryAfter == null && "0".equals(response.getHeader("X-RateLimit-Remaining"))) {
+        retryAfter = RetryAfter.parseReset(response.getHeader("X-RateLimit-Reset"), now);
+      }
+      return retryAfter;
+    }
+
+    @Override
+    public int getStatus() {
+      return response.getStatus();
+    }
+
+    @Override
+    public String getReasonPhrase() {
+      return response.getReasonPhrase();
+    }
+
+    @Override
+    public MediaType getMediaType() {
+      return response.getMediaType();
+    }
+
+    @Override
+    public String getHeader(String name) {
+      return response.getHeader(name);
+    }
+
+    @Override
+    public <T> T readEntity(Class<T> type) {
+      try {
+        return response.readEntity(type);
+      } finally {
+        close();
+      }
+    }
+
+    @Override
+    public InputStream getEntityStream() {
+      return response.getEntityStream();
+    }
+
+    @Override
+    public void close() {
+      try {
+        response.close();
+      } finally {
+        permit.release();
+      }
+    }
+  }
+}
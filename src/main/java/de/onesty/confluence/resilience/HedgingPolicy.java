@@ -0,0 +1,246 @@
+package de.onesty.confluence.resilience;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * <p>This class defines when a {@link HedgingTransport} sends a second, identical request while
+ * the first one has not been answered yet.</p>
+ * <p>The hedge is sent once the first request has been outstanding for longer than the given
+ * percentile of the latencies recently observed for its endpoint. Until enough latencies have been
+ * observed, requests are not hedged. The hedge budget allows a burst of hedges up to its reserve,
+ * and otherwise one hedge for every {@code 1 / ratio} requests, so that hedging adds at most that
+ * ratio of extra load. An instance, and with it the budget, is meant to be shared by all requests of
+ * one client.</p>
+ * <p>Only GET requests to the endpoints on the allow-list are hedged. By default these are the
+ * endpoints of {@link de.onesty.confluence.requests.GetContentRequest} and {@link
+ * de.onesty.confluence.requests.GetAttachmentsRequest}, whose responses are small; a hedged
+ * download of an attachment file would transfer the file twice.</p>
+ */
+public class HedgingPolicy {
+
+  /**
+   * The path templates of the endpoints that are hedged by default.
+   */
+  public static final Set<String> DEFAULT_HEDGED_ENDPOINTS = Collections.unmodifiableSet(
+      new LinkedHashSet<>(Arrays.asList("rest/api/content", "rest/api/content/{id}/child/attachment")));
+
+  private final double percentile;
+  private final int minSamples;
+  private final int windowSize;
+  private final Duration minDelay;
+  private final double budgetRatio;
+  private final int budgetReserve;
+  private final Set<String> hedgedEndpoints;
+  private double budgetTokens;
+
+  private HedgingPolicy(Builder builder) {
+    this.percentile = builder.percentile;
+    this.minSamples = builder.minSamples;
+    this.windowSize = builder.windowSize;
+    this.minDelay = builder.minDelay;
+    this.budgetRatio = builder.budgetRatio;
+    this.budgetReserve = builder.budgetReserve;
+    this.budgetTokens = builder.budgetReserve;
+    this.hedgedEndpoints = Collections.unmodifiableSet(new LinkedHashSet<>(builder.hedgedEndpoints));
+  }
+
+  /**
+   * This method returns whether GET requests to the given endpoint are hedged.
+   *
+   * @param pathTemplate The path template of the endpoint.
+   * @return {@code true} if the endpoint is on the allow-list.
+   */
+  public boolean isHedged(String pathTemplate) {
+    return hedgedEndpoints.contains(pathTemplate);
+  }
+
+  /**
+   * This method returns the path templates of the endpoints whose GET requests are hedged.
+   *
+   * @return The allow-list of endpoints.
+   */
+  public Set<String> getHedgedEndpoints() {
+    return hedgedEndpoints;
+  }
+
+  /**
+   * This method returns the percentile of the observed latencies after which a request is hedged.
+   *
+   * @return The percentile, between 0 and 1.
+   */
+  public double getPercentile() {
+    return percentile;
+  }
+
+  /**
+   * This method returns the number of latencies that must be observed for an endpoint before its
+   * requests are hedged.
+   *
+   * @return The minimum number of samples.
+   */
+  public int getMinSamples() {
+    return minSamples;
+  }
+
+  /**
+   * This method returns the number of most recent latencies the percentile is computed from.
+   *
+   * @return The size of the window of latencies.
+   */
+  public int getWindowSize() {
+    return windowSize;
+  }
+
+  /**
+   * This method returns the shortest time a request is outstanding before it is hedged.
+   *
+   * @return The minimum delay.
+   */
+  public Duration getMinDelay() {
+    return minDelay;
+  }
+
+  /**
+   * This method records that a request eligible for hedging is sent, which adds to the hedge
+   * budget.
+   */
+  public synchronized void onRequest() {
+    budgetTokens = Math.min(budgetReserve, budgetTokens + budgetRatio);
+  }
+
+  /**
+   * This method takes a hedge from the hedge budget.
+   *
+   * @return {@code true} if the budget allows another hedge.
+   */
+  public synchronized boolean tryAcquireHedge() {
+    if (budgetTokens < 1) {
+      return false;
+    }
+    budgetTokens--;
+    return true;
+  }
+
+  /**
+   * This class can be used to construct an instance of {@link HedgingPolicy}.
+   */
+  public static class Builder {
+
+    private double percentile = 0.95;
+    private int minSamples = 100;
+    private int windowSize = 1000;
+    private Duration minDelay = Duration.ofMillis(10);
+    private double budgetRatio = 0.05;
+    private int budgetReserve = 10;
+    private Set<String> hedgedEndpoints = DEFAULT_HEDGED_ENDPOINTS;
+
+    /**
+     * This method sets the percentile of the observed latencies after which a request is hedged.
+     *
+     * @param percentile A value between 0 and 1, exclusive. Defaults to 0.95.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setPercentile(double percentile) {
+      this.percentile = percentile;
+      return this;
+    }
+
+    /**
+     * This method sets the number of latencies that must be observed for an endpoint before its
+     * requests are hedged.
+     *
+     * @param minSamples The minimum number of samples. Defaults to 100.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setMinSamples(int minSamples) {
+      this.minSamples = minSamples;
+      return this;
+    }
+
+    /**
+     * This method sets the number of most recent latencies the percentile is computed from.
+     *
+     * @param windowSize The size of the window. Defaults to 1000.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setWindowSize(int windowSize) {
+      this.windowSize = windowSize;
+      return this;
+    }
+
+    /**
+     * This method sets the shortest time a request is outstanding before it is hedged.
+     *
+     * @param minDelay The minimum delay. Defaults to 10 milliseconds.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setMinDelay(Duration minDelay) {
+      this.minDelay = minDelay;
+      return this;
+    }
+
+    /**
+     * This method sets the hedge budget.
+     *
+     * @param ratio The number of hedges earned by each request. Defaults to 0.05.
+     * @param reserve The number of hedges that may be sent in a burst. Defaults to 10.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setHedgeBudget(double ratio, int reserve) {
+      this.budgetRatio = ratio;
+      this.budgetReserve = reserve;
+      return this;
+    }
+
+    /**
+     * This method sets the endpoints whose GET requests are hedged. Only endpoints whose responses
+     * are small and whose requests have no side effects should be hedged.
+     *
+     * @param pathTemplates The path templates of the endpoints, as returned by {@link
+     * de.onesty.confluence.requests.ConfluenceRequest#getPathTemplate()}. Defaults to {@link
+     * #DEFAULT_HEDGED_ENDPOINTS}.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setHedgedEndpoints(String... pathTemplates) {
+      this.hedgedEndpoints = pathTemplates != null
+          ? new LinkedHashSet<>(Arrays.asList(pathTemplates))
+          : null;
+      return this;
+    }
+
+    /**
+     * This method creates an instance of {@link HedgingPolicy} using the values that were set on
+     * this instance.
+     *
+     * @return A new instance of {@link HedgingPolicy} with the values set on this instance.
+     * @throws IllegalStateException If the policy that would be created would be invalid.
+     */
+    public HedgingPolicy build() throws IllegalStateException {
+      if (this.percentile <= 0 || this.percentile >= 1) {
+        throw new IllegalStateException("The percentile must be between 0 and 1");
+      }
+
+      if (this.windowSize <= 0 || this.minSamples <= 0 || this.minSamples > this.windowSize) {
+        throw new IllegalStateException("The minimum number of samples must be positive and not exceed the window size");
+      }
+
+      if (this.minDelay == null || this.minDelay.isNegative()) {
+        throw new IllegalStateException("The minimum delay must not be negative");
+      }
+
+      if (this.budgetRatio < 0 || this.budgetReserve < 0) {
+        throw new IllegalStateException("The hedge budget must not be negative");
+      }
+
+      if (this.hedgedEndpoints == null) {
+        throw new IllegalStateException("The hedged endpoints must not be null");
+      }
+
+      return new HedgingPolicy(this);
+    }
+  }
+}
@@ -0,0 +1,163 @@
+package de.onesty.confluence.resilience;
+
+import de.onesty.confluence.transport.ConfluenceTransport;
+import de.onesty.confluence.transport.PreparedTransportRequest;
+import de.onesty.confluence.transport.TransportRequest;
+import de.onesty.confluence.transport.TransportResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.ProcessingException;
+
+/**
+ * <p>This class is a {@link ConfluenceTransport} that hedges GET requests to the endpoints allowed
+ * by a {@link HedgingPolicy}: if a request has not been answered within the recently observed latency
+ * percentile of its endpoint, an identical request is sent, and whichever response arrives first
+ * is returned.</p>
+ * <p>The losing request is cancelled by closing its response as soon as its headers arrive, which
+ * aborts the transfer of its entity and releases its connection. The future of the losing
+ * request is not cancelled, since the underlying HTTP clients do not abort a request that is
+ * already in flight and the response would then never be closed. The same applies to requests
+ * whose returned future is cancelled by the caller. Requests with other methods or to other
+ * endpoints are passed through unchanged.</p>
+ * <p>Blocking calls of hedged requests are sent through {@link
+ * ConfluenceTransport#sendAsync(TransportRequest)} of the underlying transport, so that the hedge
+ * can be sent while the first request is outstanding.</p>
+ */
+public class HedgingTransport implements ConfluenceTransport {
+
+  private final ConfluenceTransport delegate;
+  private final HedgingPolicy policy;
+  private final ConcurrentMap<String, LatencyTracker> latencies = new ConcurrentHashMap<>();
+
+  /**
+   * This constructor creates a transport that hedges the GET requests to the allowed endpoints sent
+   * through the given transport.
+   *
+   * @param delegate The transport that sends the requests.
+   * @param policy The policy shared by all requests of the client.
+   */
+  public HedgingTransport(ConfluenceTransport delegate, HedgingPolicy policy) {
+    this.delegate = delegate;
+    this.policy = policy;
+  }
+
+  @Override
+  public TransportResponse send(TransportRequest request) {
+    if (!isHedged(request)) {
+      return delegate.send(request);
+    }
+    return join(sendAsync(request));
+  }
+
+  @Override
+  public CompletableFuture<TransportResponse> sendAsync(TransportRequest request) {
+    if (!isHedged(request)) {
+      return delegate.sendAsync(request);
+    }
+    return hedge(tracker(request.getPathTemplate()), () -> delegate.sendAsync(request));
+  }
+
+  @Override
+  public PreparedTransportRequest prepare(TransportRequest template, String... boundParamNames) {
+    PreparedTransportRequest prepared = delegate.prepare(template, boundParamNames);
+    if (!isHedged(template)) {
+      return prepared;
+    }
+    LatencyTracker tracker = tracker(template.getPathTemplate());
+    return new PreparedTransportRequest() {
+      @Override
+      public TransportResponse send(String... boundValues) {
+        return join(sendAsync(boundValues));
+      }
+
+      @Override
+      public CompletableFuture<TransportResponse> sendAsync(String... boundValues) {
+        return hedge(tracker, () -> prepared.sendAsync(boundValues));
+      }
+    };
+  }
+
+  private boolean isHedged(TransportRequest request) {
+    return HttpMethod.GET.equals(request.getMethod()) && policy.isHedged(request.getPathTemplate());
+  }
+
+  private LatencyTracker tracker(String endpoint) {
+    return latencies.computeIfAbsent(endpoint, e -> new LatencyTracker(policy.getWindowSize(),
+        policy.getPercentile(), policy.getMinSamples()));
+  }
+
+  private CompletableFuture<TransportResponse> hedge(LatencyTracker tracker,
+      Supplier<CompletableFuture<TransportResponse>> exchange) {
+    policy.onRequest();
+    HedgedExchange hedged = new HedgedExchange(tracker, exchange);
+    hedged.attempt();
+
+    long threshold = tracker.getThreshold();
+    if (threshold >= 0) {
+      long delay = Math.max(threshold, policy.getMinDelay().toNanos());
+      CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(() -> {
+        if (!hedged.result.isDone() && policy.tryAcquireHedge()) {
+          hedged.attempt();
+        }
+      });
+    }
+    return hedged.result;
+  }
+
+  private static TransportResponse join(CompletableFuture<TransportResponse> response) {
+    try {
+      return response.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new ProcessingException(e.getCause());
+    }
+  }
+
+  /**
+   * This class holds the attempts of one hedged request. The first response completes the result;
+   * a failure only completes it once no other attempt is outstanding.
+   */
+  private static final class HedgedExchange {
+
+    private final LatencyTracker tracker;
+    private final Supplier<CompletableFuture<TransportResponse>> exchange;
+    private final CompletableFuture<TransportResponse> result = new CompletableFuture<>();
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    HedgedExchange(LatencyTracker tracker, Supplier<CompletableFuture<TransportResponse>> exchange) {
+      this.tracker = tracker;
+      this.exchange = exchange;
+    }
+
+    void attempt() {
+      outstanding.incrementAndGet();
+      long start = System.nanoTime();
+      CompletableFuture<TransportResponse> attempt;
+      try {
+        attempt = exchange.get();
+      } catch (RuntimeException e) {
+        attempt = new CompletableFuture<>();
+        attempt.completeExceptionally(e);
+      }
+      attempt.whenComplete((response, failure) -> {
+        if (failure == null) {
+          tracker.record(System.nanoTime() - start);
+          if (!result.complete(response)) {
+            response.close();
+          }
+        } else if (outstanding.decrementAndGet() == 0) {
+          result.completeExceptionally(
+              failure instanceof CompletionException ? failure.getCause() : failure);
+        }
+      });
+    }
+  }
+}
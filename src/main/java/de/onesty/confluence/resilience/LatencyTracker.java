@@ -0,0 +1,50 @@
+package de.onesty.confluence.resilience;
+
+import java.util.Arrays;
+
+/**
+ * This class keeps the most recent latencies of an endpoint and derives a percentile from them.
+ * The percentile is recomputed after every tenth of the window, so that sorting the window does
+ * not add to the cost of every request.
+ */
+final class LatencyTracker {
+
+  private final long[] window;
+  private final double percentile;
+  private final int minSamples;
+  private final int recomputeInterval;
+  private int index;
+  private int samples;
+  private int sinceRecompute;
+  private long threshold = -1;
+
+  LatencyTracker(int windowSize, double percentile, int minSamples) {
+    this.window = new long[windowSize];
+    this.percentile = percentile;
+    this.minSamples = minSamples;
+    this.recomputeInterval = Math.max(1, windowSize / 10);
+  }
+
+  synchronized void record(long latencyNanos) {
+    window[index] = latencyNanos;
+    index = (index + 1) % window.length;
+    if (samples < window.length) {
+      samples++;
+    }
+    if (samples >= minSamples && (threshold < 0 || ++sinceRecompute >= recomputeInterval)) {
+      long[] sorted = Arrays.copyOf(window, samples);
+      Arrays.sort(sorted);
+      threshold = sorted[(int) Math.min(samples - 1, Math.ceil(percentile * samples) - 1)];
+      sinceRecompute = 0;
+    }
+  }
+
+  /**
+   * This method returns the percentile of the recorded latencies.
+   *
+   * @return The latency in nanoseconds, or -1 if not enough latencies have been recorded.
+   */
+  synchronized long getThreshold() {
+    return threshold;
+  }
+}
@@ -0,0 +1,70 @@
+package de.onesty.confluence.resilience;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * This class parses the values of the {@code Retry-After} and {@code X-RateLimit-Reset} headers
+ * returned by the Confluence Cloud server.
+ */
+public final class RetryAfter {
+
+  private RetryAfter() {
+  }
+
+  /**
+   * This method parses the value of a {@code Retry-After} header, which is either a number of
+   * seconds or an HTTP date.
+   *
+   * @param headerValue The value of the header, or {@code null}.
+   * @param now The current time, used to convert an HTTP date into a delay.
+   * @return The time to wait before sending the next request, or {@code null} if the value is
+   * missing or cannot be parsed. A date in the past results in a zero delay.
+   */
+  public static Duration parse(String headerValue, Instant now) {
+    if (headerValue == null || headerValue.trim().isEmpty()) {
+      return null;
+    }
+    String value = headerValue.trim();
+    try {
+      long seconds = Long.parseLong(value);
+      return seconds > 0 ? Duration.ofSeconds(seconds) : Duration.ZERO;
+    } catch (NumberFormatException e) {
+      // Not a number of seconds, try an HTTP date
+    }
+    try {
+      Instant retryAt = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+      return until(retryAt, now);
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  /**
+   * This method parses the value of an {@code X-RateLimit-Reset} header, which is an ISO-8601
+   * timestamp of the moment the rate limit window resets.
+   *
+   * @param headerValue The value of the header, or {@code null}.
+   * @param now The current time, used to convert the timestamp into a delay.
+   * @return The time until the rate limit resets, or {@code null} if the value is missing or
+   * cannot be parsed.
+   */
+  public static Duration parseReset(String headerValue, Instant now) {
+    if (headerValue == null || headerValue.trim().isEmpty()) {
+      return null;
+    }
+    try {
+      return until(ZonedDateTime.parse(headerValue.trim()).toInstant(), now);
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  private static Duration until(Instant instant, Instant now) {
+    Duration delay = Duration.between(now, instant);
+    return delay.isNegative() ? Duration.ZERO : delay;
+  }
+}
@@ -0,0 +1,213 @@
+package de.onesty.confluence.resilience;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <p>This class defines when and after which delay a request that failed transiently is sent
+ * again.</p>
+ * <p>A request is retried if it is retryable (see {@link
+ * de.onesty.confluence.transport.TransportRequest#isRetryable()}), it failed with a {@link
+ * javax.ws.rs.ProcessingException} or one of the retryable status codes, it has not used up its
+ * attempts, and the retry budget allows it.</p>
+ * <p>The delay before each retry uses decorrelated jitter: it is chosen at random between the
+ * base delay and three times the previous delay, capped at the maximum delay. A {@code
+ * Retry-After} delay requested by the server is always honoured; if it exceeds the maximum delay
+ * the request is not retried.</p>
+ * <p>The retry budget allows a burst of retries up to its reserve, and otherwise one retry for
+ * every {@code 1 / ratio} requests, so that retries cannot multiply the load on a server that is
+ * failing. An instance, and with it the budget, is meant to be shared by all requests of one
+ * client.</p>
+ */
+public class RetryPolicy {
+
+  private final int maxAttempts;
+  private final Duration baseDelay;
+  private final Duration maxDelay;
+  private final int[] retryableStatusCodes;
+  private final double budgetRatio;
+  private final int budgetReserve;
+  private double budgetTokens;
+
+  private RetryPolicy(Builder builder) {
+    this.maxAttempts = builder.maxAttempts;
+    this.baseDelay = builder.baseDelay;
+    this.maxDelay = builder.maxDelay;
+    this.retryableStatusCodes = builder.retryableStatusCodes.clone();
+    this.budgetRatio = builder.budgetRatio;
+    this.budgetReserve = builder.budgetReserve;
+    this.budgetTokens = builder.budgetReserve;
+  }
+
+  /**
+   * This method returns the maximum number of times a request is sent, including the first
+   * attempt.
+   *
+   * @return The maximum number of attempts.
+   */
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  /**
+   * This method returns the lower bound of the delay before a retry.
+   *
+   * @return The base delay.
+   */
+  public Duration getBaseDelay() {
+    return baseDelay;
+  }
+
+  /**
+   * This method returns whether a response with the given status code may be retried.
+   *
+   * @param statusCode The HTTP status code of the response.
+   * @return {@code true} if the status code indicates a transient failure.
+   */
+  public boolean isRetryableStatus(int statusCode) {
+    for (int retryableStatusCode : retryableStatusCodes) {
+      if (retryableStatusCode == statusCode) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * This method computes the delay before the next retry.
+   *
+   * @param previousDelay The delay before the previous retry, or the base delay before the first
+   * retry.
+   * @param retryAfter The delay requested by the server, or {@code null}.
+   * @return The delay before the next retry, or {@code null} if the server requested a delay that
+   * exceeds the maximum delay.
+   */
+  public Duration nextDelay(Duration previousDelay, Duration retryAfter) {
+    if (retryAfter != null && retryAfter.compareTo(maxDelay) > 0) {
+      return null;
+    }
+    long base = baseDelay.toNanos();
+    long upper = Math.max(base, Math.min(maxDelay.toNanos(), previousDelay.toNanos() * 3));
+    long delay = upper > base ? ThreadLocalRandom.current().nextLong(base, upper + 1) : base;
+    Duration jittered = Duration.ofNanos(delay);
+    return retryAfter != null && retryAfter.compareTo(jittered) > 0 ? retryAfter : jittered;
+  }
+
+  /**
+   * This method records that a request is sent for the first time, which adds to the retry
+   * budget.
+   */
+  public synchronized void onRequest() {
+    budgetTokens = Math.min(budgetReserve, budgetTokens + budgetRatio);
+  }
+
+  /**
+   * This method takes a retry from the retry budget.
+   *
+   * @return {@code true} if the budget allows another retry.
+   */
+  public synchronized boolean tryAcquireRetry() {
+    if (budgetTokens < 1) {
+      return false;
+    }
+    budgetTokens--;
+    return true;
+  }
+
+  /**
+   * This class can be used to construct an instance of {@link RetryPolicy}.
+   */
+  public static class Builder {
+
+    private int maxAttempts = 4;
+    private Duration baseDelay = Duration.ofMillis(100);
+    private Duration maxDelay = Duration.ofSeconds(20);
+    private int[] retryableStatusCodes = {429, 502, 503, 504};
+    private double budgetRatio = 0.1;
+    private int budgetReserve = 20;
+
+    /**
+     * This method sets the maximum number of times a request is sent, including the first
+     * attempt.
+     *
+     * @param maxAttempts The maximum number of attempts. Defaults to 4.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setMaxAttempts(int maxAttempts) {
+      this.maxAttempts = maxAttempts;
+      return this;
+    }
+
+    /**
+     * This method sets the lower bound of the delay before a retry.
+     *
+     * @param baseDelay The base delay. Defaults to 100 milliseconds.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setBaseDelay(Duration baseDelay) {
+      this.baseDelay = baseDelay;
+      return this;
+    }
+
+    /**
+     * This method sets the upper bound of the delay before a retry, and the longest {@code
+     * Retry-After} delay the client is willing to wait.
+     *
+     * @param maxDelay The maximum delay. Defaults to 20 seconds.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setMaxDelay(Duration maxDelay) {
+      this.maxDelay = maxDelay;
+      return this;
+    }
+
+    /**
+     * This method sets the HTTP status codes of responses that are retried.
+     *
+     * @param retryableStatusCodes The status codes. Defaults to 429, 502, 503 and 504.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setRetryableStatusCodes(int... retryableStatusCodes) {
+      this.retryableStatusCodes = Arrays.copyOf(retryableStatusCodes, retryableStatusCodes.length);
+      return this;
+    }
+
+    /**
+     * This method sets the retry budget.
+     *
+     * @param ratio The number of retries earned by each request. Defaults to 0.1.
+     * @param reserve The number of retries that may be made in a burst. Defaults to 20.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setRetryBudget(double ratio, int reserve) {
+      this.budgetRatio = ratio;
+      this.budgetReserve = reserve;
+      return this;
+    }
+
+    /**
+     * This method creates an instance of {@link RetryPolicy} using the values that were set on
+     * this instance.
+     *
+     * @return A new instance of {@link RetryPolicy} with the values set on this instance.
+     * @throws IllegalStateException If the policy that would be created would be invalid.
+     */
+    public RetryPolicy build() throws IllegalStateException {
+      if (this.maxAttempts <= 0) {
+        throw new IllegalStateException("The maximum number of attempts must be a positive number");
+      }
+
+      if (this.baseDelay == null || this.maxDelay == null || this.baseDelay.isNegative()
+          || this.baseDelay.compareTo(this.maxDelay) > 0) {
+        throw new IllegalStateException("The base delay must not be negative or exceed the maximum delay");
+      }
+
+      if (this.budgetRatio < 0 || this.budgetReserve < 0) {
+        throw new IllegalStateException("The retry budget must not be negative");
+      }
+
+      return new RetryPolicy(this);
+    }
+  }
+}
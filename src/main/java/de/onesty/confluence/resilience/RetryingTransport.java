@@ -0,0 +1,201 @@
+package de.onesty.confluence.resilience;
+
+import de.onesty.confluence.errors.ConfluenceRequestException;
+import de.onesty.confluence.transport.ConfluenceTransport;
+import de.onesty.confluence.transport.PreparedTransportRequest;
+import de.onesty.confluence.transport.TransportRequest;
+import de.onesty.confluence.transport.TransportResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.ws.rs.ProcessingException;
+
+/**
+ * <p>This class is a {@link ConfluenceTransport} that sends requests through another transport
+ * and retries them according to a {@link RetryPolicy}.</p>
+ * <p>If the attempts of a request are exhausted, the last response is returned or the last
+ * failure is thrown, so that callers see the same result as without retries. Requests that were
+ * rejected by the client before they were sent, e.g. by an open circuit breaker, are not
+ * retried. The response of an
+ * attempt that is retried is closed. Requests with a file are sent again from the start of the
+ * file, which is opened anew for every attempt.</p>
+ */
+public class RetryingTransport implements ConfluenceTransport {
+
+  private final ConfluenceTransport delegate;
+  private final RetryPolicy policy;
+
+  /**
+   * This constructor creates a transport that retries the requests sent through the given
+   * transport.
+   *
+   * @param delegate The transport that sends the requests.
+   * @param policy The policy shared by all requests of the client.
+   */
+  public RetryingTransport(ConfluenceTransport delegate, RetryPolicy policy) {
+    this.delegate = delegate;
+    this.policy = policy;
+  }
+
+  @Override
+  public TransportResponse send(TransportRequest request) {
+    return send(() -> delegate.send(request), request.isRetryable());
+  }
+
+  @Override
+  public CompletableFuture<TransportResponse> sendAsync(TransportRequest request) {
+    return sendAsync(() -> delegate.sendAsync(request), request.isRetryable());
+  }
+
+  @Override
+  public PreparedTransportRequest prepare(TransportRequest template, String... boundParamNames) {
+    PreparedTransportRequest prepared = delegate.prepare(template, boundParamNames);
+    boolean retryable = template.isRetryable();
+    return new PreparedTransportRequest() {
+      @Override
+      public TransportResponse send(String... boundValues) {
+        return RetryingTransport.this.send(() -> prepared.send(boundValues), retryable);
+      }
+
+      @Override
+      public CompletableFuture<TransportResponse> sendAsync(String... boundValues) {
+        return RetryingTransport.this.sendAsync(() -> prepared.sendAsync(boundValues), retryable);
+      }
+    };
+  }
+
+  private TransportResponse send(Supplier<TransportResponse> exchange, boolean retryable) {
+    policy.onRequest();
+    Duration delay = policy.getBaseDelay();
+    for (int attempt = 1; ; attempt++) {
+      TransportResponse response;
+      try {
+        response = exchange.get();
+      } catch (ProcessingException e) {
+        Duration next = isRejection(e) ? null : nextDelay(retryable, attempt, delay, null);
+        if (next == null) {
+          throw e;
+        }
+        delay = next;
+        sleep(delay, e);
+        continue;
+      }
+
+      if (!policy.isRetryableStatus(response.getStatus())) {
+        return response;
+      }
+      Duration next = nextDelay(retryable, attempt, delay, retryAfter(response));
+      if (next == null) {
+        return response;
+      }
+      response.close();
+      delay = next;
+      sleep(delay, null);
+    }
+  }
+
+  private CompletableFuture<TransportResponse> sendAsync(
+      Supplier<CompletableFuture<TransportResponse>> exchange, boolean retryable) {
+    policy.onRequest();
+    return attemptAsync(exchange, retryable, 1, policy.getBaseDelay());
+  }
+
+  private CompletableFuture<TransportResponse> attemptAsync(
+      Supplier<CompletableFuture<TransportResponse>> exchange, boolean retryable, int attempt,
+      Duration delay) {
+    CompletableFuture<TransportResponse> response;
+    try {
+      response = exchange.get();
+    } catch (RuntimeException e) {
+      // Only a ProcessingException is retried; anything else fails the returned future instead of
+      // escaping from a completion stage, where it would be lost
+      response = failed(e);
+    }
+
+    return response.<CompletableFuture<TransportResponse>>handle((r, e) -> {
+      Duration next;
+      if (e != null) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        next = cause instanceof ProcessingException && !isRejection(cause)
+            ? nextDelay(retryable, attempt, delay, null)
+            : null;
+        if (next == null) {
+          return RetryingTransport.<TransportResponse>failed(cause);
+        }
+      } else {
+        if (!policy.isRetryableStatus(r.getStatus())) {
+          return CompletableFuture.completedFuture(r);
+        }
+        next = nextDelay(retryable, attempt, delay, retryAfter(r));
+        if (next == null) {
+          return CompletableFuture.completedFuture(r);
+        }
+        r.close();
+      }
+
+      CompletableFuture<TransportResponse> retry = new CompletableFuture<>();
+      CompletableFuture.delayedExecutor(next.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+        try {
+          attemptAsync(exchange, retryable, attempt + 1, next).whenComplete((rr, ee) -> {
+            if (ee != null) {
+              retry.completeExceptionally(ee);
+            } else {
+              retry.complete(rr);
+            }
+          });
+        } catch (Throwable t) {
+          // Without this, the returned future would never complete
+          retry.completeExceptionally(t);
+        }
+      });
+      return retry;
+    }).thenCompose(future -> future);
+  }
+
+  /**
+   * This method decides whether the failed attempt is retried.
+   *
+   * @return The delay before the retry, or {@code null} if the attempt is not retried.
+   */
+  private Duration nextDelay(boolean retryable, int attempt, Duration previousDelay,
+      Duration retryAfter) {
+    if (!retryable || attempt >= policy.getMaxAttempts()) {
+      return null;
+    }
+    Duration next = policy.nextDelay(previousDelay, retryAfter);
+    if (next == null || !policy.tryAcquireRetry()) {
+      return null;
+    }
+    return next;
+  }
+
+  private static boolean isRejection(Throwable failure) {
+    return failure.getCause() instanceof ConfluenceRequestException;
+  }
+
+  private static Duration retryAfter(TransportResponse response) {
+    return RetryAfter.parse(response.getHeader("Retry-After"), Instant.now());
+  }
+
+  private static void sleep(Duration delay, ProcessingException failure) {
+    try {
+      TimeUnit.NANOSECONDS.sleep(delay.toNanos());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      ProcessingException interrupted = new ProcessingException("Interrupted while waiting to retry the request", e);
+      if (failure != null) {
+        interrupted.addSuppressed(failure);
+      }
+      throw interrupted;
+    }
+  }
+
+  private static <T> CompletableFuture<T> failed(Throwable cause) {
+    CompletableFuture<T> future = new CompletableFuture<>();
+    future.completeExceptionally(cause);
+    return future;
+  }
+}
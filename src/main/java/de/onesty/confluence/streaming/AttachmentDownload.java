@@ -0,0 +1,65 @@
+package de.onesty.confluence.streaming;
+
+import java.nio.file.Path;
+
+/**
+ * This class describes a completed, verified download of an attachment.
+ */
+public class AttachmentDownload {
+
+  private final Path file;
+  private final long length;
+  private final long resumedFrom;
+  private final String checksum;
+
+  AttachmentDownload(Path file, long length, long resumedFrom, String checksum) {
+    this.file = file;
+    this.length = length;
+    this.resumedFrom = resumedFrom;
+    this.checksum = checksum;
+  }
+
+  /**
+   * This method returns the file the attachment was written to.
+   *
+   * @return The downloaded file.
+   */
+  public Path getFile() {
+    return file;
+  }
+
+  /**
+   * This method returns the length of the downloaded file.
+   *
+   * @return The number of bytes in the file.
+   */
+  public long getLength() {
+    return length;
+  }
+
+  /**
+   * This method returns how many bytes of the file were already present from an earlier, interrupted
+   * attempt.
+   *
+   * @return The offset the download was resumed from, or 0 if the whole file was downloaded.
+   */
+  public long getResumedFrom() {
+    return resumedFrom;
+  }
+
+  /**
+   * This method returns the checksum computed over the downloaded file.
+   *
+   * @return The checksum as lowercase hexadecimal string, or {@code null} if no checksum algorithm
+   * was requested.
+   */
+  public String getChecksum() {
+    return checksum;
+  }
+
+  @Override
+  public String toString() {
+    return "[file: " + file + "; length: " + length + "; resumed from: " + resumedFrom
+        + (checksum != null ? "; checksum: " + checksum : "") + "]";
+  }
+}
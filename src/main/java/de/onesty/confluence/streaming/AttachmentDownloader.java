@@ -0,0 +1,229 @@
+package de.onesty.confluence.streaming;
+
+import de.onesty.confluence.requests.DownloadAttachmentRequest;
+import de.onesty.confluence.transport.TransportResponse;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>This class writes the file of an attachment to disk as it is received. The response is
+ * transferred into a file channel in chunks, so the file is never held on the heap as a whole.</p>
+ * <p>The file is first written next to the target, with the suffix {@code .part}. If the transfer
+ * is interrupted, the partial file is kept, and the next download of the same target requests only
+ * the missing range. Once the partial file is complete and its length and checksum are verified, it
+ * replaces the target.</p>
+ */
+public class AttachmentDownloader {
+
+  private static final long TRANSFER_CHUNK_SIZE = 64L * 1024 * 1024;
+  private static final int DIGEST_BUFFER_SIZE = 1024 * 1024;
+  private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (\\d+)-\\d+/(\\d+|\\*)");
+  private static final Pattern UNSATISFIED_RANGE = Pattern.compile("bytes \\*/(\\d+)");
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private final DownloadAttachmentRequest request;
+  private final Path target;
+  private final Path partFile;
+
+  /**
+   * This constructor creates a downloader that writes the attachment of the given request to the
+   * given file.
+   *
+   * @param request The request defining the attachment and how the download is verified.
+   * @param target The file to write to. An existing file is replaced once the download completes.
+   */
+  public AttachmentDownloader(DownloadAttachmentRequest request, Path target) {
+    this.request = request;
+    this.target = target;
+    this.partFile = target.resolveSibling(target.getFileName() + ".part");
+  }
+
+  /**
+   * This method returns the offset from which the attachment must be requested, which is the
+   * length of the partial file left by an earlier attempt. If resuming is disabled, the partial
+   * file is deleted.
+   *
+   * @return The offset of the first missing byte.
+   * @throws IOException If the partial file could not be accessed.
+   */
+  public long getResumeOffset() throws IOException {
+    if (!request.isResume()) {
+      Files.deleteIfExists(partFile);
+      return 0;
+    }
+    return Files.exists(partFile) ? Files.size(partFile) : 0;
+  }
+
+  /**
+   * This method writes the entity of the given response to the partial file, then verifies it and
+   * moves it to the target. The response is closed.
+   *
+   * @param response A successful response to a request for the attachment from the given offset.
+   * A {@code 206 Partial Content} response is appended to the partial file; any other response is
+   * taken to contain the whole file.
+   * @param offset The offset the attachment was requested from.
+   * @return The completed download.
+   * @throws DownloadVerificationException If the file does not have the expected length or
+   * checksum.
+   * @throws IOException If the response could not be read or ended early, or the file could not be
+   * written. The partial file is kept, so the download can be resumed.
+   */
+  public AttachmentDownload write(TransportResponse response, long offset) throws IOException {
+    long start = 0;
+    long expectedLength = request.getExpectedLength();
+    try {
+      long totalLength;
+      if (response.getStatus() == 206) {
+        String contentRange = response.getHeader("Content-Range");
+        Matcher matcher = CONTENT_RANGE.matcher(contentRange != null ? contentRange : "");
+        if (!matcher.matches() || Long.parseLong(matcher.group(1)) != offset) {
+          throw new IOException("The server returned the range " + contentRange
+              + " instead of the range from " + offset);
+        }
+        start = offset;
+        totalLength = matcher.group(2).equals("*") ? -1 : Long.parseLong(matcher.group(2));
+      } else {
+        String contentLength = response.getHeader("Content-Length");
+        totalLength = contentLength != null ? Long.parseLong(contentLength) : -1;
+      }
+
+      if (expectedLength < 0) {
+        expectedLength = totalLength;
+      } else if (totalLength >= 0 && totalLength != expectedLength) {
+        discard();
+        throw new DownloadVerificationException("The server announced " + totalLength
+            + " bytes instead of the expected " + expectedLength);
+      }
+
+      try (FileChannel channel = FileChannel.open(partFile, StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE);
+          ReadableByteChannel source = Channels.newChannel(response.getEntityStream())) {
+        channel.truncate(start);
+        long position = start;
+        long transferred;
+        while ((transferred = channel.transferFrom(source, position, TRANSFER_CHUNK_SIZE)) > 0) {
+          position += transferred;
+        }
+        channel.force(false);
+      }
+    } finally {
+      response.close();
+    }
+    return complete(start, expectedLength);
+  }
+
+  /**
+   * This method decides from a {@code 416 Range Not Satisfiable} response to a request from the end
+   * of the partial file whether the partial file is already complete. The total length of the
+   * attachment is taken from the expected length of the request or, if that is unknown, from the
+   * {@code Content-Range: bytes *}{@code /<length>} header of the response. The response is closed.
+   *
+   * @param response The response to the request for the range after the partial file.
+   * @return {@code true} if the partial file has the total length of the attachment, {@code false}
+   * if the length is unknown or differs, in which case the file must be downloaded again.
+   * @throws IOException If the partial file could not be accessed.
+   */
+  public boolean isPartComplete(TransportResponse response) throws IOException {
+    long totalLength = request.getExpectedLength();
+    try {
+      if (totalLength < 0) {
+        String contentRange = response.getHeader("Content-Range");
+        Matcher matcher = UNSATISFIED_RANGE.matcher(contentRange != null ? contentRange : "");
+        totalLength = matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+      }
+    } finally {
+      response.close();
+    }
+    return totalLength >= 0 && Files.exists(partFile) && Files.size(partFile) == totalLength;
+  }
+
+  /**
+   * This method verifies the partial file as it is and moves it to the target, e.g. if the server
+   * reported that no bytes are left after it.
+   *
+   * @return The completed download.
+   * @throws DownloadVerificationException If the file does not have the expected length or
+   * checksum.
+   * @throws IOException If the file could not be read or moved.
+   */
+  public AttachmentDownload complete() throws IOException {
+    return complete(Files.size(partFile), request.getExpectedLength());
+  }
+
+  /**
+   * This method deletes the partial file, so that the attachment is downloaded from its start.
+   *
+   * @throws IOException If the file could not be deleted.
+   */
+  public void discard() throws IOException {
+    Files.deleteIfExists(partFile);
+  }
+
+  private AttachmentDownload complete(long resumedFrom, long expectedLength) throws IOException {
+    long length = Files.size(partFile);
+    if (length < expectedLength) {
+      // The connection was closed early; the partial file is kept, so the download can be resumed
+      throw new IOException("The download ended after " + length + " of " + expectedLength
+          + " bytes");
+    }
+    if (expectedLength >= 0 && length != expectedLength) {
+      discard();
+      throw new DownloadVerificationException("The downloaded file has " + length
+          + " bytes instead of " + expectedLength);
+    }
+
+    String checksum = null;
+    if (request.getChecksumAlgorithm() != null) {
+      checksum = checksum(request.getChecksumAlgorithm());
+      if (request.getExpectedChecksum() != null
+          && !checksum.equalsIgnoreCase(request.getExpectedChecksum())) {
+        discard();
+        throw new DownloadVerificationException("The " + request.getChecksumAlgorithm()
+            + " checksum of the downloaded file is " + checksum + " instead of "
+            + request.getExpectedChecksum());
+      }
+    }
+
+    Files.move(partFile, target, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    return new AttachmentDownload(target, length, resumedFrom, checksum);
+  }
+
+  private String checksum(String algorithm) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance(algorithm);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("The checksum algorithm " + algorithm + " is not available", e);
+    }
+    // The whole file is read again, so that a resumed download is verified including the bytes of
+    // the earlier attempt
+    ByteBuffer buffer = ByteBuffer.allocateDirect(DIGEST_BUFFER_SIZE);
+    try (FileChannel channel = FileChannel.open(partFile, StandardOpenOption.READ)) {
+      while (channel.read(buffer) >= 0) {
+        buffer.flip();
+        digest.update(buffer);
+        buffer.clear();
+      }
+    }
+
+    byte[] hash = digest.digest();
+    char[] hex = new char[hash.length * 2];
+    for (int i = 0; i < hash.length; i++) {
+      hex[2 * i] = HEX_DIGITS[(hash[i] >> 4) & 0xF];
+      hex[2 * i + 1] = HEX_DIGITS[hash[i] & 0xF];
+    }
+    return new String(hex);
+  }
+}
@@ -0,0 +1,152 @@
+package de.onesty.confluence.streaming;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.onesty.confluence.content.Content;
+import de.onesty.confluence.transport.TransportResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.ws.rs.ProcessingException;
+
+/**
+ * <p>This class iterates over the "results" array of a paged content response while it is being
+ * received. Each element is deserialized only when it is requested, so at most one {@link Content}
+ * of the page is held in memory by the iterator at any time.</p>
+ * <p>The iterator owns the underlying response and must be closed if it is not consumed
+ * completely.</p>
+ */
+public class ContentResultsIterator implements Iterator<Content>, AutoCloseable {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final JsonFactory JSON_FACTORY = OBJECT_MAPPER.getFactory();
+  private static final String RESULTS_FIELD = "results";
+
+  private final TransportResponse response;
+  private final InputStream entityStream;
+  private final JsonParser parser;
+  private boolean inResults;
+  private boolean finished;
+  private Content next;
+
+  /**
+   * This constructor starts parsing the entity of the given response.
+   *
+   * @param response A successful response whose entity is a paged content listing.
+   * @throws ProcessingException If the entity could not be read.
+   */
+  public ContentResultsIterator(TransportResponse response) {
+    this.response = response;
+    this.entityStream = response.getEntityStream();
+    try {
+      this.parser = JSON_FACTORY.createParser(entityStream);
+    } catch (IOException e) {
+      response.close();
+      throw new ProcessingException(e);
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (next == null && !finished) {
+      next = advance();
+    }
+    return next != null;
+  }
+
+  @Override
+  public Content next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    Content current = next;
+    next = null;
+    return current;
+  }
+
+  /**
+   * This method returns a sequential stream over the remaining results. Closing the stream closes
+   * this iterator.
+   *
+   * @return A stream over the remaining results.
+   */
+  public Stream<Content> stream() {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+        Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(this::close);
+  }
+
+  /**
+   * This method releases the underlying response.
+   */
+  @Override
+  public void close() {
+    finished = true;
+    try {
+      parser.close();
+    } catch (IOException e) {
+      // the response is released either way
+    }
+    response.close();
+  }
+
+  private Content advance() {
+    try {
+      if (!inResults && !seekResults()) {
+        finish();
+        return null;
+      }
+
+      JsonToken token = parser.nextToken();
+      if (token == JsonToken.START_OBJECT) {
+        return OBJECT_MAPPER.readValue(parser, Content.class);
+      }
+
+      finish();
+      return null;
+    } catch (IOException e) {
+      close();
+      throw new ProcessingException(e);
+    }
+  }
+
+  /**
+   * This method moves the parser to the start of the "results" array.
+   *
+   * @return {@code true} if the array was found, {@code false} if the entity has no results.
+   */
+  private boolean seekResults() throws IOException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      return false;
+    }
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+      if (RESULTS_FIELD.equals(field) && value == JsonToken.START_ARRAY) {
+        inResults = true;
+        return true;
+      }
+      parser.skipChildren();
+    }
+    return false;
+  }
+
+  /**
+   * This method reads the remainder of the entity, such as the pagination fields that follow the
+   * results, so that the connection can be reused, and releases the response.
+   */
+  private void finish() throws IOException {
+    byte[] buffer = new byte[512];
+    while (entityStream.read(buffer) >= 0) {
+      // drain
+    }
+    close();
+  }
+}
@@ -0,0 +1,21 @@
+package de.onesty.confluence.streaming;
+
+import java.io.IOException;
+
+/**
+ * This exception is thrown if a downloaded file does not have the expected length or checksum. The
+ * partially downloaded file is discarded, so the next attempt downloads the whole file again.
+ */
+public class DownloadVerificationException extends IOException {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * This constructor creates a new instance with the given message.
+   *
+   * @param message The description of the mismatch.
+   */
+  public DownloadVerificationException(String message) {
+    super(message);
+  }
+}
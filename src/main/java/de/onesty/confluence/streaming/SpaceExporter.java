@@ -0,0 +1,288 @@
+package de.onesty.confluence.streaming;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.onesty.confluence.ConfluenceClient;
+import de.onesty.confluence.content.Content;
+import de.onesty.confluence.content.StandardContentType;
+import de.onesty.confluence.content.expand.ExpandedContentProperties;
+import de.onesty.confluence.errors.ConfluenceRequestException;
+import de.onesty.confluence.errors.UncheckedConfluenceRequestException;
+import de.onesty.confluence.paging.ContentPageIterator;
+import de.onesty.confluence.paging.SearchResultsIterator;
+import de.onesty.confluence.requests.CqlQueries;
+import de.onesty.confluence.requests.GetContentRequest;
+import de.onesty.confluence.requests.SearchContentRequest;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <p>This class exports the content of a space as newline delimited JSON, one {@link
+ * de.onesty.confluence.content.Content} per line, optionally compressed with gzip.</p>
+ * <p>Content is written while it is fetched: the pages of results are fetched ahead of the writer
+ * by at most a configurable number of pages, so the memory used by an export depends on the page
+ * size, not on the size of the space. A slow output slows the fetching down accordingly.</p>
+ * <p>The {@code rest/api/content} endpoint does not list attachments by space, so attachments are
+ * found with the CQL search {@code space = <key> and type = attachment} instead.</p>
+ */
+public class SpaceExporter {
+
+  // Each value would otherwise flush the stream, and a gzip stream with it; the export flushes once
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+      .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+      .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
+      .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final ConfluenceClient client;
+  private final String spaceKey;
+  private final ExpandedContentProperties expandedProperties;
+  private final Set<String> types;
+  private final boolean compressed;
+  private final int pageSize;
+  private final int maxPagesAhead;
+
+  private SpaceExporter(Builder builder, Set<String> types) {
+    this.client = builder.client;
+    this.spaceKey = builder.spaceKey;
+    this.expandedProperties = builder.expandedProperties;
+    this.types = types;
+    this.compressed = builder.compressed;
+    this.pageSize = builder.pageSize;
+    this.maxPagesAhead = builder.maxPagesAhead;
+  }
+
+  /**
+   * This method writes the export to the given stream. The stream is flushed, but not closed.
+   *
+   * @param out The stream to write to.
+   * @return The number of exported pieces of content.
+   * @throws ConfluenceRequestException If the server responded with an error.
+   * @throws IOException If the export could not be written.
+   */
+  public long export(OutputStream out) throws ConfluenceRequestException, IOException {
+    OutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+    if (!compressed) {
+      long count = write(buffered);
+      buffered.flush();
+      return count;
+    }
+    GZIPOutputStream gzip = new GZIPOutputStream(buffered, BUFFER_SIZE);
+    long count = write(gzip);
+    gzip.finish();
+    buffered.flush();
+    return count;
+  }
+
+  /**
+   * This method writes the export to the given file, replacing an existing file. The export is
+   * written to a temporary file in the same directory, which only replaces the file once the export
+   * is complete, so a failed export leaves an existing file untouched.
+   *
+   * @param file The file to write to.
+   * @return The number of exported pieces of content.
+   * @throws ConfluenceRequestException If the server responded with an error.
+   * @throws IOException If the export could not be written.
+   */
+  public long export(Path file) throws ConfluenceRequestException, IOException {
+    Path absolute = file.toAbsolutePath();
+    Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+    try {
+      long count;
+      try (OutputStream out = Files.newOutputStream(temp)) {
+        count = export(out);
+      }
+      Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      return count;
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  private long write(OutputStream out) throws ConfluenceRequestException, IOException {
+    long count = 0;
+    for (String type : types) {
+      if (type.equals(StandardContentType.ATTACHMENT.getIdentifier())) {
+        SearchContentRequest request = new SearchContentRequest.Builder()
+            .setCql("space = " + CqlQueries.quote(spaceKey) + " and type = attachment")
+            .setLimit(pageSize)
+            .setExpandedProperties(expandedProperties)
+            .build();
+        try (SearchResultsIterator iterator = client.iterateSearchResults(request)) {
+          count += write(out, iterator);
+        }
+      } else {
+        GetContentRequest request = new GetContentRequest.Builder()
+            .setSpaceKey(spaceKey)
+            .setType(type)
+            .setLimit(pageSize)
+            .setExpandedProperties(expandedProperties)
+            .build();
+        try (ContentPageIterator iterator = client.iterateContent(request, maxPagesAhead)) {
+          count += write(out, iterator);
+        }
+      }
+    }
+    return count;
+  }
+
+  private static long write(OutputStream out, Iterator<Content> contents)
+      throws ConfluenceRequestException, IOException {
+    long count = 0;
+    try {
+      while (contents.hasNext()) {
+        OBJECT_MAPPER.writeValue(out, contents.next());
+        out.write('\n');
+        count++;
+      }
+    } catch (UncheckedConfluenceRequestException e) {
+      throw e.getCause();
+    }
+    return count;
+  }
+
+  /**
+   * This class can be used to construct an instance of {@link SpaceExporter}.
+   */
+  public static class Builder {
+
+    private ConfluenceClient client;
+    private String spaceKey;
+    private ExpandedContentProperties expandedProperties;
+    private final Set<String> types = new LinkedHashSet<>();
+    private boolean includeAttachments;
+    private boolean compressed;
+    private int pageSize = 100;
+    private int maxPagesAhead = 2;
+
+    /**
+     * This method sets the client used to read the space.
+     *
+     * @param client The client.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setClient(ConfluenceClient client) {
+      this.client = client;
+      return this;
+    }
+
+    /**
+     * This method sets the space to export.
+     *
+     * @param spaceKey The key of the space.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setSpaceKey(String spaceKey) {
+      this.spaceKey = spaceKey;
+      return this;
+    }
+
+    /**
+     * This method sets the properties that are expanded in the exported content.
+     *
+     * @param expandedProperties The properties to expand, e.g. the body in storage format.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setExpandedProperties(ExpandedContentProperties expandedProperties) {
+      this.expandedProperties = expandedProperties;
+      return this;
+    }
+
+    /**
+     * This method adds a type of content to export. If no type is added, pages and blog posts are
+     * exported. Attachments are found by a CQL search, like with {@link
+     * #setIncludeAttachments(boolean)}.
+     *
+     * @param type The type of content.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder addType(StandardContentType type) {
+      this.types.add(type.getIdentifier());
+      return this;
+    }
+
+    /**
+     * This method sets whether the attachments of the space are exported as well, after the other
+     * content. Attachments are exported as content records; their files are not downloaded. They
+     * are found by a CQL search, which prefetches at most one page ahead.
+     *
+     * @param includeAttachments Whether to export attachments. Defaults to {@code false}.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setIncludeAttachments(boolean includeAttachments) {
+      this.includeAttachments = includeAttachments;
+      return this;
+    }
+
+    /**
+     * This method sets whether the export is compressed with gzip.
+     *
+     * @param compressed Whether to compress the export. Defaults to {@code false}.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setCompressed(boolean compressed) {
+      this.compressed = compressed;
+      return this;
+    }
+
+    /**
+     * This method sets the number of results requested per page.
+     *
+     * @param pageSize The page size. Defaults to 100.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setPageSize(int pageSize) {
+      this.pageSize = pageSize;
+      return this;
+    }
+
+    /**
+     * This method sets how many pages of results are fetched ahead of the page being written.
+     *
+     * @param maxPagesAhead The number of pages, or 0 to fetch each page only once the previous one
+     * has been written. Defaults to 2.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setMaxPagesAhead(int maxPagesAhead) {
+      this.maxPagesAhead = maxPagesAhead;
+      return this;
+    }
+
+    /**
+     * This method creates an instance of {@link SpaceExporter} using the values that were set on
+     * this instance.
+     *
+     * @return A new instance of {@link SpaceExporter} with the values set on this instance.
+     * @throws IllegalStateException If the exporter that would be created would be invalid.
+     */
+    public SpaceExporter build() throws IllegalStateException {
+      if (this.client == null || this.spaceKey == null) {
+        throw new IllegalStateException("You must specify the client and the space key");
+      }
+
+      if (this.pageSize <= 0 || this.maxPagesAhead < 0) {
+        throw new IllegalStateException("The page size must be positive and the pages ahead must not be negative");
+      }
+
+      Set<String> types = new LinkedHashSet<>(this.types);
+      if (types.isEmpty()) {
+        types.add(StandardContentType.PAGE.getIdentifier());
+        types.add(StandardContentType.BLOGPOST.getIdentifier());
+      }
+      if (includeAttachments) {
+        types.add(StandardContentType.ATTACHMENT.getIdentifier());
+      }
+      return new SpaceExporter(this, types);
+    }
+  }
+}
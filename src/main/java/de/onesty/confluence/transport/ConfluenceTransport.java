@@ -0,0 +1,49 @@
+package de.onesty.confluence.transport;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * <p>This interface defines the HTTP layer used by {@link de.onesty.confluence.ConfluenceClient}
+ * to exchange requests with the Confluence Cloud server.</p>
+ * <p>Implementations are responsible for resolving the relative path of a {@link
+ * TransportRequest} against the wiki root, for serializing its body and for deserializing response
+ * entities. Failures to communicate with the server are reported as {@link
+ * javax.ws.rs.ProcessingException}. Error status codes are not treated as failures by the
+ * transport; they are returned as a regular {@link TransportResponse}.</p>
+ */
+public interface ConfluenceTransport {
+
+  /**
+   * This method sends the given request and blocks until the response headers are received.
+   *
+   * @param request The request to send.
+   * @return The response returned by the server.
+   * @throws javax.ws.rs.ProcessingException If the request could not be sent or the response could
+   * not be received.
+   */
+  TransportResponse send(TransportRequest request);
+
+  /**
+   * This method sends the given request without blocking the calling thread.
+   *
+   * @param request The request to send.
+   * @return A future that completes with the response returned by the server, or completes
+   * exceptionally with a {@link javax.ws.rs.ProcessingException} if the exchange failed.
+   */
+  CompletableFuture<TransportResponse> sendAsync(TransportRequest request);
+
+  /**
+   * <p>This method resolves everything about the given request that does not change between calls,
+   * so that it can be sent repeatedly with only the values of the given query parameters
+   * changing.</p>
+   * <p>The default implementation assembles a complete request for every call. Transports should
+   * override it to reuse their resolved targets and headers.</p>
+   *
+   * @param template The request to prepare. Its query parameters are sent with every call.
+   * @param boundParamNames The names of the query parameters that are bound on each call.
+   * @return The prepared request.
+   */
+  default PreparedTransportRequest prepare(TransportRequest template, String... boundParamNames) {
+    return new DefaultPreparedTransportRequest(this, template, boundParamNames);
+  }
+}
@@ -0,0 +1,62 @@
+package de.onesty.confluence.transport;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+/**
+ * This class owns the keep-alive connection pool used by the Apache connector of a {@link
+ * de.onesty.confluence.ConfluenceClient} that was created through its builder. Connections that
+ * stay idle for longer than the configured timeout are evicted by a background thread.
+ */
+public class ConnectionPool implements Closeable {
+
+  private final PoolingHttpClientConnectionManager connectionManager;
+  private final IdleConnectionEvictor evictor;
+
+  /**
+   * This constructor takes ownership of the given connection manager and starts evicting idle
+   * connections from it.
+   *
+   * @param connectionManager The connection manager holding the pooled connections.
+   * @param idleTimeoutMillis The time after which an idle connection is closed, in milliseconds.
+   */
+  public ConnectionPool(PoolingHttpClientConnectionManager connectionManager, long idleTimeoutMillis) {
+    this.connectionManager = connectionManager;
+    this.evictor = new IdleConnectionEvictor(connectionManager,
+        Math.max(idleTimeoutMillis / 2, 1000L), TimeUnit.MILLISECONDS,
+        idleTimeoutMillis, TimeUnit.MILLISECONDS);
+    this.evictor.start();
+  }
+
+  /**
+   * This method returns the connection manager holding the pooled connections.
+   *
+   * @return The connection manager holding the pooled connections.
+   */
+  public PoolingHttpClientConnectionManager getConnectionManager() {
+    return connectionManager;
+  }
+
+  /**
+   * This method returns the current state of the pool, across all routes.
+   *
+   * @return A snapshot of the state of the pool.
+   */
+  public ConnectionPoolStats getStats() {
+    PoolStats stats = connectionManager.getTotalStats();
+    return new ConnectionPoolStats(stats.getLeased(), stats.getAvailable(), stats.getPending(),
+        stats.getMax());
+  }
+
+  /**
+   * This method stops the eviction thread and closes all pooled connections.
+   */
+  @Override
+  public void close() {
+    evictor.shutdown();
+    connectionManager.shutdown();
+  }
+}
@@ -0,0 +1,69 @@
+package de.onesty.confluence.transport;
+
+/**
+ * This class represents a snapshot of the state of a {@link ConnectionPool}.
+ */
+public final class ConnectionPoolStats {
+
+  private final int leased;
+  private final int available;
+  private final int pending;
+  private final int max;
+
+  /**
+   * This constructor creates a snapshot with the given connection counts.
+   *
+   * @param leased The number of connections currently in use.
+   * @param available The number of idle connections that can be reused.
+   * @param pending The number of requests waiting for a connection.
+   * @param max The maximum number of connections in the pool.
+   */
+  public ConnectionPoolStats(int leased, int available, int pending, int max) {
+    this.leased = leased;
+    this.available = available;
+    this.pending = pending;
+    this.max = max;
+  }
+
+  /**
+   * This method returns the number of connections currently in use by requests.
+   *
+   * @return The number of leased connections.
+   */
+  public int getLeased() {
+    return leased;
+  }
+
+  /**
+   * This method returns the number of idle, kept-alive connections that can be reused.
+   *
+   * @return The number of available connections.
+   */
+  public int getAvailable() {
+    return available;
+  }
+
+  /**
+   * This method returns the number of requests that are waiting for a connection to be released.
+   *
+   * @return The number of pending requests.
+   */
+  public int getPending() {
+    return pending;
+  }
+
+  /**
+   * This method returns the maximum number of connections the pool may open.
+   *
+   * @return The maximum number of connections.
+   */
+  public int getMax() {
+    return max;
+  }
+
+  @Override
+  public String toString() {
+    return "[leased: " + leased + "; available: " + available + "; pending: " + pending
+        + "; max: " + max + "]";
+  }
+}
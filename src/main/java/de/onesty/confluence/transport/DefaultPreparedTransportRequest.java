@@ -0,0 +1,57 @@
+package de.onesty.confluence.transport;
+
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * This class is the fallback {@link PreparedTransportRequest} for transports that do not prepare
+ * requests themselves. It assembles a complete {@link TransportRequest} for each call.
+ */
+class DefaultPreparedTransportRequest implements PreparedTransportRequest {
+
+  private final ConfluenceTransport transport;
+  private final TransportRequest template;
+  private final String[] boundParamNames;
+
+  DefaultPreparedTransportRequest(ConfluenceTransport transport, TransportRequest template,
+      String[] boundParamNames) {
+    this.transport = transport;
+    this.template = template;
+    this.boundParamNames = boundParamNames.clone();
+  }
+
+  @Override
+  public TransportResponse send(String... boundValues) {
+    return transport.send(bind(boundValues));
+  }
+
+  @Override
+  public CompletableFuture<TransportResponse> sendAsync(String... boundValues) {
+    return transport.sendAsync(bind(boundValues));
+  }
+
+  private TransportRequest bind(String[] boundValues) {
+    TransportRequest.Builder builder = new TransportRequest.Builder()
+        .setMethod(template.getMethod())
+        .setRelativePath(template.getRelativePath())
+        .setPathTemplate(template.getPathTemplate())
+        .addQueryParams(template.getQueryParams())
+        .setEntity(template.getEntity())
+        .setRetryable(template.isRetryable());
+    for (Entry<String, String> header : template.getHeaders().entrySet()) {
+      builder.setHeader(header.getKey(), header.getValue());
+    }
+    for (UploadSource upload : template.getUploads()) {
+      builder.addUpload(upload);
+    }
+    for (Entry<String, String> formField : template.getFormFields()) {
+      builder.addFormField(formField.getKey(), formField.getValue());
+    }
+    for (int i = 0; i < boundParamNames.length; i++) {
+      if (boundValues[i] != null) {
+        builder.addQueryParam(boundParamNames[i], boundValues[i]);
+      }
+    }
+    return builder.build();
+  }
+}
@@ -0,0 +1,332 @@
+package de.onesty.confluence.transport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+/**
+ * <p>This class is a {@link ConfluenceTransport} built on {@link java.net.http.HttpClient}.</p>
+ * <p>Unlike the default {@code HttpURLConnection} connector of Jersey, the {@link HttpClient}
+ * negotiates HTTP/2 where the server supports it, so a large number of concurrent requests can be
+ * multiplexed over a small number of connections. JSON entities are (de)serialized with Jackson.</p>
+ */
+public class HttpClientTransport implements ConfluenceTransport {
+
+  private static final String CONTENT_TYPE = "Content-Type";
+
+  private final HttpClient httpClient;
+  private final String wikiRoot;
+  private final ObjectMapper objectMapper;
+
+  /**
+   * This constructor creates a transport that sends requests relative to the given wiki root using
+   * a new HTTP/2 enabled {@link HttpClient}, which follows redirects unless they downgrade from
+   * HTTPS to HTTP.
+   *
+   * @param wikiRoot The location of the Confluence Cloud server, e.g.
+   * "https://sample.atlassian.net/wiki".
+   */
+  public HttpClientTransport(URI wikiRoot) {
+    this(wikiRoot, HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .build());
+  }
+
+  /**
+   * This constructor creates a transport that sends requests relative to the given wiki root using
+   * the given {@link HttpClient}. Attachment downloads are redirected to the media service, so the
+   * client should follow redirects; its request headers, such as the range of a resumed download,
+   * are sent with the redirected request.
+   *
+   * @param wikiRoot The location of the Confluence Cloud server.
+   * @param httpClient The client used to send the requests.
+   */
+  public HttpClientTransport(URI wikiRoot, HttpClient httpClient) {
+    this(wikiRoot, httpClient, new ObjectMapper());
+  }
+
+  /**
+   * This constructor creates a transport that sends requests relative to the given wiki root using
+   * the given {@link HttpClient}, and (de)serializes JSON entities with the given mapper.
+   *
+   * @param wikiRoot The location of the Confluence Cloud server.
+   * @param httpClient The client used to send the requests.
+   * @param objectMapper The mapper used to (de)serialize JSON entities.
+   */
+  public HttpClientTransport(URI wikiRoot, HttpClient httpClient, ObjectMapper objectMapper) {
+    String root = wikiRoot.toString();
+    this.wikiRoot = root.endsWith("/") ? root : root + "/";
+    this.httpClient = httpClient;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public TransportResponse send(TransportRequest request) {
+    try {
+      return new HttpClientResponse(
+          httpClient.send(buildRequest(request), BodyHandlers.ofInputStream()), objectMapper);
+    } catch (IOException e) {
+      throw new ProcessingException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ProcessingException(e);
+    }
+  }
+
+  @Override
+  public CompletableFuture<TransportResponse> sendAsync(TransportRequest request) {
+    HttpRequest httpRequest;
+    try {
+      httpRequest = buildRequest(request);
+    } catch (RuntimeException e) {
+      CompletableFuture<TransportResponse> failed = new CompletableFuture<>();
+      failed.completeExceptionally(e);
+      return failed;
+    }
+    return httpClient.sendAsync(httpRequest, BodyHandlers.ofInputStream())
+        .handle((response, failure) -> {
+          if (failure != null) {
+            Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+            throw new ProcessingException(cause);
+          }
+          return new HttpClientResponse(response, objectMapper);
+        });
+  }
+
+  /**
+   * This method resolves the URI prefix, headers and body of the given request once. Each call of
+   * the prepared request only appends the encoded bound query parameters to the prefix.
+   */
+  @Override
+  public PreparedTransportRequest prepare(TransportRequest template, String... boundParamNames) {
+    if (!template.getUploads().isEmpty()) {
+      return ConfluenceTransport.super.prepare(template, boundParamNames);
+    }
+
+    HttpRequest prototype = buildRequest(template);
+    String uriPrefix = prototype.uri().toString();
+    String[] encodedNames = new String[boundParamNames.length];
+    for (int i = 0; i < boundParamNames.length; i++) {
+      encodedNames[i] = encode(boundParamNames[i]);
+    }
+    return new HttpClientPreparedRequest(this, prototype, uriPrefix, uriPrefix.indexOf('?') < 0,
+        encodedNames);
+  }
+
+  private HttpRequest buildRequest(TransportRequest request) {
+    HttpRequest.Builder builder = HttpRequest.newBuilder(buildUri(request));
+    for (Entry<String, String> header : request.getHeaders().entrySet()) {
+      if (!CONTENT_TYPE.equalsIgnoreCase(header.getKey())) {
+        builder.header(header.getKey(), header.getValue());
+      }
+    }
+
+    BodyPublisher body;
+    if (!request.getUploads().isEmpty()) {
+      MultipartUpload upload = new MultipartUpload(request.getUploads(), request.getFormFields());
+      builder.header(CONTENT_TYPE, upload.getContentType());
+      body = multipartBody(upload);
+    } else if (request.getEntity() != null) {
+      builder.header(CONTENT_TYPE, MediaType.APPLICATION_JSON);
+      body = jsonBody(request.getEntity());
+    } else {
+      String contentType = request.getHeaders().get(CONTENT_TYPE);
+      if (contentType != null) {
+        builder.header(CONTENT_TYPE, contentType);
+      }
+      body = BodyPublishers.noBody();
+    }
+    return builder.method(request.getMethod(), body).build();
+  }
+
+  private URI buildUri(TransportRequest request) {
+    StringBuilder uri = new StringBuilder(wikiRoot);
+    String path = request.getRelativePath();
+    uri.append(path.startsWith("/") ? path.substring(1) : path);
+
+    char separator = '?';
+    for (Entry<String, String> queryParam : request.getQueryParams().entrySet()) {
+      uri.append(separator).append(encode(queryParam.getKey()))
+          .append('=').append(encode(queryParam.getValue()));
+      separator = '&';
+    }
+    return URI.create(uri.toString());
+  }
+
+  private BodyPublisher jsonBody(Object entity) {
+    try {
+      return BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(entity));
+    } catch (IOException e) {
+      throw new ProcessingException(e);
+    }
+  }
+
+  private static BodyPublisher multipartBody(final MultipartUpload upload) {
+    BodyPublisher stream = BodyPublishers.ofInputStream(upload::openStream);
+    // Without a length the body is sent with chunked transfer encoding
+    long length = upload.getContentLength();
+    return length < 0 ? stream : BodyPublishers.fromPublisher(stream, length);
+  }
+
+  private static String encode(String value) {
+    try {
+      return URLEncoder.encode(value, "UTF-8").replace("+", "%20");
+    } catch (java.io.UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * This class is the {@link PreparedTransportRequest} of the {@link HttpClientTransport}. The
+   * headers and body of a fully built prototype request are reused, only its URI is rebuilt.
+   */
+  static final class HttpClientPreparedRequest implements PreparedTransportRequest {
+
+    private final HttpClientTransport transport;
+    private final String method;
+    private final BodyPublisher body;
+    private final String[] headers;
+    private final String uriPrefix;
+    private final boolean prefixHasNoQuery;
+    private final String[] encodedParamNames;
+
+    HttpClientPreparedRequest(HttpClientTransport transport, HttpRequest prototype,
+        String uriPrefix, boolean prefixHasNoQuery, String[] encodedParamNames) {
+      this.transport = transport;
+      this.method = prototype.method();
+      this.body = prototype.bodyPublisher().orElse(BodyPublishers.noBody());
+      List<String> headerPairs = new ArrayList<>();
+      for (Entry<String, List<String>> header : prototype.headers().map().entrySet()) {
+        for (String value : header.getValue()) {
+          headerPairs.add(header.getKey());
+          headerPairs.add(value);
+        }
+      }
+      this.headers = headerPairs.toArray(new String[0]);
+      this.uriPrefix = uriPrefix;
+      this.prefixHasNoQuery = prefixHasNoQuery;
+      this.encodedParamNames = encodedParamNames;
+    }
+
+    @Override
+    public TransportResponse send(String... boundValues) {
+      try {
+        return new HttpClientResponse(
+            transport.httpClient.send(bind(boundValues), BodyHandlers.ofInputStream()),
+            transport.objectMapper);
+      } catch (IOException e) {
+        throw new ProcessingException(e);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ProcessingException(e);
+      }
+    }
+
+    @Override
+    public CompletableFuture<TransportResponse> sendAsync(String... boundValues) {
+      return transport.httpClient.sendAsync(bind(boundValues), BodyHandlers.ofInputStream())
+          .handle((response, failure) -> {
+            if (failure != null) {
+              Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+              throw new ProcessingException(cause);
+            }
+            return new HttpClientResponse(response, transport.objectMapper);
+          });
+    }
+
+    private HttpRequest bind(String[] boundValues) {
+      StringBuilder uri = new StringBuilder(uriPrefix.length() + 64).append(uriPrefix);
+      boolean first = prefixHasNoQuery;
+      for (int i = 0; i < encodedParamNames.length; i++) {
+        if (boundValues[i] != null) {
+          uri.append(first ? '?' : '&').append(encodedParamNames[i]).append('=')
+              .append(encode(boundValues[i]));
+          first = false;
+        }
+      }
+
+      HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(uri.toString()))
+          .method(method, body);
+      if (headers.length > 0) {
+        builder.headers(headers);
+      }
+      return builder.build();
+    }
+  }
+
+  /**
+   * This class adapts a {@link HttpResponse} to a {@link TransportResponse}.
+   */
+  static final class HttpClientResponse implements TransportResponse {
+
+    private final HttpResponse<InputStream> response;
+    private final ObjectMapper objectMapper;
+
+    HttpClientResponse(HttpResponse<InputStream> response, ObjectMapper objectMapper) {
+      this.response = response;
+      this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public int getStatus() {
+      return response.statusCode();
+    }
+
+    @Override
+    public String getReasonPhrase() {
+      Response.Status status = Response.Status.fromStatusCode(response.statusCode());
+      return status != null ? status.getReasonPhrase() : null;
+    }
+
+    @Override
+    public MediaType getMediaType() {
+      String contentType = getHeader(CONTENT_TYPE);
+      return contentType != null ? MediaType.valueOf(contentType) : null;
+    }
+
+    @Override
+    public String getHeader(String name) {
+      return response.headers().firstValue(name).orElse(null);
+    }
+
+    @Override
+    public <T> T readEntity(Class<T> type) {
+      try (InputStream entityStream = response.body()) {
+        return objectMapper.readValue(entityStream, type);
+      } catch (IOException e) {
+        throw new ProcessingException(e);
+      }
+    }
+
+    @Override
+    public InputStream getEntityStream() {
+      return response.body();
+    }
+
+    @Override
+    public void close() {
+      try {
+        response.body().close();
+      } catch (IOException e) {
+        // the connection is released either way
+      }
+    }
+  }
+}
@@ -0,0 +1,267 @@
+package de.onesty.confluence.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.RequestEntityProcessing;
+
+/**
+ * This class is the default {@link ConfluenceTransport}, which sends requests through a JAX-RS
+ * {@link WebTarget}. The connector, executor service and providers used for the requests are the
+ * ones configured on the JAX-RS client that created the target.
+ */
+public class JerseyTransport implements ConfluenceTransport {
+
+  private final WebTarget wikiTarget;
+  private final WebTarget requestTarget;
+
+  /**
+   * This constructor creates a transport that sends requests relative to the given target. The
+   * configuration of the given target is not changed.
+   *
+   * @param wikiTarget The resource target pointing to the location of the Confluence Cloud server.
+   */
+  public JerseyTransport(WebTarget wikiTarget) {
+    this.wikiTarget = wikiTarget;
+    // A child target has its own copy of the configuration of its parent
+    this.requestTarget = wikiTarget.path("").register(EntityDrainingInterceptor.class);
+  }
+
+  /**
+   * This method returns the target that requests are resolved against.
+   *
+   * @return The resource target pointing to the location of the Confluence Cloud server.
+   */
+  public WebTarget getWikiTarget() {
+    return wikiTarget;
+  }
+
+  @Override
+  public TransportResponse send(TransportRequest request) {
+    Entity<?> entity = buildEntity(request);
+    Invocation.Builder invocationBuilder = streamEntity(buildInvocation(request), entity);
+
+    Response response;
+    if (entity != null) {
+      response = invocationBuilder.method(request.getMethod(), entity);
+    } else {
+      response = invocationBuilder.method(request.getMethod());
+    }
+    return new JerseyResponse(response);
+  }
+
+  @Override
+  public CompletableFuture<TransportResponse> sendAsync(TransportRequest request) {
+    CompletableFuture<Response> response;
+    try {
+      Entity<?> entity = buildEntity(request);
+      Invocation.Builder invocationBuilder = streamEntity(buildInvocation(request), entity);
+      if (entity != null) {
+        response = invocationBuilder.rx().method(request.getMethod(), entity).toCompletableFuture();
+      } else {
+        response = invocationBuilder.rx().method(request.getMethod()).toCompletableFuture();
+      }
+    } catch (RuntimeException e) {
+      CompletableFuture<TransportResponse> failed = new CompletableFuture<>();
+      failed.completeExceptionally(e);
+      return failed;
+    }
+    return response.thenApply(JerseyResponse::new);
+  }
+
+  /**
+   * This method resolves the target, fixed query parameters, headers and entity of the given request
+   * once. Each call of the prepared request only appends the bound query parameters to the resolved
+   * target.
+   */
+  @Override
+  public PreparedTransportRequest prepare(TransportRequest template, String... boundParamNames) {
+    WebTarget endpointTarget = requestTarget.path(template.getRelativePath());
+    for (Entry<String, String> queryParam : template.getQueryParams().entrySet()) {
+      endpointTarget = endpointTarget.queryParam(queryParam.getKey(), queryParam.getValue());
+    }
+
+    MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+    for (Entry<String, String> headerEntry : template.getHeaders().entrySet()) {
+      headers.putSingle(headerEntry.getKey(), headerEntry.getValue());
+    }
+    return new JerseyPreparedRequest(endpointTarget, template.getMethod(), headers,
+        buildEntity(template), boundParamNames.clone());
+  }
+
+  private Invocation.Builder buildInvocation(TransportRequest request) {
+    WebTarget endpointTarget = requestTarget.path(request.getRelativePath());
+    for (Entry<String, String> queryParam : request.getQueryParams().entrySet()) {
+      endpointTarget = endpointTarget.queryParam(queryParam.getKey(), queryParam.getValue());
+    }
+
+    Invocation.Builder invocationBuilder = endpointTarget.request();
+    for (Entry<String, String> headerEntry : request.getHeaders().entrySet()) {
+      invocationBuilder.header(headerEntry.getKey(), headerEntry.getValue());
+    }
+    return invocationBuilder;
+  }
+
+  private Entity<?> buildEntity(TransportRequest request) {
+    if (!request.getUploads().isEmpty()) {
+      // The body is streamed from the upload while it is written
+      final MultipartUpload multipart =
+          new MultipartUpload(request.getUploads(), request.getFormFields());
+      return Entity.entity((StreamingOutput) multipart::writeTo,
+          MediaType.valueOf(multipart.getContentType()));
+    }
+    if (request.getEntity() != null) {
+      return Entity.json(request.getEntity());
+    }
+    return null;
+  }
+
+  /**
+   * This method sends streamed entities with chunked transfer encoding. Connectors such as the
+   * HttpUrlConnector otherwise buffer the whole entity in memory before sending it.
+   */
+  private static Invocation.Builder streamEntity(Invocation.Builder invocationBuilder,
+      Entity<?> entity) {
+    if (entity != null && entity.getEntity() instanceof StreamingOutput) {
+      invocationBuilder.property(ClientProperties.REQUEST_ENTITY_PROCESSING,
+          RequestEntityProcessing.CHUNKED);
+    }
+    return invocationBuilder;
+  }
+
+  /**
+   * This class is the {@link PreparedTransportRequest} of the {@link JerseyTransport}.
+   */
+  static final class JerseyPreparedRequest implements PreparedTransportRequest {
+
+    private final WebTarget endpointTarget;
+    private final String method;
+    private final MultivaluedMap<String, Object> headers;
+    private final Entity<?> entity;
+    private final String[] boundParamNames;
+
+    JerseyPreparedRequest(WebTarget endpointTarget, String method,
+        MultivaluedMap<String, Object> headers, Entity<?> entity, String[] boundParamNames) {
+      this.endpointTarget = endpointTarget;
+      this.method = method;
+      this.headers = headers;
+      this.entity = entity;
+      this.boundParamNames = boundParamNames;
+    }
+
+    @Override
+    public TransportResponse send(String... boundValues) {
+      Invocation.Builder invocationBuilder = bind(boundValues);
+      Response response = entity != null
+          ? invocationBuilder.method(method, entity)
+          : invocationBuilder.method(method);
+      return new JerseyResponse(response);
+    }
+
+    @Override
+    public CompletableFuture<TransportResponse> sendAsync(String... boundValues) {
+      CompletableFuture<Response> response;
+      try {
+        Invocation.Builder invocationBuilder = bind(boundValues);
+        response = entity != null
+            ? invocationBuilder.rx().method(method, entity).toCompletableFuture()
+            : invocationBuilder.rx().method(method).toCompletableFuture();
+      } catch (RuntimeException e) {
+        CompletableFuture<TransportResponse> failed = new CompletableFuture<>();
+        failed.completeExceptionally(e);
+        return failed;
+      }
+      return response.thenApply(JerseyResponse::new);
+    }
+
+    private Invocation.Builder bind(String[] boundValues) {
+      WebTarget target = endpointTarget;
+      for (int i = 0; i < boundParamNames.length; i++) {
+        if (boundValues[i] != null) {
+          target = target.queryParam(boundParamNames[i], boundValues[i]);
+        }
+      }
+      return streamEntity(target.request().headers(headers), entity);
+    }
+  }
+
+  /**
+   * This class adapts a JAX-RS {@link Response} to a {@link TransportResponse}.
+   */
+  static final class JerseyResponse implements TransportResponse {
+
+    private final Response response;
+
+    JerseyResponse(Response response) {
+      this.response = response;
+    }
+
+    @Override
+    public int getStatus() {
+      return response.getStatus();
+    }
+
+    @Override
+    public String getReasonPhrase() {
+      return response.getStatusInfo().getReasonPhrase();
+    }
+
+    @Override
+    public MediaType getMediaType() {
+      return response.getMediaType();
+    }
+
+    @Override
+    public String getHeader(String name) {
+      return response.getHeaderString(name);
+    }
+
+    @Override
+    public <T> T readEntity(Class<T> type) {
+      // Deserialized from the connection; the EntityDrainingInterceptor reads the rest of it
+      return response.readEntity(type);
+    }
+
+    @Override
+    public InputStream getEntityStream() {
+      return response.readEntity(InputStream.class);
+    }
+
+    @Override
+    public void close() {
+      response.close();
+    }
+  }
+
+  /**
+   * This class reads the remainder of an entity after it was deserialized, before the entity
+   * stream is closed. Reading the entity up to its end lets the connector return the connection to
+   * its pool; JSON providers stop at the closing brace and the connection would be discarded
+   * otherwise. Entities read as streams are left to the caller.
+   */
+  static final class EntityDrainingInterceptor implements ReaderInterceptor {
+
+    @Override
+    public Object aroundReadFrom(ReaderInterceptorContext context) throws IOException {
+      Object entity = context.proceed();
+      if (!(entity instanceof Closeable)) {
+        context.getInputStream().transferTo(OutputStream.nullOutputStream());
+      }
+      return entity;
+    }
+  }
+}
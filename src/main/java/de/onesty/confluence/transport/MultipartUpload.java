@@ -0,0 +1,153 @@
+package de.onesty.confluence.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * This class frames {@link UploadSource}s as the "file" parts of a {@code multipart/form-data}
+ * body, followed by plain form fields. Only the part headers, the form fields and the closing
+ * boundary are held in memory; the content is streamed from the sources one after another.
+ */
+final class MultipartUpload {
+
+  private final List<UploadSource> sources;
+  private final String boundary;
+  private final List<byte[]> heads;
+  private final byte[] tail;
+
+  MultipartUpload(List<UploadSource> sources, List<Map.Entry<String, String>> formFields) {
+    this.sources = sources;
+    this.boundary = UUID.randomUUID().toString();
+    this.heads = new ArrayList<>(sources.size());
+    String delimiter = "--" + boundary + "\r\n";
+    for (UploadSource source : sources) {
+      // Every part but the first is preceded by the line break that ends the previous part
+      heads.add(((heads.isEmpty() ? "" : "\r\n") + delimiter
+          + "Content-Disposition: form-data; name=\"file\"; filename=\""
+          + escape(source.getFileName()) + "\"\r\n"
+          + "Content-Type: " + MediaType.APPLICATION_OCTET_STREAM + "\r\n\r\n")
+          .getBytes(StandardCharsets.UTF_8));
+    }
+    StringBuilder tail = new StringBuilder();
+    for (Map.Entry<String, String> formField : formFields) {
+      tail.append("\r\n").append(delimiter)
+          .append("Content-Disposition: form-data; name=\"").append(escape(formField.getKey()))
+          .append("\"\r\n")
+          .append("Content-Type: text/plain; charset=UTF-8\r\n\r\n")
+          .append(formField.getValue());
+    }
+    this.tail = tail.append("\r\n--").append(boundary).append("--\r\n").toString()
+        .getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * This method returns the content type of the body, including its boundary.
+   */
+  String getContentType() {
+    return "multipart/form-data; boundary=" + boundary;
+  }
+
+  /**
+   * This method returns the length of the body, or -1 if the length of any source is unknown.
+   */
+  long getContentLength() {
+    long length = tail.length;
+    for (int i = 0; i < sources.size(); i++) {
+      if (sources.get(i).getLength() < 0) {
+        return -1;
+      }
+      length += heads.get(i).length + sources.get(i).getLength();
+    }
+    return length;
+  }
+
+  /**
+   * This method writes the body to the given stream.
+   */
+  void writeTo(OutputStream out) throws IOException {
+    for (int i = 0; i < sources.size(); i++) {
+      out.write(heads.get(i));
+      sources.get(i).writeTo(out);
+    }
+    out.write(tail);
+  }
+
+  /**
+   * This method opens a stream over the body. Each source is opened only once the stream reaches
+   * it.
+   */
+  InputStream openStream() {
+    return new BodyInputStream();
+  }
+
+  private static String escape(String value) {
+    return value.replace("\"", "%22").replace("\r", "%0D").replace("\n", "%0A");
+  }
+
+  /**
+   * This class reads the part headers and sources of the body in turn, closing each source once it
+   * has been read.
+   */
+  private final class BodyInputStream extends InputStream {
+
+    // Even segments are part headers or the tail, odd segments are sources
+    private int segment = -1;
+    private InputStream current;
+
+    @Override
+    public int read() throws IOException {
+      byte[] single = new byte[1];
+      int read = read(single, 0, 1);
+      return read < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+      if (length == 0) {
+        return 0;
+      }
+      while (current != null || advance()) {
+        int read = current.read(bytes, offset, length);
+        if (read >= 0) {
+          return read;
+        }
+        current.close();
+        current = null;
+      }
+      return -1;
+    }
+
+    private boolean advance() throws IOException {
+      int last = 2 * sources.size();
+      if (segment >= last) {
+        return false;
+      }
+      segment++;
+      if (segment == last) {
+        current = new ByteArrayInputStream(tail);
+      } else if (segment % 2 == 0) {
+        current = new ByteArrayInputStream(heads.get(segment / 2));
+      } else {
+        current = sources.get(segment / 2).openStream();
+      }
+      return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+      segment = 2 * sources.size();
+      if (current != null) {
+        current.close();
+        current = null;
+      }
+    }
+  }
+}
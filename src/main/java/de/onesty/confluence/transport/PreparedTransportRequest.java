@@ -0,0 +1,33 @@
+package de.onesty.confluence.transport;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * <p>This interface represents a request whose method, path, headers and fixed query parameters
+ * have been resolved once by a {@link ConfluenceTransport}, and which can be sent repeatedly with
+ * different values for a small set of bound query parameters.</p>
+ * <p>The bound values are passed positionally, in the order of the parameter names given to {@link
+ * ConfluenceTransport#prepare(TransportRequest, String...)}. A {@code null} value omits the
+ * parameter from the request.</p>
+ */
+public interface PreparedTransportRequest {
+
+  /**
+   * This method sends the prepared request with the given values for its bound query parameters.
+   *
+   * @param boundValues The values of the bound query parameters.
+   * @return The response returned by the server.
+   * @throws javax.ws.rs.ProcessingException If the request could not be sent or the response could
+   * not be received.
+   */
+  TransportResponse send(String... boundValues);
+
+  /**
+   * This method sends the prepared request with the given values for its bound query parameters,
+   * without blocking the calling thread.
+   *
+   * @param boundValues The values of the bound query parameters.
+   * @return A future that completes with the response returned by the server.
+   */
+  CompletableFuture<TransportResponse> sendAsync(String... boundValues);
+}
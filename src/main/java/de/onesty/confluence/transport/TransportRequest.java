@@ -0,0 +1,334 @@
+package de.onesty.confluence.transport;
+
+import java.io.File;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class represents a single HTTP request, as handed to a {@link ConfluenceTransport}.
+ */
+public final class TransportRequest {
+
+  private final String method;
+  private final String relativePath;
+  private final String pathTemplate;
+  private final Map<String, String> queryParams;
+  private final Map<String, String> headers;
+  private final Object entity;
+  private final List<UploadSource> uploads;
+  private final List<Map.Entry<String, String>> formFields;
+  private final boolean retryable;
+
+  private TransportRequest(Builder builder) {
+    this.method = builder.method;
+    this.relativePath = builder.relativePath;
+    this.pathTemplate = builder.pathTemplate != null ? builder.pathTemplate : builder.relativePath;
+    this.queryParams = Collections.unmodifiableMap(builder.queryParams);
+    this.headers = Collections.unmodifiableMap(builder.headers);
+    this.entity = builder.entity;
+    this.uploads = Collections.unmodifiableList(new ArrayList<>(builder.uploads));
+    this.formFields = Collections.unmodifiableList(new ArrayList<>(builder.formFields));
+    boolean retryable = builder.retryable != null
+        ? builder.retryable
+        : "GET".equals(method) || "DELETE".equals(method);
+    // An upload that can be read only once cannot be sent again
+    for (UploadSource upload : uploads) {
+      retryable &= upload.isRepeatable();
+    }
+    this.retryable = retryable;
+  }
+
+  /**
+   * This method returns the HTTP method of the request.
+   *
+   * @return The HTTP method of the request.
+   */
+  public String getMethod() {
+    return method;
+  }
+
+  /**
+   * This method returns the path of the request relative to the Confluence wiki root.
+   *
+   * @return The path of the request relative to the Confluence wiki root.
+   */
+  public String getRelativePath() {
+    return relativePath;
+  }
+
+  /**
+   * This method returns the path of the endpoint the request is sent to, with placeholders in
+   * place of identifiers.
+   *
+   * @return The path template of the request, or its relative path if no template was set.
+   */
+  public String getPathTemplate() {
+    return pathTemplate;
+  }
+
+  /**
+   * This method returns the unencoded query parameters of the request.
+   *
+   * @return The query parameters of the request.
+   */
+  public Map<String, String> getQueryParams() {
+    return queryParams;
+  }
+
+  /**
+   * This method returns the headers of the request.
+   *
+   * @return The headers of the request.
+   */
+  public Map<String, String> getHeaders() {
+    return headers;
+  }
+
+  /**
+   * This method returns the entity that is sent as JSON in the body of the request.
+   *
+   * @return The entity sent in the body of the request, or {@code null} if the request has no JSON
+   * body.
+   */
+  public Object getEntity() {
+    return entity;
+  }
+
+  /**
+   * This method returns the file that is sent as the "file" part of a multipart request, if the
+   * upload comes from a file.
+   *
+   * @return The file to upload, or {@code null} if this is not a multipart request or the upload
+   * does not come from a file.
+   * @see #getUpload()
+   */
+  public File getFile() {
+    UploadSource upload = getUpload();
+    return upload != null ? upload.getFile() : null;
+  }
+
+  /**
+   * This method returns the content that is sent as the first "file" part of a multipart request.
+   *
+   * @return The content to upload, or {@code null} if this is not a multipart request.
+   * @see #getUploads()
+   */
+  public UploadSource getUpload() {
+    return uploads.isEmpty() ? null : uploads.get(0);
+  }
+
+  /**
+   * This method returns the contents that are sent as the "file" parts of a multipart request.
+   *
+   * @return The contents to upload, in order, or an empty list if this is not a multipart request.
+   */
+  public List<UploadSource> getUploads() {
+    return uploads;
+  }
+
+  /**
+   * This method returns the form fields that are sent after the "file" parts of a multipart
+   * request.
+   *
+   * @return The names and values of the form fields, in order.
+   */
+  public List<Map.Entry<String, String>> getFormFields() {
+    return formFields;
+  }
+
+  /**
+   * This method returns whether the request may be sent again after a transient failure.
+   *
+   * @return {@code true} if the request may be retried.
+   */
+  public boolean isRetryable() {
+    return retryable;
+  }
+
+  /**
+   * This class can be used to construct an instance of {@link TransportRequest}.
+   */
+  public static final class Builder {
+
+    private String method;
+    private String relativePath;
+    private String pathTemplate;
+    private Map<String, String> queryParams = new LinkedHashMap<>();
+    private Map<String, String> headers = new LinkedHashMap<>();
+    private Object entity;
+    private List<UploadSource> uploads = new ArrayList<>();
+    private List<Map.Entry<String, String>> formFields = new ArrayList<>();
+    private Boolean retryable;
+
+    /**
+     * This method sets the HTTP method of the request.
+     *
+     * @param method The HTTP method.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setMethod(String method) {
+      this.method = method;
+      return this;
+    }
+
+    /**
+     * This method sets the path of the request relative to the Confluence wiki root.
+     *
+     * @param relativePath The relative path.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setRelativePath(String relativePath) {
+      this.relativePath = relativePath;
+      return this;
+    }
+
+    /**
+     * This method sets the path of the endpoint the request is sent to, with placeholders in place
+     * of identifiers, e.g. {@code rest/api/content/{id}}.
+     *
+     * @param pathTemplate The path template.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setPathTemplate(String pathTemplate) {
+      this.pathTemplate = pathTemplate;
+      return this;
+    }
+
+    /**
+     * This method adds all of the given query parameters to the request.
+     *
+     * @param queryParams The unencoded query parameters.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder addQueryParams(Map<String, String> queryParams) {
+      this.queryParams.putAll(queryParams);
+      return this;
+    }
+
+    /**
+     * This method adds a query parameter to the request.
+     *
+     * @param name The name of the query parameter.
+     * @param value The unencoded value of the query parameter.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder addQueryParam(String name, String value) {
+      this.queryParams.put(name, value);
+      return this;
+    }
+
+    /**
+     * This method sets a header of the request.
+     *
+     * @param name The name of the header.
+     * @param value The value of the header.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setHeader(String name, String value) {
+      this.headers.put(name, value);
+      return this;
+    }
+
+    /**
+     * This method sets the entity that is sent as JSON in the body of the request.
+     *
+     * @param entity The entity to send.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setEntity(Object entity) {
+      this.entity = entity;
+      return this;
+    }
+
+    /**
+     * This method sets the file that is sent as the "file" part of a multipart request.
+     *
+     * @param file The file to upload.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setFile(File file) {
+      return setUpload(file != null ? UploadSource.of(file) : null);
+    }
+
+    /**
+     * This method sets the content that is sent as the "file" part of a multipart request.
+     *
+     * @param upload The content to upload.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setUpload(UploadSource upload) {
+      this.uploads.clear();
+      if (upload != null) {
+        this.uploads.add(upload);
+      }
+      return this;
+    }
+
+    /**
+     * This method adds content that is sent as a further "file" part of a multipart request.
+     *
+     * @param upload The content to upload.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder addUpload(UploadSource upload) {
+      this.uploads.add(upload);
+      return this;
+    }
+
+    /**
+     * This method adds a form field that is sent after the "file" parts of a multipart request.
+     * Fields with the same name may be added several times.
+     *
+     * @param name The name of the field.
+     * @param value The value of the field.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder addFormField(String name, String value) {
+      this.formFields.add(new SimpleImmutableEntry<>(name, value));
+      return this;
+    }
+
+    /**
+     * This method sets whether the request may be sent again after a transient failure. If it is
+     * not set, GET and DELETE requests are retryable and all other requests are not.
+     *
+     * @param retryable Whether the request may be retried.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public Builder setRetryable(boolean retryable) {
+      this.retryable = retryable;
+      return this;
+    }
+
+    /**
+     * This method creates an instance of {@link TransportRequest} using the values that were set
+     * on this instance.
+     *
+     * @return A new instance of {@link TransportRequest} with the values set on this instance.
+     * @throws IllegalStateException If the request that would be created would be invalid.
+     */
+    public TransportRequest build() throws IllegalStateException {
+      if (this.method == null) {
+        throw new IllegalStateException("You must specify the HTTP method of the request");
+      }
+
+      if (this.relativePath == null) {
+        throw new IllegalStateException("You must specify the path of the request");
+      }
+
+      if (this.entity != null && !this.uploads.isEmpty()) {
+        throw new IllegalStateException("A request cannot have both a JSON entity and a file");
+      }
+
+      if (!this.formFields.isEmpty() && this.uploads.isEmpty()) {
+        throw new IllegalStateException("Form fields can only be sent with a file");
+      }
+
+      return new TransportRequest(this);
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package de.onesty.confluence.transport;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * This interface represents the response to a {@link TransportRequest}. The entity of the response
+ * may only be consumed once.
+ */
+public interface TransportResponse extends Closeable {
+
+  /**
+   * This method returns the HTTP status code of the response.
+   *
+   * @return The HTTP status code of the response.
+   */
+  int getStatus();
+
+  /**
+   * This method returns the reason phrase for the status code of the response.
+   *
+   * @return The reason phrase for the status code of the response.
+   */
+  String getReasonPhrase();
+
+  /**
+   * This method returns the media type of the response entity.
+   *
+   * @return The media type of the response entity, or {@code null} if the response has no entity.
+   */
+  MediaType getMediaType();
+
+  /**
+   * This method returns the first value of the given response header.
+   *
+   * @param name The case-insensitive name of the header.
+   * @return The value of the header, or {@code null} if the response does not contain the header.
+   */
+  String getHeader(String name);
+
+  /**
+   * This method deserializes the response entity into an instance of the given class and closes
+   * the response.
+   *
+   * @param type The class of the entity.
+   * @param <T> The type of the entity.
+   * @return The deserialized entity.
+   * @throws javax.ws.rs.ProcessingException If the entity could not be read.
+   */
+  <T> T readEntity(Class<T> type);
+
+  /**
+   * This method returns the raw stream of the response entity. The caller is responsible for
+   * closing the response once the stream has been consumed.
+   *
+   * @return The stream of the response entity.
+   */
+  InputStream getEntityStream();
+
+  /**
+   * This method releases the resources held by the response, such as the underlying connection.
+   */
+  @Override
+  void close();
+}
@@ -0,0 +1,286 @@
+package de.onesty.confluence.transport;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * <p>This class represents the content of a file that is uploaded in the "file" part of a
+ * multipart request. The content is streamed from its source to the connection while the request
+ * is sent; it is never copied into an intermediate buffer or temporary file as a whole.</p>
+ * <p>The {@link HttpClientTransport} sends a {@code Content-Length} if the length of the content is
+ * known; the {@link JerseyTransport} and uploads of unknown length use chunked transfer encoding.
+ * Sources backed by a stream or channel can be read only once, so requests that upload them are
+ * never retried.</p>
+ */
+public abstract class UploadSource {
+
+  private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+
+  private final String fileName;
+  private final long length;
+
+  private UploadSource(String fileName, long length) {
+    if (fileName == null || fileName.isEmpty()) {
+      throw new IllegalArgumentException("The file name must not be empty");
+    }
+    this.fileName = fileName;
+    this.length = length;
+  }
+
+  /**
+   * This method creates a source that uploads the given file.
+   *
+   * @param path The file to upload.
+   * @return The source.
+   * @throws IOException If the size of the file could not be determined.
+   */
+  public static UploadSource of(Path path) throws IOException {
+    return new PathSource(path, path.getFileName().toString(), Files.size(path));
+  }
+
+  /**
+   * This method creates a source that uploads the given file.
+   *
+   * @param file The file to upload.
+   * @return The source.
+   */
+  public static UploadSource of(File file) {
+    return new PathSource(file.toPath(), file.getName(), file.length());
+  }
+
+  /**
+   * This method creates a source that uploads the remaining content of the given stream. The
+   * stream is closed once it has been sent.
+   *
+   * @param fileName The name of the uploaded file.
+   * @param stream The stream to upload.
+   * @param length The number of bytes that remain in the stream, or -1 if it is unknown.
+   * @return The source, which can be read only once.
+   */
+  public static UploadSource of(String fileName, InputStream stream, long length) {
+    return new StreamSource(fileName, stream, length);
+  }
+
+  /**
+   * This method creates a source that uploads the remaining content of the given channel. The
+   * channel is closed once it has been sent.
+   *
+   * @param fileName The name of the uploaded file.
+   * @param channel The channel to upload.
+   * @param length The number of bytes that remain in the channel, or -1 if it is unknown.
+   * @return The source, which can be read only once.
+   */
+  public static UploadSource of(String fileName, ReadableByteChannel channel, long length) {
+    return new StreamSource(fileName, Channels.newInputStream(channel), length);
+  }
+
+  /**
+   * This method creates a source that uploads the remaining content of the given buffer, such as a
+   * heap buffer or a file mapped into memory. The position of the buffer is not changed, so the
+   * source can be read repeatedly.
+   *
+   * @param fileName The name of the uploaded file.
+   * @param buffer The buffer to upload.
+   * @return The source.
+   */
+  public static UploadSource of(String fileName, ByteBuffer buffer) {
+    return new BufferSource(fileName, buffer.slice());
+  }
+
+  /**
+   * This method returns the name of the uploaded file.
+   *
+   * @return The file name.
+   */
+  public String getFileName() {
+    return fileName;
+  }
+
+  /**
+   * This method returns the number of bytes that are uploaded.
+   *
+   * @return The length of the content, or -1 if it is unknown.
+   */
+  public long getLength() {
+    return length;
+  }
+
+  /**
+   * This method returns whether the content can be read more than once, e.g. to send a request
+   * again after a transient failure.
+   *
+   * @return {@code true} if the source can be read repeatedly.
+   */
+  public abstract boolean isRepeatable();
+
+  /**
+   * This method opens a stream over the content.
+   *
+   * @return A stream over the content, which the caller must close.
+   * @throws IOException If the content could not be opened.
+   * @throws IllegalStateException If the source can be read only once and has already been read.
+   */
+  public abstract InputStream openStream() throws IOException;
+
+  /**
+   * This method writes the content to the given stream, which is not closed.
+   *
+   * @param out The stream to write to.
+   * @throws IOException If the content could not be read or written.
+   * @throws IllegalStateException If the source can be read only once and has already been read.
+   */
+  public void writeTo(OutputStream out) throws IOException {
+    try (InputStream in = openStream()) {
+      byte[] buffer = new byte[TRANSFER_BUFFER_SIZE];
+      int read;
+      while ((read = in.read(buffer)) >= 0) {
+        out.write(buffer, 0, read);
+      }
+    }
+  }
+
+  /**
+   * This method returns the file that backs this source.
+   *
+   * @return The file, or {@code null} if the content does not come from a file.
+   */
+  File getFile() {
+    return null;
+  }
+
+  private static final class PathSource extends UploadSource {
+
+    private final Path path;
+
+    private PathSource(Path path, String fileName, long length) {
+      super(fileName, length);
+      this.path = path;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+      return true;
+    }
+
+    @Override
+    public InputStream openStream() throws IOException {
+      return Files.newInputStream(path);
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+      Files.copy(path, out);
+    }
+
+    @Override
+    File getFile() {
+      return path.toFile();
+    }
+  }
+
+  private static final class StreamSource extends UploadSource {
+
+    private final InputStream stream;
+    private final AtomicBoolean opened = new AtomicBoolean();
+
+    private StreamSource(String fileName, InputStream stream, long length) {
+      super(fileName, length);
+      this.stream = stream;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+      return false;
+    }
+
+    @Override
+    public InputStream openStream() {
+      if (!opened.compareAndSet(false, true)) {
+        throw new IllegalStateException("The content of " + getFileName() + " has already been read");
+      }
+      return stream;
+    }
+  }
+
+  private static final class BufferSource extends UploadSource {
+
+    private final ByteBuffer buffer;
+
+    private BufferSource(String fileName, ByteBuffer buffer) {
+      super(fileName, buffer.remaining());
+      this.buffer = buffer;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+      return true;
+    }
+
+    @Override
+    public InputStream openStream() {
+      return new ByteBufferInputStream(buffer.duplicate());
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+      ByteBuffer content = buffer.duplicate();
+      if (content.hasArray()) {
+        // Heap buffers are written straight from their backing array
+        out.write(content.array(), content.arrayOffset() + content.position(), content.remaining());
+        return;
+      }
+      super.writeTo(out);
+    }
+  }
+
+  /**
+   * This class reads a buffer from its position to its limit, advancing the position of the
+   * buffer.
+   */
+  private static final class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    private ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+      if (length == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int read = Math.min(length, buffer.remaining());
+      buffer.get(bytes, offset, read);
+      return read;
+    }
+
+    @Override
+    public long skip(long n) {
+      int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+      buffer.position(buffer.position() + skipped);
+      return skipped;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package de.onesty.confluence.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import de.onesty.confluence.content.ContentBodyType;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class BodyStoreTest {
+
+  @Test
+  public void storesEachBodyOnce() {
+    try (BodyStore store = new BodyStore.Builder().setSegmentSize(64 * 1024).build()) {
+      String body = body(10000);
+      BodyHandle handle = store.put("1", 1, ContentBodyType.STORAGE, body);
+      long size = store.getSize();
+
+      assertSame(handle, store.put("1", 1, ContentBodyType.STORAGE, body));
+      assertSame(handle, store.get("1", 1, ContentBodyType.STORAGE));
+      assertEquals(size, store.getSize());
+      assertEquals(1, store.getBodyCount());
+      assertEquals(body, handle.get());
+    }
+  }
+
+  @Test
+  public void compressesBodiesAboveThreshold() {
+    try (BodyStore store = new BodyStore.Builder()
+        .setSegmentSize(64 * 1024)
+        .setCompression(true, 4096)
+        .build()) {
+      String small = body(1000);
+      String large = body(10000);
+      BodyHandle smallHandle = store.put("1", 1, ContentBodyType.STORAGE, small);
+      BodyHandle largeHandle = store.put("2", 1, ContentBodyType.STORAGE, large);
+
+      assertEquals(small.length(), smallHandle.getStoredLength());
+      assertTrue(largeHandle.getStoredLength() < large.length());
+      assertEquals(small, smallHandle.get());
+      assertEquals(large, largeHandle.get());
+    }
+  }
+
+  private static String body(int length) {
+    char[] body = new char[length];
+    Arrays.fill(body, 'x');
+    return "<p>" + new String(body) + "</p>";
+  }
+}
@@ -0,0 +1,130 @@
+package de.onesty.confluence.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import de.onesty.confluence.content.Content;
+import de.onesty.confluence.content.ContentBody;
+import de.onesty.confluence.content.ContentBodyType;
+import de.onesty.confluence.content.Version;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class ContentCacheTest {
+
+  @Test
+  public void frequentlyReadContentSurvivesScan() {
+    ContentCache cache = new ContentCache.Builder().setMaximumSize(100).build();
+    cache.put(content("hot", 1, 10), null);
+    for (int i = 0; i < 10; i++) {
+      assertNotNull(cache.get("hot", 1, null));
+    }
+
+    // Content that is read once must not flush the content that is read repeatedly
+    for (int i = 0; i < 300; i++) {
+      String id = "scan-" + i;
+      assertNull(cache.get(id, 1, null));
+      cache.put(content(id, 1, 10), null);
+    }
+
+    assertNotNull(cache.get("hot", 1, null));
+    CacheStats stats = cache.getStats();
+    assertTrue(stats.getSize() <= 100);
+    assertTrue(stats.getEvictionCount() >= 200);
+  }
+
+  @Test
+  public void staysWithinMaximumWeight() {
+    long maximumWeight = 64 * 1024;
+    ContentCache cache = new ContentCache.Builder().setMaximumWeight(maximumWeight).build();
+    for (int i = 0; i < 50; i++) {
+      cache.put(content(Integer.toString(i), 1, 4000), null);
+      assertTrue(cache.getStats().getWeight() <= maximumWeight);
+    }
+
+    CacheStats stats = cache.getStats();
+    assertTrue(stats.getSize() < 50);
+    assertEquals(50 - stats.getSize(), stats.getEvictionCount());
+    assertTrue(stats.getEvictionWeight() >= stats.getEvictionCount() * 8000);
+  }
+
+  @Test
+  public void doesNotCacheContentHeavierThanMaximumWeight() {
+    ContentCache cache = new ContentCache.Builder().setMaximumWeight(64 * 1024).build();
+    cache.put(content("large", 1, 40000), null);
+
+    assertNull(cache.get("large", 1, null));
+    assertEquals(0, cache.getStats().getSize());
+  }
+
+  @Test
+  public void keysByVersionAndExpandedProperties() {
+    ContentCache cache = new ContentCache.Builder().build();
+    Content first = content("1", 1, 10);
+    Content second = content("1", 2, 10);
+    cache.put(first, null);
+    cache.put(second, null);
+    cache.put(second, "body.storage");
+
+    assertEquals(first, cache.get("1", 1, null));
+    assertEquals(second, cache.get("1", 2, null));
+    assertEquals(second, cache.get("1", 2, "body.storage"));
+    assertNull(cache.get("1", 1, "body.storage"));
+    assertNull(cache.get("1", 3, null));
+
+    CacheStats stats = cache.getStats();
+    assertEquals(3, stats.getHitCount());
+    assertEquals(2, stats.getMissCount());
+  }
+
+  @Test
+  public void peekIsNotCountedAsAccess() {
+    ContentCache cache = new ContentCache.Builder().build();
+    Content content = content("1", 1, 10);
+    cache.put(content, null);
+
+    assertEquals(content, cache.peek("1", 1, null));
+    assertEquals(content, new ValidatorCache.ContentReference("1", 1, null).resolve(cache));
+    assertNull(cache.peek("1", 2, null));
+
+    CacheStats stats = cache.getStats();
+    assertEquals(0, stats.getHitCount());
+    assertEquals(0, stats.getMissCount());
+  }
+
+  @Test
+  public void invalidateRemovesEveryVersion() {
+    ContentCache cache = new ContentCache.Builder().build();
+    cache.put(content("1", 1, 10), null);
+    cache.put(content("1", 2, 10), "body.storage");
+    cache.put(content("2", 1, 10), null);
+
+    cache.invalidate("1");
+
+    assertNull(cache.get("1", 1, null));
+    assertNull(cache.get("1", 2, "body.storage"));
+    assertNotNull(cache.get("2", 1, null));
+    assertEquals(1, cache.getStats().getSize());
+  }
+
+  @Test
+  public void doesNotCacheContentWithoutVersion() {
+    ContentCache cache = new ContentCache.Builder().build();
+    cache.put(new Content.Builder().setId("1").setTitle("Page").build(), null);
+
+    assertEquals(0, cache.getStats().getSize());
+  }
+
+  private static Content content(String id, int version, int bodyLength) {
+    char[] body = new char[bodyLength];
+    Arrays.fill(body, 'x');
+    return new Content.Builder()
+        .setId(id)
+        .setTitle("Page " + id)
+        .setVersion(new Version(version))
+        .setBody(new ContentBody(ContentBodyType.STORAGE, new String(body)))
+        .build();
+  }
+}
@@ -0,0 +1,41 @@
+package de.onesty.confluence.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class FrequencySketchTest {
+
+  @Test
+  public void countsIncrementsUpToSaturation() {
+    FrequencySketch sketch = new FrequencySketch(1024);
+    for (int i = 0; i < 5; i++) {
+      sketch.increment("hot");
+    }
+    assertEquals(5, sketch.frequency("hot"));
+    assertEquals(0, sketch.frequency("unseen"));
+
+    for (int i = 0; i < 20; i++) {
+      sketch.increment("hot");
+    }
+    assertEquals(15, sketch.frequency("hot"));
+  }
+
+  @Test
+  public void halvesFrequenciesAfterSample() {
+    FrequencySketch sketch = new FrequencySketch(16);
+    for (int i = 0; i < 15; i++) {
+      sketch.increment("hot");
+    }
+    assertEquals(15, sketch.frequency("hot"));
+
+    // Counters only grow until the sample is complete, so a drop shows the reset
+    int increments = 0;
+    while (sketch.frequency("hot") == 15 && increments < 10000) {
+      sketch.increment(increments++);
+    }
+    assertTrue("The frequency was never halved", sketch.frequency("hot") < 15);
+    assertTrue(increments <= 10 * 16);
+  }
+}
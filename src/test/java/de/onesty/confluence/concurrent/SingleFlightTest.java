@@ -0,0 +1,175 @@
+package de.onesty.confluence.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import de.onesty.confluence.errors.ConfluenceRequestException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class SingleFlightTest {
+
+  private final SingleFlight<String, String> flight = new SingleFlight<>();
+  private final AtomicInteger calls = new AtomicInteger();
+
+  @Test
+  public void coalescesConcurrentCalls() throws Exception {
+    CompletableFuture<Void> release = new CompletableFuture<>();
+    FutureTask<String> leader = start(() -> {
+      release.join();
+      return "result";
+    });
+    FutureTask<String> waiter = startWaiter(() -> "own result");
+
+    release.complete(null);
+    assertEquals("result", leader.get(5, TimeUnit.SECONDS));
+    assertSame(leader.get(), waiter.get(5, TimeUnit.SECONDS));
+    assertEquals(1, calls.get());
+    assertEquals(0, flight.getInFlightCount());
+  }
+
+  @Test
+  public void propagatesFailureToWaiters() throws Exception {
+    CompletableFuture<Void> release = new CompletableFuture<>();
+    ConfluenceRequestException failure = new ConfluenceRequestException(404, "Not found");
+    FutureTask<String> leader = start(() -> {
+      release.join();
+      throw failure;
+    });
+    FutureTask<String> waiter = startWaiter(() -> "own result");
+
+    release.complete(null);
+    assertSame(failure, causeOf(leader));
+    assertSame(failure, causeOf(waiter));
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  public void propagatesRuntimeExceptionToWaiters() throws Exception {
+    CompletableFuture<Void> release = new CompletableFuture<>();
+    IllegalStateException failure = new IllegalStateException("Broken");
+    FutureTask<String> leader = start(() -> {
+      release.join();
+      throw failure;
+    });
+    FutureTask<String> waiter = startWaiter(() -> "own result");
+
+    release.complete(null);
+    assertSame(failure, causeOf(leader));
+    assertSame(failure, causeOf(waiter));
+  }
+
+  @Test
+  public void callsAgainAfterFailure() throws Exception {
+    try {
+      flight.execute("key", () -> {
+        throw new ConfluenceRequestException(500, "Internal error");
+      });
+      fail("The failure was not propagated");
+    } catch (ConfluenceRequestException e) {
+      assertEquals(0, flight.getInFlightCount());
+    }
+
+    assertEquals("result", flight.execute("key", () -> "result"));
+  }
+
+  @Test
+  public void propagatesAsyncFailureUnwrapped() throws Exception {
+    CompletableFuture<String> call = new CompletableFuture<>();
+    CompletableFuture<String> first = flight.executeAsync("key", () -> call);
+    CompletableFuture<String> second = flight.executeAsync("key", () -> {
+      calls.incrementAndGet();
+      return CompletableFuture.completedFuture("own result");
+    });
+
+    ConfluenceRequestException failure = new ConfluenceRequestException(404, "Not found");
+    call.completeExceptionally(failure);
+
+    assertSame(failure, asyncCauseOf(first));
+    assertSame(failure, asyncCauseOf(second));
+    assertEquals(0, calls.get());
+    assertEquals(0, flight.getInFlightCount());
+  }
+
+  @Test
+  public void cancellingOneCallerDoesNotAffectOthers() throws Exception {
+    CompletableFuture<String> call = new CompletableFuture<>();
+    CompletableFuture<String> first = flight.executeAsync("key", () -> call);
+    CompletableFuture<String> second = flight.executeAsync("key", () -> call);
+
+    first.cancel(false);
+    call.complete("result");
+
+    assertFalse(call.isCancelled());
+    assertEquals("result", second.get(5, TimeUnit.SECONDS));
+    try {
+      first.join();
+      fail("The cancellation was lost");
+    } catch (CancellationException e) {
+      assertTrue(first.isCancelled());
+    }
+  }
+
+  private FutureTask<String> start(SingleFlight.Call<String> call) throws Exception {
+    FutureTask<String> task = new FutureTask<>(() -> flight.execute("key", () -> {
+      calls.incrementAndGet();
+      return call.call();
+    }));
+    new Thread(task).start();
+    awaitInFlight();
+    return task;
+  }
+
+  /**
+   * This method starts a call for the key in flight, and returns once the call waits for the
+   * call in flight, so that it cannot start a call of its own.
+   */
+  private FutureTask<String> startWaiter(SingleFlight.Call<String> call) throws Exception {
+    FutureTask<String> task = new FutureTask<>(() -> flight.execute("key", () -> {
+      calls.incrementAndGet();
+      return call.call();
+    }));
+    Thread thread = new Thread(task);
+    thread.start();
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+      TimeUnit.MILLISECONDS.sleep(1);
+    }
+    assertEquals(Thread.State.WAITING, thread.getState());
+    return task;
+  }
+
+  private void awaitInFlight() throws Exception {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (flight.getInFlightCount() == 0 && System.nanoTime() < deadline) {
+      TimeUnit.MILLISECONDS.sleep(1);
+    }
+    assertEquals(1, flight.getInFlightCount());
+  }
+
+  private static Throwable causeOf(FutureTask<String> task) throws Exception {
+    try {
+      task.get(5, TimeUnit.SECONDS);
+    } catch (ExecutionException e) {
+      return e.getCause();
+    }
+    throw new AssertionError("The call did not fail");
+  }
+
+  private static Throwable asyncCauseOf(CompletableFuture<String> future) throws Exception {
+    try {
+      future.get(5, TimeUnit.SECONDS);
+    } catch (ExecutionException e) {
+      return e.getCause();
+    }
+    throw new AssertionError("The call did not fail");
+  }
+}
@@ -0,0 +1,83 @@
+package de.onesty.confluence.paging;
+
+import static org.junit.Assert.assertEquals;
+
+import de.onesty.confluence.ConfluenceClient;
+import de.onesty.confluence.requests.GetContentRequest;
+import de.onesty.confluence.transport.StubTransport;
+import de.onesty.confluence.transport.TransportRequest;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class ContentPageIteratorTest {
+
+  @Test
+  public void pagesByTheLimitTheServerReturns() {
+    StubTransport transport = new StubTransport(new PagedContentServer(1050, 200));
+    ConfluenceClient client = new ConfluenceClient(transport, null);
+    GetContentRequest request = new GetContentRequest.Builder().setLimit(500).build();
+
+    try (ContentPageIterator iterator = new ContentPageIterator(client, request, 2)) {
+      assertEquals(range(0, 1050), ids(iterator));
+    }
+    // Every page after the first one is requested at a multiple of the capped limit
+    for (TransportRequest sent : transport.getRequests()) {
+      String start = sent.getQueryParams().get("start");
+      assertEquals(0, (start != null ? Integer.parseInt(start) : 0) % 200);
+    }
+  }
+
+  @Test
+  public void stopsAtMissingNextLink() {
+    StubTransport transport = new StubTransport(new PagedContentServer(400, 200));
+    ConfluenceClient client = new ConfluenceClient(transport, null);
+    GetContentRequest request = new GetContentRequest.Builder().setLimit(200).build();
+
+    try (ContentPageIterator iterator = new ContentPageIterator(client, request, 0)) {
+      assertEquals(range(0, 400), ids(iterator));
+    }
+    // The second page is full, but has no next link, so no empty third page is requested
+    assertEquals(2, transport.getRequests().size());
+  }
+
+  @Test
+  public void fallsBackToEffectiveLimitWithoutLinks() {
+    StubTransport transport = new StubTransport(new PagedContentServer(450, 200, false));
+    ConfluenceClient client = new ConfluenceClient(transport, null);
+    GetContentRequest request = new GetContentRequest.Builder().setLimit(500).build();
+
+    try (ContentPageIterator iterator = new ContentPageIterator(client, request, 0)) {
+      assertEquals(range(0, 450), ids(iterator));
+    }
+    assertEquals(3, transport.getRequests().size());
+  }
+
+  @Test
+  public void startsAtStartPosition() {
+    StubTransport transport = new StubTransport(new PagedContentServer(300, 200));
+    ConfluenceClient client = new ConfluenceClient(transport, null);
+    GetContentRequest request = new GetContentRequest.Builder()
+        .setStartPosition(50)
+        .setLimit(100)
+        .build();
+
+    try (ContentPageIterator iterator = new ContentPageIterator(client, request, 1)) {
+      assertEquals(range(50, 300), ids(iterator));
+    }
+  }
+
+  private static List<String> ids(ContentPageIterator iterator) {
+    List<String> ids = new ArrayList<>();
+    iterator.forEachRemaining(content -> ids.add(content.getId()));
+    return ids;
+  }
+
+  static List<String> range(int from, int to) {
+    List<String> ids = new ArrayList<>();
+    for (int id = from; id < to; id++) {
+      ids.add(Integer.toString(id));
+    }
+    return ids;
+  }
+}
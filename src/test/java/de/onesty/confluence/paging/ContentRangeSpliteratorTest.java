@@ -0,0 +1,66 @@
+package de.onesty.confluence.paging;
+
+import static org.junit.Assert.assertEquals;
+
+import de.onesty.confluence.ConfluenceClient;
+import de.onesty.confluence.content.Content;
+import de.onesty.confluence.errors.ConfluenceRequestException;
+import de.onesty.confluence.requests.GetContentRequest;
+import de.onesty.confluence.transport.StubTransport;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import org.junit.Test;
+
+public class ContentRangeSpliteratorTest {
+
+  @Test
+  public void parallelStreamReturnsEveryResultOnceWhenServerCapsLimit() {
+    ConfluenceClient client = new ConfluenceClient(
+        new StubTransport(new PagedContentServer(1050, 200)), null);
+    GetContentRequest request = new GetContentRequest.Builder().setLimit(500).build();
+
+    assertEquals(ContentPageIteratorTest.range(0, 1050),
+        ids(new ContentRangeSpliterator(client, request, 1050, 4), true));
+  }
+
+  @Test
+  public void openEndedSplitContinuesPastUnderestimatedSize() {
+    ConfluenceClient client = new ConfluenceClient(
+        new StubTransport(new PagedContentServer(1050, 200)), null);
+    GetContentRequest request = new GetContentRequest.Builder().setLimit(100).build();
+
+    assertEquals(ContentPageIteratorTest.range(0, 1050),
+        ids(new ContentRangeSpliterator(client, request, 300, 4), true));
+  }
+
+  @Test
+  public void sequentialStreamStartsAtStartPosition() {
+    ConfluenceClient client = new ConfluenceClient(
+        new StubTransport(new PagedContentServer(450, 200, false)), null);
+    GetContentRequest request = new GetContentRequest.Builder()
+        .setStartPosition(30)
+        .setLimit(500)
+        .build();
+
+    assertEquals(ContentPageIteratorTest.range(30, 450),
+        ids(new ContentRangeSpliterator(client, request, 420, 1), false));
+  }
+
+  @Test
+  public void probeSizeFindsExactNumberOfResults() throws ConfluenceRequestException {
+    ConfluenceClient client = new ConfluenceClient(
+        new StubTransport(new PagedContentServer(1050, 200)), null);
+
+    assertEquals(1050, ContentRangeSpliterator.probeSize(client,
+        new GetContentRequest.Builder().setLimit(500).build()));
+    assertEquals(1000, ContentRangeSpliterator.probeSize(client,
+        new GetContentRequest.Builder().setStartPosition(50).build()));
+  }
+
+  private static List<String> ids(ContentRangeSpliterator spliterator, boolean parallel) {
+    return StreamSupport.stream(spliterator, parallel)
+        .map(Content::getId)
+        .collect(Collectors.toList());
+  }
+}
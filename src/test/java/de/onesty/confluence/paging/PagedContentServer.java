@@ -0,0 +1,59 @@
+package de.onesty.confluence.paging;
+
+import de.onesty.confluence.transport.StubTransport;
+import de.onesty.confluence.transport.TransportRequest;
+import de.onesty.confluence.transport.TransportResponse;
+import java.util.function.Function;
+
+/**
+ * This class answers requests for pages of content like the Confluence server does: it caps the
+ * requested limit at its own maximum, echoes the effective limit, and links to the next page while
+ * more results follow. The content ids are the offsets of the results, starting at 0.
+ */
+class PagedContentServer implements Function<TransportRequest, TransportResponse> {
+
+  private final int totalSize;
+  private final int maximumLimit;
+  private final boolean links;
+
+  PagedContentServer(int totalSize, int maximumLimit) {
+    this(totalSize, maximumLimit, true);
+  }
+
+  PagedContentServer(int totalSize, int maximumLimit, boolean links) {
+    this.totalSize = totalSize;
+    this.maximumLimit = maximumLimit;
+    this.links = links;
+  }
+
+  @Override
+  public TransportResponse apply(TransportRequest request) {
+    String startParam = request.getQueryParams().get("start");
+    String limitParam = request.getQueryParams().get("limit");
+    int start = startParam != null ? Integer.parseInt(startParam) : 0;
+    int limit = Math.min(limitParam != null ? Integer.parseInt(limitParam) : 25, maximumLimit);
+    int end = Math.min(totalSize, start + limit);
+
+    StringBuilder json = new StringBuilder("{\"results\":[");
+    for (int id = start; id < end; id++) {
+      if (id > start) {
+        json.append(',');
+      }
+      json.append("{\"id\":\"").append(id).append("\",\"type\":\"page\",\"title\":\"Page ")
+          .append(id).append("\",\"version\":{\"number\":1}}");
+    }
+    json.append("],\"start\":").append(start)
+        .append(",\"limit\":").append(limit)
+        .append(",\"size\":").append(Math.max(0, end - start));
+    if (links) {
+      json.append(",\"_links\":{");
+      if (end < totalSize) {
+        json.append("\"next\":\"/rest/api/content?start=").append(end).append("&limit=")
+            .append(limit).append('"');
+      }
+      json.append('}');
+    }
+    json.append('}');
+    return StubTransport.json(200, json.toString());
+  }
+}
@@ -0,0 +1,140 @@
+package de.onesty.confluence.resilience;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import de.onesty.confluence.resilience.AdaptiveConcurrencyLimiter.Permit;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+  @Test
+  public void queuesRequestsBeyondLimitInOrder() {
+    AdaptiveConcurrencyLimiter limiter = limiter(2);
+    CompletableFuture<Permit> first = limiter.acquireAsync();
+    CompletableFuture<Permit> second = limiter.acquireAsync();
+    CompletableFuture<Permit> third = limiter.acquireAsync();
+    CompletableFuture<Permit> fourth = limiter.acquireAsync();
+
+    assertTrue(first.isDone() && second.isDone());
+    assertFalse(third.isDone() || fourth.isDone());
+    assertEquals(2, limiter.getQueued());
+
+    first.join().release();
+    assertTrue(third.isDone());
+    assertFalse(fourth.isDone());
+    // Releasing twice must not hand out a second permit
+    first.join().release();
+    assertFalse(fourth.isDone());
+    assertEquals(2, limiter.getInFlight());
+  }
+
+  @Test
+  public void cancelledWaiterGivesUpItsPlace() {
+    AdaptiveConcurrencyLimiter limiter = limiter(1);
+    Permit permit = limiter.acquireAsync().join();
+    CompletableFuture<Permit> cancelled = limiter.acquireAsync();
+    CompletableFuture<Permit> waiting = limiter.acquireAsync();
+
+    cancelled.cancel(false);
+    permit.release();
+
+    assertTrue(waiting.isDone());
+    assertEquals(1, limiter.getInFlight());
+  }
+
+  @Test
+  public void burstOfThrottledResponsesReducesLimitOnce() {
+    AdaptiveConcurrencyLimiter limiter = limiter(8);
+    List<Permit> permits = acquire(limiter, 4);
+    for (Permit permit : permits) {
+      permit.onResponse(429, null, false);
+      permit.release();
+    }
+    assertEquals(4, limiter.getLimit());
+
+    // A request sent under the reduced limit is a new signal
+    Permit next = limiter.acquireAsync().join();
+    next.onResponse(503, null, false);
+    next.release();
+    assertEquals(2, limiter.getLimit());
+  }
+
+  @Test
+  public void limitDoesNotDropBelowMinimum() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter.Builder()
+        .setInitialLimit(4)
+        .setMinLimit(3)
+        .build();
+    for (int i = 0; i < 3; i++) {
+      Permit permit = limiter.acquireAsync().join();
+      permit.onResponse(429, null, false);
+      permit.release();
+    }
+    assertEquals(3, limiter.getLimit());
+  }
+
+  @Test
+  public void healthyResponsesRaiseUsedLimitAdditively() {
+    AdaptiveConcurrencyLimiter limiter = limiter(2);
+    // A limit of 2 grows by 1/2 and then by 1/2.5 per healthy response, so two responses are
+    // not enough to reach 3, and three are
+    List<Permit> permits = acquire(limiter, 2);
+    permits.get(0).onResponse(200, null, false);
+    permits.get(1).onResponse(200, null, false);
+    assertEquals(2, limiter.getLimit());
+    permits.forEach(Permit::release);
+
+    permits = acquire(limiter, 2);
+    permits.get(0).onResponse(200, null, false);
+    permits.forEach(Permit::release);
+    assertEquals(3, limiter.getLimit());
+  }
+
+  @Test
+  public void unusedLimitIsNotRaised() {
+    AdaptiveConcurrencyLimiter limiter = limiter(10);
+    for (int i = 0; i < 50; i++) {
+      Permit permit = limiter.acquireAsync().join();
+      permit.onResponse(200, null, false);
+      permit.release();
+    }
+    assertEquals(10, limiter.getLimit());
+  }
+
+  @Test
+  public void retryAfterPausesDispatch() throws Exception {
+    AdaptiveConcurrencyLimiter limiter = limiter(2);
+    Permit permit = limiter.acquireAsync().join();
+    permit.onResponse(200, Duration.ofMillis(200), false);
+    permit.release();
+
+    long start = System.nanoTime();
+    CompletableFuture<Permit> paused = limiter.acquireAsync();
+    assertFalse(paused.isDone());
+    paused.get(5, TimeUnit.SECONDS).release();
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(150));
+  }
+
+  private static AdaptiveConcurrencyLimiter limiter(int initialLimit) {
+    // Latencies in a unit test are too small and too noisy to be compared
+    return new AdaptiveConcurrencyLimiter.Builder()
+        .setInitialLimit(initialLimit)
+        .setLatencyTolerance(Double.MAX_VALUE)
+        .build();
+  }
+
+  private static List<Permit> acquire(AdaptiveConcurrencyLimiter limiter, int count) {
+    List<Permit> permits = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      permits.add(limiter.acquireAsync().join());
+    }
+    return permits;
+  }
+}
@@ -0,0 +1,156 @@
+package de.onesty.confluence.resilience;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import de.onesty.confluence.resilience.CircuitBreaker.State;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class CircuitBreakerTest {
+
+  private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final long SLOW = TimeUnit.SECONDS.toNanos(2);
+
+  private final List<CircuitBreakerEvent> events = new CopyOnWriteArrayList<>();
+
+  @Test
+  public void opensOnceMinimumCallsReachFailureRate() {
+    CircuitBreaker breaker = breaker(10, 4, Duration.ofSeconds(30), 2);
+    call(breaker, false);
+    call(breaker, false);
+    call(breaker, true);
+    assertEquals(State.CLOSED, breaker.getState());
+
+    call(breaker, true);
+
+    assertEquals(State.OPEN, breaker.getState());
+    assertEquals(-1, breaker.tryAcquirePermission());
+    assertEquals(1, events.size());
+    assertEquals(State.CLOSED, events.get(0).getFromState());
+    assertEquals(State.OPEN, events.get(0).getToState());
+    assertEquals(50f, events.get(0).getFailureRate(), 0f);
+  }
+
+  @Test
+  public void slidingWindowForgetsOldestCalls() {
+    CircuitBreaker breaker = new CircuitBreaker("rest/api/content", config(4, 4,
+        Duration.ofSeconds(30), 2).setFailureRateThreshold(75).build());
+    call(breaker, true);
+    call(breaker, true);
+    call(breaker, false);
+    call(breaker, false);
+    call(breaker, false);
+    call(breaker, false);
+    call(breaker, true);
+    call(breaker, true);
+    assertEquals(State.CLOSED, breaker.getState());
+
+    // Only 5 of 9 calls failed, but 3 of the last 4
+    call(breaker, true);
+    assertEquals(State.OPEN, breaker.getState());
+  }
+
+  @Test
+  public void opensOnSlowCallRate() {
+    CircuitBreaker breaker = new CircuitBreaker("rest/api/content", config(4, 4,
+        Duration.ofSeconds(30), 2).setSlowCallRateThreshold(50).build());
+    long permission = breaker.tryAcquirePermission();
+    breaker.onResult(permission, SLOW, false);
+    permission = breaker.tryAcquirePermission();
+    breaker.onResult(permission, SLOW, false);
+    call(breaker, false);
+    call(breaker, false);
+
+    assertEquals(State.OPEN, breaker.getState());
+    assertEquals(50f, events.get(0).getSlowCallRate(), 0f);
+  }
+
+  @Test
+  public void halfOpenLetsPermittedCallsThroughAndCloses() throws Exception {
+    CircuitBreaker breaker = breaker(4, 2, Duration.ofMillis(50), 2);
+    call(breaker, true);
+    call(breaker, true);
+    assertEquals(State.OPEN, breaker.getState());
+
+    TimeUnit.MILLISECONDS.sleep(80);
+    long first = breaker.tryAcquirePermission();
+    long second = breaker.tryAcquirePermission();
+    assertEquals(State.HALF_OPEN, breaker.getState());
+    assertTrue(first >= 0 && second >= 0);
+    assertEquals(-1, breaker.tryAcquirePermission());
+
+    breaker.onResult(first, FAST, false);
+    assertEquals(State.HALF_OPEN, breaker.getState());
+    breaker.onResult(second, FAST, false);
+    assertEquals(State.CLOSED, breaker.getState());
+
+    // The window starts empty again
+    call(breaker, true);
+    assertEquals(State.CLOSED, breaker.getState());
+  }
+
+  @Test
+  public void halfOpenReopensOnFailedTrialCalls() throws Exception {
+    CircuitBreaker breaker = breaker(4, 2, Duration.ofMillis(50), 2);
+    call(breaker, true);
+    call(breaker, true);
+
+    TimeUnit.MILLISECONDS.sleep(80);
+    long first = breaker.tryAcquirePermission();
+    long second = breaker.tryAcquirePermission();
+    breaker.onResult(first, FAST, false);
+    breaker.onResult(second, FAST, true);
+
+    assertEquals(State.OPEN, breaker.getState());
+    assertEquals(-1, breaker.tryAcquirePermission());
+    assertEquals(3, events.size());
+    assertEquals(State.HALF_OPEN, events.get(2).getFromState());
+  }
+
+  @Test
+  public void ignoresOutcomesOfCallsPermittedInEarlierState() throws Exception {
+    CircuitBreaker breaker = breaker(4, 2, Duration.ofMillis(50), 2);
+    long late = breaker.tryAcquirePermission();
+    call(breaker, true);
+    call(breaker, true);
+    assertEquals(State.OPEN, breaker.getState());
+
+    TimeUnit.MILLISECONDS.sleep(80);
+    long first = breaker.tryAcquirePermission();
+    long second = breaker.tryAcquirePermission();
+    // Would complete the trial calls as failed if it were counted
+    breaker.onResult(late, FAST, true);
+    assertEquals(State.HALF_OPEN, breaker.getState());
+
+    breaker.onResult(first, FAST, false);
+    breaker.onResult(second, FAST, false);
+    assertEquals(State.CLOSED, breaker.getState());
+  }
+
+  private CircuitBreaker breaker(int windowSize, int minimumCalls, Duration waitDuration,
+      int halfOpenCalls) {
+    return new CircuitBreaker("rest/api/content",
+        config(windowSize, minimumCalls, waitDuration, halfOpenCalls).build());
+  }
+
+  private CircuitBreakerConfig.Builder config(int windowSize, int minimumCalls,
+      Duration waitDuration, int halfOpenCalls) {
+    return new CircuitBreakerConfig.Builder()
+        .setSlidingWindowSize(windowSize)
+        .setMinimumNumberOfCalls(minimumCalls)
+        .setWaitDurationInOpenState(waitDuration)
+        .setPermittedCallsInHalfOpenState(halfOpenCalls)
+        .setSlowCallDuration(Duration.ofSeconds(1))
+        .addListener(events::add);
+  }
+
+  private static void call(CircuitBreaker breaker, boolean failed) {
+    long permission = breaker.tryAcquirePermission();
+    assertTrue("The call was rejected", permission >= 0);
+    breaker.onResult(permission, FAST, failed);
+  }
+}
@@ -0,0 +1,173 @@
+package de.onesty.confluence.resilience;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import de.onesty.confluence.transport.ConfluenceTransport;
+import de.onesty.confluence.transport.StubTransport;
+import de.onesty.confluence.transport.StubTransport.StubResponse;
+import de.onesty.confluence.transport.TransportRequest;
+import de.onesty.confluence.transport.TransportResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class HedgingTransportTest {
+
+  private static final TransportRequest GET_CONTENT = new TransportRequest.Builder()
+      .setMethod("GET")
+      .setRelativePath("rest/api/content")
+      .setPathTemplate("rest/api/content")
+      .build();
+
+  @Test
+  public void hedgedResponseThatArrivesFirstWinsAndLoserIsClosed() throws Exception {
+    PendingTransport pending = new PendingTransport();
+    HedgingTransport transport = new HedgingTransport(pending, policy(1, 1));
+    warmUp(transport, pending);
+
+    CompletableFuture<TransportResponse> response = transport.sendAsync(GET_CONTENT);
+    awaitAttempts(pending, 3);
+    StubResponse hedge = StubTransport.json(200, "{}");
+    StubResponse first = StubTransport.json(200, "{}");
+    pending.attempts.get(2).complete(hedge);
+    pending.attempts.get(1).complete(first);
+
+    assertSame(hedge, response.get(5, TimeUnit.SECONDS));
+    assertFalse(hedge.isClosed());
+    assertTrue(first.isClosed());
+  }
+
+  @Test
+  public void hedgesOnlyWithinBudget() throws Exception {
+    PendingTransport pending = new PendingTransport();
+    HedgingTransport transport = new HedgingTransport(pending, policy(0, 1));
+    warmUp(transport, pending);
+
+    transport.sendAsync(GET_CONTENT);
+    awaitAttempts(pending, 3);
+    // The reserve of one hedge is spent, and requests do not earn new ones
+    transport.sendAsync(GET_CONTENT);
+    TimeUnit.MILLISECONDS.sleep(100);
+    assertEquals(4, pending.attempts.size());
+  }
+
+  @Test
+  public void failureOfOneAttemptWaitsForTheOther() throws Exception {
+    PendingTransport pending = new PendingTransport();
+    HedgingTransport transport = new HedgingTransport(pending, policy(1, 1));
+    warmUp(transport, pending);
+
+    CompletableFuture<TransportResponse> response = transport.sendAsync(GET_CONTENT);
+    awaitAttempts(pending, 3);
+    pending.attempts.get(1).completeExceptionally(new javax.ws.rs.ProcessingException("Reset"));
+    assertFalse(response.isDone());
+
+    StubResponse hedge = StubTransport.json(200, "{}");
+    pending.attempts.get(2).complete(hedge);
+    assertSame(hedge, response.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void doesNotHedgeOtherMethodsOrEndpoints() throws Exception {
+    PendingTransport pending = new PendingTransport();
+    HedgingTransport transport = new HedgingTransport(pending, policy(1, 10));
+    warmUp(transport, pending);
+
+    transport.sendAsync(new TransportRequest.Builder()
+        .setMethod("POST")
+        .setRelativePath("rest/api/content")
+        .setPathTemplate("rest/api/content")
+        .build());
+    transport.sendAsync(new TransportRequest.Builder()
+        .setMethod("GET")
+        .setRelativePath("download/attachments/1/file.bin")
+        .setPathTemplate("download/attachments/{id}/{name}")
+        .build());
+    TimeUnit.MILLISECONDS.sleep(100);
+    assertEquals(3, pending.attempts.size());
+  }
+
+  @Test
+  public void budgetIsEarnedByRequestsUpToReserve() {
+    HedgingPolicy policy = policy(0.5, 1);
+    assertTrue(policy.tryAcquireHedge());
+    assertFalse(policy.tryAcquireHedge());
+
+    policy.onRequest();
+    assertFalse(policy.tryAcquireHedge());
+    policy.onRequest();
+    assertTrue(policy.tryAcquireHedge());
+
+    for (int i = 0; i < 10; i++) {
+      policy.onRequest();
+    }
+    assertTrue(policy.tryAcquireHedge());
+    assertFalse(policy.tryAcquireHedge());
+  }
+
+  @Test
+  public void hedgesOnlyAllowListedEndpoints() {
+    HedgingPolicy policy = new HedgingPolicy.Builder().build();
+    assertTrue(policy.isHedged("rest/api/content"));
+    assertTrue(policy.isHedged("rest/api/content/{id}/child/attachment"));
+    assertFalse(policy.isHedged("download/attachments/{id}/{name}"));
+
+    policy = new HedgingPolicy.Builder().setHedgedEndpoints("rest/api/search").build();
+    assertTrue(policy.isHedged("rest/api/search"));
+    assertFalse(policy.isHedged("rest/api/content"));
+  }
+
+  private static HedgingPolicy policy(double budgetRatio, int budgetReserve) {
+    return new HedgingPolicy.Builder()
+        .setMinSamples(1)
+        .setWindowSize(10)
+        .setMinDelay(Duration.ofMillis(1))
+        .setHedgeBudget(budgetRatio, budgetReserve)
+        .build();
+  }
+
+  /**
+   * This method records a first latency, so that the following requests of the endpoint are
+   * hedged.
+   */
+  private static void warmUp(HedgingTransport transport, PendingTransport pending)
+      throws Exception {
+    CompletableFuture<TransportResponse> response = transport.sendAsync(GET_CONTENT);
+    pending.attempts.get(0).complete(StubTransport.json(200, "{}"));
+    response.get(5, TimeUnit.SECONDS);
+  }
+
+  private static void awaitAttempts(PendingTransport pending, int count) throws Exception {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (pending.attempts.size() < count && System.nanoTime() < deadline) {
+      TimeUnit.MILLISECONDS.sleep(1);
+    }
+    assertEquals(count, pending.attempts.size());
+  }
+
+  /**
+   * This class is a transport whose responses are completed by the test.
+   */
+  private static final class PendingTransport implements ConfluenceTransport {
+
+    private final List<CompletableFuture<TransportResponse>> attempts = new CopyOnWriteArrayList<>();
+
+    @Override
+    public TransportResponse send(TransportRequest request) {
+      return sendAsync(request).join();
+    }
+
+    @Override
+    public CompletableFuture<TransportResponse> sendAsync(TransportRequest request) {
+      CompletableFuture<TransportResponse> attempt = new CompletableFuture<>();
+      attempts.add(attempt);
+      return attempt;
+    }
+  }
+}
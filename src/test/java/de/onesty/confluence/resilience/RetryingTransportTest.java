@@ -0,0 +1,143 @@
+package de.onesty.confluence.resilience;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import de.onesty.confluence.transport.StubTransport;
+import de.onesty.confluence.transport.StubTransport.StubResponse;
+import de.onesty.confluence.transport.TransportRequest;
+import de.onesty.confluence.transport.TransportResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import javax.ws.rs.ProcessingException;
+import org.junit.Test;
+
+public class RetryingTransportTest {
+
+  private static final TransportRequest GET = new TransportRequest.Builder()
+      .setMethod("GET")
+      .setRelativePath("rest/api/content")
+      .build();
+
+  @Test
+  public void retriesRetryableStatusAndClosesRetriedResponses() throws Exception {
+    List<StubResponse> responses = new ArrayList<>();
+    StubTransport stub = new StubTransport(answers(responses,
+        request -> StubTransport.json(503, null),
+        request -> StubTransport.json(503, null),
+        request -> StubTransport.json(200, "{}")));
+
+    TransportResponse response = await(retrying(stub).sendAsync(GET));
+
+    assertEquals(200, response.getStatus());
+    assertEquals(3, stub.getRequests().size());
+    assertTrue(responses.get(0).isClosed());
+    assertTrue(responses.get(1).isClosed());
+    assertFalse(responses.get(2).isClosed());
+  }
+
+  @Test
+  public void returnsLastResponseWhenAttemptsAreExhausted() throws Exception {
+    StubTransport stub = new StubTransport(request -> StubTransport.json(503, null));
+
+    TransportResponse response = await(retrying(stub).sendAsync(GET));
+
+    assertEquals(503, response.getStatus());
+    assertEquals(3, stub.getRequests().size());
+  }
+
+  @Test
+  public void retriesProcessingException() throws Exception {
+    StubTransport stub = new StubTransport(answers(new ArrayList<>(),
+        request -> {
+          throw new ProcessingException("Connection reset");
+        },
+        request -> StubTransport.json(200, "{}")));
+
+    assertEquals(200, retrying(stub).send(GET).getStatus());
+    assertEquals(2, stub.getRequests().size());
+  }
+
+  @Test
+  public void doesNotRetryRequestThatIsNotRetryable() throws Exception {
+    StubTransport stub = new StubTransport(request -> StubTransport.json(503, null));
+    TransportRequest post = new TransportRequest.Builder()
+        .setMethod("POST")
+        .setRelativePath("rest/api/content")
+        .setRetryable(false)
+        .build();
+
+    assertEquals(503, await(retrying(stub).sendAsync(post)).getStatus());
+    assertEquals(1, stub.getRequests().size());
+  }
+
+  @Test
+  public void completesFutureWhenExchangeThrows() throws Exception {
+    StubTransport stub = new StubTransport(request -> {
+      throw new IllegalStateException("Broken transport");
+    });
+
+    CompletableFuture<TransportResponse> response = retrying(stub).sendAsync(GET);
+
+    assertFailsWith(IllegalStateException.class, response);
+    assertEquals(1, stub.getRequests().size());
+  }
+
+  @Test
+  public void completesFutureWhenRetryThrows() throws Exception {
+    StubTransport stub = new StubTransport(answers(new ArrayList<>(),
+        request -> StubTransport.json(503, null),
+        request -> {
+          throw new IllegalStateException("Broken transport");
+        }));
+
+    CompletableFuture<TransportResponse> response = retrying(stub).sendAsync(GET);
+
+    assertFailsWith(IllegalStateException.class, response);
+    assertEquals(2, stub.getRequests().size());
+  }
+
+  private static RetryingTransport retrying(StubTransport stub) {
+    RetryPolicy policy = new RetryPolicy.Builder()
+        .setMaxAttempts(3)
+        .setBaseDelay(Duration.ofMillis(1))
+        .setMaxDelay(Duration.ofMillis(10))
+        .build();
+    return new RetryingTransport(stub, policy);
+  }
+
+  @SafeVarargs
+  private static Function<TransportRequest, TransportResponse> answers(List<StubResponse> responses,
+      Function<TransportRequest, StubResponse>... attempts) {
+    AtomicInteger attempt = new AtomicInteger();
+    return request -> {
+      StubResponse response = attempts[attempt.getAndIncrement()].apply(request);
+      responses.add(response);
+      return response;
+    };
+  }
+
+  private static TransportResponse await(CompletableFuture<TransportResponse> response)
+      throws InterruptedException, ExecutionException, TimeoutException {
+    return response.get(5, TimeUnit.SECONDS);
+  }
+
+  private static void assertFailsWith(Class<? extends Throwable> type,
+      CompletableFuture<TransportResponse> response) throws Exception {
+    try {
+      await(response);
+      fail("The request did not fail");
+    } catch (ExecutionException e) {
+      assertEquals(type, e.getCause().getClass());
+    }
+  }
+}
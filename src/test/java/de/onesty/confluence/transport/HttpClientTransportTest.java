@@ -0,0 +1,96 @@
+package de.onesty.confluence.transport;
+
+import static org.junit.Assert.assertEquals;
+
+import com.sun.net.httpserver.HttpServer;
+import de.onesty.confluence.ConfluenceClient;
+import de.onesty.confluence.requests.DownloadAttachmentRequest;
+import de.onesty.confluence.streaming.AttachmentDownload;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class HttpClientTransportTest {
+
+  private static final byte[] FILE = "Hello, world".getBytes(StandardCharsets.UTF_8);
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private final AtomicReference<String> range = new AtomicReference<>();
+
+  private HttpServer server;
+  private URI wikiRoot;
+
+  @Before
+  public void startServer() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    String root = "http://localhost:" + server.getAddress().getPort();
+    server.createContext("/wiki/download/attachments/1/hello.txt", exchange -> {
+      exchange.getResponseHeaders().set("Location", root + "/media/file/1?token=signed");
+      exchange.sendResponseHeaders(302, -1);
+      exchange.close();
+    });
+    server.createContext("/media/file/1", exchange -> {
+      String requestedRange = exchange.getRequestHeaders().getFirst("Range");
+      range.set(requestedRange);
+      int offset = requestedRange != null
+          ? Integer.parseInt(requestedRange.substring(6, requestedRange.length() - 1))
+          : 0;
+      if (offset > 0) {
+        exchange.getResponseHeaders().set("Content-Range",
+            "bytes " + offset + "-" + (FILE.length - 1) + "/" + FILE.length);
+      }
+      exchange.sendResponseHeaders(offset > 0 ? 206 : 200, FILE.length - offset);
+      exchange.getResponseBody().write(FILE, offset, FILE.length - offset);
+      exchange.close();
+    });
+    server.start();
+    wikiRoot = URI.create(root + "/wiki");
+  }
+
+  @After
+  public void stopServer() {
+    server.stop(0);
+  }
+
+  @Test
+  public void followsRedirectOfAttachmentDownload() throws Exception {
+    ConfluenceClient client = new ConfluenceClient(new HttpClientTransport(wikiRoot), null);
+    Path target = folder.getRoot().toPath().resolve("hello.txt");
+
+    AttachmentDownload download = client.downloadAttachment(request(), target);
+
+    assertEquals(FILE.length, download.getLength());
+    assertEquals(new String(FILE, StandardCharsets.UTF_8),
+        new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void keepsRangeOfResumedDownloadAcrossRedirect() throws Exception {
+    ConfluenceClient client = new ConfluenceClient(new HttpClientTransport(wikiRoot), null);
+    Path target = folder.getRoot().toPath().resolve("hello.txt");
+    Files.write(target.resolveSibling("hello.txt.part"), "Hello".getBytes(StandardCharsets.UTF_8));
+
+    AttachmentDownload download = client.downloadAttachment(request(), target);
+
+    assertEquals("bytes=5-", range.get());
+    assertEquals(5, download.getResumedFrom());
+    assertEquals(new String(FILE, StandardCharsets.UTF_8),
+        new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+  }
+
+  private static DownloadAttachmentRequest request() {
+    return new DownloadAttachmentRequest.Builder()
+        .setDownloadLink("/download/attachments/1/hello.txt")
+        .build();
+  }
+}
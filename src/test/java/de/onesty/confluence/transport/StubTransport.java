@@ -0,0 +1,150 @@
+package de.onesty.confluence.transport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * This class is a {@link ConfluenceTransport} that answers requests with a function instead of
+ * sending them to a server, and records every request it receives.
+ */
+public class StubTransport implements ConfluenceTransport {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private final Function<TransportRequest, TransportResponse> handler;
+  private final List<TransportRequest> requests = new CopyOnWriteArrayList<>();
+
+  /**
+   * This constructor creates a transport that answers every request with the response returned by
+   * the given function. An exception thrown by the function is thrown by {@link #send} and {@link
+   * #sendAsync} alike.
+   *
+   * @param handler The function that answers the requests.
+   */
+  public StubTransport(Function<TransportRequest, TransportResponse> handler) {
+    this.handler = handler;
+  }
+
+  @Override
+  public TransportResponse send(TransportRequest request) {
+    requests.add(request);
+    return handler.apply(request);
+  }
+
+  @Override
+  public CompletableFuture<TransportResponse> sendAsync(TransportRequest request) {
+    requests.add(request);
+    return CompletableFuture.completedFuture(handler.apply(request));
+  }
+
+  /**
+   * This method returns the requests received so far, in the order they were sent.
+   *
+   * @return The received requests.
+   */
+  public List<TransportRequest> getRequests() {
+    return requests;
+  }
+
+  /**
+   * This method creates a response with the given status and JSON entity.
+   *
+   * @param status The HTTP status code.
+   * @param json The entity, or {@code null} for a response without entity.
+   * @return The response.
+   */
+  public static StubResponse json(int status, String json) {
+    return new StubResponse(status, json);
+  }
+
+  /**
+   * This class is a {@link TransportResponse} with a fixed status, headers and entity.
+   */
+  public static class StubResponse implements TransportResponse {
+
+    private final int status;
+    private final String entity;
+    private final Map<String, String> headers = new HashMap<>();
+    private volatile boolean closed;
+
+    StubResponse(int status, String entity) {
+      this.status = status;
+      this.entity = entity;
+    }
+
+    /**
+     * This method adds a header to the response.
+     *
+     * @param name The case-insensitive name of the header.
+     * @param value The value of the header.
+     * @return This instance, for the purposes of method chaining.
+     */
+    public StubResponse setHeader(String name, String value) {
+      headers.put(name.toLowerCase(), value);
+      return this;
+    }
+
+    /**
+     * This method returns whether the response was closed.
+     *
+     * @return {@code true} if {@link #close()} was called.
+     */
+    public boolean isClosed() {
+      return closed;
+    }
+
+    @Override
+    public int getStatus() {
+      return status;
+    }
+
+    @Override
+    public String getReasonPhrase() {
+      return "";
+    }
+
+    @Override
+    public MediaType getMediaType() {
+      return entity != null ? MediaType.APPLICATION_JSON_TYPE : null;
+    }
+
+    @Override
+    public String getHeader(String name) {
+      return headers.get(name.toLowerCase());
+    }
+
+    @Override
+    public <T> T readEntity(Class<T> type) {
+      try {
+        return OBJECT_MAPPER.readValue(entity, type);
+      } catch (IOException e) {
+        throw new ProcessingException(e);
+      } finally {
+        close();
+      }
+    }
+
+    @Override
+    public InputStream getEntityStream() {
+      return new ByteArrayInputStream(entity != null
+          ? entity.getBytes(StandardCharsets.UTF_8)
+          : new byte[0]);
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}